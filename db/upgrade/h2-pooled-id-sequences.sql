@@ -0,0 +1,21 @@
+-- Manual upgrade script, not run by the application. Apply it once, with the
+-- application stopped, to a database whose schema predates pooled sequences
+-- (Hibernate would otherwise fail to find the *_seq sequences). Fresh databases
+-- do not need it: ddl-auto creates the sequences.
+--
+-- Move users, credentials and authentication_sessions from IDENTITY columns to
+-- pooled sequences (allocationSize 50), so Hibernate knows IDs before insert
+-- and can batch the INSERT statements.
+--
+-- Every sequence restarts 50 above the current maximum ID: the pooled optimizer
+-- hands out (value - 49 .. value) for each value it fetches. The ID columns keep
+-- their identity default, which is never used once IDs are assigned explicitly.
+
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE users_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM users);
+
+CREATE SEQUENCE IF NOT EXISTS credentials_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE credentials_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM credentials);
+
+CREATE SEQUENCE IF NOT EXISTS authentication_sessions_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE authentication_sessions_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM authentication_sessions);
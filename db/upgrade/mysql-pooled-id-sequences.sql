@@ -0,0 +1,24 @@
+-- Manual upgrade script, not run by the application. Apply it once, with the
+-- application stopped, to a database whose schema predates pooled sequences
+-- (Hibernate would otherwise fail to find the *_seq tables). Fresh databases
+-- do not need it: ddl-auto creates the sequences.
+--
+-- Move users, credentials and authentication_sessions from AUTO_INCREMENT to
+-- pooled sequences (allocationSize 50), so Hibernate knows IDs before insert
+-- and can batch the INSERT statements.
+--
+-- MySQL has no sequences. Hibernate emulates each one with a single-row table
+-- holding next_val, which it reads with SELECT ... FOR UPDATE and advances by
+-- 50 in its own transaction. Every table starts 50 above the current maximum
+-- ID: the pooled optimizer hands out (value - 49 .. value) for each value it
+-- fetches. The ID columns keep AUTO_INCREMENT, which is never used once IDs are
+-- assigned explicitly.
+
+CREATE TABLE IF NOT EXISTS users_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO users_seq (next_val) SELECT COALESCE(MAX(id), 0) + 50 FROM users;
+
+CREATE TABLE IF NOT EXISTS credentials_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO credentials_seq (next_val) SELECT COALESCE(MAX(id), 0) + 50 FROM credentials;
+
+CREATE TABLE IF NOT EXISTS authentication_sessions_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO authentication_sessions_seq (next_val) SELECT COALESCE(MAX(id), 0) + 50 FROM authentication_sessions;
@@ -0,0 +1,122 @@
+package com.pqc.fido2.audit;
+
+/**
+ * One step of a registration or login ceremony, as recorded in the audit
+ * journal. Fields that do not apply to a step (e.g. the credential ID of a
+ * ceremony that has not picked one yet) are null or zero.
+ */
+public final class AuditEvent {
+
+    public enum Type {
+        REGISTRATION_BEGIN,
+        REGISTRATION_COMPLETE,
+        AUTHENTICATION_BEGIN,
+        AUTHENTICATION_COMPLETE
+    }
+
+    /**
+     * Why a ceremony step failed
+     */
+    public enum Failure {
+        USER_UNKNOWN,
+        SESSION_INVALID,
+        CREDENTIAL_UNKNOWN,
+        CREDENTIAL_EXISTS,
+        MALFORMED,
+        SIGNATURE_INVALID,
+        COUNTER_REGRESSION,
+        VERIFICATION_REJECTED,
+        CLONE_SUSPECTED
+    }
+
+    private final long timestampMillis;
+    private final Type type;
+    private final Failure failure;
+    private final String tenantId;
+    private final String sessionId;
+    private final String username;
+    private final String credentialId;
+    private final String cryptoType;
+    private final int layers;
+    private final long latencyNanos;
+
+    public AuditEvent(long timestampMillis, Type type, Failure failure, String tenantId, String sessionId,
+                      String username, String credentialId, String cryptoType, int layers, long latencyNanos) {
+        if (type == null) {
+            throw new IllegalArgumentException("Audit event type is required");
+        }
+        this.timestampMillis = timestampMillis;
+        this.type = type;
+        this.failure = failure;
+        this.tenantId = tenantId;
+        this.sessionId = sessionId;
+        this.username = username;
+        this.credentialId = credentialId;
+        this.cryptoType = cryptoType;
+        this.layers = layers;
+        this.latencyNanos = latencyNanos;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public boolean isSuccess() {
+        return failure == null;
+    }
+
+    /**
+     * Reason the step failed, or null if it succeeded
+     */
+    public Failure getFailure() {
+        return failure;
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    /**
+     * Username, recorded on the begin steps only
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    public String getCredentialId() {
+        return credentialId;
+    }
+
+    /**
+     * Requested crypto type on the begin steps, the credential's on the complete steps
+     */
+    public String getCryptoType() {
+        return cryptoType;
+    }
+
+    /**
+     * Post-quantum layers presented, 0 for classical-only ceremonies
+     */
+    public int getLayers() {
+        return layers;
+    }
+
+    public long getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "AuditEvent{" + type + (failure != null ? " " + failure : " OK") + ", tenant=" + tenantId
+            + ", session=" + sessionId + ", credential=" + credentialId + ", cryptoType=" + cryptoType
+            + ", layers=" + layers + ", latencyNanos=" + latencyNanos + "}";
+    }
+}
@@ -0,0 +1,123 @@
+package com.pqc.fido2.audit;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32C;
+
+/**
+ * Layout of an audit journal segment. All numbers are big-endian.
+ *
+ * <pre>
+ * header   int magic 'PQAJ', int version, long segment sequence
+ * record*  int payload bytes, int CRC32C of the payload, payload
+ * </pre>
+ *
+ * A payload is: long timestamp (epoch millis), byte event type, byte failure
+ * (0 for success, otherwise the failure ordinal + 1), tenant ID, session ID,
+ * username, credential ID and crypto type as strings, int layers, long
+ * latency in nanoseconds. Strings are a short byte length (-1 for null)
+ * followed by UTF-8.
+ *
+ * Segments are named audit-&lt;sequence&gt;.log while written and are
+ * gzip-compressed whole to audit-&lt;sequence&gt;.log.gz once rotated. Only
+ * the tail of the last segment can be torn by a crash; a record that is
+ * short or fails its checksum ends the segment.
+ */
+final class AuditFormat {
+
+    static final int MAGIC = 0x5051414A;
+    static final int VERSION = 1;
+
+    static final int HEADER_BYTES = 16;
+    static final int RECORD_HEADER_BYTES = 8;
+    // Longest string kept in full; longer values are cut, the journal is not a data store
+    static final int MAX_STRING_BYTES = 1024;
+
+    static final String LOG_SUFFIX = ".log";
+    static final String COMPRESSED_SUFFIX = ".log.gz";
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("audit-(\\d{16})\\.log(\\.gz)?");
+
+    private AuditFormat() {
+    }
+
+    static String segmentName(long sequence, boolean compressed) {
+        return String.format("audit-%016d%s", sequence, compressed ? COMPRESSED_SUFFIX : LOG_SUFFIX);
+    }
+
+    /**
+     * Sequence of a segment file, or -1 if the name is not a segment's
+     */
+    static long sequenceOf(Path file) {
+        Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) : -1;
+    }
+
+    static boolean isCompressed(Path file) {
+        return file.getFileName().toString().endsWith(COMPRESSED_SUFFIX);
+    }
+
+    static ByteBuffer header(long sequence) {
+        return ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION).putLong(sequence).flip();
+    }
+
+    /**
+     * Append one framed record; the buffer must have room for {@link #maxRecordBytes()}
+     */
+    static void putRecord(ByteBuffer buffer, AuditEvent event, CRC32C crc) {
+        int start = buffer.position();
+        buffer.position(start + RECORD_HEADER_BYTES);
+        int payloadStart = buffer.position();
+        buffer.putLong(event.getTimestampMillis())
+            .put((byte) event.getType().ordinal())
+            .put((byte) (event.getFailure() != null ? event.getFailure().ordinal() + 1 : 0));
+        putString(buffer, event.getTenantId());
+        putString(buffer, event.getSessionId());
+        putString(buffer, event.getUsername());
+        putString(buffer, event.getCredentialId());
+        putString(buffer, event.getCryptoType());
+        buffer.putInt(event.getLayers()).putLong(event.getLatencyNanos());
+        int payloadBytes = buffer.position() - payloadStart;
+
+        crc.reset();
+        crc.update(buffer.duplicate().position(payloadStart).limit(payloadStart + payloadBytes));
+        buffer.putInt(start, payloadBytes).putInt(start + Integer.BYTES, (int) crc.getValue());
+    }
+
+    static int maxRecordBytes() {
+        return RECORD_HEADER_BYTES + Long.BYTES + 2 + 5 * (Short.BYTES + MAX_STRING_BYTES)
+            + Integer.BYTES + Long.BYTES;
+    }
+
+    static AuditEvent getRecord(ByteBuffer payload) {
+        long timestamp = payload.getLong();
+        AuditEvent.Type type = AuditEvent.Type.values()[payload.get()];
+        int failure = payload.get();
+        return new AuditEvent(timestamp, type, failure == 0 ? null : AuditEvent.Failure.values()[failure - 1],
+            getString(payload), getString(payload), getString(payload), getString(payload), getString(payload),
+            payload.getInt(), payload.getLong());
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(utf8.length, MAX_STRING_BYTES);
+        buffer.putShort((short) length).put(utf8, 0, length);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] utf8 = new byte[length];
+        buffer.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,401 @@
+package com.pqc.fido2.audit;
+
+import com.pqc.fido2.config.CryptoConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Append-only journal of registration and login ceremonies, enabled by
+ * setting pqc.fido2.audit.directory.
+ *
+ * {@link #publish} only offers the event to a bounded lock-free queue, so a
+ * ceremony never waits for the disk; when the queue is full the event is
+ * dropped and counted. A single writer thread drains the queue into a
+ * buffer, appends it to the current segment and forces it to disk once per
+ * group: everything that arrived while the previous fsync ran is committed
+ * by the next one, and under steady load fsyncs happen at most once per
+ * commit interval. Full segments are rotated and compressed in the
+ * background; {@link AuditJournalReader} replays them.
+ */
+@Component
+@ConditionalOnProperty(prefix = "pqc.fido2.audit", name = "directory")
+public class AuditJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditJournal.class);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long FAILURE_RETRY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Path directory;
+    private final int queueCapacity;
+    private final long segmentBytes;
+    private final long commitIntervalNanos;
+    private final boolean compress;
+
+    private final Queue<AuditEvent> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    // Events accepted by publish, and events written and forced to disk, both in publish order
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong committed = new AtomicLong();
+
+    private final Thread writer;
+    private final ExecutorService compressor;
+    private final ByteBuffer buffer;
+    private final CRC32C crc = new CRC32C();
+    private volatile boolean writerIdle;
+    private volatile boolean running = true;
+
+    // Writer thread only
+    private FileChannel channel;
+    private volatile Path segment;
+    private long sequence;
+    private long uncommitted;
+    private long lastCommit;
+    private boolean failed;
+    private long failedAt;
+
+    private final Counter writtenCounter;
+    private final Counter droppedCounter;
+    private final Timer commitTimer;
+
+    @Autowired
+    public AuditJournal(@Value("${pqc.fido2.audit.directory}") String directory,
+                        @Value("${pqc.fido2.audit.queue-capacity:65536}") int queueCapacity,
+                        @Value("${pqc.fido2.audit.segment-bytes:67108864}") long segmentBytes,
+                        @Value("${pqc.fido2.audit.commit-interval-ms:10}") long commitIntervalMs,
+                        @Value("${pqc.fido2.audit.compress:true}") boolean compress,
+                        MeterRegistry meterRegistry) throws IOException {
+        this(Path.of(directory), queueCapacity, segmentBytes, commitIntervalMs, compress, meterRegistry);
+    }
+
+    public AuditJournal(Path directory, int queueCapacity, long segmentBytes, long commitIntervalMs,
+                        boolean compress) throws IOException {
+        this(directory, queueCapacity, segmentBytes, commitIntervalMs, compress, new SimpleMeterRegistry());
+    }
+
+    private AuditJournal(Path directory, int queueCapacity, long segmentBytes, long commitIntervalMs,
+                         boolean compress, MeterRegistry meterRegistry) throws IOException {
+        if (queueCapacity <= 0 || segmentBytes <= 0 || commitIntervalMs < 0) {
+            throw new IllegalArgumentException("Audit queue capacity and segment size must be positive");
+        }
+        this.directory = directory;
+        this.queueCapacity = queueCapacity;
+        this.segmentBytes = segmentBytes;
+        this.commitIntervalNanos = TimeUnit.MILLISECONDS.toNanos(commitIntervalMs);
+        this.compress = compress;
+        this.buffer = ByteBuffer.allocateDirect(Math.max(256 * 1024, 4 * AuditFormat.maxRecordBytes()));
+
+        this.writtenCounter = Counter.builder("pqc.audit.events")
+            .description("Ceremony events written to the audit journal, or dropped because its queue was full")
+            .tag("result", "written")
+            .register(meterRegistry);
+        this.droppedCounter = Counter.builder("pqc.audit.events")
+            .description("Ceremony events written to the audit journal, or dropped because its queue was full")
+            .tag("result", "dropped")
+            .register(meterRegistry);
+        this.commitTimer = Timer.builder("pqc.audit.commit")
+            .description("Time to force one group of audit events to disk")
+            .register(meterRegistry);
+        Gauge.builder("pqc.audit.queue", queued, AtomicInteger::get)
+            .description("Audit events waiting for the writer")
+            .register(meterRegistry);
+
+        Files.createDirectories(directory);
+        this.compressor = Executors.newSingleThreadExecutor(CryptoConfig.namedThreadFactory("audit-compress-"));
+        // Segments left by a previous run are never appended to; start a new one after them
+        List<Path> existing = AuditJournalReader.segments(directory);
+        this.sequence = existing.isEmpty() ? 0 : AuditFormat.sequenceOf(existing.get(existing.size() - 1));
+        deleteTemporaryFiles();
+        for (Path previous : existing) {
+            if (!AuditFormat.isCompressed(previous)) {
+                scheduleCompression(previous);
+            }
+        }
+        openNextSegment();
+
+        this.writer = CryptoConfig.namedThreadFactory("audit-writer-").newThread(this::writeLoop);
+        this.writer.start();
+        log.info("[AUDIT] - Journal in {}, segment {}", directory, segment.getFileName());
+    }
+
+    /**
+     * Queue an event for the writer without blocking
+     *
+     * @return false if the queue was full or the journal is closed and the event was dropped
+     */
+    public boolean publish(AuditEvent event) {
+        if (!running) {
+            droppedCounter.increment();
+            return false;
+        }
+        if (queued.incrementAndGet() > queueCapacity) {
+            queued.decrementAndGet();
+            droppedCounter.increment();
+            return false;
+        }
+        queue.offer(event);
+        published.incrementAndGet();
+        if (writerIdle) {
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    /**
+     * Wait until every event published before this call is on disk
+     *
+     * @return false if that did not happen within the timeout
+     */
+    public boolean awaitCommitted(long timeout, TimeUnit unit) {
+        long target = published.get();
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (committed.get() < target) {
+            if (System.nanoTime() - deadline >= 0 || !writer.isAlive()) {
+                return false;
+            }
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(200));
+        }
+        return true;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Segment currently being written
+     */
+    public Path getCurrentSegment() {
+        return segment;
+    }
+
+    public long getCommittedCount() {
+        return committed.get();
+    }
+
+    public long getDroppedCount() {
+        return (long) droppedCounter.count();
+    }
+
+    /**
+     * Stop accepting events, write and force whatever is queued, then
+     * compress the last segment
+     */
+    @PreDestroy
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+            compressor.shutdown();
+            compressor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("[AUDIT] - Journal closed after {} events, {} dropped",
+            committed.get(), (long) droppedCounter.count());
+    }
+
+    private void writeLoop() {
+        lastCommit = System.nanoTime();
+        while (true) {
+            boolean stopping = !running;
+            int drained = drain();
+            if (drained > 0) {
+                writeBuffer();
+            }
+            // Group commit: force once the queue has run dry or the interval is up
+            if (uncommitted > 0 && (queue.isEmpty() || System.nanoTime() - lastCommit >= commitIntervalNanos)) {
+                commit();
+            }
+            if (uncommitted == 0 && (segmentFull() || retryAfterFailure())) {
+                rotate();
+            }
+            if (stopping && queue.isEmpty() && uncommitted == 0) {
+                break;
+            }
+            if (drained == 0) {
+                writerIdle = true;
+                if (queue.isEmpty() && running) {
+                    LockSupport.parkNanos(Math.max(commitIntervalNanos, IDLE_PARK_NANOS));
+                }
+                writerIdle = false;
+            }
+        }
+        closeSegment(true);
+    }
+
+    /**
+     * Move queued events into the buffer until it is full or the queue is empty
+     */
+    private int drain() {
+        int drained = 0;
+        AuditEvent event;
+        while (buffer.remaining() >= AuditFormat.maxRecordBytes() && (event = queue.poll()) != null) {
+            queued.decrementAndGet();
+            AuditFormat.putRecord(buffer, event, crc);
+            drained++;
+        }
+        uncommitted += drained;
+        return drained;
+    }
+
+    private void writeBuffer() {
+        buffer.flip();
+        try {
+            if (!failed) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+        } catch (IOException e) {
+            fail("write to " + segment, e);
+        }
+        buffer.clear();
+    }
+
+    private void commit() {
+        long start = System.nanoTime();
+        try {
+            if (!failed) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            fail("fsync " + segment, e);
+        }
+        lastCommit = System.nanoTime();
+        commitTimer.record(lastCommit - start, TimeUnit.NANOSECONDS);
+        if (!failed) {
+            writtenCounter.increment(uncommitted);
+        } else {
+            droppedCounter.increment(uncommitted);
+        }
+        committed.addAndGet(uncommitted);
+        uncommitted = 0;
+    }
+
+    private boolean segmentFull() {
+        try {
+            return !failed && channel.position() >= segmentBytes;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private boolean retryAfterFailure() {
+        return failed && System.nanoTime() - failedAt >= FAILURE_RETRY_NANOS;
+    }
+
+    private void rotate() {
+        closeSegment(true);
+        try {
+            openNextSegment();
+        } catch (IOException e) {
+            fail("open segment " + (sequence + 1) + " in " + directory, e);
+        }
+    }
+
+    private void openNextSegment() throws IOException {
+        sequence++;
+        segment = directory.resolve(AuditFormat.segmentName(sequence, false));
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        ByteBuffer header = AuditFormat.header(sequence);
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        channel.force(true);
+        failed = false;
+    }
+
+    private void closeSegment(boolean compressAfter) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("[AUDIT] - Failed to close {}: {}", segment, e.getMessage());
+        }
+        if (compressAfter) {
+            scheduleCompression(segment);
+        }
+    }
+
+    private void scheduleCompression(Path file) {
+        if (!compress) {
+            return;
+        }
+        compressor.execute(() -> {
+            Path target = file.resolveSibling(file.getFileName().toString().replace(
+                AuditFormat.LOG_SUFFIX, AuditFormat.COMPRESSED_SUFFIX));
+            Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+            try {
+                try (InputStream in = Files.newInputStream(file);
+                     OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp), 65536)) {
+                    in.transferTo(out);
+                }
+                try (FileChannel written = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    written.force(true);
+                }
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                Files.delete(file);
+            } catch (IOException e) {
+                log.warn("[AUDIT] - Failed to compress {}, keeping it uncompressed: {}", file, e.getMessage());
+            }
+        });
+    }
+
+    private void deleteTemporaryFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (file.getFileName().toString().endsWith(AuditFormat.COMPRESSED_SUFFIX + ".tmp")) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * A failing disk must not take logins down; drop events until a new
+     * segment can be opened, retried once a second
+     */
+    private void fail(String operation, IOException e) {
+        if (!failed) {
+            log.error("[AUDIT] - Failed to {}, dropping events: {}", operation, e.getMessage(), e);
+        }
+        failed = true;
+        failedAt = System.nanoTime();
+    }
+}
@@ -0,0 +1,162 @@
+package com.pqc.fido2.audit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Replays an audit journal directory (see {@link AuditFormat}) in the order
+ * the events were written, reading compressed and uncompressed segments
+ * alike. Safe to run while the journal is being written; the open segment is
+ * read up to its last complete record.
+ */
+public final class AuditJournalReader {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditJournalReader.class);
+
+    private AuditJournalReader() {
+    }
+
+    /**
+     * Pass every event in the directory to the consumer, oldest first
+     *
+     * @return the number of events replayed
+     */
+    public static long replay(Path directory, Consumer<AuditEvent> consumer) throws IOException {
+        long events = 0;
+        for (Path segment : segments(directory)) {
+            events += replaySegment(segment, consumer);
+        }
+        return events;
+    }
+
+    public static List<AuditEvent> readAll(Path directory) throws IOException {
+        List<AuditEvent> events = new ArrayList<>();
+        replay(directory, events::add);
+        return events;
+    }
+
+    /**
+     * Segment files in sequence order. While a rotated segment is being
+     * compressed both forms exist; the uncompressed one is complete, so it wins.
+     */
+    static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        Map<Long, Path> bySequence = new TreeMap<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> AuditFormat.sequenceOf(file) >= 0)
+                .sorted(Comparator.comparing(AuditFormat::isCompressed).reversed())
+                .forEach(file -> bySequence.put(AuditFormat.sequenceOf(file), file));
+        }
+        return new ArrayList<>(bySequence.values());
+    }
+
+    private static long replaySegment(Path listed, Consumer<AuditEvent> consumer) throws IOException {
+        Path segment = listed;
+        InputStream file;
+        try {
+            file = Files.newInputStream(listed);
+        } catch (NoSuchFileException e) {
+            if (AuditFormat.isCompressed(listed)) {
+                throw e;
+            }
+            // Compressed and removed since the directory was listed
+            segment = listed.resolveSibling(AuditFormat.segmentName(AuditFormat.sequenceOf(listed), true));
+            file = Files.newInputStream(segment);
+        }
+        InputStream raw = file;
+        if (AuditFormat.isCompressed(segment)) {
+            try {
+                raw = new GZIPInputStream(file);
+            } catch (IOException e) {
+                file.close();
+                throw e;
+            }
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(raw, 65536))) {
+            if (!readHeader(in, segment)) {
+                return 0;
+            }
+            CRC32C crc = new CRC32C();
+            int maxPayload = AuditFormat.maxRecordBytes() - AuditFormat.RECORD_HEADER_BYTES;
+            byte[] payload = new byte[maxPayload];
+            long events = 0;
+            while (true) {
+                int length;
+                int checksum;
+                try {
+                    length = in.readInt();
+                    checksum = in.readInt();
+                } catch (EOFException e) {
+                    return events;
+                }
+                // A zero length is the unwritten tail of a segment cut short by a crash
+                if (length <= 0 || length > maxPayload) {
+                    return endOfSegment(segment, events, length == 0 ? null : "invalid record length " + length);
+                }
+                try {
+                    in.readFully(payload, 0, length);
+                } catch (EOFException e) {
+                    return endOfSegment(segment, events, "torn record");
+                }
+                crc.reset();
+                crc.update(payload, 0, length);
+                if ((int) crc.getValue() != checksum) {
+                    return endOfSegment(segment, events, "checksum mismatch");
+                }
+                AuditEvent event;
+                try {
+                    event = AuditFormat.getRecord(ByteBuffer.wrap(payload, 0, length));
+                } catch (RuntimeException e) {
+                    return endOfSegment(segment, events, "undecodable record");
+                }
+                consumer.accept(event);
+                events++;
+            }
+        }
+    }
+
+    private static boolean readHeader(DataInputStream in, Path segment) throws IOException {
+        try {
+            if (in.readInt() != AuditFormat.MAGIC) {
+                throw new IOException(segment + " is not an audit journal segment");
+            }
+            int version = in.readInt();
+            if (version != AuditFormat.VERSION) {
+                throw new IOException(segment + " has unsupported audit journal version " + version);
+            }
+            in.readLong();
+            return true;
+        } catch (EOFException e) {
+            // Created but not yet written to
+            return false;
+        }
+    }
+
+    private static long endOfSegment(Path segment, long events, String reason) {
+        if (reason != null) {
+            log.warn("[AUDIT] - {} ends after {} events: {}", segment, events, reason);
+        }
+        return events;
+    }
+}
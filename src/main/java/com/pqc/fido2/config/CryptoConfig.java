@@ -0,0 +1,69 @@
+package com.pqc.fido2.config;
+
+import com.pqc.fido2.crypto.keccak.XofEngine;
+import com.pqc.fido2.crypto.keccak.XofEngines;
+import com.pqc.fido2.crypto.mldsa.PolynomialArithmetic;
+import com.pqc.fido2.crypto.mldsa.PolynomialArithmetics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class CryptoConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(CryptoConfig.class);
+
+    /**
+     * Executor used to run the classical and post-quantum halves of a hybrid
+     * verification side by side. Kept separate from the request threads so a
+     * verifying request never waits behind its own sub-tasks. Shared by all
+     * tenants, so it is sized apart from their bulkheads: by default two
+     * threads per scheduler worker, since each worker verifying a hybrid
+     * signature parks until both of its halves are done.
+     */
+    @Bean(name = "hybridVerificationExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService hybridVerificationExecutor(
+            @Value("${pqc.fido2.hybrid-verification-threads:0}") int threads,
+            @Value("${pqc.fido2.scheduler.threads:0}") int schedulerThreads) {
+        int workers = schedulerThreads > 0 ? schedulerThreads : Runtime.getRuntime().availableProcessors();
+        int poolSize = threads > 0 ? threads : workers * 2;
+        return Executors.newFixedThreadPool(poolSize, namedThreadFactory("hybrid-verify-"));
+    }
+
+    /**
+     * ML-DSA polynomial arithmetic, on the Vector API when the JVM has it
+     */
+    @Bean
+    public PolynomialArithmetic polynomialArithmetic(
+            @Value("${pqc.fido2.polynomial-arithmetic:auto}") String backend) {
+        PolynomialArithmetic arithmetic = PolynomialArithmetics.of(backend);
+        log.info("[CRYPTO] - ML-DSA polynomial arithmetic: {}", arithmetic.name());
+        return arithmetic;
+    }
+
+    /**
+     * SHAKE for the in-house ML-DSA verifier
+     */
+    @Bean
+    public XofEngine xofEngine(@Value("${pqc.fido2.xof-engine:auto}") String engine) {
+        XofEngine xofEngine = XofEngines.of(engine);
+        log.info("[CRYPTO] - SHAKE engine: {}", xofEngine.name());
+        return xofEngine;
+    }
+
+    public static ThreadFactory namedThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,30 @@
+package com.pqc.fido2.config;
+
+import com.pqc.fido2.dto.PublicKeyCredentialDescriptor;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+/**
+ * Runtime hints for AOT-processed and native-image builds (-Pcds, -Pnative).
+ *
+ * Signatures use the BouncyCastle lightweight API directly and classical keys
+ * go through the JDK providers, so there is no BC JCA provider to register.
+ * What AOT cannot infer on its own is listed here.
+ */
+@Configuration
+@ImportRuntimeHints(NativeImageConfig.Fido2RuntimeHints.class)
+@RegisterReflectionForBinding(PublicKeyCredentialDescriptor.class) // serialized through AuthenticationResponse's Object[]
+public class NativeImageConfig {
+
+    static class Fido2RuntimeHints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            // R2DBC schema for the reactive profile, loaded from a custom location
+            hints.resources().registerPattern("schema-r2dbc.sql");
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.pqc.fido2.config;
+
+import com.pqc.fido2.tenant.TenantRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.util.MimeType;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.reactive.CorsConfigurationSource;
+import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import reactor.core.publisher.Flux;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuration for the reactive (WebFlux + R2DBC) variant of the auth API,
+ * enabled with the 'reactive' profile.
+ */
+@Configuration
+@EnableWebFluxSecurity
+@Profile("reactive")
+public class ReactiveConfig implements WebFluxConfigurer {
+
+    /**
+     * CBOR next to the default JSON and Smile codecs, for clients that send
+     * keys and signatures as raw byte strings
+     */
+    @Override
+    public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+        configurer.customCodecs().register(new Jackson2CborDecoder());
+        configurer.customCodecs().register(new SingleValueCborEncoder());
+    }
+
+    /**
+     * Spring's CBOR encoder only encodes values one at a time through
+     * encodeValue; the auth endpoints answer with a single value, so encode
+     * the publisher element by element instead of refusing it as a stream.
+     * Custom writers are consulted before the default JSON one, so CBOR is
+     * offered with a lower quality: a client that accepts anything still
+     * gets JSON, and only an explicit application/cbor selects it.
+     */
+    static class SingleValueCborEncoder extends Jackson2CborEncoder {
+        private static final List<MimeType> MIME_TYPES = List.of(
+            new MimeType(MediaType.APPLICATION_CBOR, Map.of("q", "0.9")));
+
+        @Override
+        public List<MimeType> getEncodableMimeTypes() {
+            return MIME_TYPES;
+        }
+
+        @Override
+        public List<MimeType> getEncodableMimeTypes(ResolvableType elementType) {
+            return MIME_TYPES;
+        }
+
+        @Override
+        public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+                                       ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+            return Flux.from(inputStream)
+                .map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints));
+        }
+    }
+
+    /**
+     * Serve on Reactor Netty even though Tomcat is on the classpath for the MVC stack
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, TenantRegistry tenantRegistry) {
+        http
+            .cors(cors -> cors.configurationSource(reactiveCorsConfigurationSource(tenantRegistry)))
+            .csrf(ServerHttpSecurity.CsrfSpec::disable)
+            .authorizeExchange(exchanges -> exchanges
+                .pathMatchers("/auth/**").permitAll()
+                .pathMatchers("/actuator/health/**").permitAll()
+                .pathMatchers("/favicon.ico", "/error").permitAll()
+                .anyExchange().authenticated()
+            );
+
+        return http.build();
+    }
+
+    /**
+     * Origins of every configured tenant
+     */
+    @Bean
+    public CorsConfigurationSource reactiveCorsConfigurationSource(TenantRegistry tenantRegistry) {
+        CorsConfiguration configuration = new CorsConfiguration();
+        configuration.setAllowedOriginPatterns(tenantRegistry.getAllowedOrigins());
+        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+        configuration.setAllowedHeaders(Arrays.asList("*"));
+        configuration.setAllowCredentials(true);
+
+        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+        source.registerCorsConfiguration("/**", configuration);
+        return source;
+    }
+}
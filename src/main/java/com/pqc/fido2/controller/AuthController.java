@@ -1,30 +1,40 @@
 package com.pqc.fido2.controller;
 
 import com.pqc.fido2.dto.*;
+import com.pqc.fido2.service.CryptoWarmup;
 import com.pqc.fido2.service.Fido2Service;
+import com.pqc.fido2.tenant.Tenant;
+import com.pqc.fido2.tenant.TenantFilter;
+import com.pqc.fido2.tenant.VerificationRejectedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/auth")
-@CrossOrigin(origins = "http://localhost:3000")
 public class AuthController {
     
     @Autowired
     private Fido2Service fido2Service;
 
+    @Autowired
+    private CryptoWarmup cryptoWarmup;
+
     private static final Logger log = LoggerFactory.getLogger("server.controller.AuthController");
 
     @PostMapping("/register/begin")
-    public ResponseEntity<RegistrationResponse> startRegistration(@RequestBody RegistrationRequest request) {
+    public ResponseEntity<RegistrationResponse> startRegistration(@RequestAttribute(TenantFilter.TENANT_ATTRIBUTE) Tenant tenant,
+                                                                  @RequestBody RegistrationRequest request) {
         try {
             log.info("START REGISTRATION - Initiating registration for user: {}", request.getUsername());
-            RegistrationResponse response = fido2Service.initiateRegistration(request);
+            RegistrationResponse response = fido2Service.initiateRegistration(tenant, request);
             log.info("[REGISTRATION CHALLENGE GENERATED] - User: {} , Challenge: {}", request.getUsername(), response.getChallenge());
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -34,16 +44,17 @@ public class AuthController {
     }
 
     @PostMapping("/register/complete")
-    public ResponseEntity<Map<String, String>> finishRegistration(@RequestBody Map<String, String> request) {
+    public ResponseEntity<Map<String, String>> finishRegistration(@RequestAttribute(TenantFilter.TENANT_ATTRIBUTE) Tenant tenant,
+                                                                  @RequestBody RegistrationCompletionRequest request) {
         try {
-            String sessionId = request.get("sessionId");
-            String credentialId = request.get("credentialId");
-            String publicKey = request.get("publicKey");
-            String pqPublicKey = request.get("pqPublicKey");
-            String signature = request.get("signature");
-            String pqSignature = request.get("pqSignature");
-
-            String username = request.getOrDefault("username", "<masked>");
+            String sessionId = request.getSessionId();
+            String credentialId = request.getCredentialId();
+            String publicKey = request.getPublicKey();
+            String pqPublicKey = request.getPqPublicKey();
+            String signature = request.getSignature();
+            String pqSignature = request.getPqSignature();
+
+            String username = request.getUsername() != null ? request.getUsername() : "<masked>";
             log.info("[FINISH REGISTRATION] - Verifying registration for user: {}", username);
             // blank line for spacing like the reference output
             log.info("");
@@ -59,9 +70,14 @@ public class AuthController {
                 log.info("Public Key (RSA): <none>");
             }
 
-            boolean success = fido2Service.completeRegistration(
-                sessionId, credentialId, publicKey, pqPublicKey, signature, pqSignature
-            );
+            // WebAuthn clients send the raw attestation; legacy clients send keys directly
+            String attestationObject = request.getAttestationObject();
+            String clientDataJSON = request.getClientDataJSON();
+            boolean success = attestationObject != null && clientDataJSON != null
+                ? fido2Service.completeWebAuthnRegistration(tenant, sessionId, attestationObject, clientDataJSON, pqPublicKey, pqSignature)
+                : fido2Service.completeRegistration(
+                    tenant, sessionId, credentialId, publicKey, pqPublicKey, signature, pqSignature
+                );
 
             if (success) {
                 log.info("");
@@ -72,9 +88,12 @@ public class AuthController {
                 log.info("[TOKEN ISSUED] - User: {}, Token: {}", username, tokenPreview);
                 return ResponseEntity.ok(Map.of("status", "success", "message", "Registration completed"));
             } else {
-                log.warn("[REGISTRATION FAILED] - User: {}", request.getOrDefault("username", "<masked>"));
+                log.warn("[REGISTRATION FAILED] - User: {}", username);
                 return ResponseEntity.badRequest().body(Map.of("status", "error", "message", "Registration failed"));
             }
+        } catch (VerificationRejectedException e) {
+            log.warn("[REGISTRATION BUSY] - {}", e.getMessage());
+            return busy();
         } catch (Exception e) {
             log.error("[REGISTRATION ERROR] - {}", e.getMessage(), e);
             return ResponseEntity.badRequest().body(Map.of("status", "error", "message", e.getMessage()));
@@ -82,10 +101,11 @@ public class AuthController {
     }
 
     @PostMapping("/login/begin")
-    public ResponseEntity<AuthenticationResponse> startAuthentication(@RequestBody AuthenticationRequest request) {
+    public ResponseEntity<AuthenticationResponse> startAuthentication(@RequestAttribute(TenantFilter.TENANT_ATTRIBUTE) Tenant tenant,
+                                                                      @RequestBody AuthenticationRequest request) {
         try {
             log.info("[START AUTHENTICATION] - User: {}", request.getUsername());
-            AuthenticationResponse response = fido2Service.initiateAuthentication(request);
+            AuthenticationResponse response = fido2Service.initiateAuthentication(tenant, request);
             log.info("[AUTH CHALLENGE GENERATED] - User: {}, Challenge: {}", request.getUsername(), response.getChallenge());
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -95,16 +115,22 @@ public class AuthController {
     }
 
     @PostMapping("/login/complete")
-    public ResponseEntity<Map<String, String>> finishAuthentication(@RequestBody Map<String, String> request) {
+    public ResponseEntity<Map<String, String>> finishAuthentication(@RequestAttribute(TenantFilter.TENANT_ATTRIBUTE) Tenant tenant,
+                                                                    @RequestBody AuthenticationCompletionRequest request) {
         try {
-            String sessionId = request.get("sessionId");
-            String credentialId = request.get("credentialId");
-            String signature = request.get("signature");
-            String pqSignature = request.get("pqSignature");
+            String sessionId = request.getSessionId();
+            String credentialId = request.getCredentialId();
+            String signature = request.getSignature();
+            String pqSignature = request.getPqSignature();
 
-            boolean success = fido2Service.completeAuthentication(
-                sessionId, credentialId, signature, pqSignature
-            );
+            String authenticatorData = request.getAuthenticatorData();
+            String clientDataJSON = request.getClientDataJSON();
+            boolean success = authenticatorData != null && clientDataJSON != null
+                ? fido2Service.completeWebAuthnAuthentication(
+                    tenant, sessionId, credentialId, authenticatorData, clientDataJSON, signature, pqSignature)
+                : fido2Service.completeAuthentication(
+                    tenant, sessionId, credentialId, signature, pqSignature
+                );
 
             if (success) {
                 log.info("[AUTHENTICATION SUCCESS] - Credential: {}", credentialId);
@@ -113,6 +139,9 @@ public class AuthController {
                 log.warn("[AUTHENTICATION FAILED] - Credential: {}", credentialId);
                 return ResponseEntity.badRequest().body(Map.of("status", "error", "message", "Authentication failed"));
             }
+        } catch (VerificationRejectedException e) {
+            log.warn("[AUTHENTICATION BUSY] - {}", e.getMessage());
+            return busy();
         } catch (Exception e) {
             log.error("[AUTHENTICATION ERROR] - {}", e.getMessage(), e);
             return ResponseEntity.badRequest().body(Map.of("status", "error", "message", e.getMessage()));
@@ -121,6 +150,18 @@ public class AuthController {
 
     @GetMapping("/health")
     public ResponseEntity<Map<String, String>> health() {
+        if (!cryptoWarmup.isComplete()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Map.of("status", "warming-up", "service", "Post-Quantum FIDO2"));
+        }
         return ResponseEntity.ok(Map.of("status", "healthy", "service", "Post-Quantum FIDO2"));
     }
+
+    /**
+     * The verification was shed, not failed; the client may retry the same request
+     */
+    private ResponseEntity<Map<String, String>> busy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .body(Map.of("status", "error", "message", "Verification capacity exceeded, retry later"));
+    }
 }
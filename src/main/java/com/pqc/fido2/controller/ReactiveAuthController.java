@@ -0,0 +1,134 @@
+package com.pqc.fido2.controller;
+
+import com.pqc.fido2.dto.*;
+import com.pqc.fido2.service.CryptoWarmup;
+import com.pqc.fido2.service.ReactiveFido2Service;
+import com.pqc.fido2.tenant.Tenant;
+import com.pqc.fido2.tenant.TenantFilter;
+import com.pqc.fido2.tenant.VerificationRejectedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * WebFlux variant of {@link AuthController} with the same /auth contract,
+ * enabled with the 'reactive' profile.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/auth")
+public class ReactiveAuthController {
+
+    @Autowired
+    private ReactiveFido2Service fido2Service;
+
+    @Autowired
+    private CryptoWarmup cryptoWarmup;
+
+    private static final Logger log = LoggerFactory.getLogger("server.controller.ReactiveAuthController");
+
+    @PostMapping("/register/begin")
+    public Mono<ResponseEntity<RegistrationResponse>> startRegistration(@RequestAttribute(TenantFilter.TENANT_ATTRIBUTE) Tenant tenant,
+                                                                        @RequestBody RegistrationRequest request) {
+        return fido2Service.initiateRegistration(tenant, request)
+            .map(ResponseEntity::ok)
+            .onErrorResume(e -> {
+                log.error("[REGISTRATION ERROR] - {}", e.getMessage());
+                return Mono.just(ResponseEntity.badRequest().build());
+            });
+    }
+
+    @PostMapping("/register/complete")
+    public Mono<ResponseEntity<Map<String, String>>> finishRegistration(@RequestAttribute(TenantFilter.TENANT_ATTRIBUTE) Tenant tenant,
+                                                                        @RequestBody RegistrationCompletionRequest request) {
+        String sessionId = request.getSessionId();
+        String pqPublicKey = request.getPqPublicKey();
+        String pqSignature = request.getPqSignature();
+        String attestationObject = request.getAttestationObject();
+        String clientDataJSON = request.getClientDataJSON();
+
+        Mono<Boolean> result = attestationObject != null && clientDataJSON != null
+            ? fido2Service.completeWebAuthnRegistration(
+                tenant, sessionId, attestationObject, clientDataJSON, pqPublicKey, pqSignature)
+            : fido2Service.completeRegistration(tenant, sessionId, request.getCredentialId(),
+                request.getPublicKey(), pqPublicKey, request.getSignature(), pqSignature);
+
+        String username = request.getUsername() != null ? request.getUsername() : "<masked>";
+        return result
+            .map(success -> {
+                if (success) {
+                    log.info("[REGISTRATION SUCCESS] - User: {}", username);
+                    return ResponseEntity.ok(Map.of("status", "success", "message", "Registration completed"));
+                }
+                log.warn("[REGISTRATION FAILED] - User: {}", username);
+                return ResponseEntity.badRequest().body(Map.of("status", "error", "message", "Registration failed"));
+            })
+            .onErrorResume(e -> error("[REGISTRATION ERROR]", e));
+    }
+
+    @PostMapping("/login/begin")
+    public Mono<ResponseEntity<AuthenticationResponse>> startAuthentication(@RequestAttribute(TenantFilter.TENANT_ATTRIBUTE) Tenant tenant,
+                                                                            @RequestBody AuthenticationRequest request) {
+        return fido2Service.initiateAuthentication(tenant, request)
+            .map(ResponseEntity::ok)
+            .onErrorResume(e -> {
+                log.error("[AUTHENTICATION ERROR] - {}", e.getMessage());
+                return Mono.just(ResponseEntity.badRequest().build());
+            });
+    }
+
+    @PostMapping("/login/complete")
+    public Mono<ResponseEntity<Map<String, String>>> finishAuthentication(@RequestAttribute(TenantFilter.TENANT_ATTRIBUTE) Tenant tenant,
+                                                                          @RequestBody AuthenticationCompletionRequest request) {
+        String sessionId = request.getSessionId();
+        String credentialId = request.getCredentialId();
+        String signature = request.getSignature();
+        String pqSignature = request.getPqSignature();
+        String authenticatorData = request.getAuthenticatorData();
+        String clientDataJSON = request.getClientDataJSON();
+
+        Mono<Boolean> result = authenticatorData != null && clientDataJSON != null
+            ? fido2Service.completeWebAuthnAuthentication(
+                tenant, sessionId, credentialId, authenticatorData, clientDataJSON, signature, pqSignature)
+            : fido2Service.completeAuthentication(tenant, sessionId, credentialId, signature, pqSignature);
+
+        return result
+            .map(success -> {
+                if (success) {
+                    log.info("[AUTHENTICATION SUCCESS] - Credential: {}", credentialId);
+                    return ResponseEntity.ok(Map.of("status", "success", "message", "Authentication successful"));
+                }
+                log.warn("[AUTHENTICATION FAILED] - Credential: {}", credentialId);
+                return ResponseEntity.badRequest().body(Map.of("status", "error", "message", "Authentication failed"));
+            })
+            .onErrorResume(e -> error("[AUTHENTICATION ERROR]", e));
+    }
+
+    @GetMapping("/health")
+    public Mono<ResponseEntity<Map<String, String>>> health() {
+        if (!cryptoWarmup.isComplete()) {
+            return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Map.of("status", "warming-up", "service", "Post-Quantum FIDO2")));
+        }
+        return Mono.just(ResponseEntity.ok(Map.of("status", "healthy", "service", "Post-Quantum FIDO2")));
+    }
+
+    private Mono<ResponseEntity<Map<String, String>>> error(String tag, Throwable e) {
+        if (e instanceof VerificationRejectedException) {
+            // Shed, not failed; the client may retry the same request
+            log.warn("{} - {}", tag, e.getMessage());
+            return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Map.of("status", "error", "message", "Verification capacity exceeded, retry later")));
+        }
+        log.error("{} - {}", tag, e.getMessage());
+        String message = e.getMessage() != null ? e.getMessage() : "Request failed";
+        return Mono.just(ResponseEntity.badRequest().body(Map.of("status", "error", "message", message)));
+    }
+}
@@ -0,0 +1,96 @@
+package com.pqc.fido2.crypto;
+
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.edec.EdECObjectIdentifiers;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
+import org.bouncycastle.asn1.x9.X9ObjectIdentifiers;
+import org.springframework.stereotype.Service;
+
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.X509EncodedKeySpec;
+
+/**
+ * Classical (pre-quantum) signature operations used by the hybrid scheme.
+ * Supports the COSE algorithms WebAuthn authenticators actually produce:
+ * ES256 (ECDSA P-256 / SHA-256, DER encoded), EdDSA (Ed25519) and RS256.
+ */
+@Service
+public class ClassicalSignatureService {
+
+    /**
+     * Decode an X.509 SubjectPublicKeyInfo encoded public key
+     */
+    public PublicKey decodePublicKey(byte[] encoded) {
+        try {
+            SubjectPublicKeyInfo keyInfo = SubjectPublicKeyInfo.getInstance(encoded);
+            ASN1ObjectIdentifier algorithm = keyInfo.getAlgorithm().getAlgorithm();
+
+            String keyAlgorithm;
+            if (X9ObjectIdentifiers.id_ecPublicKey.equals(algorithm)) {
+                keyAlgorithm = "EC";
+            } else if (EdECObjectIdentifiers.id_Ed25519.equals(algorithm)) {
+                keyAlgorithm = "Ed25519";
+            } else if (PKCSObjectIdentifiers.rsaEncryption.equals(algorithm)) {
+                keyAlgorithm = "RSA";
+            } else {
+                throw new IllegalArgumentException("Unsupported classical key algorithm: " + algorithm);
+            }
+
+            return KeyFactory.getInstance(keyAlgorithm).generatePublic(new X509EncodedKeySpec(encoded));
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid classical public key", e);
+        }
+    }
+
+    /**
+     * Sign data with a classical private key
+     */
+    public byte[] sign(byte[] data, PrivateKey privateKey) {
+        try {
+            Signature signer = Signature.getInstance(signatureAlgorithm(privateKey.getAlgorithm()));
+            signer.initSign(privateKey);
+            signer.update(data);
+            return signer.sign();
+        } catch (Exception e) {
+            throw new RuntimeException("Error generating classical signature", e);
+        }
+    }
+
+    /**
+     * Verify a classical signature
+     */
+    public boolean verify(byte[] data, byte[] signature, PublicKey publicKey) {
+        if (signature == null || signature.length == 0) {
+            return false;
+        }
+        try {
+            Signature verifier = Signature.getInstance(signatureAlgorithm(publicKey.getAlgorithm()));
+            verifier.initVerify(publicKey);
+            verifier.update(data);
+            return verifier.verify(signature);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private String signatureAlgorithm(String keyAlgorithm) {
+        switch (keyAlgorithm) {
+            case "EC":
+            case "ECDSA":
+                return "SHA256withECDSA";
+            case "Ed25519":
+            case "EdDSA":
+                return "Ed25519";
+            case "RSA":
+                return "SHA256withRSA";
+            default:
+                throw new IllegalArgumentException("Unsupported classical key algorithm: " + keyAlgorithm);
+        }
+    }
+}
@@ -1,89 +1,127 @@
 package com.pqc.fido2.crypto;
 
+import org.bouncycastle.crypto.AsymmetricCipherKeyPair;
+import org.bouncycastle.crypto.params.ParametersWithRandom;
+import org.bouncycastle.pqc.crypto.crystals.dilithium.DilithiumKeyGenerationParameters;
+import org.bouncycastle.pqc.crypto.crystals.dilithium.DilithiumKeyPairGenerator;
+import org.bouncycastle.pqc.crypto.crystals.dilithium.DilithiumParameters;
+import org.bouncycastle.pqc.crypto.crystals.dilithium.DilithiumPrivateKeyParameters;
+import org.bouncycastle.pqc.crypto.crystals.dilithium.DilithiumPublicKeyParameters;
+import org.bouncycastle.pqc.crypto.crystals.dilithium.DilithiumSigner;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.security.MessageDigest;
+import java.nio.ByteBuffer;
 import java.security.SecureRandom;
-import java.util.Arrays;
 
 /**
  * Service for Dilithium post-quantum cryptographic operations
- * Note: This is a simplified implementation for demonstration purposes.
- * In production, use a proper Dilithium library like BouncyCastle's Dilithium implementation.
+ * Backed by BouncyCastle's CRYSTALS-Dilithium implementation. The parameter set
+ * is selected with {@code pqc.fido2.dilithium-parameters}.
  */
 @Service
 public class DilithiumCryptoService {
-    
+
     private final SecureRandom secureRandom;
-    private final int KEY_SIZE = 256; // Simplified key size
-    private final int SIGNATURE_SIZE = 512; // Simplified signature size
+    private final DilithiumParameters parameters;
+    private final int KEY_SIZE; // Encoded public key size (rho || t1)
+    private final int SIGNATURE_SIZE; // Encoded signature size
+    private final ThreadLocal<byte[]> scratchKey = ThreadLocal.withInitial(() -> new byte[getKeySize()]);
 
     public DilithiumCryptoService() {
+        this("DILITHIUM_3");
+    }
+
+    @Autowired
+    public DilithiumCryptoService(@Value("${pqc.fido2.dilithium-parameters:DILITHIUM_3}") String parameterSet) {
         this.secureRandom = new SecureRandom();
+        switch (parameterSet) {
+            case "DILITHIUM_2":
+                this.parameters = DilithiumParameters.dilithium2;
+                this.KEY_SIZE = 1312;
+                this.SIGNATURE_SIZE = 2420;
+                break;
+            case "DILITHIUM_5":
+                this.parameters = DilithiumParameters.dilithium5;
+                this.KEY_SIZE = 2592;
+                this.SIGNATURE_SIZE = 4627;
+                break;
+            case "DILITHIUM_3":
+                this.parameters = DilithiumParameters.dilithium3;
+                this.KEY_SIZE = 1952;
+                this.SIGNATURE_SIZE = 3309;
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported Dilithium parameter set: " + parameterSet);
+        }
     }
 
     /**
-     * Generate a new Dilithium key pair (simplified implementation)
+     * Generate a new Dilithium key pair
      */
     public DilithiumKeyPair generateKeyPair() {
-        // Generate random key material
-        byte[] publicKeyBytes = new byte[KEY_SIZE];
-        byte[] privateKeyBytes = new byte[KEY_SIZE];
-        
-        secureRandom.nextBytes(publicKeyBytes);
-        secureRandom.nextBytes(privateKeyBytes);
-        
-        // Add some deterministic elements for demonstration
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            digest.update(publicKeyBytes);
-            digest.update("DILITHIUM_PUBLIC".getBytes());
-            publicKeyBytes = digest.digest();
-            
-            digest.reset();
-            digest.update(privateKeyBytes);
-            digest.update("DILITHIUM_PRIVATE".getBytes());
-            privateKeyBytes = digest.digest();
-        } catch (Exception e) {
-            throw new RuntimeException("Error generating key pair", e);
-        }
-        
-        DilithiumPublicKey publicKey = new DilithiumPublicKey(publicKeyBytes);
-        DilithiumPrivateKey privateKey = new DilithiumPrivateKey(privateKeyBytes);
-        
+        DilithiumKeyPairGenerator generator = new DilithiumKeyPairGenerator();
+        generator.init(new DilithiumKeyGenerationParameters(secureRandom, parameters));
+        AsymmetricCipherKeyPair keyPair = generator.generateKeyPair();
+
+        DilithiumPublicKeyParameters publicParams = (DilithiumPublicKeyParameters) keyPair.getPublic();
+        DilithiumPrivateKeyParameters privateParams = (DilithiumPrivateKeyParameters) keyPair.getPrivate();
+
+        DilithiumPublicKey publicKey = new DilithiumPublicKey(publicParams.getEncoded());
+        DilithiumPrivateKey privateKey = new DilithiumPrivateKey(privateParams.getEncoded());
+
         return new DilithiumKeyPair(publicKey, privateKey);
     }
 
     /**
-     * Sign data with a Dilithium private key (simplified implementation)
+     * Sign data with a Dilithium private key
      */
     public DilithiumSignature sign(byte[] data, DilithiumPrivateKey privateKey) {
         try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            digest.update(data);
-            digest.update(privateKey.getKeyBytes());
-            digest.update("DILITHIUM_SIGNATURE".getBytes());
-            
-            byte[] signature = digest.digest();
-            return new DilithiumSignature(signature);
+            DilithiumPrivateKeyParameters privateParams =
+                new DilithiumPrivateKeyParameters(parameters, privateKey.getKeyBytes(), null);
+
+            DilithiumSigner signer = new DilithiumSigner();
+            signer.init(true, new ParametersWithRandom(privateParams, secureRandom));
+            return new DilithiumSignature(signer.generateSignature(data));
         } catch (Exception e) {
             throw new RuntimeException("Error signing data", e);
         }
     }
 
     /**
-     * Verify a Dilithium signature (simplified implementation)
+     * Verify a Dilithium signature
      */
     public boolean verify(byte[] data, DilithiumSignature signature, DilithiumPublicKey publicKey) {
         try {
-            // Recreate the signature using the public key
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            digest.update(data);
-            digest.update(publicKey.getKeyBytes());
-            digest.update("DILITHIUM_SIGNATURE".getBytes());
-            
-            byte[] expectedSignature = digest.digest();
-            return Arrays.equals(signature.getSignatureBytes(), expectedSignature);
+            byte[] keyBytes = publicKey.getKeyBytes();
+            if (keyBytes.length != KEY_SIZE) {
+                return false;
+            }
+
+            DilithiumSigner verifier = new DilithiumSigner();
+            verifier.init(false, new DilithiumPublicKeyParameters(parameters, keyBytes));
+            return verifier.verifySignature(data, signature.getSignatureBytes());
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Verify a Dilithium signature against a public key stored in a buffer,
+     * e.g. off-heap, at the given absolute offset. The key is read into a
+     * per-thread scratch array, since the BouncyCastle key parameters only
+     * take a byte array (and copy out of it).
+     */
+    public boolean verify(byte[] data, DilithiumSignature signature, ByteBuffer keys, int offset) {
+        try {
+            byte[] keyBytes = scratchKey.get();
+            keys.get(offset, keyBytes);
+
+            DilithiumSigner verifier = new DilithiumSigner();
+            verifier.init(false, new DilithiumPublicKeyParameters(parameters, keyBytes));
+            return verifier.verifySignature(data, signature.getSignatureBytes());
         } catch (Exception e) {
             return false;
         }
@@ -102,4 +140,11 @@ public class DilithiumCryptoService {
     public int getSignatureSize() {
         return SIGNATURE_SIZE;
     }
+
+    /**
+     * Get the name of the Dilithium parameter set in use
+     */
+    public String getParameterSetName() {
+        return parameters.getName();
+    }
 }
@@ -1,17 +1,30 @@
 package com.pqc.fido2.crypto;
 
+import java.nio.ByteBuffer;
 import java.security.PublicKey;
 import java.util.Arrays;
 
 /**
- * Dilithium public key implementation
+ * Dilithium public key implementation. Either owns a private copy of its bytes or is a
+ * read-only view of one layer inside a multi-layered value's flat buffer.
  */
 public class DilithiumPublicKey implements PublicKey {
-    private final byte[] keyBytes;
+    private final byte[] bytes;
+    private final int offset;
+    private final int length;
     private final String algorithm = "DILITHIUM";
 
     public DilithiumPublicKey(byte[] keyBytes) {
-        this.keyBytes = Arrays.copyOf(keyBytes, keyBytes.length);
+        this(Arrays.copyOf(keyBytes, keyBytes.length), 0, keyBytes.length);
+    }
+
+    /**
+     * View of bytes[offset, offset + length); the caller keeps the array unchanged
+     */
+    DilithiumPublicKey(byte[] bytes, int offset, int length) {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
     }
 
     @Override
@@ -26,11 +39,30 @@ public class DilithiumPublicKey implements PublicKey {
 
     @Override
     public byte[] getEncoded() {
-        return Arrays.copyOf(keyBytes, keyBytes.length);
+        return Arrays.copyOfRange(bytes, offset, offset + length);
     }
 
     public byte[] getKeyBytes() {
-        return Arrays.copyOf(keyBytes, keyBytes.length);
+        return Arrays.copyOfRange(bytes, offset, offset + length);
+    }
+
+    /**
+     * Read-only view of the bytes without copying them
+     */
+    public ByteBuffer asByteBuffer() {
+        return ByteBuffer.wrap(bytes, offset, length).slice().asReadOnlyBuffer();
+    }
+
+    byte[] array() {
+        return bytes;
+    }
+
+    int offset() {
+        return offset;
+    }
+
+    int length() {
+        return length;
     }
 
     @Override
@@ -38,11 +70,15 @@ public class DilithiumPublicKey implements PublicKey {
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
         DilithiumPublicKey that = (DilithiumPublicKey) obj;
-        return Arrays.equals(keyBytes, that.keyBytes);
+        return Arrays.equals(bytes, offset, offset + length, that.bytes, that.offset, that.offset + that.length);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.hashCode(keyBytes);
+        int result = 1;
+        for (int i = offset; i < offset + length; i++) {
+            result = 31 * result + bytes[i];
+        }
+        return result;
     }
 }
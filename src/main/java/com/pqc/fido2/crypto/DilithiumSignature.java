@@ -1,36 +1,72 @@
 package com.pqc.fido2.crypto;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 /**
- * Represents a Dilithium digital signature
+ * Represents a Dilithium digital signature. Either owns a private copy of its bytes or is a
+ * read-only view of one layer inside a multi-layered value's flat buffer.
  */
 public class DilithiumSignature {
-    private final byte[] signatureBytes;
+    private final byte[] bytes;
+    private final int offset;
+    private final int length;
     private final String algorithm = "DILITHIUM";
 
     public DilithiumSignature(byte[] signatureBytes) {
-        this.signatureBytes = Arrays.copyOf(signatureBytes, signatureBytes.length);
+        this(Arrays.copyOf(signatureBytes, signatureBytes.length), 0, signatureBytes.length);
     }
 
-    public byte[] getSignatureBytes() {
-        return Arrays.copyOf(signatureBytes, signatureBytes.length);
+    /**
+     * View of bytes[offset, offset + length); the caller keeps the array unchanged
+     */
+    DilithiumSignature(byte[] bytes, int offset, int length) {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
     }
 
     public String getAlgorithm() {
         return algorithm;
     }
 
+    public byte[] getSignatureBytes() {
+        return Arrays.copyOfRange(bytes, offset, offset + length);
+    }
+
+    /**
+     * Read-only view of the bytes without copying them
+     */
+    public ByteBuffer asByteBuffer() {
+        return ByteBuffer.wrap(bytes, offset, length).slice().asReadOnlyBuffer();
+    }
+
+    byte[] array() {
+        return bytes;
+    }
+
+    int offset() {
+        return offset;
+    }
+
+    int length() {
+        return length;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
         DilithiumSignature that = (DilithiumSignature) obj;
-        return Arrays.equals(signatureBytes, that.signatureBytes);
+        return Arrays.equals(bytes, offset, offset + length, that.bytes, that.offset, that.offset + that.length);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.hashCode(signatureBytes);
+        int result = 1;
+        for (int i = offset; i < offset + length; i++) {
+            result = 31 * result + bytes[i];
+        }
+        return result;
     }
 }
@@ -0,0 +1,95 @@
+package com.pqc.fido2.crypto;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * The layers of a multi-layered key or signature stored back to back in one
+ * array, with an offset table: layer i is bytes[offsets[i], offsets[i + 1]).
+ * This is also the wire encoding, so a decoded value wraps the received
+ * array as is and encoding hands out a read-only view of it. Immutable once
+ * built; whoever passes an array to {@link #split} must not modify it afterwards.
+ */
+final class LayeredBytes {
+
+    private final byte[] bytes;
+    private final int[] offsets;
+
+    private LayeredBytes(byte[] bytes, int[] offsets) {
+        this.bytes = bytes;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Wrap an encoding of equally sized layers without copying it
+     */
+    static LayeredBytes split(byte[] encoded, int layerSize, String kind) {
+        if (layerSize <= 0 || encoded.length == 0 || encoded.length % layerSize != 0) {
+            throw new IllegalArgumentException("Invalid ML-Dilithium " + kind + " length: " + encoded.length);
+        }
+        int[] offsets = new int[encoded.length / layerSize + 1];
+        for (int i = 1; i < offsets.length; i++) {
+            offsets[i] = offsets[i - 1] + layerSize;
+        }
+        return new LayeredBytes(encoded, offsets);
+    }
+
+    /**
+     * Copy the given layers into one array
+     */
+    static <T> LayeredBytes concat(List<T> layers, Function<T, ByteBuffer> view) {
+        ByteBuffer[] views = new ByteBuffer[layers.size()];
+        int[] offsets = new int[views.length + 1];
+        for (int i = 0; i < views.length; i++) {
+            views[i] = view.apply(layers.get(i));
+            offsets[i + 1] = offsets[i] + views[i].remaining();
+        }
+        byte[] bytes = new byte[offsets[views.length]];
+        for (int i = 0; i < views.length; i++) {
+            views[i].get(views[i].position(), bytes, offsets[i], views[i].remaining());
+        }
+        return new LayeredBytes(bytes, offsets);
+    }
+
+    int layers() {
+        return offsets.length - 1;
+    }
+
+    int offset(int layer) {
+        return offsets[checkLayer(layer)];
+    }
+
+    int length(int layer) {
+        return offsets[checkLayer(layer) + 1] - offsets[layer];
+    }
+
+    int totalLength() {
+        return bytes.length;
+    }
+
+    /**
+     * The backing array; callers in this package only read it
+     */
+    byte[] array() {
+        return bytes;
+    }
+
+    byte[] toByteArray() {
+        return bytes.clone();
+    }
+
+    /**
+     * Read-only view of the whole encoding; absolute indices are array indices
+     */
+    ByteBuffer asReadOnlyBuffer() {
+        return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+    }
+
+    private int checkLayer(int layer) {
+        if (layer < 0 || layer >= offsets.length - 1) {
+            throw new IndexOutOfBoundsException("Layer " + layer + " of " + (offsets.length - 1));
+        }
+        return layer;
+    }
+}
@@ -6,25 +6,28 @@ import java.util.List;
  * Multi-layered Dilithium key pair
  */
 public class MLDilithiumKeyPair {
-    private final List<DilithiumKeyPair> keyPairs;
+    private final MLDilithiumPublicKey publicKey;
+    private final MLDilithiumPrivateKey privateKey;
 
     public MLDilithiumKeyPair(List<DilithiumKeyPair> keyPairs) {
-        this.keyPairs = keyPairs;
+        // Each half is flattened into its own buffer once, not on every access
+        this.publicKey = new MLDilithiumPublicKey(keyPairs.stream()
+            .map(DilithiumKeyPair::getPublicKey)
+            .toList());
+        this.privateKey = new MLDilithiumPrivateKey(keyPairs.stream()
+            .map(DilithiumKeyPair::getPrivateKey)
+            .toList());
     }
 
     public MLDilithiumPublicKey getPublicKey() {
-        return new MLDilithiumPublicKey(keyPairs.stream()
-            .map(DilithiumKeyPair::getPublicKey)
-            .toList());
+        return publicKey;
     }
 
     public MLDilithiumPrivateKey getPrivateKey() {
-        return new MLDilithiumPrivateKey(keyPairs.stream()
-            .map(DilithiumKeyPair::getPrivateKey)
-            .toList());
+        return privateKey;
     }
 
     public int getLayers() {
-        return keyPairs.size();
+        return publicKey.getLayers();
     }
 }
@@ -1,17 +1,39 @@
 package com.pqc.fido2.crypto;
 
+import java.nio.ByteBuffer;
 import java.security.PrivateKey;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
- * Multi-layered Dilithium private key
+ * Multi-layered Dilithium private key. The layers sit back to back in one array, which is also the
+ * encoding, and each layer is a view into it.
  */
 public class MLDilithiumPrivateKey implements PrivateKey {
+    private final LayeredBytes layers;
     private final List<DilithiumPrivateKey> privateKeys;
     private final String algorithm = "ML-DILITHIUM";
 
     public MLDilithiumPrivateKey(List<DilithiumPrivateKey> privateKeys) {
-        this.privateKeys = privateKeys;
+        this(LayeredBytes.concat(privateKeys, DilithiumPrivateKey::asByteBuffer));
+    }
+
+    private MLDilithiumPrivateKey(LayeredBytes layers) {
+        this.layers = layers;
+        List<DilithiumPrivateKey> views = new ArrayList<>(layers.layers());
+        for (int i = 0; i < layers.layers(); i++) {
+            views.add(new DilithiumPrivateKey(layers.array(), layers.offset(i), layers.length(i)));
+        }
+        this.privateKeys = Collections.unmodifiableList(views);
+    }
+
+    /**
+     * Wrap an encoding of equally sized layers without copying it; the
+     * caller hands over the array and must not modify it afterwards
+     */
+    public static MLDilithiumPrivateKey fromEncoded(byte[] encoded, int layerSize) {
+        return new MLDilithiumPrivateKey(LayeredBytes.split(encoded, layerSize, "private key"));
     }
 
     @Override
@@ -26,29 +48,29 @@ public class MLDilithiumPrivateKey implements PrivateKey {
 
     @Override
     public byte[] getEncoded() {
-        // Concatenate all private key bytes
-        int totalLength = privateKeys.stream()
-            .mapToInt(key -> key.getKeyBytes().length)
-            .sum();
-        
-        byte[] result = new byte[totalLength];
-        int offset = 0;
-        
-        for (DilithiumPrivateKey key : privateKeys) {
-            byte[] keyBytes = key.getKeyBytes();
-            System.arraycopy(keyBytes, 0, result, offset, keyBytes.length);
-            offset += keyBytes.length;
-        }
-        
-        return result;
+        return layers.toByteArray();
+    }
+
+    /**
+     * Read-only view of the encoding without copying it
+     */
+    public ByteBuffer asReadOnlyBuffer() {
+        return layers.asReadOnlyBuffer();
     }
 
     public DilithiumPrivateKey getLayerKey(int layer) {
         return privateKeys.get(layer);
     }
 
+    /**
+     * Offset of a layer in {@link #asReadOnlyBuffer()}
+     */
+    public int getLayerOffset(int layer) {
+        return layers.offset(layer);
+    }
+
     public int getLayers() {
-        return privateKeys.size();
+        return layers.layers();
     }
 
     public List<DilithiumPrivateKey> getAllKeys() {
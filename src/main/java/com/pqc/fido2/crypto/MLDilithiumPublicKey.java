@@ -1,17 +1,39 @@
 package com.pqc.fido2.crypto;
 
+import java.nio.ByteBuffer;
 import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
- * Multi-layered Dilithium public key
+ * Multi-layered Dilithium public key. The layers sit back to back in one array, which is also the
+ * encoding, and each layer is a view into it.
  */
 public class MLDilithiumPublicKey implements PublicKey {
+    private final LayeredBytes layers;
     private final List<DilithiumPublicKey> publicKeys;
     private final String algorithm = "ML-DILITHIUM";
 
     public MLDilithiumPublicKey(List<DilithiumPublicKey> publicKeys) {
-        this.publicKeys = publicKeys;
+        this(LayeredBytes.concat(publicKeys, DilithiumPublicKey::asByteBuffer));
+    }
+
+    private MLDilithiumPublicKey(LayeredBytes layers) {
+        this.layers = layers;
+        List<DilithiumPublicKey> views = new ArrayList<>(layers.layers());
+        for (int i = 0; i < layers.layers(); i++) {
+            views.add(new DilithiumPublicKey(layers.array(), layers.offset(i), layers.length(i)));
+        }
+        this.publicKeys = Collections.unmodifiableList(views);
+    }
+
+    /**
+     * Wrap an encoding of equally sized layers without copying it; the
+     * caller hands over the array and must not modify it afterwards
+     */
+    public static MLDilithiumPublicKey fromEncoded(byte[] encoded, int layerSize) {
+        return new MLDilithiumPublicKey(LayeredBytes.split(encoded, layerSize, "public key"));
     }
 
     @Override
@@ -26,29 +48,29 @@ public class MLDilithiumPublicKey implements PublicKey {
 
     @Override
     public byte[] getEncoded() {
-        // Concatenate all public key bytes
-        int totalLength = publicKeys.stream()
-            .mapToInt(key -> key.getKeyBytes().length)
-            .sum();
-        
-        byte[] result = new byte[totalLength];
-        int offset = 0;
-        
-        for (DilithiumPublicKey key : publicKeys) {
-            byte[] keyBytes = key.getKeyBytes();
-            System.arraycopy(keyBytes, 0, result, offset, keyBytes.length);
-            offset += keyBytes.length;
-        }
-        
-        return result;
+        return layers.toByteArray();
+    }
+
+    /**
+     * Read-only view of the encoding without copying it
+     */
+    public ByteBuffer asReadOnlyBuffer() {
+        return layers.asReadOnlyBuffer();
     }
 
     public DilithiumPublicKey getLayerKey(int layer) {
         return publicKeys.get(layer);
     }
 
+    /**
+     * Offset of a layer in {@link #asReadOnlyBuffer()}
+     */
+    public int getLayerOffset(int layer) {
+        return layers.offset(layer);
+    }
+
     public int getLayers() {
-        return publicKeys.size();
+        return layers.layers();
     }
 
     public List<DilithiumPublicKey> getAllKeys() {
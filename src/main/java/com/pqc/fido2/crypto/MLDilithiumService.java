@@ -1,12 +1,21 @@
 package com.pqc.fido2.crypto;
 
+import com.pqc.fido2.crypto.mldsa.ExpandedKeyCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
+import java.nio.ByteBuffer;
 import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * Multi-Layered Dilithium Signature Algorithm (ML-DSA) implementation
@@ -17,7 +26,25 @@ public class MLDilithiumService {
     
     @Autowired
     private DilithiumCryptoService dilithiumService;
+
+    @Autowired
+    private ClassicalSignatureService classicalSignatureService;
+
+    @Autowired
+    @Qualifier("hybridVerificationExecutor")
+    private ExecutorService verificationExecutor;
+
+    @Autowired(required = false)
+    private ExpandedKeyCache expandedKeyCache;
     
+    private static final ThreadLocal<MessageDigest> LAYER_DIGEST = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
     private final SecureRandom secureRandom = new SecureRandom();
     private final int DEFAULT_LAYERS = 3;
 
@@ -68,15 +95,78 @@ public class MLDilithiumService {
         if (signature.getLayers() != publicKey.getLayers()) {
             return false;
         }
-        
+        return verifyLayers(data, signature, (layer, layerData, layerSignature) ->
+            dilithiumService.verify(layerData, layerSignature, publicKey.getLayerKey(layer)));
+    }
+
+    /**
+     * Verify a multi-layered signature against layer keys stored back to back
+     * in a buffer (e.g. off-heap), starting at the given absolute offset
+     */
+    public boolean verifyML(byte[] data, MLDilithiumSignature signature, ByteBuffer keys, int offset, int layers) {
+        if (signature.getLayers() != layers) {
+            return false;
+        }
+        int layerSize = dilithiumService.getKeySize();
+        return verifyLayers(data, signature, (layer, layerData, layerSignature) ->
+            dilithiumService.verify(layerData, layerSignature, keys, offset + layer * layerSize));
+    }
+
+    /**
+     * Verify a multi-layered signature by a known credential, using its
+     * cached expanded layer keys (see {@link ExpandedKeyCache}) when the
+     * cache is enabled
+     */
+    public boolean verifyML(byte[] data, MLDilithiumSignature signature, MLDilithiumPublicKey publicKey,
+                            String credentialId) {
+        if (expandedKeyCache == null || credentialId == null) {
+            return verifyML(data, signature, publicKey);
+        }
+        if (signature.getLayers() != publicKey.getLayers()) {
+            return false;
+        }
+        // Layer keys and signatures are read in place from the flat encodings
+        ByteBuffer keys = publicKey.asReadOnlyBuffer();
+        return verifyLayers(data, signature, (layer, layerData, layerSignature) ->
+            expandedKeyCache.verify(credentialId, layer, keys, publicKey.getLayerOffset(layer), layerData,
+                layerSignature.array(), layerSignature.offset(), layerSignature.length()));
+    }
+
+    /**
+     * {@link #verifyML(byte[], MLDilithiumSignature, MLDilithiumPublicKey, String)}
+     * for layer keys stored back to back in a buffer
+     */
+    public boolean verifyML(byte[] data, MLDilithiumSignature signature, ByteBuffer keys, int offset, int layers,
+                            String credentialId) {
+        if (expandedKeyCache == null || credentialId == null) {
+            return verifyML(data, signature, keys, offset, layers);
+        }
+        if (signature.getLayers() != layers) {
+            return false;
+        }
+        int layerSize = dilithiumService.getKeySize();
+        return verifyLayers(data, signature, (layer, layerData, layerSignature) ->
+            expandedKeyCache.verify(credentialId, layer, keys, offset + layer * layerSize, layerData,
+                layerSignature.array(), layerSignature.offset(), layerSignature.length()));
+    }
+
+    private interface LayerVerifier {
+        boolean verify(int layer, byte[] data, DilithiumSignature signature);
+    }
+
+    private boolean verifyLayers(byte[] data, MLDilithiumSignature signature, LayerVerifier layerVerifier) {
         byte[] currentData = data;
         
         // Verify each layer
         for (int i = 0; i < signature.getLayers(); i++) {
-            DilithiumPublicKey layerKey = publicKey.getLayerKey(i);
+            // Give up early if a concurrent hybrid check already failed
+            if (Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+
             DilithiumSignature layerSignature = signature.getLayerSignature(i);
             
-            if (!dilithiumService.verify(currentData, layerSignature, layerKey)) {
+            if (!layerVerifier.verify(i, currentData, layerSignature)) {
                 return false;
             }
             
@@ -95,61 +185,84 @@ public class MLDilithiumService {
         // Generate post-quantum signature
         MLDilithiumSignature pqSignature = signML(data, pqPrivateKey);
         
-        // Generate classical signature (simplified for demonstration)
-        byte[] classicalSignature = generateClassicalSignature(data, classicalPrivateKey);
+        // Generate classical signature (ES256 / Ed25519 / RS256)
+        byte[] classicalSignature = classicalSignatureService.sign(data, classicalPrivateKey);
         
         return new HybridSignature(pqSignature, classicalSignature);
     }
 
     /**
-     * Verify a hybrid signature
+     * Verify a hybrid signature.
+     * The classical and post-quantum checks run concurrently; the first failure
+     * decides the result and cancels whichever check is still running, so the
+     * latency is max(classical, PQ) rather than the sum.
      */
     public boolean verifyHybridSignature(byte[] data, HybridSignature signature, 
                                        MLDilithiumPublicKey pqPublicKey, 
                                        java.security.PublicKey classicalPublicKey) {
-        // Verify post-quantum signature
-        boolean pqValid = verifyML(data, signature.getPqSignature(), pqPublicKey);
-        
-        // Verify classical signature
-        boolean classicalValid = verifyClassicalSignature(data, signature.getClassicalSignature(), classicalPublicKey);
-        
-        return pqValid && classicalValid;
+        return verifyHybridSignature(data, signature,
+            () -> verifyML(data, signature.getPqSignature(), pqPublicKey), classicalPublicKey);
     }
 
-    private byte[] combineDataAndSignature(byte[] data, DilithiumSignature signature) {
+    /**
+     * Verify a hybrid signature whose post-quantum half is checked by the given
+     * callback, for keys that are not held as {@link MLDilithiumPublicKey}
+     */
+    public boolean verifyHybridSignature(byte[] data, HybridSignature signature,
+                                       Callable<Boolean> postQuantumCheck,
+                                       java.security.PublicKey classicalPublicKey) {
+        ExecutorCompletionService<Boolean> completion = new ExecutorCompletionService<>(verificationExecutor);
+
+        Future<Boolean> pqCheck = completion.submit(postQuantumCheck);
+        Future<Boolean> classicalCheck = completion.submit(() ->
+            classicalSignatureService.verify(data, signature.getClassicalSignature(), classicalPublicKey));
+
         try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            digest.update(data);
-            digest.update(signature.getSignatureBytes());
-            return digest.digest();
-        } catch (Exception e) {
-            throw new RuntimeException("Error combining data and signature", e);
+            for (int i = 0; i < 2; i++) {
+                if (!completion.take().get()) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (ExecutionException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            // No-op for completed checks; interrupts the slower one on fail-fast
+            pqCheck.cancel(true);
+            classicalCheck.cancel(true);
         }
     }
 
-    private byte[] generateClassicalSignature(byte[] data, java.security.PrivateKey privateKey) {
-        // Simplified classical signature generation
-        // In a real implementation, this would use RSA or ECC
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            digest.update(data);
-            digest.update(privateKey.getEncoded());
-            return digest.digest();
-        } catch (Exception e) {
-            throw new RuntimeException("Error generating classical signature", e);
-        }
+    /**
+     * Decode a multi-layered public key from its concatenated encoding. The
+     * key wraps the given array without copying it, so the caller must not
+     * modify it afterwards.
+     */
+    public MLDilithiumPublicKey decodePublicKey(byte[] encoded) {
+        return MLDilithiumPublicKey.fromEncoded(encoded, dilithiumService.getKeySize());
     }
 
-    private boolean verifyClassicalSignature(byte[] data, byte[] signature, java.security.PublicKey publicKey) {
-        // Simplified classical signature verification
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            digest.update(data);
-            digest.update(publicKey.getEncoded());
-            byte[] expectedSignature = digest.digest();
-            return MessageDigest.isEqual(signature, expectedSignature);
-        } catch (Exception e) {
-            return false;
-        }
+    /**
+     * Decode a multi-layered signature from its concatenated encoding,
+     * wrapping the given array like {@link #decodePublicKey(byte[])}
+     */
+    public MLDilithiumSignature decodeSignature(byte[] encoded) {
+        return MLDilithiumSignature.fromEncoded(encoded, dilithiumService.getSignatureSize());
+    }
+
+    /**
+     * SHA-256(data || signature), the input of the next layer. The hash is
+     * part of every stored multi-layer signature, so it stays SHA-256 (which
+     * the JDK runs on the SHA extensions where present); only the provider
+     * lookup per call is avoided.
+     */
+    private byte[] combineDataAndSignature(byte[] data, DilithiumSignature signature) {
+        MessageDigest digest = LAYER_DIGEST.get();
+        digest.update(data);
+        digest.update(signature.array(), signature.offset(), signature.length());
+        return digest.digest();
     }
 }
@@ -1,23 +1,63 @@
 package com.pqc.fido2.crypto;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
- * Multi-layered Dilithium signature
+ * Multi-layered Dilithium signature. The layers sit back to back in one array, which is also the
+ * encoding, and each layer is a view into it.
  */
 public class MLDilithiumSignature {
+    private final LayeredBytes layers;
     private final List<DilithiumSignature> signatures;
 
     public MLDilithiumSignature(List<DilithiumSignature> signatures) {
-        this.signatures = signatures;
+        this(LayeredBytes.concat(signatures, DilithiumSignature::asByteBuffer));
+    }
+
+    private MLDilithiumSignature(LayeredBytes layers) {
+        this.layers = layers;
+        List<DilithiumSignature> views = new ArrayList<>(layers.layers());
+        for (int i = 0; i < layers.layers(); i++) {
+            views.add(new DilithiumSignature(layers.array(), layers.offset(i), layers.length(i)));
+        }
+        this.signatures = Collections.unmodifiableList(views);
+    }
+
+    /**
+     * Wrap an encoding of equally sized layers without copying it; the
+     * caller hands over the array and must not modify it afterwards
+     */
+    public static MLDilithiumSignature fromEncoded(byte[] encoded, int layerSize) {
+        return new MLDilithiumSignature(LayeredBytes.split(encoded, layerSize, "signature"));
+    }
+
+    public byte[] getEncoded() {
+        return layers.toByteArray();
+    }
+
+    /**
+     * Read-only view of the encoding without copying it
+     */
+    public ByteBuffer asReadOnlyBuffer() {
+        return layers.asReadOnlyBuffer();
     }
 
     public DilithiumSignature getLayerSignature(int layer) {
         return signatures.get(layer);
     }
 
+    /**
+     * Offset of a layer in {@link #asReadOnlyBuffer()}
+     */
+    public int getLayerOffset(int layer) {
+        return layers.offset(layer);
+    }
+
     public int getLayers() {
-        return signatures.size();
+        return layers.layers();
     }
 
     public List<DilithiumSignature> getAllSignatures() {
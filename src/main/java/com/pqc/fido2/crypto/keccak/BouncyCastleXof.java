@@ -0,0 +1,41 @@
+package com.pqc.fido2.crypto.keccak;
+
+import org.bouncycastle.crypto.digests.SHAKEDigest;
+
+/**
+ * {@link Xof} over BouncyCastle's SHAKEDigest, the reference the in-house
+ * engine is tested and benchmarked against
+ */
+public final class BouncyCastleXof implements Xof {
+
+    private final SHAKEDigest digest;
+
+    public BouncyCastleXof(int bitLength) {
+        this.digest = new SHAKEDigest(bitLength);
+    }
+
+    @Override
+    public void update(byte in) {
+        digest.update(in);
+    }
+
+    @Override
+    public void update(byte[] in, int offset, int length) {
+        digest.update(in, offset, length);
+    }
+
+    @Override
+    public void squeeze(byte[] out, int offset, int length) {
+        digest.doOutput(out, offset, length);
+    }
+
+    @Override
+    public void reset() {
+        digest.reset();
+    }
+
+    @Override
+    public int rate() {
+        return digest.getByteLength();
+    }
+}
@@ -0,0 +1,149 @@
+package com.pqc.fido2.crypto.keccak;
+
+/**
+ * Keccak-f[1600], unrolled over local variables in the usual way (theta,
+ * rho and pi fused into one pass, then chi and iota). The state may be
+ * strided so the same code can run on one instance of an interleaved
+ * {@link KeccakX4} state.
+ */
+final class Keccak {
+
+    static final int LANES = 25;
+
+    static final long[] ROUND_CONSTANTS = {
+        0x0000000000000001L, 0x0000000000008082L, 0x800000000000808AL, 0x8000000080008000L,
+        0x000000000000808BL, 0x0000000080000001L, 0x8000000080008081L, 0x8000000000008009L,
+        0x000000000000008AL, 0x0000000000000088L, 0x0000000080008009L, 0x000000008000000AL,
+        0x000000008000808BL, 0x800000000000008BL, 0x8000000000008089L, 0x8000000000008003L,
+        0x8000000000008002L, 0x8000000000000080L, 0x000000000000800AL, 0x800000008000000AL,
+        0x8000000080008081L, 0x8000000000008080L, 0x0000000080000001L, 0x8000000080008008L
+    };
+
+    private Keccak() {
+    }
+
+    static void permute(long[] s) {
+        permute(s, 0, 1);
+    }
+
+    /**
+     * Permute the 25 lanes s[offset], s[offset + stride], ..., s[offset + 24 * stride]
+     */
+    static void permute(long[] s, int offset, int stride) {
+        long a0 = s[offset];
+        long a1 = s[offset + stride];
+        long a2 = s[offset + 2 * stride];
+        long a3 = s[offset + 3 * stride];
+        long a4 = s[offset + 4 * stride];
+        long a5 = s[offset + 5 * stride];
+        long a6 = s[offset + 6 * stride];
+        long a7 = s[offset + 7 * stride];
+        long a8 = s[offset + 8 * stride];
+        long a9 = s[offset + 9 * stride];
+        long a10 = s[offset + 10 * stride];
+        long a11 = s[offset + 11 * stride];
+        long a12 = s[offset + 12 * stride];
+        long a13 = s[offset + 13 * stride];
+        long a14 = s[offset + 14 * stride];
+        long a15 = s[offset + 15 * stride];
+        long a16 = s[offset + 16 * stride];
+        long a17 = s[offset + 17 * stride];
+        long a18 = s[offset + 18 * stride];
+        long a19 = s[offset + 19 * stride];
+        long a20 = s[offset + 20 * stride];
+        long a21 = s[offset + 21 * stride];
+        long a22 = s[offset + 22 * stride];
+        long a23 = s[offset + 23 * stride];
+        long a24 = s[offset + 24 * stride];
+
+        for (int round = 0; round < 24; round++) {
+            long c0 = a0 ^ a5 ^ a10 ^ a15 ^ a20;
+            long c1 = a1 ^ a6 ^ a11 ^ a16 ^ a21;
+            long c2 = a2 ^ a7 ^ a12 ^ a17 ^ a22;
+            long c3 = a3 ^ a8 ^ a13 ^ a18 ^ a23;
+            long c4 = a4 ^ a9 ^ a14 ^ a19 ^ a24;
+            long d0 = c4 ^ Long.rotateLeft(c1, 1);
+            long d1 = c0 ^ Long.rotateLeft(c2, 1);
+            long d2 = c1 ^ Long.rotateLeft(c3, 1);
+            long d3 = c2 ^ Long.rotateLeft(c4, 1);
+            long d4 = c3 ^ Long.rotateLeft(c0, 1);
+            long b0 = a0 ^ d0;
+            long b16 = Long.rotateLeft(a5 ^ d0, 36);
+            long b7 = Long.rotateLeft(a10 ^ d0, 3);
+            long b23 = Long.rotateLeft(a15 ^ d0, 41);
+            long b14 = Long.rotateLeft(a20 ^ d0, 18);
+            long b10 = Long.rotateLeft(a1 ^ d1, 1);
+            long b1 = Long.rotateLeft(a6 ^ d1, 44);
+            long b17 = Long.rotateLeft(a11 ^ d1, 10);
+            long b8 = Long.rotateLeft(a16 ^ d1, 45);
+            long b24 = Long.rotateLeft(a21 ^ d1, 2);
+            long b20 = Long.rotateLeft(a2 ^ d2, 62);
+            long b11 = Long.rotateLeft(a7 ^ d2, 6);
+            long b2 = Long.rotateLeft(a12 ^ d2, 43);
+            long b18 = Long.rotateLeft(a17 ^ d2, 15);
+            long b9 = Long.rotateLeft(a22 ^ d2, 61);
+            long b5 = Long.rotateLeft(a3 ^ d3, 28);
+            long b21 = Long.rotateLeft(a8 ^ d3, 55);
+            long b12 = Long.rotateLeft(a13 ^ d3, 25);
+            long b3 = Long.rotateLeft(a18 ^ d3, 21);
+            long b19 = Long.rotateLeft(a23 ^ d3, 56);
+            long b15 = Long.rotateLeft(a4 ^ d4, 27);
+            long b6 = Long.rotateLeft(a9 ^ d4, 20);
+            long b22 = Long.rotateLeft(a14 ^ d4, 39);
+            long b13 = Long.rotateLeft(a19 ^ d4, 8);
+            long b4 = Long.rotateLeft(a24 ^ d4, 14);
+            a0 = b0 ^ (~b1 & b2);
+            a1 = b1 ^ (~b2 & b3);
+            a2 = b2 ^ (~b3 & b4);
+            a3 = b3 ^ (~b4 & b0);
+            a4 = b4 ^ (~b0 & b1);
+            a5 = b5 ^ (~b6 & b7);
+            a6 = b6 ^ (~b7 & b8);
+            a7 = b7 ^ (~b8 & b9);
+            a8 = b8 ^ (~b9 & b5);
+            a9 = b9 ^ (~b5 & b6);
+            a10 = b10 ^ (~b11 & b12);
+            a11 = b11 ^ (~b12 & b13);
+            a12 = b12 ^ (~b13 & b14);
+            a13 = b13 ^ (~b14 & b10);
+            a14 = b14 ^ (~b10 & b11);
+            a15 = b15 ^ (~b16 & b17);
+            a16 = b16 ^ (~b17 & b18);
+            a17 = b17 ^ (~b18 & b19);
+            a18 = b18 ^ (~b19 & b15);
+            a19 = b19 ^ (~b15 & b16);
+            a20 = b20 ^ (~b21 & b22);
+            a21 = b21 ^ (~b22 & b23);
+            a22 = b22 ^ (~b23 & b24);
+            a23 = b23 ^ (~b24 & b20);
+            a24 = b24 ^ (~b20 & b21);
+            a0 ^= ROUND_CONSTANTS[round];
+        }
+
+        s[offset] = a0;
+        s[offset + stride] = a1;
+        s[offset + 2 * stride] = a2;
+        s[offset + 3 * stride] = a3;
+        s[offset + 4 * stride] = a4;
+        s[offset + 5 * stride] = a5;
+        s[offset + 6 * stride] = a6;
+        s[offset + 7 * stride] = a7;
+        s[offset + 8 * stride] = a8;
+        s[offset + 9 * stride] = a9;
+        s[offset + 10 * stride] = a10;
+        s[offset + 11 * stride] = a11;
+        s[offset + 12 * stride] = a12;
+        s[offset + 13 * stride] = a13;
+        s[offset + 14 * stride] = a14;
+        s[offset + 15 * stride] = a15;
+        s[offset + 16 * stride] = a16;
+        s[offset + 17 * stride] = a17;
+        s[offset + 18 * stride] = a18;
+        s[offset + 19 * stride] = a19;
+        s[offset + 20 * stride] = a20;
+        s[offset + 21 * stride] = a21;
+        s[offset + 22 * stride] = a22;
+        s[offset + 23 * stride] = a23;
+        s[offset + 24 * stride] = a24;
+    }
+}
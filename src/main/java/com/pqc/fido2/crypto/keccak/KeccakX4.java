@@ -0,0 +1,123 @@
+package com.pqc.fido2.crypto.keccak;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Four SHAKE instances in one interleaved state: lane l of instance i is at
+ * s[4 * l + i], so a 256-bit vector load picks up one lane of all four.
+ * This class permutes the instances one after another;
+ * {@link VectorKeccakX4} permutes them together.
+ */
+public class KeccakX4 implements Xof4 {
+
+    private static final int WAYS = 4;
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final long[] state = new long[WAYS * Keccak.LANES];
+    private final int rate;
+    private int position;
+    private boolean squeezing;
+
+    /**
+     * Four SHAKE128 instances
+     */
+    public KeccakX4() {
+        this(KeccakXof.SHAKE128_RATE);
+    }
+
+    KeccakX4(int rate) {
+        this.rate = rate;
+    }
+
+    @Override
+    public void update(byte[][] in, int offset, int length) {
+        if (squeezing) {
+            throw new IllegalStateException("Cannot absorb after squeezing; reset first");
+        }
+        while (length > 0) {
+            int n = Math.min(length, rate - position);
+            for (int i = 0; i < WAYS; i++) {
+                byte[] input = in[i];
+                for (int j = 0; j < n; ) {
+                    int at = position + j;
+                    if ((at & 7) == 0 && n - j >= 8) {
+                        state[WAYS * (at >>> 3) + i] ^= (long) LONGS.get(input, offset + j);
+                        j += 8;
+                    } else {
+                        xorByte(i, at, input[offset + j]);
+                        j++;
+                    }
+                }
+            }
+            position += n;
+            offset += n;
+            length -= n;
+            if (position == rate) {
+                permute(state);
+                position = 0;
+            }
+        }
+    }
+
+    @Override
+    public void squeeze(byte[][] out, int offset, int length) {
+        if (!squeezing) {
+            for (int i = 0; i < WAYS; i++) {
+                xorByte(i, position, KeccakXof.SHAKE_PAD);
+                xorByte(i, rate - 1, (byte) 0x80);
+            }
+            permute(state);
+            position = 0;
+            squeezing = true;
+        }
+        while (length > 0) {
+            if (position == rate) {
+                permute(state);
+                position = 0;
+            }
+            int n = Math.min(length, rate - position);
+            for (int i = 0; i < WAYS; i++) {
+                byte[] output = out[i];
+                for (int j = 0; j < n; ) {
+                    int at = position + j;
+                    long lane = state[WAYS * (at >>> 3) + i];
+                    if ((at & 7) == 0 && n - j >= 8) {
+                        LONGS.set(output, offset + j, lane);
+                        j += 8;
+                    } else {
+                        output[offset + j] = (byte) (lane >>> ((at & 7) << 3));
+                        j++;
+                    }
+                }
+            }
+            position += n;
+            offset += n;
+            length -= n;
+        }
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(state, 0);
+        position = 0;
+        squeezing = false;
+    }
+
+    @Override
+    public int rate() {
+        return rate;
+    }
+
+    protected void permute(long[] s) {
+        for (int i = 0; i < WAYS; i++) {
+            Keccak.permute(s, i, WAYS);
+        }
+    }
+
+    private void xorByte(int instance, int at, byte value) {
+        state[WAYS * (at >>> 3) + instance] ^= (value & 0xFFL) << ((at & 7) << 3);
+    }
+}
@@ -0,0 +1,133 @@
+package com.pqc.fido2.crypto.keccak;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * SHAKE128 and SHAKE256 (FIPS 202) on {@link Keccak}. Whole blocks are
+ * absorbed and squeezed eight bytes at a time straight between the byte
+ * arrays and the state, without the intermediate block buffer
+ * BouncyCastle's SHAKEDigest copies through.
+ */
+public final class KeccakXof implements Xof {
+
+    static final int SHAKE128_RATE = 168;
+    static final int SHAKE256_RATE = 136;
+    // SHAKE domain separation bits plus the first bit of pad10*1
+    static final byte SHAKE_PAD = 0x1F;
+
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final long[] state = new long[Keccak.LANES];
+    private final int rate;
+    // Bytes absorbed into, or squeezed from, the current block
+    private int position;
+    private boolean squeezing;
+
+    private KeccakXof(int rate) {
+        this.rate = rate;
+    }
+
+    public static KeccakXof shake128() {
+        return new KeccakXof(SHAKE128_RATE);
+    }
+
+    public static KeccakXof shake256() {
+        return new KeccakXof(SHAKE256_RATE);
+    }
+
+    @Override
+    public void update(byte in) {
+        checkAbsorbing();
+        xorByte(position, in);
+        if (++position == rate) {
+            Keccak.permute(state);
+            position = 0;
+        }
+    }
+
+    @Override
+    public void update(byte[] in, int offset, int length) {
+        checkAbsorbing();
+        while (length > 0) {
+            if (position == 0 && length >= rate) {
+                for (int lane = 0; lane < rate / 8; lane++) {
+                    state[lane] ^= (long) LONGS.get(in, offset + 8 * lane);
+                }
+                Keccak.permute(state);
+                offset += rate;
+                length -= rate;
+                continue;
+            }
+            int n = Math.min(length, rate - position);
+            for (int i = 0; i < n; i++) {
+                xorByte(position + i, in[offset + i]);
+            }
+            position += n;
+            offset += n;
+            length -= n;
+            if (position == rate) {
+                Keccak.permute(state);
+                position = 0;
+            }
+        }
+    }
+
+    @Override
+    public void squeeze(byte[] out, int offset, int length) {
+        if (!squeezing) {
+            xorByte(position, SHAKE_PAD);
+            xorByte(rate - 1, (byte) 0x80);
+            Keccak.permute(state);
+            position = 0;
+            squeezing = true;
+        }
+        while (length > 0) {
+            if (position == rate) {
+                Keccak.permute(state);
+                position = 0;
+            }
+            if (position == 0 && length >= rate) {
+                for (int lane = 0; lane < rate / 8; lane++) {
+                    LONGS.set(out, offset + 8 * lane, state[lane]);
+                }
+                position = rate;
+                offset += rate;
+                length -= rate;
+                continue;
+            }
+            int n = Math.min(length, rate - position);
+            for (int i = 0; i < n; i++) {
+                int at = position + i;
+                out[offset + i] = (byte) (state[at >>> 3] >>> ((at & 7) << 3));
+            }
+            position += n;
+            offset += n;
+            length -= n;
+        }
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(state, 0);
+        position = 0;
+        squeezing = false;
+    }
+
+    @Override
+    public int rate() {
+        return rate;
+    }
+
+    private void xorByte(int at, byte value) {
+        state[at >>> 3] ^= (value & 0xFFL) << ((at & 7) << 3);
+    }
+
+    private void checkAbsorbing() {
+        if (squeezing) {
+            throw new IllegalStateException("Cannot absorb after squeezing; reset first");
+        }
+    }
+}
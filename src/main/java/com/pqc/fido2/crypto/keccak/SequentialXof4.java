@@ -0,0 +1,43 @@
+package com.pqc.fido2.crypto.keccak;
+
+import java.util.function.Supplier;
+
+/**
+ * {@link Xof4} as four separate {@link Xof}s run one after another
+ */
+final class SequentialXof4 implements Xof4 {
+
+    private final Xof[] instances = new Xof[4];
+
+    SequentialXof4(Supplier<Xof> factory) {
+        for (int i = 0; i < instances.length; i++) {
+            instances[i] = factory.get();
+        }
+    }
+
+    @Override
+    public void update(byte[][] in, int offset, int length) {
+        for (int i = 0; i < instances.length; i++) {
+            instances[i].update(in[i], offset, length);
+        }
+    }
+
+    @Override
+    public void squeeze(byte[][] out, int offset, int length) {
+        for (int i = 0; i < instances.length; i++) {
+            instances[i].squeeze(out[i], offset, length);
+        }
+    }
+
+    @Override
+    public void reset() {
+        for (Xof instance : instances) {
+            instance.reset();
+        }
+    }
+
+    @Override
+    public int rate() {
+        return instances[0].rate();
+    }
+}
@@ -0,0 +1,25 @@
+package com.pqc.fido2.crypto.keccak;
+
+/**
+ * An extendable-output function (SHAKE128 or SHAKE256): absorb input, then
+ * squeeze as many bytes as needed. Consecutive squeezes continue one output
+ * stream; {@link #reset} starts a new hash. Instances are not thread-safe.
+ */
+public interface Xof {
+
+    void update(byte in);
+
+    void update(byte[] in, int offset, int length);
+
+    /**
+     * The next length bytes of output; no input may follow until {@link #reset}
+     */
+    void squeeze(byte[] out, int offset, int length);
+
+    void reset();
+
+    /**
+     * Bytes absorbed or squeezed per permutation
+     */
+    int rate();
+}
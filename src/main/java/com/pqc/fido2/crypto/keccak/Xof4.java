@@ -0,0 +1,17 @@
+package com.pqc.fido2.crypto.keccak;
+
+/**
+ * Four independent instances of one XOF, fed inputs of equal length and
+ * squeezed in lockstep, so an implementation can run the four permutations
+ * together. in[i] and out[i] belong to instance i.
+ */
+public interface Xof4 {
+
+    void update(byte[][] in, int offset, int length);
+
+    void squeeze(byte[][] out, int offset, int length);
+
+    void reset();
+
+    int rate();
+}
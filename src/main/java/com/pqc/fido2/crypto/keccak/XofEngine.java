@@ -0,0 +1,18 @@
+package com.pqc.fido2.crypto.keccak;
+
+/**
+ * Source of SHAKE instances for the ML-DSA code; see {@link XofEngines}
+ */
+public interface XofEngine {
+
+    Xof shake128();
+
+    Xof shake256();
+
+    /**
+     * Four SHAKE128 instances for independent inputs of equal length, e.g. four entries of the matrix A
+     */
+    Xof4 shake128x4();
+
+    String name();
+}
@@ -0,0 +1,95 @@
+package com.pqc.fido2.crypto.keccak;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.function.Supplier;
+
+/**
+ * Picks an {@link XofEngine}. The JDK has no SHAKE in Java 17 (only the
+ * fixed-length SHA3 digests, which ML-DSA does not use), so "keccak" is
+ * this package's own Keccak, with the four-way permutation on the Vector
+ * API when the JVM is started with --add-modules jdk.incubator.vector and
+ * the hardware has 256-bit vectors. "bouncycastle" is SHAKEDigest.
+ */
+public final class XofEngines {
+
+    private static final Logger log = LoggerFactory.getLogger(XofEngines.class);
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String VECTOR_CLASS = "com.pqc.fido2.crypto.keccak.VectorKeccakX4";
+
+    private XofEngines() {
+    }
+
+    /**
+     * Engine by name: "keccak", "bouncycastle", or "auto" for the fastest available
+     */
+    public static XofEngine of(String engine) {
+        switch (engine) {
+            case "auto":
+            case "keccak":
+                return keccak(vectorX4());
+            case "bouncycastle":
+                return new Engine("bouncycastle", () -> new BouncyCastleXof(128), () -> new BouncyCastleXof(256),
+                    () -> new SequentialXof4(() -> new BouncyCastleXof(128)));
+            default:
+                throw new IllegalArgumentException("Unsupported XOF engine: " + engine);
+        }
+    }
+
+    /**
+     * Whether the four-way Keccak runs on the Vector API in this JVM
+     */
+    public static boolean isVectorAvailable() {
+        return vectorX4() != null;
+    }
+
+    private static XofEngine keccak(Supplier<Xof4> vectorX4) {
+        return vectorX4 != null
+            ? new Engine("keccak-x4-vector", KeccakXof::shake128, KeccakXof::shake256, vectorX4)
+            : new Engine("keccak", KeccakXof::shake128, KeccakXof::shake256, KeccakX4::new);
+    }
+
+    private static Supplier<Xof4> vectorX4() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            return null;
+        }
+        try {
+            Class<?> type = Class.forName(VECTOR_CLASS);
+            if (!(boolean) type.getDeclaredMethod("isSupported").invoke(null)) {
+                return null;
+            }
+            var constructor = type.getDeclaredConstructor();
+            return () -> {
+                try {
+                    return (Xof4) constructor.newInstance();
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException("Cannot create " + VECTOR_CLASS, e);
+                }
+            };
+        } catch (ReflectiveOperationException | LinkageError e) {
+            log.debug("[CRYPTO] - Vector Keccak unavailable: {}", e.toString());
+            return null;
+        }
+    }
+
+    private record Engine(String name, Supplier<Xof> shake128Factory, Supplier<Xof> shake256Factory,
+                          Supplier<Xof4> shake128x4Factory) implements XofEngine {
+
+        @Override
+        public Xof shake128() {
+            return shake128Factory.get();
+        }
+
+        @Override
+        public Xof shake256() {
+            return shake256Factory.get();
+        }
+
+        @Override
+        public Xof4 shake128x4() {
+            return shake128x4Factory.get();
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.pqc.fido2.crypto.mldsa;
+
+import com.pqc.fido2.crypto.keccak.XofEngine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Expanded ML-DSA public keys per (credential, layer), so that verifying a
+ * returning user's signature skips ExpandA, the t1 NTTs and the key hash.
+ * For ML-DSA-65 that is 30 SHAKE128 streams and 6 NTTs per layer, and about
+ * 39 KB of heap per layer held instead.
+ *
+ * The cache is bounded by pqc.fido2.expanded-key-cache.max-bytes. Once over
+ * it, one thread evicts down to 90% of the budget in a single pass, choosing
+ * victims by pqc.fido2.expanded-key-cache.policy: lru (least recently used)
+ * or lfu (least frequently used, with counts halved after every pass so that
+ * keys that were popular once do not stay forever).
+ *
+ * Each entry keeps the encoded key it was expanded from and is compared with
+ * the presented key on every hit, so a credential whose key changed is simply
+ * a miss; {@link #invalidate} only gives the memory back sooner.
+ */
+@Component
+@ConditionalOnProperty(name = "pqc.fido2.expanded-key-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class ExpandedKeyCache {
+
+    public enum Policy { LRU, LFU }
+
+    // Map node, key record and entry object
+    private static final int ENTRY_OVERHEAD_BYTES = 160;
+    private static final double LOW_WATERMARK = 0.9;
+
+    private final MLDsaVerifier verifier;
+    private final long maxBytes;
+    private final Policy policy;
+
+    private final ConcurrentHashMap<CacheKey, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong estimatedBytes = new AtomicLong();
+    // Logical access time for LRU ordering
+    private final AtomicLong clock = new AtomicLong();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    // Highest layer count seen, so invalidate() knows which keys to try
+    private volatile int maxLayers;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @Autowired
+    public ExpandedKeyCache(@Value("${pqc.fido2.dilithium-parameters:DILITHIUM_3}") String parameterSet,
+                            PolynomialArithmetic arithmetic,
+                            XofEngine xofEngine,
+                            MeterRegistry meterRegistry,
+                            @Value("${pqc.fido2.expanded-key-cache.max-bytes:67108864}") long maxBytes,
+                            @Value("${pqc.fido2.expanded-key-cache.policy:lru}") String policy) {
+        this(new MLDsaVerifier(MLDsaParameters.of(parameterSet), arithmetic, xofEngine), maxBytes, parsePolicy(policy));
+        registerMetrics(meterRegistry);
+    }
+
+    public ExpandedKeyCache(MLDsaVerifier verifier, long maxBytes, Policy policy) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Expanded key cache needs max-bytes > 0");
+        }
+        this.verifier = verifier;
+        this.maxBytes = maxBytes;
+        this.policy = policy;
+    }
+
+    /**
+     * Verify one layer's signature with the credential's cached expansion of
+     * that layer's key, expanding and caching it on a miss. A key of the
+     * wrong size fails verification.
+     */
+    public boolean verify(String credentialId, int layer, byte[] publicKey, byte[] data, byte[] signature) {
+        if (publicKey.length != verifier.getParameters().getPublicKeyBytes()) {
+            return false;
+        }
+        return verifier.verify(get(credentialId, layer, publicKey), data, signature);
+    }
+
+    /**
+     * {@link #verify(String, int, byte[], byte[], byte[])} for a layer key
+     * stored in a buffer (e.g. the off-heap key arena) at the given absolute offset
+     */
+    public boolean verify(String credentialId, int layer, ByteBuffer keys, int offset,
+                          byte[] data, byte[] signature) {
+        return verify(credentialId, layer, keys, offset, data, signature, 0, signature.length);
+    }
+
+    /**
+     * Both the layer key and the layer signature read in place, e.g. from the
+     * flat buffers of a multi-layered key and signature
+     */
+    public boolean verify(String credentialId, int layer, ByteBuffer keys, int offset,
+                          byte[] data, byte[] signature, int signatureOffset, int signatureLength) {
+        return verifier.verify(get(credentialId, layer, keys, offset), data, signature,
+            signatureOffset, signatureLength);
+    }
+
+    public ExpandedPublicKey get(String credentialId, int layer, byte[] publicKey) {
+        CacheKey key = new CacheKey(credentialId, layer);
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expanded.matches(publicKey)) {
+            return hit(entry);
+        }
+        misses.incrementAndGet();
+        return put(key, verifier.expand(publicKey));
+    }
+
+    public ExpandedPublicKey get(String credentialId, int layer, ByteBuffer keys, int offset) {
+        CacheKey key = new CacheKey(credentialId, layer);
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expanded.matches(keys, offset)) {
+            return hit(entry);
+        }
+        misses.incrementAndGet();
+        return put(key, verifier.expand(keys, offset));
+    }
+
+    /**
+     * Drop every layer cached for a credential
+     */
+    public void invalidate(String credentialId) {
+        for (int layer = 0; layer < maxLayers; layer++) {
+            Entry removed = entries.remove(new CacheKey(credentialId, layer));
+            if (removed != null) {
+                estimatedBytes.addAndGet(-removed.bytes);
+            }
+        }
+    }
+
+    public void clear() {
+        evictionLock.lock();
+        try {
+            entries.clear();
+            estimatedBytes.set(0);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long estimatedBytes() {
+        return estimatedBytes.get();
+    }
+
+    public long maxBytes() {
+        return maxBytes;
+    }
+
+    public long hitCount() {
+        return hits.get();
+    }
+
+    public long missCount() {
+        return misses.get();
+    }
+
+    public long evictionCount() {
+        return evictions.get();
+    }
+
+    private ExpandedPublicKey hit(Entry entry) {
+        hits.incrementAndGet();
+        entry.lastAccess = clock.incrementAndGet();
+        // Racy increments may lose counts; LFU only needs the rough order
+        entry.frequency++;
+        return entry.expanded;
+    }
+
+    private ExpandedPublicKey put(CacheKey key, ExpandedPublicKey expanded) {
+        Entry entry = new Entry(expanded, ENTRY_OVERHEAD_BYTES + expanded.getEstimatedBytes(), clock.incrementAndGet());
+        if (entry.bytes > maxBytes) {
+            return expanded;
+        }
+        if (key.layer() >= maxLayers) {
+            maxLayers = key.layer() + 1;
+        }
+
+        Entry previous = entries.put(key, entry);
+        estimatedBytes.addAndGet(entry.bytes - (previous != null ? previous.bytes : 0));
+        if (estimatedBytes.get() > maxBytes) {
+            evict();
+        }
+        return expanded;
+    }
+
+    /**
+     * Remove the lowest-ranked entries until the low watermark is reached.
+     * Threads that find an eviction already running carry on; the budget may
+     * be overshot by what they insert meanwhile.
+     */
+    private void evict() {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            // Rank a snapshot: hits keep updating the live counters while sorting
+            List<Candidate> candidates = new ArrayList<>(entries.size());
+            entries.forEach((key, entry) -> candidates.add(new Candidate(key, entry, entry.frequency, entry.lastAccess)));
+            Comparator<Candidate> byRecency = Comparator.comparingLong(Candidate::lastAccess);
+            candidates.sort(policy == Policy.LFU
+                ? Comparator.comparingInt(Candidate::frequency).thenComparing(byRecency)
+                : byRecency);
+
+            long target = (long) (maxBytes * LOW_WATERMARK);
+            for (Candidate candidate : candidates) {
+                if (estimatedBytes.get() <= target) {
+                    break;
+                }
+                if (entries.remove(candidate.key(), candidate.entry())) {
+                    estimatedBytes.addAndGet(-candidate.entry().bytes);
+                    evictions.incrementAndGet();
+                }
+            }
+
+            if (policy == Policy.LFU) {
+                for (Entry entry : entries.values()) {
+                    entry.frequency >>= 1;
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private static Policy parsePolicy(String policy) {
+        try {
+            return Policy.valueOf(policy.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported expanded key cache policy: " + policy);
+        }
+    }
+
+    private void registerMetrics(MeterRegistry meterRegistry) {
+        Gauge.builder("pqc.key.expansion.cache.entries", entries, Map::size)
+            .description("Expanded ML-DSA public key layers held for verification")
+            .register(meterRegistry);
+        Gauge.builder("pqc.key.expansion.cache.bytes", estimatedBytes, AtomicLong::get)
+            .baseUnit("bytes").register(meterRegistry);
+        FunctionCounter.builder("pqc.key.expansion.cache.lookups", hits, AtomicLong::get)
+            .tag("result", "hit").register(meterRegistry);
+        FunctionCounter.builder("pqc.key.expansion.cache.lookups", misses, AtomicLong::get)
+            .tag("result", "miss").register(meterRegistry);
+        FunctionCounter.builder("pqc.key.expansion.cache.evictions", evictions, AtomicLong::get)
+            .register(meterRegistry);
+    }
+
+    private record CacheKey(String credentialId, int layer) {
+    }
+
+    private record Candidate(CacheKey key, Entry entry, int frequency, long lastAccess) {
+    }
+
+    private static final class Entry {
+        final ExpandedPublicKey expanded;
+        final long bytes;
+        volatile long lastAccess;
+        volatile int frequency;
+
+        Entry(ExpandedPublicKey expanded, long bytes, long lastAccess) {
+            this.expanded = expanded;
+            this.bytes = bytes;
+            this.lastAccess = lastAccess;
+            this.frequency = 1;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.pqc.fido2.crypto.mldsa;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The parts of an ML-DSA verification that depend only on the public key:
+ * the matrix A expanded from rho (already in the NTT domain, as ExpandA
+ * produces it), NTT(t1 * 2^d) and tr = H(pk). Built by
+ * {@link MLDsaVerifier#expand}; immutable and safe to share between threads.
+ *
+ * The encoded key is kept too, so a cached expansion is only ever used for
+ * the exact key it came from.
+ */
+public final class ExpandedPublicKey {
+
+    // Object header, field references and the array headers of encoded and tr
+    private static final int OVERHEAD_BYTES = 96;
+    private static final int POLY_ARRAY_HEADER_BYTES = 16 + 4;
+
+    private final MLDsaParameters parameters;
+    private final byte[] encoded;
+    // Row-major, A[i][j] at i * l + j
+    final int[][] matrix;
+    final int[][] t1;
+    final byte[] tr;
+
+    ExpandedPublicKey(MLDsaParameters parameters, byte[] encoded, int[][] matrix, int[][] t1, byte[] tr) {
+        this.parameters = parameters;
+        this.encoded = encoded;
+        this.matrix = matrix;
+        this.t1 = t1;
+        this.tr = tr;
+    }
+
+    public MLDsaParameters getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Whether this was expanded from the given encoded key
+     */
+    public boolean matches(byte[] key) {
+        return Arrays.equals(encoded, key);
+    }
+
+    /**
+     * Whether this was expanded from the key stored at the given absolute offset
+     */
+    public boolean matches(ByteBuffer keys, int offset) {
+        return keys.limit() - offset >= encoded.length
+            && keys.slice(offset, encoded.length).equals(ByteBuffer.wrap(encoded));
+    }
+
+    /**
+     * Heap footprint, for cache budgets
+     */
+    public long getEstimatedBytes() {
+        long polys = matrix.length + t1.length;
+        return OVERHEAD_BYTES + encoded.length + tr.length
+            + 2 * POLY_ARRAY_HEADER_BYTES + polys * (POLY_ARRAY_HEADER_BYTES + 4L * ScalarPolynomialArithmetic.N);
+    }
+}
@@ -0,0 +1,63 @@
+package com.pqc.fido2.crypto.mldsa;
+
+/**
+ * The Dilithium parameter sets as BouncyCastle 1.78 encodes them, which is
+ * what {@link MLDsaVerifier} has to reproduce bit for bit: the ML-DSA draft
+ * layout with a 64-byte tr and a challenge seed of CTilde bytes, of which
+ * only the first 32 feed the challenge sampler.
+ */
+public enum MLDsaParameters {
+
+    DILITHIUM_2(4, 4, 39, 78, 1 << 17, (ScalarPolynomialArithmetic.Q - 1) / 88, 80, 32),
+    DILITHIUM_3(6, 5, 49, 196, 1 << 19, (ScalarPolynomialArithmetic.Q - 1) / 32, 55, 48),
+    DILITHIUM_5(8, 7, 60, 120, 1 << 19, (ScalarPolynomialArithmetic.Q - 1) / 32, 75, 64);
+
+    static final int SEED_BYTES = 32;
+    static final int TR_BYTES = 64;
+    static final int CRH_BYTES = 64;
+    static final int D = 13;
+    static final int POLY_T1_PACKED_BYTES = 320;
+
+    final int k;
+    final int l;
+    final int tau;
+    final int beta;
+    final int gamma1;
+    final int gamma2;
+    final int omega;
+    final int cTildeBytes;
+    final int polyZPackedBytes;
+    final int polyW1PackedBytes;
+
+    MLDsaParameters(int k, int l, int tau, int beta, int gamma1, int gamma2, int omega, int cTildeBytes) {
+        this.k = k;
+        this.l = l;
+        this.tau = tau;
+        this.beta = beta;
+        this.gamma1 = gamma1;
+        this.gamma2 = gamma2;
+        this.omega = omega;
+        this.cTildeBytes = cTildeBytes;
+        this.polyZPackedBytes = gamma1 == (1 << 17) ? 576 : 640;
+        this.polyW1PackedBytes = gamma2 == (ScalarPolynomialArithmetic.Q - 1) / 88 ? 192 : 128;
+    }
+
+    /**
+     * Parameter set by its pqc.fido2.dilithium-parameters name
+     */
+    public static MLDsaParameters of(String name) {
+        try {
+            return valueOf(name);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported Dilithium parameter set: " + name);
+        }
+    }
+
+    public int getPublicKeyBytes() {
+        return SEED_BYTES + k * POLY_T1_PACKED_BYTES;
+    }
+
+    public int getSignatureBytes() {
+        return cTildeBytes + l * polyZPackedBytes + omega + k;
+    }
+}
@@ -0,0 +1,414 @@
+package com.pqc.fido2.crypto.mldsa;
+
+import com.pqc.fido2.crypto.keccak.Xof;
+import com.pqc.fido2.crypto.keccak.Xof4;
+import com.pqc.fido2.crypto.keccak.XofEngine;
+import com.pqc.fido2.crypto.keccak.XofEngines;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.util.Objects;
+
+import static com.pqc.fido2.crypto.mldsa.MLDsaParameters.CRH_BYTES;
+import static com.pqc.fido2.crypto.mldsa.MLDsaParameters.D;
+import static com.pqc.fido2.crypto.mldsa.MLDsaParameters.POLY_T1_PACKED_BYTES;
+import static com.pqc.fido2.crypto.mldsa.MLDsaParameters.SEED_BYTES;
+import static com.pqc.fido2.crypto.mldsa.MLDsaParameters.TR_BYTES;
+import static com.pqc.fido2.crypto.mldsa.ScalarPolynomialArithmetic.N;
+import static com.pqc.fido2.crypto.mldsa.ScalarPolynomialArithmetic.Q;
+
+/**
+ * ML-DSA signature verification split in two, so the public-key half can be
+ * done once and reused: {@link #expand} runs ExpandA (k * l SHAKE128 streams
+ * with rejection sampling), unpacks t1 and hashes the key into tr;
+ * {@link #verify(ExpandedPublicKey, byte[], byte[])} does the per-signature
+ * rest. Together they follow BouncyCastle's DilithiumEngine.signVerify step
+ * by step and accept exactly the signatures BouncyCastle's DilithiumSigner
+ * accepts, with the NTTs and reductions on the given {@link PolynomialArithmetic}
+ * and the hashing on the given {@link XofEngine}. ExpandA samples four
+ * entries of A at a time through {@link XofEngine#shake128x4()}.
+ *
+ * Signatures of the wrong size or with malformed hints are rejected, not
+ * thrown; keys of the wrong size are an IllegalArgumentException.
+ */
+public class MLDsaVerifier {
+
+    private static final int SHAKE256_RATE = 136;
+    // Five SHAKE128 blocks: enough for a uniform polynomial most of the time
+    private static final int UNIFORM_BYTES = 5 * 168;
+
+    private final MLDsaParameters parameters;
+    private final PolynomialArithmetic arithmetic;
+    private final XofEngine xof;
+
+    public MLDsaVerifier(MLDsaParameters parameters, PolynomialArithmetic arithmetic) {
+        this(parameters, arithmetic, XofEngines.of("auto"));
+    }
+
+    public MLDsaVerifier(MLDsaParameters parameters, PolynomialArithmetic arithmetic, XofEngine xof) {
+        this.parameters = parameters;
+        this.arithmetic = arithmetic;
+        this.xof = xof;
+    }
+
+    public MLDsaParameters getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Precompute everything the verification needs from an encoded public key (rho || t1)
+     */
+    public ExpandedPublicKey expand(byte[] publicKey) {
+        checkKeyLength(publicKey.length);
+        return expandOwned(publicKey.clone());
+    }
+
+    /**
+     * {@link #expand(byte[])} for a key stored in a buffer at the given absolute offset
+     */
+    public ExpandedPublicKey expand(ByteBuffer keys, int offset) {
+        byte[] publicKey = new byte[parameters.getPublicKeyBytes()];
+        keys.get(offset, publicKey);
+        return expandOwned(publicKey);
+    }
+
+    /**
+     * Verify without keeping the expansion, i.e. at the cost BouncyCastle pays every time
+     */
+    public boolean verify(byte[] publicKey, byte[] message, byte[] signature) {
+        return verify(expand(publicKey), message, signature);
+    }
+
+    public boolean verify(ExpandedPublicKey key, byte[] message, byte[] signature) {
+        return verify(key, message, signature, 0, signature.length);
+    }
+
+    /**
+     * Verify a signature stored at signature[signatureOffset, signatureOffset + signatureLength),
+     * e.g. one layer of a multi-layered signature, without copying it out
+     */
+    public boolean verify(ExpandedPublicKey key, byte[] message, byte[] signature,
+                          int signatureOffset, int signatureLength) {
+        if (key.getParameters() != parameters) {
+            throw new IllegalArgumentException("Key was expanded for " + key.getParameters()
+                + ", verifier is " + parameters);
+        }
+        Objects.checkFromIndexSize(signatureOffset, signatureLength, signature.length);
+        if (signatureLength != parameters.getSignatureBytes()) {
+            return false;
+        }
+        int k = parameters.k;
+        int l = parameters.l;
+
+        int[][] z = new int[l][N];
+        int offset = signatureOffset + parameters.cTildeBytes;
+        for (int j = 0; j < l; j++, offset += parameters.polyZPackedBytes) {
+            unpackZ(signature, offset, z[j]);
+        }
+        int[][] hint = new int[k][N];
+        if (!unpackHint(signature, offset, hint)) {
+            return false;
+        }
+        for (int[] poly : z) {
+            if (exceedsNorm(poly, parameters.gamma1 - parameters.beta)) {
+                return false;
+            }
+        }
+
+        // mu = CRH(tr || M)
+        Xof shake256 = xof.shake256();
+        byte[] mu = new byte[CRH_BYTES];
+        shake256.update(key.tr, 0, TR_BYTES);
+        shake256.update(message, 0, message.length);
+        shake256.squeeze(mu, 0, CRH_BYTES);
+
+        int[] c = challenge(signature, signatureOffset);
+        arithmetic.ntt(c);
+        for (int[] poly : z) {
+            arithmetic.ntt(poly);
+        }
+
+        // w1 = UseHint(h, A z - c t1 * 2^d), packed row by row
+        byte[] w1 = new byte[k * parameters.polyW1PackedBytes];
+        int[] w = new int[N];
+        int[] product = new int[N];
+        for (int i = 0; i < k; i++) {
+            arithmetic.pointwiseMontgomery(w, key.matrix[i * l], z[0]);
+            for (int j = 1; j < l; j++) {
+                arithmetic.pointwiseMontgomery(product, key.matrix[i * l + j], z[j]);
+                add(w, product);
+            }
+            arithmetic.pointwiseMontgomery(product, c, key.t1[i]);
+            subtract(w, product);
+            arithmetic.reduce(w);
+            arithmetic.invNttToMont(w);
+            arithmetic.conditionalAddQ(w);
+            for (int n = 0; n < N; n++) {
+                w[n] = useHint(w[n], hint[i][n]);
+            }
+            packW1(w, w1, i * parameters.polyW1PackedBytes);
+        }
+
+        byte[] expected = new byte[parameters.cTildeBytes];
+        shake256.reset();
+        shake256.update(mu, 0, CRH_BYTES);
+        shake256.update(w1, 0, w1.length);
+        shake256.squeeze(expected, 0, expected.length);
+
+        byte[] actual = new byte[parameters.cTildeBytes];
+        System.arraycopy(signature, signatureOffset, actual, 0, actual.length);
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    private ExpandedPublicKey expandOwned(byte[] publicKey) {
+        checkKeyLength(publicKey.length);
+        int k = parameters.k;
+
+        int[][] matrix = expandMatrix(publicKey);
+
+        int[][] t1 = new int[k][];
+        for (int i = 0; i < k; i++) {
+            t1[i] = unpackT1(publicKey, SEED_BYTES + i * POLY_T1_PACKED_BYTES);
+            arithmetic.ntt(t1[i]);
+        }
+
+        byte[] tr = new byte[TR_BYTES];
+        Xof shake256 = xof.shake256();
+        shake256.update(publicKey, 0, publicKey.length);
+        shake256.squeeze(tr, 0, TR_BYTES);
+
+        return new ExpandedPublicKey(parameters, publicKey, matrix, t1, tr);
+    }
+
+    private void checkKeyLength(int length) {
+        if (length != parameters.getPublicKeyBytes()) {
+            throw new IllegalArgumentException("Invalid " + parameters + " public key length: " + length);
+        }
+    }
+
+    /**
+     * ExpandA: entry (i, j) is SHAKE128(rho || j || i) read as 23-bit
+     * candidates, keeping those below q. Entries are sampled four at a time;
+     * when k * l is not a multiple of four the last group repeats an entry.
+     */
+    private int[][] expandMatrix(byte[] rho) {
+        int l = parameters.l;
+        int entries = parameters.k * l;
+        int[][] matrix = new int[entries][];
+
+        Xof4 shake128 = xof.shake128x4();
+        byte[][] seeds = new byte[4][SEED_BYTES + 2];
+        byte[][] blocks = new byte[4][UNIFORM_BYTES];
+        int[] counts = new int[4];
+        for (byte[] seed : seeds) {
+            System.arraycopy(rho, 0, seed, 0, SEED_BYTES);
+        }
+
+        for (int first = 0; first < entries; first += 4) {
+            int group = Math.min(4, entries - first);
+            for (int lane = 0; lane < 4; lane++) {
+                int entry = first + Math.min(lane, group - 1);
+                int nonce = ((entry / l) << 8) + entry % l;
+                seeds[lane][SEED_BYTES] = (byte) nonce;
+                seeds[lane][SEED_BYTES + 1] = (byte) (nonce >> 8);
+            }
+            for (int lane = 0; lane < group; lane++) {
+                matrix[first + lane] = new int[N];
+                counts[lane] = 0;
+            }
+
+            shake128.reset();
+            shake128.update(seeds, 0, SEED_BYTES + 2);
+            shake128.squeeze(blocks, 0, UNIFORM_BYTES);
+            int length = UNIFORM_BYTES;
+            while (true) {
+                boolean done = true;
+                for (int lane = 0; lane < group; lane++) {
+                    counts[lane] = rejectUniform(matrix[first + lane], counts[lane], blocks[lane], length);
+                    done &= counts[lane] == N;
+                }
+                if (done) {
+                    break;
+                }
+                // Rarely needed; every instance moves on by a block so they stay in lockstep
+                shake128.squeeze(blocks, 0, shake128.rate());
+                length = shake128.rate();
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Fill poly from count on with the candidates in buffer below q; returns the new count
+     */
+    private static int rejectUniform(int[] poly, int count, byte[] buffer, int length) {
+        for (int pos = 0; pos + 3 <= length && count < N; pos += 3) {
+            int t = ((buffer[pos] & 0xFF) | (buffer[pos + 1] & 0xFF) << 8 | (buffer[pos + 2] & 0xFF) << 16) & 0x7FFFFF;
+            if (t < Q) {
+                poly[count++] = t;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 10-bit t1 coefficients, shifted left by d
+     */
+    private static int[] unpackT1(byte[] a, int offset) {
+        int[] poly = new int[N];
+        for (int i = 0; i < N / 4; i++) {
+            int p = offset + 5 * i;
+            poly[4 * i] = (((a[p] & 0xFF) | (a[p + 1] & 0xFF) << 8) & 0x3FF) << D;
+            poly[4 * i + 1] = (((a[p + 1] & 0xFF) >> 2 | (a[p + 2] & 0xFF) << 6) & 0x3FF) << D;
+            poly[4 * i + 2] = (((a[p + 2] & 0xFF) >> 4 | (a[p + 3] & 0xFF) << 4) & 0x3FF) << D;
+            poly[4 * i + 3] = (((a[p + 3] & 0xFF) >> 6 | (a[p + 4] & 0xFF) << 2) & 0x3FF) << D;
+        }
+        return poly;
+    }
+
+    private void unpackZ(byte[] a, int offset, int[] poly) {
+        int gamma1 = parameters.gamma1;
+        if (gamma1 == (1 << 17)) {
+            for (int i = 0; i < N / 4; i++) {
+                int p = offset + 9 * i;
+                poly[4 * i] = gamma1 - (((a[p] & 0xFF) | (a[p + 1] & 0xFF) << 8 | (a[p + 2] & 0xFF) << 16) & 0x3FFFF);
+                poly[4 * i + 1] = gamma1
+                    - (((a[p + 2] & 0xFF) >>> 2 | (a[p + 3] & 0xFF) << 6 | (a[p + 4] & 0xFF) << 14) & 0x3FFFF);
+                poly[4 * i + 2] = gamma1
+                    - (((a[p + 4] & 0xFF) >>> 4 | (a[p + 5] & 0xFF) << 4 | (a[p + 6] & 0xFF) << 12) & 0x3FFFF);
+                poly[4 * i + 3] = gamma1
+                    - (((a[p + 6] & 0xFF) >>> 6 | (a[p + 7] & 0xFF) << 2 | (a[p + 8] & 0xFF) << 10) & 0x3FFFF);
+            }
+        } else {
+            for (int i = 0; i < N / 2; i++) {
+                int p = offset + 5 * i;
+                poly[2 * i] = gamma1 - (((a[p] & 0xFF) | (a[p + 1] & 0xFF) << 8 | (a[p + 2] & 0xFF) << 16) & 0xFFFFF);
+                poly[2 * i + 1] = gamma1
+                    - (((a[p + 2] & 0xFF) >>> 4 | (a[p + 3] & 0xFF) << 4 | (a[p + 4] & 0xFF) << 12) & 0xFFFFF);
+            }
+        }
+    }
+
+    /**
+     * Hint positions per row, strictly increasing within a row, with running
+     * totals in the last k bytes; anything else makes the signature invalid
+     */
+    private boolean unpackHint(byte[] sig, int offset, int[][] hint) {
+        int omega = parameters.omega;
+        int start = 0;
+        for (int i = 0; i < parameters.k; i++) {
+            int end = sig[offset + omega + i] & 0xFF;
+            if (end < start || end > omega) {
+                return false;
+            }
+            for (int j = start; j < end; j++) {
+                if (j > start && (sig[offset + j] & 0xFF) <= (sig[offset + j - 1] & 0xFF)) {
+                    return false;
+                }
+                hint[i][sig[offset + j] & 0xFF] = 1;
+            }
+            start = end;
+        }
+        for (int j = start; j < omega; j++) {
+            if (sig[offset + j] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean exceedsNorm(int[] poly, int bound) {
+        if (bound > (Q - 1) / 8) {
+            return true;
+        }
+        for (int a : poly) {
+            int t = a - ((a >> 31) & 2 * a);
+            if (t >= bound) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Challenge polynomial with tau coefficients of +-1, from the first 32 bytes of c~
+     */
+    private int[] challenge(byte[] signature, int offset) {
+        Xof shake256 = xof.shake256();
+        shake256.update(signature, offset, SEED_BYTES);
+        byte[] block = new byte[SHAKE256_RATE];
+        shake256.squeeze(block, 0, SHAKE256_RATE);
+
+        long signs = 0;
+        for (int i = 0; i < 8; i++) {
+            signs |= (long) (block[i] & 0xFF) << 8 * i;
+        }
+        int pos = 8;
+
+        int[] c = new int[N];
+        for (int i = N - parameters.tau; i < N; i++) {
+            int b;
+            do {
+                if (pos >= SHAKE256_RATE) {
+                    shake256.squeeze(block, 0, SHAKE256_RATE);
+                    pos = 0;
+                }
+                b = block[pos++] & 0xFF;
+            } while (b > i);
+            c[i] = c[b];
+            c[b] = (int) (1 - 2 * (signs & 1));
+            signs >>= 1;
+        }
+        return c;
+    }
+
+    private int useHint(int a, int hint) {
+        int gamma2 = parameters.gamma2;
+        int a1 = (a + 127) >> 7;
+        if (gamma2 == (Q - 1) / 32) {
+            a1 = ((a1 * 1025 + (1 << 21)) >> 22) & 15;
+        } else {
+            a1 = (a1 * 11275 + (1 << 23)) >> 24;
+            a1 ^= ((43 - a1) >> 31) & a1;
+        }
+        if (hint == 0) {
+            return a1;
+        }
+        int a0 = a - a1 * 2 * gamma2;
+        a0 -= (((Q - 1) / 2 - a0) >> 31) & Q;
+
+        if (gamma2 == (Q - 1) / 32) {
+            return a0 > 0 ? (a1 + 1) & 15 : (a1 - 1) & 15;
+        }
+        if (a0 > 0) {
+            return a1 == 43 ? 0 : a1 + 1;
+        }
+        return a1 == 0 ? 43 : a1 - 1;
+    }
+
+    private void packW1(int[] w, byte[] out, int offset) {
+        if (parameters.gamma2 == (Q - 1) / 88) {
+            for (int i = 0; i < N / 4; i++) {
+                out[offset + 3 * i] = (byte) (w[4 * i] | w[4 * i + 1] << 6);
+                out[offset + 3 * i + 1] = (byte) (w[4 * i + 1] >> 2 | w[4 * i + 2] << 4);
+                out[offset + 3 * i + 2] = (byte) (w[4 * i + 2] >> 4 | w[4 * i + 3] << 2);
+            }
+        } else {
+            for (int i = 0; i < N / 2; i++) {
+                out[offset + i] = (byte) (w[2 * i] | w[2 * i + 1] << 4);
+            }
+        }
+    }
+
+    private static void add(int[] a, int[] b) {
+        for (int i = 0; i < N; i++) {
+            a[i] += b[i];
+        }
+    }
+
+    private static void subtract(int[] a, int[] b) {
+        for (int i = 0; i < N; i++) {
+            a[i] -= b[i];
+        }
+    }
+}
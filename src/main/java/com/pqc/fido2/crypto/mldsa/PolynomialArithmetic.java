@@ -0,0 +1,41 @@
+package com.pqc.fido2.crypto.mldsa;
+
+/**
+ * Arithmetic on ML-DSA polynomials: 256 coefficients modulo
+ * q = 8380417, held in int arrays and updated in place. Every implementation
+ * has to match {@link ScalarPolynomialArithmetic}, the port of the
+ * reference implementation, bit for bit, including the unreduced
+ * intermediate ranges the reference leaves in place.
+ */
+public interface PolynomialArithmetic {
+
+    /**
+     * Forward NTT; the output is in bit-reversed order and not reduced
+     */
+    void ntt(int[] a);
+
+    /**
+     * Inverse NTT, multiplying by the Montgomery factor 2^32 on the way
+     */
+    void invNttToMont(int[] a);
+
+    /**
+     * c = a * b * 2^-32 coefficient-wise; c may be a or b
+     */
+    void pointwiseMontgomery(int[] c, int[] a, int[] b);
+
+    /**
+     * Reduce every coefficient to about (-q/2, q/2]
+     */
+    void reduce(int[] a);
+
+    /**
+     * Add q to every negative coefficient
+     */
+    void conditionalAddQ(int[] a);
+
+    /**
+     * Short name for logs and benchmarks
+     */
+    String name();
+}
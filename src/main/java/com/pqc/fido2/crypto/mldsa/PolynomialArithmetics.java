@@ -0,0 +1,68 @@
+package com.pqc.fido2.crypto.mldsa;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Picks a {@link PolynomialArithmetic} backend. The Vector API is an
+ * incubator module in Java 17 and only resolved when the JVM is started with
+ * --add-modules jdk.incubator.vector; without it, or on hardware without
+ * usable vectors, the scalar backend is used.
+ */
+public final class PolynomialArithmetics {
+
+    private static final Logger log = LoggerFactory.getLogger(PolynomialArithmetics.class);
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String VECTOR_CLASS = "com.pqc.fido2.crypto.mldsa.VectorPolynomialArithmetic";
+
+    private PolynomialArithmetics() {
+    }
+
+    /**
+     * Backend by name: "vector", "scalar", or "auto" for vector when available
+     */
+    public static PolynomialArithmetic of(String backend) {
+        switch (backend) {
+            case "scalar":
+                return new ScalarPolynomialArithmetic();
+            case "vector": {
+                PolynomialArithmetic vector = vector();
+                if (vector == null) {
+                    throw new IllegalArgumentException("The Vector API is not available; start the JVM with "
+                        + "--add-modules " + VECTOR_MODULE);
+                }
+                return vector;
+            }
+            case "auto": {
+                PolynomialArithmetic vector = vector();
+                return vector != null ? vector : new ScalarPolynomialArithmetic();
+            }
+            default:
+                throw new IllegalArgumentException("Unsupported polynomial arithmetic backend: " + backend);
+        }
+    }
+
+    /**
+     * Whether the vector backend can be used in this JVM
+     */
+    public static boolean isVectorAvailable() {
+        return vector() != null;
+    }
+
+    private static PolynomialArithmetic vector() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            return null;
+        }
+        try {
+            Class<?> type = Class.forName(VECTOR_CLASS);
+            if (!(boolean) type.getDeclaredMethod("isSupported").invoke(null)) {
+                return null;
+            }
+            return (PolynomialArithmetic) type.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            log.debug("[CRYPTO] - Vector polynomial arithmetic unavailable: {}", e.toString());
+            return null;
+        }
+    }
+}
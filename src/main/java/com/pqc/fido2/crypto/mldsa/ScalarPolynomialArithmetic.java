@@ -0,0 +1,134 @@
+package com.pqc.fido2.crypto.mldsa;
+
+/**
+ * Plain Java port of the ML-DSA reference NTT and reductions (ntt.c and
+ * reduce.c), the same loops BouncyCastle runs. It is the fallback when the
+ * Vector API is not available and the yardstick the vector code is checked
+ * against.
+ */
+public class ScalarPolynomialArithmetic implements PolynomialArithmetic {
+
+    static final int N = 256;
+    static final int Q = 8380417;
+    // q^-1 mod 2^32
+    static final int QINV = 58728449;
+    // 2^64 / 256 mod q, the Montgomery factor plus the 1/256 of the inverse NTT
+    static final int INV_NTT_FACTOR = 41978;
+
+    /**
+     * Powers of the 512th root of unity 1753 in bit-reversed order, in
+     * Montgomery form and centered around zero; ZETAS[0] is unused
+     */
+    static final int[] ZETAS = zetas();
+
+    @Override
+    public void ntt(int[] a) {
+        int k = 0;
+        for (int len = 128; len > 0; len >>= 1) {
+            k = nttLayer(a, len, k);
+        }
+    }
+
+    @Override
+    public void invNttToMont(int[] a) {
+        int k = N;
+        for (int len = 1; len < N; len <<= 1) {
+            k = invNttLayer(a, len, k);
+        }
+        for (int j = 0; j < N; j++) {
+            a[j] = montgomeryReduce((long) INV_NTT_FACTOR * a[j]);
+        }
+    }
+
+    @Override
+    public void pointwiseMontgomery(int[] c, int[] a, int[] b) {
+        for (int i = 0; i < N; i++) {
+            c[i] = montgomeryReduce((long) a[i] * b[i]);
+        }
+    }
+
+    @Override
+    public void reduce(int[] a) {
+        for (int i = 0; i < N; i++) {
+            a[i] = reduce32(a[i]);
+        }
+    }
+
+    @Override
+    public void conditionalAddQ(int[] a) {
+        for (int i = 0; i < N; i++) {
+            a[i] = conditionalAddQ(a[i]);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+
+    /**
+     * One layer of forward butterflies; returns the zeta index for the next layer
+     */
+    static int nttLayer(int[] a, int len, int k) {
+        for (int start = 0; start < N; start += 2 * len) {
+            int zeta = ZETAS[++k];
+            for (int j = start; j < start + len; j++) {
+                int t = montgomeryReduce((long) zeta * a[j + len]);
+                a[j + len] = a[j] - t;
+                a[j] = a[j] + t;
+            }
+        }
+        return k;
+    }
+
+    /**
+     * One layer of inverse butterflies; returns the zeta index for the next layer
+     */
+    static int invNttLayer(int[] a, int len, int k) {
+        for (int start = 0; start < N; start += 2 * len) {
+            int zeta = -ZETAS[--k];
+            for (int j = start; j < start + len; j++) {
+                int t = a[j];
+                a[j] = t + a[j + len];
+                a[j + len] = t - a[j + len];
+                a[j + len] = montgomeryReduce((long) zeta * a[j + len]);
+            }
+        }
+        return k;
+    }
+
+    /**
+     * a * 2^-32 mod q, in (-q, q) for |a| < 2^31 * q
+     */
+    static int montgomeryReduce(long a) {
+        int t = (int) (a * QINV);
+        return (int) ((a - (long) t * Q) >>> 32);
+    }
+
+    static int reduce32(int a) {
+        int t = (a + (1 << 22)) >> 23;
+        return a - t * Q;
+    }
+
+    static int conditionalAddQ(int a) {
+        return a + ((a >> 31) & Q);
+    }
+
+    private static int[] zetas() {
+        int[] zetas = new int[N];
+        long montgomery = (1L << 32) % Q;
+        for (int i = 1; i < N; i++) {
+            long zeta = montgomery * power(1753, Integer.reverse(i) >>> 24) % Q;
+            zetas[i] = (int) (zeta > Q / 2 ? zeta - Q : zeta);
+        }
+        return zetas;
+    }
+
+    private static long power(long base, int exponent) {
+        long result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result = result * base % Q;
+        }
+        return result;
+    }
+}
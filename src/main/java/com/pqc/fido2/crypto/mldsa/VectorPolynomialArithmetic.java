@@ -0,0 +1,174 @@
+package com.pqc.fido2.crypto.mldsa;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+import static com.pqc.fido2.crypto.mldsa.ScalarPolynomialArithmetic.INV_NTT_FACTOR;
+import static com.pqc.fido2.crypto.mldsa.ScalarPolynomialArithmetic.N;
+import static com.pqc.fido2.crypto.mldsa.ScalarPolynomialArithmetic.Q;
+import static com.pqc.fido2.crypto.mldsa.ScalarPolynomialArithmetic.QINV;
+import static com.pqc.fido2.crypto.mldsa.ScalarPolynomialArithmetic.ZETAS;
+
+/**
+ * {@link PolynomialArithmetic} on jdk.incubator.vector. Montgomery reduction
+ * needs the full 64-bit product, so coefficients are widened into long lanes
+ * on load and narrowed again on store; sums and differences are wrapped back
+ * to 32 bits, which keeps every intermediate value identical to the scalar
+ * reference even where the reference overflows.
+ *
+ * NTT layers whose butterflies span at least one vector are vectorized; the
+ * last few layers, with butterflies closer together than the lane count, run
+ * the scalar loops. Only load this class through {@link PolynomialArithmetics},
+ * which checks that the incubator module is present.
+ */
+public class VectorPolynomialArithmetic implements PolynomialArithmetic {
+
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    // Ints with as many lanes as LONGS, widened into it and narrowed back
+    private static final VectorSpecies<Integer> INTS =
+        VectorSpecies.of(int.class, VectorShape.forBitSize(LONGS.vectorBitSize() / 2));
+    private static final int LANES = LONGS.length();
+
+    private static final ThreadLocal<long[]> WORKSPACE = ThreadLocal.withInitial(() -> new long[N]);
+
+    /**
+     * Whether this platform has vectors of at least two long lanes
+     */
+    static boolean isSupported() {
+        return LANES >= 2;
+    }
+
+    @Override
+    public void ntt(int[] a) {
+        long[] w = widen(a);
+        int k = 0;
+        int len = 128;
+        for (; len >= LANES; len >>= 1) {
+            for (int start = 0; start < N; start += 2 * len) {
+                long zeta = ZETAS[++k];
+                for (int j = start; j < start + len; j += LANES) {
+                    LongVector lo = LongVector.fromArray(LONGS, w, j);
+                    LongVector t = montgomeryReduce(LongVector.fromArray(LONGS, w, j + len).mul(zeta));
+                    wrap(lo.sub(t)).intoArray(w, j + len);
+                    wrap(lo.add(t)).intoArray(w, j);
+                }
+            }
+        }
+        for (; len > 0; len >>= 1) {
+            for (int start = 0; start < N; start += 2 * len) {
+                long zeta = ZETAS[++k];
+                for (int j = start; j < start + len; j++) {
+                    long t = ScalarPolynomialArithmetic.montgomeryReduce(zeta * w[j + len]);
+                    w[j + len] = (int) (w[j] - t);
+                    w[j] = (int) (w[j] + t);
+                }
+            }
+        }
+        narrow(w, a);
+    }
+
+    @Override
+    public void invNttToMont(int[] a) {
+        long[] w = widen(a);
+        int k = N;
+        int len = 1;
+        for (; len < LANES && len < N; len <<= 1) {
+            for (int start = 0; start < N; start += 2 * len) {
+                long zeta = -ZETAS[--k];
+                for (int j = start; j < start + len; j++) {
+                    long t = w[j];
+                    w[j] = (int) (t + w[j + len]);
+                    w[j + len] = ScalarPolynomialArithmetic.montgomeryReduce(zeta * (int) (t - w[j + len]));
+                }
+            }
+        }
+        for (; len < N; len <<= 1) {
+            for (int start = 0; start < N; start += 2 * len) {
+                long zeta = -ZETAS[--k];
+                for (int j = start; j < start + len; j += LANES) {
+                    LongVector lo = LongVector.fromArray(LONGS, w, j);
+                    LongVector hi = LongVector.fromArray(LONGS, w, j + len);
+                    wrap(lo.add(hi)).intoArray(w, j);
+                    montgomeryReduce(wrap(lo.sub(hi)).mul(zeta)).intoArray(w, j + len);
+                }
+            }
+        }
+        for (int j = 0; j < N; j += LANES) {
+            store(montgomeryReduce(LongVector.fromArray(LONGS, w, j).mul(INV_NTT_FACTOR)), a, j);
+        }
+    }
+
+    @Override
+    public void pointwiseMontgomery(int[] c, int[] a, int[] b) {
+        for (int i = 0; i < N; i += LANES) {
+            store(montgomeryReduce(load(a, i).mul(load(b, i))), c, i);
+        }
+    }
+
+    @Override
+    public void reduce(int[] a) {
+        for (int i = 0; i < N; i += INTS.length()) {
+            IntVector v = IntVector.fromArray(INTS, a, i);
+            IntVector t = v.add(1 << 22).lanewise(VectorOperators.ASHR, 23);
+            v.sub(t.mul(Q)).intoArray(a, i);
+        }
+    }
+
+    @Override
+    public void conditionalAddQ(int[] a) {
+        for (int i = 0; i < N; i += INTS.length()) {
+            IntVector v = IntVector.fromArray(INTS, a, i);
+            v.add(v.lanewise(VectorOperators.ASHR, 31).and(Q)).intoArray(a, i);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "vector-" + LONGS.vectorBitSize();
+    }
+
+    /**
+     * Coefficients as longs in a per-thread buffer, so the NTT layers load
+     * and store long vectors directly instead of converting every time
+     */
+    private static long[] widen(int[] a) {
+        long[] w = WORKSPACE.get();
+        for (int i = 0; i < N; i++) {
+            w[i] = a[i];
+        }
+        return w;
+    }
+
+    private static void narrow(long[] w, int[] a) {
+        for (int i = 0; i < N; i++) {
+            a[i] = (int) w[i];
+        }
+    }
+
+    private static LongVector load(int[] a, int offset) {
+        return (LongVector) IntVector.fromArray(INTS, a, offset).convertShape(VectorOperators.I2L, LONGS, 0);
+    }
+
+    private static void store(LongVector v, int[] a, int offset) {
+        ((IntVector) v.convertShape(VectorOperators.L2I, INTS, 0)).intoArray(a, offset);
+    }
+
+    /**
+     * Sign-extend the low 32 bits of every lane, i.e. the value an int would hold
+     */
+    private static LongVector wrap(LongVector v) {
+        return v.lanewise(VectorOperators.LSHL, 32).lanewise(VectorOperators.ASHR, 32);
+    }
+
+    /**
+     * Lane-wise {@link ScalarPolynomialArithmetic#montgomeryReduce(long)}
+     */
+    private static LongVector montgomeryReduce(LongVector a) {
+        LongVector t = wrap(a.mul(QINV));
+        // |a - t * q| < 2^63, so the shifted value always fits in an int
+        return a.sub(t.mul(Q)).lanewise(VectorOperators.ASHR, 32);
+    }
+}
@@ -0,0 +1,234 @@
+package com.pqc.fido2.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a read replica and everything else to the
+ * primary.
+ *
+ * The routing key is taken when the connection is first used, so this must
+ * sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}:
+ * the transaction manager opens its connection before the transaction's
+ * read-only flag is published.
+ *
+ * Replicas are probed every pqc.fido2.datasource.lag-check-interval-ms. A
+ * replica takes reads while its last probe succeeded and reported a lag of
+ * at most maxLagMs; without a lag query, a valid connection counts as caught
+ * up. Reads are spread round-robin over the replicas that qualify and fall
+ * back to the primary when none does.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    static final String PRIMARY = "primary";
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private static final int PROBE_TIMEOUT_SECONDS = 2;
+
+    /**
+     * A replica to route reads to. lagQuery returns its lag behind the
+     * primary in milliseconds as a single number; null only checks the
+     * connection.
+     */
+    public record Replica(String name, DataSource dataSource, String lagQuery) {
+    }
+
+    private static final class ReplicaState {
+        final Replica replica;
+        // Milliseconds behind the primary as of the last probe; -1 if the probe failed
+        volatile long lagMs = -1;
+        volatile boolean available;
+        // Only to log the first of a run of failed probes
+        boolean reachable = true;
+
+        ReplicaState(Replica replica) {
+            this.replica = replica;
+        }
+    }
+
+    private final List<ReplicaState> replicas;
+    private final long maxLagMs;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final Counter primaryConnections;
+    private final Counter replicaConnections;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<Replica> replicas, long maxLagMs) {
+        this(primary, replicas, maxLagMs, new SimpleMeterRegistry());
+    }
+
+    public ReplicaRoutingDataSource(DataSource primary, List<Replica> replicas, long maxLagMs,
+                                    MeterRegistry meterRegistry) {
+        if (maxLagMs < 0) {
+            throw new IllegalArgumentException("Replica max lag must not be negative");
+        }
+        this.maxLagMs = maxLagMs;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        List<ReplicaState> states = new ArrayList<>();
+        for (Replica replica : replicas) {
+            if (replica.name() == null || PRIMARY.equals(replica.name())) {
+                throw new IllegalArgumentException("Replica requires a name other than '" + PRIMARY + "'");
+            }
+            if (targets.put(replica.name(), replica.dataSource()) != null) {
+                throw new IllegalArgumentException("Duplicate replica: " + replica.name());
+            }
+            ReplicaState state = new ReplicaState(replica);
+            states.add(state);
+            Gauge.builder("pqc.datasource.replica.lag", state, s -> s.lagMs < 0 ? Double.NaN : s.lagMs)
+                .description("Milliseconds a read replica is behind the primary; NaN while unreachable")
+                .tag("replica", replica.name())
+                .register(meterRegistry);
+        }
+        this.replicas = List.copyOf(states);
+
+        this.primaryConnections = Counter.builder("pqc.datasource.connections")
+            .description("Connections handed out by the routing datasource, by target")
+            .tag("target", "primary")
+            .register(meterRegistry);
+        this.replicaConnections = Counter.builder("pqc.datasource.connections")
+            .description("Connections handed out by the routing datasource, by target")
+            .tag("target", "replica")
+            .register(meterRegistry);
+
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        initialize();
+        checkReplicaLag();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            ReplicaState replica = selectReplica();
+            if (replica != null) {
+                replicaConnections.increment();
+                return replica.replica.name();
+            }
+        }
+        primaryConnections.increment();
+        return PRIMARY;
+    }
+
+    private ReplicaState selectReplica() {
+        int count = replicas.size();
+        if (count == 0) {
+            return null;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), count);
+        for (int i = 0; i < count; i++) {
+            ReplicaState replica = replicas.get((start + i) % count);
+            if (replica.available) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Probe every replica and admit or drop it for reads
+     */
+    @Scheduled(fixedDelayString = "${pqc.fido2.datasource.lag-check-interval-ms:1000}")
+    public void checkReplicaLag() {
+        for (ReplicaState state : replicas) {
+            String name = state.replica.name();
+            try {
+                long lagMs = probe(state.replica);
+                boolean available = lagMs <= maxLagMs;
+                state.lagMs = lagMs;
+                if (available != state.available) {
+                    if (available) {
+                        log.info("[DATASOURCE] - Replica {} is {} ms behind, taking reads", name, lagMs);
+                    } else {
+                        log.warn("[DATASOURCE] - Replica {} is {} ms behind (limit {} ms), reads go to the primary",
+                            name, lagMs, maxLagMs);
+                    }
+                }
+                state.available = available;
+                state.reachable = true;
+            } catch (SQLException | RuntimeException e) {
+                if (state.reachable) {
+                    log.warn("[DATASOURCE] - Replica {} unreachable, reads go to the primary: {}", name, e.getMessage());
+                }
+                state.lagMs = -1;
+                state.available = false;
+                state.reachable = false;
+            }
+        }
+    }
+
+    private static long probe(Replica replica) throws SQLException {
+        try (Connection connection = replica.dataSource().getConnection()) {
+            if (replica.lagQuery() == null) {
+                if (!connection.isValid(PROBE_TIMEOUT_SECONDS)) {
+                    throw new SQLException("Connection is not valid");
+                }
+                return 0;
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(PROBE_TIMEOUT_SECONDS);
+                try (ResultSet result = statement.executeQuery(replica.lagQuery())) {
+                    if (!result.next()) {
+                        throw new SQLException("Lag query returned no row");
+                    }
+                    long lagMs = result.getLong(1);
+                    if (result.wasNull() || lagMs < 0) {
+                        throw new SQLException("Lag query returned no lag");
+                    }
+                    return lagMs;
+                }
+            }
+        }
+    }
+
+    /**
+     * Replicas currently taking reads
+     */
+    public Set<String> getAvailableReplicas() {
+        Set<String> available = new HashSet<>();
+        for (ReplicaState state : replicas) {
+            if (state.available) {
+                available.add(state.replica.name());
+            }
+        }
+        return available;
+    }
+
+    /**
+     * Close the replica pools; the primary is owned by whoever created it
+     */
+    @Override
+    public void close() {
+        for (ReplicaState state : replicas) {
+            if (state.replica.dataSource() instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("[DATASOURCE] - Failed to close replica {}: {}", state.replica.name(), e.getMessage());
+                }
+            }
+        }
+    }
+}
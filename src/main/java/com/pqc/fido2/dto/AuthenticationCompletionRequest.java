@@ -0,0 +1,91 @@
+package com.pqc.fido2.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * Body of /auth/login/complete. WebAuthn clients send the authenticator data
+ * and client data with the assertion signature; legacy clients send the
+ * signatures alone. Binary fields are base64url strings in JSON and byte
+ * strings in CBOR and Smile.
+ */
+public class AuthenticationCompletionRequest {
+    @JsonProperty("sessionId")
+    private String sessionId;
+
+    @JsonProperty("credentialId")
+    private String credentialId;
+
+    @JsonProperty("signature")
+    @JsonSerialize(using = Base64UrlBinary.Serializer.class)
+    @JsonDeserialize(using = Base64UrlBinary.Deserializer.class)
+    private String signature;
+
+    @JsonProperty("pqSignature")
+    @JsonSerialize(using = Base64UrlBinary.Serializer.class)
+    @JsonDeserialize(using = Base64UrlBinary.Deserializer.class)
+    private String pqSignature;
+
+    @JsonProperty("authenticatorData")
+    @JsonSerialize(using = Base64UrlBinary.Serializer.class)
+    @JsonDeserialize(using = Base64UrlBinary.Deserializer.class)
+    private String authenticatorData;
+
+    @JsonProperty("clientDataJSON")
+    @JsonSerialize(using = Base64UrlBinary.Serializer.class)
+    @JsonDeserialize(using = Base64UrlBinary.Deserializer.class)
+    private String clientDataJSON;
+
+    // Constructors
+    public AuthenticationCompletionRequest() {}
+
+    // Getters and Setters
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public String getCredentialId() {
+        return credentialId;
+    }
+
+    public void setCredentialId(String credentialId) {
+        this.credentialId = credentialId;
+    }
+
+    public String getSignature() {
+        return signature;
+    }
+
+    public void setSignature(String signature) {
+        this.signature = signature;
+    }
+
+    public String getPqSignature() {
+        return pqSignature;
+    }
+
+    public void setPqSignature(String pqSignature) {
+        this.pqSignature = pqSignature;
+    }
+
+    public String getAuthenticatorData() {
+        return authenticatorData;
+    }
+
+    public void setAuthenticatorData(String authenticatorData) {
+        this.authenticatorData = authenticatorData;
+    }
+
+    public String getClientDataJSON() {
+        return clientDataJSON;
+    }
+
+    public void setClientDataJSON(String clientDataJSON) {
+        this.clientDataJSON = clientDataJSON;
+    }
+}
@@ -1,15 +1,21 @@
 package com.pqc.fido2.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 
 public class AuthenticationResponse {
     @JsonProperty("sessionId")
     private String sessionId;
 
     @JsonProperty("challenge")
+    @JsonSerialize(using = Base64UrlBinary.Serializer.class)
+    @JsonDeserialize(using = Base64UrlBinary.Deserializer.class)
     private String challenge;
 
     @JsonProperty("pqChallenge")
+    @JsonSerialize(using = Base64UrlBinary.Serializer.class)
+    @JsonDeserialize(using = Base64UrlBinary.Deserializer.class)
     private String pqChallenge;
 
     @JsonProperty("cryptoType")
@@ -0,0 +1,38 @@
+package com.pqc.fido2.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Entry of allowCredentials in an authentication response
+ */
+public class PublicKeyCredentialDescriptor {
+    @JsonProperty("type")
+    private String type = "public-key";
+
+    @JsonProperty("id")
+    private String id;
+
+    // Constructors
+    public PublicKeyCredentialDescriptor() {}
+
+    public PublicKeyCredentialDescriptor(String id) {
+        this.id = id;
+    }
+
+    // Getters and Setters
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+}
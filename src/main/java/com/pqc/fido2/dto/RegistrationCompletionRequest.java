@@ -0,0 +1,127 @@
+package com.pqc.fido2.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * Body of /auth/register/complete. WebAuthn clients send the attestation
+ * object and client data; legacy clients send the keys directly. Binary
+ * fields are base64url strings in JSON and byte strings in CBOR and Smile.
+ */
+public class RegistrationCompletionRequest {
+    @JsonProperty("sessionId")
+    private String sessionId;
+
+    @JsonProperty("username")
+    private String username;
+
+    @JsonProperty("credentialId")
+    private String credentialId;
+
+    @JsonProperty("publicKey")
+    @JsonSerialize(using = Base64UrlBinary.Serializer.class)
+    @JsonDeserialize(using = Base64UrlBinary.Deserializer.class)
+    private String publicKey;
+
+    @JsonProperty("pqPublicKey")
+    @JsonSerialize(using = Base64UrlBinary.Serializer.class)
+    @JsonDeserialize(using = Base64UrlBinary.Deserializer.class)
+    private String pqPublicKey;
+
+    @JsonProperty("signature")
+    @JsonSerialize(using = Base64UrlBinary.Serializer.class)
+    @JsonDeserialize(using = Base64UrlBinary.Deserializer.class)
+    private String signature;
+
+    @JsonProperty("pqSignature")
+    @JsonSerialize(using = Base64UrlBinary.Serializer.class)
+    @JsonDeserialize(using = Base64UrlBinary.Deserializer.class)
+    private String pqSignature;
+
+    @JsonProperty("attestationObject")
+    @JsonSerialize(using = Base64UrlBinary.Serializer.class)
+    @JsonDeserialize(using = Base64UrlBinary.Deserializer.class)
+    private String attestationObject;
+
+    @JsonProperty("clientDataJSON")
+    @JsonSerialize(using = Base64UrlBinary.Serializer.class)
+    @JsonDeserialize(using = Base64UrlBinary.Deserializer.class)
+    private String clientDataJSON;
+
+    // Constructors
+    public RegistrationCompletionRequest() {}
+
+    // Getters and Setters
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getCredentialId() {
+        return credentialId;
+    }
+
+    public void setCredentialId(String credentialId) {
+        this.credentialId = credentialId;
+    }
+
+    public String getPublicKey() {
+        return publicKey;
+    }
+
+    public void setPublicKey(String publicKey) {
+        this.publicKey = publicKey;
+    }
+
+    public String getPqPublicKey() {
+        return pqPublicKey;
+    }
+
+    public void setPqPublicKey(String pqPublicKey) {
+        this.pqPublicKey = pqPublicKey;
+    }
+
+    public String getSignature() {
+        return signature;
+    }
+
+    public void setSignature(String signature) {
+        this.signature = signature;
+    }
+
+    public String getPqSignature() {
+        return pqSignature;
+    }
+
+    public void setPqSignature(String pqSignature) {
+        this.pqSignature = pqSignature;
+    }
+
+    public String getAttestationObject() {
+        return attestationObject;
+    }
+
+    public void setAttestationObject(String attestationObject) {
+        this.attestationObject = attestationObject;
+    }
+
+    public String getClientDataJSON() {
+        return clientDataJSON;
+    }
+
+    public void setClientDataJSON(String clientDataJSON) {
+        this.clientDataJSON = clientDataJSON;
+    }
+}
@@ -0,0 +1,120 @@
+package com.pqc.fido2.importer;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over strings, sized for an expected number of entries and a
+ * target false-positive rate. A negative answer is exact, a positive one
+ * needs confirming against the source of truth. Bit positions come from
+ * double hashing a 64-bit FNV-1a hash of the string's chars; bits are set
+ * with a CAS so concurrent adds are safe.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    public BloomFilter(long expectedEntries, double falsePositiveRate) {
+        this(optimalBitCount(expectedEntries, falsePositiveRate),
+            optimalHashCount(optimalBitCount(expectedEntries, falsePositiveRate), expectedEntries));
+    }
+
+    /**
+     * Filter of a given size, rounded up to whole 64-bit words
+     */
+    public BloomFilter(long bitCount, int hashCount) {
+        if (bitCount <= 0 || hashCount <= 0) {
+            throw new IllegalArgumentException("Bloom filter needs a positive size and hash count");
+        }
+        int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, (bitCount + 63) / 64);
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = wordCount * 64L;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * Bits needed to hold expectedEntries at the given false-positive rate
+     */
+    public static long optimalBitCount(long expectedEntries, double falsePositiveRate) {
+        if (expectedEntries <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Bloom filter needs expected entries > 0 and a rate in (0, 1)");
+        }
+        long bits = (long) Math.ceil(-expectedEntries * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        return Math.max(64, (bits + 63) / 64 * 64);
+    }
+
+    /**
+     * Hash count that minimises the false-positive rate for expectedEntries in bitCount bits
+     */
+    public static int optimalHashCount(long bitCount, long expectedEntries) {
+        return Math.max(1, (int) Math.round((double) bitCount / Math.max(1, expectedEntries) * Math.log(2)));
+    }
+
+    public void add(String value) {
+        long hash = hash(value);
+        long h2 = step(hash);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash + i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            while (((current = words.get(word)) & mask) == 0
+                    && !words.compareAndSet(word, current, current | mask)) {
+                // Another bit in the word changed; retry
+            }
+        }
+    }
+
+    /**
+     * False means the value was never added; true means it probably was
+     */
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        long h2 = step(hash);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash + i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long bitCount() {
+        return bitCount;
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+
+    /**
+     * False-positive rate to expect once the given number of distinct values were added
+     */
+    public double expectedFalsePositiveRate(long entries) {
+        return Math.pow(1 - Math.exp(-(double) hashCount * entries / bitCount), hashCount);
+    }
+
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Second hash for double hashing: a mix of the first, forced odd
+     */
+    private static long step(long hash) {
+        long h = hash;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h | 1;
+    }
+}
@@ -0,0 +1,33 @@
+package com.pqc.fido2.importer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * Runs a bulk import at startup when pqc.fido2.import.file is set, e.g.
+ * --pqc.fido2.import.file=/data/users.ndjson. Rerunning with the same file
+ * resumes from its checkpoint.
+ */
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(prefix = "pqc.fido2.import", name = "file")
+public class BulkImportRunner implements ApplicationRunner {
+
+    @Autowired
+    private BulkImportService bulkImportService;
+
+    @Value("${pqc.fido2.import.file}")
+    private String file;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        bulkImportService.importFile(Path.of(file));
+    }
+}
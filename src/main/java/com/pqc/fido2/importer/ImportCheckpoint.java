@@ -0,0 +1,115 @@
+package com.pqc.fido2.importer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * Progress of an import, written after every committed chunk. The file is
+ * replaced atomically, so after a crash it describes the last chunk that
+ * reached the database, or one chunk earlier if the crash came between the
+ * commit and the write; the duplicate check makes re-importing that chunk
+ * harmless.
+ */
+public class ImportCheckpoint {
+
+    private final String source;
+    private long records;
+    private long imported;
+    private long credentials;
+    private long duplicates;
+    private long invalid;
+    private boolean complete;
+
+    public ImportCheckpoint(String source) {
+        this.source = source;
+    }
+
+    /**
+     * Checkpoint stored in the file, or a fresh one if there is none.
+     * Fails if the file belongs to another source.
+     */
+    public static ImportCheckpoint load(Path file, String source) throws IOException {
+        ImportCheckpoint checkpoint = new ImportCheckpoint(source);
+        if (!Files.exists(file)) {
+            return checkpoint;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        if (!source.equals(properties.getProperty("source"))) {
+            throw new IllegalArgumentException("Checkpoint " + file + " belongs to "
+                + properties.getProperty("source") + ", not " + source);
+        }
+        checkpoint.records = Long.parseLong(properties.getProperty("records", "0"));
+        checkpoint.imported = Long.parseLong(properties.getProperty("imported", "0"));
+        checkpoint.credentials = Long.parseLong(properties.getProperty("credentials", "0"));
+        checkpoint.duplicates = Long.parseLong(properties.getProperty("duplicates", "0"));
+        checkpoint.invalid = Long.parseLong(properties.getProperty("invalid", "0"));
+        checkpoint.complete = Boolean.parseBoolean(properties.getProperty("complete", "false"));
+        return checkpoint;
+    }
+
+    public void save(Path file) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("source", source);
+        properties.setProperty("records", Long.toString(records));
+        properties.setProperty("imported", Long.toString(imported));
+        properties.setProperty("credentials", Long.toString(credentials));
+        properties.setProperty("duplicates", Long.toString(duplicates));
+        properties.setProperty("invalid", Long.toString(invalid));
+        properties.setProperty("complete", Boolean.toString(complete));
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            properties.store(writer, "Bulk import progress");
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    void advance(long records, long imported, long credentials, long duplicates, long invalid) {
+        this.records = records;
+        this.imported += imported;
+        this.credentials += credentials;
+        this.duplicates += duplicates;
+        this.invalid += invalid;
+    }
+
+    void markComplete() {
+        this.complete = true;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public long getRecords() {
+        return records;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getCredentials() {
+        return credentials;
+    }
+
+    public long getDuplicates() {
+        return duplicates;
+    }
+
+    public long getInvalid() {
+        return invalid;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+}
@@ -0,0 +1,97 @@
+package com.pqc.fido2.importer;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * One line of an import file: a user and, optionally, one credential of
+ * that user. Keys are base64url encoded as in the registration API.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ImportRecord {
+
+    private String username;
+    private String email;
+    private String displayName;
+    private String credentialId;
+    private String publicKey;
+    private String pqPublicKey;
+    private String cryptoType;
+    private Long signatureCount;
+    private String rpId;
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public void setDisplayName(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getCredentialId() {
+        return credentialId;
+    }
+
+    public void setCredentialId(String credentialId) {
+        this.credentialId = credentialId;
+    }
+
+    public String getPublicKey() {
+        return publicKey;
+    }
+
+    public void setPublicKey(String publicKey) {
+        this.publicKey = publicKey;
+    }
+
+    public String getPqPublicKey() {
+        return pqPublicKey;
+    }
+
+    public void setPqPublicKey(String pqPublicKey) {
+        this.pqPublicKey = pqPublicKey;
+    }
+
+    public String getCryptoType() {
+        return cryptoType;
+    }
+
+    public void setCryptoType(String cryptoType) {
+        this.cryptoType = cryptoType;
+    }
+
+    public Long getSignatureCount() {
+        return signatureCount;
+    }
+
+    public void setSignatureCount(Long signatureCount) {
+        this.signatureCount = signatureCount;
+    }
+
+    public String getRpId() {
+        return rpId;
+    }
+
+    public void setRpId(String rpId) {
+        this.rpId = rpId;
+    }
+
+    public boolean hasCredential() {
+        return credentialId != null && !credentialId.isEmpty();
+    }
+}
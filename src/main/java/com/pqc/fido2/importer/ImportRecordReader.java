@@ -0,0 +1,166 @@
+package com.pqc.fido2.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Streams {@link ImportRecord}s from an NDJSON file (one JSON object per
+ * line) or a CSV file with a header row naming the columns. Only the current
+ * line is held in memory. Blank lines are skipped and not counted; every
+ * other line counts as one record, so {@link #recordsRead()} is a stable
+ * position for resuming.
+ */
+public class ImportRecordReader implements Closeable {
+
+    public enum Format {
+        NDJSON,
+        CSV;
+
+        /**
+         * Format from the file extension: .csv is CSV, anything else NDJSON
+         */
+        public static Format of(Path file) {
+            return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv") ? CSV : NDJSON;
+        }
+    }
+
+    private final BufferedReader reader;
+    private final Format format;
+    private final ObjectMapper objectMapper;
+    private String[] csvColumns;
+    private long recordsRead;
+
+    public ImportRecordReader(BufferedReader reader, Format format, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Next record, or null at the end of the file. A malformed line still
+     * counts as read and fails with IllegalArgumentException.
+     */
+    public ImportRecord next() throws IOException {
+        String line = nextLine();
+        if (line == null) {
+            return null;
+        }
+        recordsRead++;
+        return format == Format.CSV ? parseCsv(line) : parseJson(line);
+    }
+
+    /**
+     * Skip records without parsing them, to resume after a checkpoint
+     */
+    public void skip(long records) throws IOException {
+        while (recordsRead < records && nextLine() != null) {
+            recordsRead++;
+        }
+    }
+
+    public long recordsRead() {
+        return recordsRead;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private String nextLine() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == Format.CSV && csvColumns == null) {
+                csvColumns = splitCsv(line).toArray(String[]::new);
+                continue;
+            }
+            return line;
+        }
+        return null;
+    }
+
+    private ImportRecord parseJson(String line) {
+        try {
+            return objectMapper.readValue(line, ImportRecord.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed JSON in record " + recordsRead, e);
+        }
+    }
+
+    private ImportRecord parseCsv(String line) {
+        List<String> values = splitCsv(line);
+        if (values.size() > csvColumns.length) {
+            throw new IllegalArgumentException("Record " + recordsRead + " has more values than columns");
+        }
+        ImportRecord record = new ImportRecord();
+        for (int i = 0; i < values.size(); i++) {
+            String value = values.get(i).isEmpty() ? null : values.get(i);
+            switch (csvColumns[i].trim()) {
+                case "username" -> record.setUsername(value);
+                case "email" -> record.setEmail(value);
+                case "displayName" -> record.setDisplayName(value);
+                case "credentialId" -> record.setCredentialId(value);
+                case "publicKey" -> record.setPublicKey(value);
+                case "pqPublicKey" -> record.setPqPublicKey(value);
+                case "cryptoType" -> record.setCryptoType(value);
+                case "rpId" -> record.setRpId(value);
+                case "signatureCount" -> {
+                    try {
+                        record.setSignatureCount(value != null ? Long.parseLong(value) : null);
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Invalid signatureCount in record " + recordsRead, e);
+                    }
+                }
+                default -> {
+                    // Unknown columns are ignored, as unknown JSON fields are
+                }
+            }
+        }
+        return record;
+    }
+
+    /**
+     * RFC 4180 fields within one line: quoted fields may contain commas and "" escapes
+     */
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
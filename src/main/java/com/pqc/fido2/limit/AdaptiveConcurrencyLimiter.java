@@ -0,0 +1,100 @@
+package com.pqc.fido2.limit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Caps the requests in flight on one endpoint at a limit that an
+ * {@link AdaptiveLimit} adjusts from measured latency. Admission is a CAS on
+ * the in-flight count and never waits: a request over the limit is rejected
+ * at once, so overload turns into fast rejections instead of a queue in
+ * front of Tomcat threads and database connections.
+ *
+ * Every admitted request must be released with exactly one of
+ * {@link #onSuccess}, {@link #onDropped} or {@link #onIgnore}.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final String name;
+    private final AdaptiveLimit limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int currentLimit;
+
+    private final Counter rejected;
+
+    public AdaptiveConcurrencyLimiter(String name, AdaptiveLimit limit, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.limit = limit;
+        this.currentLimit = limit.getLimit();
+
+        this.rejected = Counter.builder("pqc.limit.rejected")
+            .description("Requests rejected by the adaptive concurrency limit")
+            .tag("endpoint", name)
+            .register(meterRegistry);
+        Gauge.builder("pqc.limit.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+            .description("Current adaptive concurrency limit")
+            .tag("endpoint", name)
+            .register(meterRegistry);
+        Gauge.builder("pqc.limit.in.flight", inFlight, AtomicInteger::get)
+            .description("Requests in flight under the adaptive concurrency limit")
+            .tag("endpoint", name)
+            .register(meterRegistry);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return currentLimit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= currentLimit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Release a request that completed; its latency feeds the limit
+     */
+    public void onSuccess(long rttNanos) {
+        release(rttNanos, false);
+    }
+
+    /**
+     * Release a request that failed because the system is overloaded
+     */
+    public void onDropped(long rttNanos) {
+        release(rttNanos, true);
+    }
+
+    /**
+     * Release a request whose latency says nothing about load
+     */
+    public void onIgnore() {
+        inFlight.decrementAndGet();
+    }
+
+    private void release(long rttNanos, boolean dropped) {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        synchronized (limit) {
+            limit.onSample(rttNanos, inFlightAtCompletion, dropped);
+            currentLimit = limit.getLimit();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.pqc.fido2.limit;
+
+/**
+ * Algorithm that derives a concurrency limit from observed request latency.
+ * Implementations are called by {@link AdaptiveConcurrencyLimiter} under its
+ * lock and need no synchronisation of their own.
+ */
+public interface AdaptiveLimit {
+
+    int getLimit();
+
+    /**
+     * Feed one completed request
+     *
+     * @param rttNanos time the request took
+     * @param inFlight requests in flight when it completed, including itself
+     * @param dropped whether the request failed in a way that signals overload
+     */
+    void onSample(long rttNanos, int inFlight, boolean dropped);
+}
@@ -0,0 +1,60 @@
+package com.pqc.fido2.limit;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Applies the adaptive concurrency limit of the endpoint to each /auth
+ * ceremony request. Requests over the limit get 503 immediately; admitted
+ * requests feed their latency back into the limit, and server errors count
+ * as drops.
+ */
+@Component
+@Profile("!reactive")
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private ConcurrencyLimiterRegistry limiterRegistry;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !limiterRegistry.isEnabled()
+            || !"POST".equals(request.getMethod()) || !request.getRequestURI().startsWith("/auth/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        AdaptiveConcurrencyLimiter limiter = limiterRegistry.resolve(request.getRequestURI());
+        if (!limiter.tryAcquire()) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write(ConcurrencyLimiterRegistry.OVERLOADED_BODY);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = response.getStatus() >= 500;
+        } finally {
+            long rtt = System.nanoTime() - start;
+            if (failed) {
+                limiter.onDropped(rtt);
+            } else {
+                limiter.onSuccess(rtt);
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.pqc.fido2.limit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Adaptive concurrency limits bound from pqc.fido2.concurrency-limit. Each
+ * entry under endpoints gets a limiter of its own for the exact request path;
+ * other /auth requests share one limiter configured by defaults.
+ */
+@ConfigurationProperties(prefix = "pqc.fido2.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    public enum Algorithm {
+        VEGAS,
+        GRADIENT
+    }
+
+    private boolean enabled = true;
+    private Endpoint defaults = new Endpoint();
+    private List<Endpoint> endpoints = new ArrayList<>();
+
+    /**
+     * Limit settings for one endpoint; path is ignored for the defaults
+     */
+    public static class Endpoint {
+        private String path;
+        private Algorithm algorithm = Algorithm.VEGAS;
+        private int initialLimit = 20;
+        private int minLimit = 4;
+        private int maxLimit = 200;
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public Algorithm getAlgorithm() {
+            return algorithm;
+        }
+
+        public void setAlgorithm(Algorithm algorithm) {
+            this.algorithm = algorithm;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Endpoint getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Endpoint defaults) {
+        this.defaults = defaults;
+    }
+
+    public List<Endpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    public void setEndpoints(List<Endpoint> endpoints) {
+        this.endpoints = endpoints;
+    }
+}
@@ -0,0 +1,70 @@
+package com.pqc.fido2.limit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds one {@link AdaptiveConcurrencyLimiter} per configured /auth
+ * endpoint plus a shared one for the rest, and maps request paths to them.
+ */
+@Component
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+public class ConcurrencyLimiterRegistry {
+
+    static final String OVERLOADED_BODY = "{\"status\":\"error\",\"message\":\"Server overloaded, retry later\"}";
+
+    private static final Logger log = LoggerFactory.getLogger(ConcurrencyLimiterRegistry.class);
+
+    private final boolean enabled;
+    private final AdaptiveConcurrencyLimiter defaultLimiter;
+    private final Map<String, AdaptiveConcurrencyLimiter> limitersByPath;
+
+    public ConcurrencyLimiterRegistry(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.defaultLimiter = create("default", properties.getDefaults(), meterRegistry);
+
+        Map<String, AdaptiveConcurrencyLimiter> byPath = new HashMap<>();
+        for (ConcurrencyLimitProperties.Endpoint endpoint : properties.getEndpoints()) {
+            String path = endpoint.getPath();
+            if (path == null || path.isBlank()) {
+                throw new IllegalArgumentException("Concurrency limit endpoint requires a path");
+            }
+            if (byPath.put(path, create(path, endpoint, meterRegistry)) != null) {
+                throw new IllegalArgumentException("Duplicate concurrency limit endpoint: " + path);
+            }
+        }
+        this.limitersByPath = Map.copyOf(byPath);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Limiter for the given request path; the shared default limiter if no endpoint is configured for it
+     */
+    public AdaptiveConcurrencyLimiter resolve(String path) {
+        AdaptiveConcurrencyLimiter limiter = limitersByPath.get(path);
+        return limiter != null ? limiter : defaultLimiter;
+    }
+
+    private static AdaptiveConcurrencyLimiter create(String name, ConcurrencyLimitProperties.Endpoint endpoint,
+                                                     MeterRegistry meterRegistry) {
+        int min = Math.max(1, endpoint.getMinLimit());
+        int max = Math.max(min, endpoint.getMaxLimit());
+        int initial = Math.max(min, Math.min(max, endpoint.getInitialLimit()));
+        AdaptiveLimit limit = endpoint.getAlgorithm() == ConcurrencyLimitProperties.Algorithm.GRADIENT
+            ? new GradientLimit(initial, min, max)
+            : new VegasLimit(initial, min, max);
+
+        log.info("[CONCURRENCY LIMIT] - {} algorithm={} initial={} min={} max={}",
+            name, endpoint.getAlgorithm(), initial, min, max);
+        return new AdaptiveConcurrencyLimiter(name, limit, meterRegistry);
+    }
+}
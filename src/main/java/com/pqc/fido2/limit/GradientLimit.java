@@ -0,0 +1,56 @@
+package com.pqc.fido2.limit;
+
+/**
+ * Gradient style limit: compares the latest latency against a long-term
+ * exponential average. While latency is within the tolerance of the average
+ * the limit grows by sqrt(limit) per sample; above it the limit is scaled
+ * down by long / short latency, but never by more than half at once.
+ * Changes are smoothed so a single slow request cannot halve the limit.
+ */
+public class GradientLimit implements AdaptiveLimit {
+
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final int LONG_WINDOW = 600;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private double limit;
+    private double longRttNanos;
+
+    public GradientLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+    }
+
+    @Override
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    @Override
+    public void onSample(long rttNanos, int inFlight, boolean dropped) {
+        if (rttNanos <= 0) {
+            return;
+        }
+        if (longRttNanos == 0) {
+            longRttNanos = rttNanos;
+        } else {
+            double factor = 2.0 / (LONG_WINDOW + 1);
+            longRttNanos = longRttNanos * (1 - factor) + rttNanos * factor;
+        }
+        // After a long overload the average lags far behind; pull it towards the present
+        if (longRttNanos / rttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+
+        if (!dropped && inFlight * 2 < limit) {
+            return;
+        }
+        double gradient = dropped ? 0.5 : Math.max(0.5, Math.min(1.0, TOLERANCE * longRttNanos / rttNanos));
+        double newLimit = limit * gradient + (gradient == 1.0 ? Math.sqrt(limit) : 0);
+        newLimit = limit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+}
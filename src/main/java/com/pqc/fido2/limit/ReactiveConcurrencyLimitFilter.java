@@ -0,0 +1,63 @@
+package com.pqc.fido2.limit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * WebFlux counterpart of {@link ConcurrencyLimitFilter}
+ */
+@Component
+@Profile("reactive")
+public class ReactiveConcurrencyLimitFilter implements WebFilter {
+
+    @Autowired
+    private ConcurrencyLimiterRegistry limiterRegistry;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!limiterRegistry.isEnabled()
+                || request.getMethod() != HttpMethod.POST || !request.getPath().value().startsWith("/auth/")) {
+            return chain.filter(exchange);
+        }
+
+        AdaptiveConcurrencyLimiter limiter = limiterRegistry.resolve(request.getPath().value());
+        ServerHttpResponse response = exchange.getResponse();
+        if (!limiter.tryAcquire()) {
+            response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            DataBuffer body = response.bufferFactory().wrap(
+                ConcurrencyLimiterRegistry.OVERLOADED_BODY.getBytes(StandardCharsets.UTF_8));
+            return response.writeWith(Mono.just(body));
+        }
+
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+            .doFinally(signal -> {
+                long rtt = System.nanoTime() - start;
+                HttpStatusCode status = response.getStatusCode();
+                if (signal == SignalType.CANCEL) {
+                    limiter.onIgnore();
+                } else if (signal == SignalType.ON_ERROR || (status != null && status.is5xxServerError())) {
+                    limiter.onDropped(rtt);
+                } else {
+                    limiter.onSuccess(rtt);
+                }
+            });
+    }
+}
@@ -0,0 +1,70 @@
+package com.pqc.fido2.limit;
+
+/**
+ * TCP Vegas style limit. The lowest latency seen is taken as the no-load
+ * latency, and limit * (1 - noLoadRtt / rtt) estimates how many requests are
+ * queued rather than being worked on. The limit grows while that estimate is
+ * small, holds between alpha and beta, and shrinks above beta or on a drop;
+ * all thresholds scale with log10(limit).
+ *
+ * The no-load latency only ever moves down, so it is re-measured every
+ * probeInterval * limit samples to follow a system that got slower for good.
+ */
+public class VegasLimit implements AdaptiveLimit {
+
+    private static final int PROBE_INTERVAL = 30;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private double limit;
+    private long noLoadRttNanos;
+    private long samplesSinceProbe;
+
+    public VegasLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+    }
+
+    @Override
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    @Override
+    public void onSample(long rttNanos, int inFlight, boolean dropped) {
+        if (rttNanos <= 0) {
+            return;
+        }
+        if (++samplesSinceProbe >= PROBE_INTERVAL * (long) limit) {
+            samplesSinceProbe = 0;
+            noLoadRttNanos = rttNanos;
+            return;
+        }
+        if (noLoadRttNanos == 0 || rttNanos < noLoadRttNanos) {
+            noLoadRttNanos = rttNanos;
+            return;
+        }
+
+        double step = Math.max(1, Math.log10(limit));
+        double newLimit;
+        if (dropped) {
+            newLimit = limit - step;
+        } else if (inFlight * 2 < limit) {
+            // Not using the limit we have; the latency says nothing about a higher one
+            return;
+        } else {
+            double queued = Math.ceil(limit * (1 - (double) noLoadRttNanos / rttNanos));
+            if (queued <= step) {
+                newLimit = limit + 6 * step;
+            } else if (queued < 3 * step) {
+                newLimit = limit + step;
+            } else if (queued > 6 * step) {
+                newLimit = limit - step;
+            } else {
+                return;
+            }
+        }
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+}
@@ -7,7 +7,8 @@ import java.time.LocalDateTime;
 @Table(name = "authentication_sessions")
 public class AuthenticationSession {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "authentication_sessions_seq")
+    @SequenceGenerator(name = "authentication_sessions_seq", sequenceName = "authentication_sessions_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "session_id", unique = true, nullable = false)
@@ -28,6 +29,9 @@ public class AuthenticationSession {
     @Column(name = "is_used")
     private boolean isUsed = false;
 
+    @Column(name = "rp_id")
+    private String rpId;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "auth_type")
     private AuthType authType;
@@ -123,6 +127,17 @@ public class AuthenticationSession {
         this.user = user;
     }
 
+    /**
+     * RP ID of the tenant the ceremony belongs to
+     */
+    public String getRpId() {
+        return rpId;
+    }
+
+    public void setRpId(String rpId) {
+        this.rpId = rpId;
+    }
+
     public boolean isExpired() {
         return LocalDateTime.now().isAfter(expiresAt);
     }
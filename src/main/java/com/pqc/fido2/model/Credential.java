@@ -1,13 +1,16 @@
 package com.pqc.fido2.model;
 
+import com.pqc.fido2.service.CredentialIndexListener;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "credentials")
+@EntityListeners(CredentialIndexListener.class)
 public class Credential {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "credentials_seq")
+    @SequenceGenerator(name = "credentials_seq", sequenceName = "credentials_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "credential_id", unique = true, nullable = false)
@@ -31,6 +34,12 @@ public class Credential {
     @Column(name = "is_active")
     private boolean isActive = true;
 
+    @Column(name = "clone_suspected")
+    private boolean cloneSuspected = false;
+
+    @Column(name = "rp_id")
+    private String rpId;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "crypto_type")
     private CryptoType cryptoType;
@@ -117,6 +126,14 @@ public class Credential {
         isActive = active;
     }
 
+    public boolean isCloneSuspected() {
+        return cloneSuspected;
+    }
+
+    public void setCloneSuspected(boolean cloneSuspected) {
+        this.cloneSuspected = cloneSuspected;
+    }
+
     public CryptoType getCryptoType() {
         return cryptoType;
     }
@@ -133,9 +150,33 @@ public class Credential {
         this.user = user;
     }
 
+    /**
+     * RP ID of the tenant the credential belongs to
+     */
+    public String getRpId() {
+        return rpId;
+    }
+
+    public void setRpId(String rpId) {
+        this.rpId = rpId;
+    }
+
     public enum CryptoType {
         CLASSICAL,
         POST_QUANTUM,
-        HYBRID
+        HYBRID;
+
+        /**
+         * Crypto type implied by which public keys a credential carries
+         */
+        public static CryptoType fromKeys(String publicKey, String pqPublicKey) {
+            if (publicKey != null && pqPublicKey != null) {
+                return HYBRID;
+            } else if (pqPublicKey != null) {
+                return POST_QUANTUM;
+            } else {
+                return CLASSICAL;
+            }
+        }
     }
 }
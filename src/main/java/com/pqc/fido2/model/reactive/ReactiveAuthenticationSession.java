@@ -0,0 +1,146 @@
+package com.pqc.fido2.model.reactive;
+
+import com.pqc.fido2.model.AuthenticationSession;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * R2DBC mapping of the authentication_sessions table, used by the reactive stack
+ */
+@Table("authentication_sessions")
+public class ReactiveAuthenticationSession {
+    @Id
+    private Long id;
+
+    @Column("session_id")
+    private String sessionId;
+
+    @Column("challenge")
+    private String challenge;
+
+    @Column("pq_challenge")
+    private String pqChallenge;
+
+    @Column("created_at")
+    private LocalDateTime createdAt;
+
+    @Column("expires_at")
+    private LocalDateTime expiresAt;
+
+    @Column("is_used")
+    private boolean isUsed = false;
+
+    @Column("rp_id")
+    private String rpId;
+
+    @Column("auth_type")
+    private AuthenticationSession.AuthType authType;
+
+    @Column("user_id")
+    private Long userId;
+
+    // Constructors
+    public ReactiveAuthenticationSession() {}
+
+    public ReactiveAuthenticationSession(String sessionId, String challenge, String pqChallenge,
+                                         AuthenticationSession.AuthType authType, Long userId) {
+        this.sessionId = sessionId;
+        this.challenge = challenge;
+        this.pqChallenge = pqChallenge;
+        this.authType = authType;
+        this.userId = userId;
+        this.createdAt = LocalDateTime.now();
+        this.expiresAt = LocalDateTime.now().plusMinutes(5); // 5 minutes expiry
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public String getChallenge() {
+        return challenge;
+    }
+
+    public void setChallenge(String challenge) {
+        this.challenge = challenge;
+    }
+
+    public String getPqChallenge() {
+        return pqChallenge;
+    }
+
+    public void setPqChallenge(String pqChallenge) {
+        this.pqChallenge = pqChallenge;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public boolean isUsed() {
+        return isUsed;
+    }
+
+    public void setUsed(boolean used) {
+        isUsed = used;
+    }
+
+    public AuthenticationSession.AuthType getAuthType() {
+        return authType;
+    }
+
+    public void setAuthType(AuthenticationSession.AuthType authType) {
+        this.authType = authType;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    /**
+     * RP ID of the tenant the ceremony belongs to
+     */
+    public String getRpId() {
+        return rpId;
+    }
+
+    public void setRpId(String rpId) {
+        this.rpId = rpId;
+    }
+
+    public boolean isExpired() {
+        return LocalDateTime.now().isAfter(expiresAt);
+    }
+}
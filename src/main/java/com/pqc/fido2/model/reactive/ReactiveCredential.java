@@ -0,0 +1,163 @@
+package com.pqc.fido2.model.reactive;
+
+import com.pqc.fido2.model.Credential;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * R2DBC mapping of the credentials table, used by the reactive stack
+ */
+@Table("credentials")
+public class ReactiveCredential {
+    @Id
+    private Long id;
+
+    @Column("credential_id")
+    private String credentialId;
+
+    @Column("public_key")
+    private String publicKey;
+
+    @Column("pq_public_key")
+    private String pqPublicKey;
+
+    @Column("signature_count")
+    private long signatureCount = 0;
+
+    @Column("created_at")
+    private LocalDateTime createdAt;
+
+    @Column("last_used")
+    private LocalDateTime lastUsed;
+
+    @Column("is_active")
+    private boolean isActive = true;
+
+    @Column("clone_suspected")
+    private boolean cloneSuspected = false;
+
+    @Column("rp_id")
+    private String rpId;
+
+    @Column("crypto_type")
+    private Credential.CryptoType cryptoType;
+
+    @Column("user_id")
+    private Long userId;
+
+    // Constructors
+    public ReactiveCredential() {}
+
+    public ReactiveCredential(String credentialId, String publicKey, String pqPublicKey,
+                              Credential.CryptoType cryptoType, Long userId) {
+        this.credentialId = credentialId;
+        this.publicKey = publicKey;
+        this.pqPublicKey = pqPublicKey;
+        this.cryptoType = cryptoType;
+        this.userId = userId;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getCredentialId() {
+        return credentialId;
+    }
+
+    public void setCredentialId(String credentialId) {
+        this.credentialId = credentialId;
+    }
+
+    public String getPublicKey() {
+        return publicKey;
+    }
+
+    public void setPublicKey(String publicKey) {
+        this.publicKey = publicKey;
+    }
+
+    public String getPqPublicKey() {
+        return pqPublicKey;
+    }
+
+    public void setPqPublicKey(String pqPublicKey) {
+        this.pqPublicKey = pqPublicKey;
+    }
+
+    public long getSignatureCount() {
+        return signatureCount;
+    }
+
+    public void setSignatureCount(long signatureCount) {
+        this.signatureCount = signatureCount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getLastUsed() {
+        return lastUsed;
+    }
+
+    public void setLastUsed(LocalDateTime lastUsed) {
+        this.lastUsed = lastUsed;
+    }
+
+    public boolean isActive() {
+        return isActive;
+    }
+
+    public void setActive(boolean active) {
+        isActive = active;
+    }
+
+    public boolean isCloneSuspected() {
+        return cloneSuspected;
+    }
+
+    public void setCloneSuspected(boolean cloneSuspected) {
+        this.cloneSuspected = cloneSuspected;
+    }
+
+    public Credential.CryptoType getCryptoType() {
+        return cryptoType;
+    }
+
+    public void setCryptoType(Credential.CryptoType cryptoType) {
+        this.cryptoType = cryptoType;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    /**
+     * RP ID of the tenant the credential belongs to
+     */
+    public String getRpId() {
+        return rpId;
+    }
+
+    public void setRpId(String rpId) {
+        this.rpId = rpId;
+    }
+}
@@ -0,0 +1,101 @@
+package com.pqc.fido2.model.reactive;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * R2DBC mapping of the users table, used by the reactive stack
+ */
+@Table("users")
+public class ReactiveUser {
+    @Id
+    private Long id;
+
+    @Column("username")
+    private String username;
+
+    @Column("email")
+    private String email;
+
+    @Column("display_name")
+    private String displayName;
+
+    @Column("created_at")
+    private LocalDateTime createdAt;
+
+    @Column("last_login")
+    private LocalDateTime lastLogin;
+
+    @Column("is_active")
+    private boolean isActive = true;
+
+    // Constructors
+    public ReactiveUser() {}
+
+    public ReactiveUser(String username, String email, String displayName) {
+        this.username = username;
+        this.email = email;
+        this.displayName = displayName;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public void setDisplayName(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getLastLogin() {
+        return lastLogin;
+    }
+
+    public void setLastLogin(LocalDateTime lastLogin) {
+        this.lastLogin = lastLogin;
+    }
+
+    public boolean isActive() {
+        return isActive;
+    }
+
+    public void setActive(boolean active) {
+        isActive = active;
+    }
+}
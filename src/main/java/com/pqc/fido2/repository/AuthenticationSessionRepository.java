@@ -3,14 +3,19 @@ package com.pqc.fido2.repository;
 import com.pqc.fido2.model.AuthenticationSession;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface AuthenticationSessionRepository extends JpaRepository<AuthenticationSession, Long> {
+    // Sessions are read back right after they are written, so never from a lagging replica
+    @Transactional
     Optional<AuthenticationSession> findBySessionId(String sessionId);
+    List<AuthenticationSession> findBySessionIdIn(Collection<String> sessionIds);
     List<AuthenticationSession> findByExpiresAtBeforeAndIsUsedFalse(LocalDateTime now);
     void deleteByExpiresAtBefore(LocalDateTime now);
 }
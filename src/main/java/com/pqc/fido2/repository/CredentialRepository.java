@@ -3,15 +3,42 @@ package com.pqc.fido2.repository;
 import com.pqc.fido2.model.Credential;
 import com.pqc.fido2.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CredentialRepository extends JpaRepository<Credential, Long> {
+    // Loads for CredentialIndex, which keeps what it reads; a replica row could be stale or missing
+    @Transactional
     Optional<Credential> findByCredentialId(String credentialId);
+
+    // Declared queries get no transaction of their own; read-only ones may be served by a replica
+    @Transactional(readOnly = true)
     List<Credential> findByUserAndIsActiveTrue(User user);
+
+    @Transactional(readOnly = true)
     List<Credential> findByUserAndCryptoTypeAndIsActiveTrue(User user, Credential.CryptoType cryptoType);
+
     boolean existsByCredentialId(String credentialId);
+
+    @Query("select c.credentialId from Credential c where c.credentialId in :credentialIds")
+    List<String> findExistingCredentialIds(@Param("credentialIds") Collection<String> credentialIds);
+
+    @Modifying
+    @Query("update Credential c set c.signatureCount = :count, c.lastUsed = :lastUsed " +
+           "where c.credentialId = :credentialId and c.signatureCount <= :count")
+    int updateUsage(@Param("credentialId") String credentialId, @Param("count") long count,
+                    @Param("lastUsed") LocalDateTime lastUsed);
+
+    @Modifying
+    @Query("update Credential c set c.cloneSuspected = true where c.credentialId = :credentialId")
+    int markCloneSuspected(@Param("credentialId") String credentialId);
 }
@@ -2,14 +2,32 @@ package com.pqc.fido2.repository;
 
 import com.pqc.fido2.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    // Declared queries get no transaction of their own; read-only ones may be served by a replica
+    @Transactional(readOnly = true)
     Optional<User> findByUsername(String username);
+
+    @Transactional(readOnly = true)
     Optional<User> findByEmail(String email);
+
+    @Transactional(readOnly = true)
     boolean existsByUsername(String username);
+
+    @Transactional(readOnly = true)
     boolean existsByEmail(String email);
+
+    @Transactional
+    @Modifying
+    @Query("update User u set u.lastLogin = :lastLogin where u.id = :id")
+    int updateLastLogin(@Param("id") Long id, @Param("lastLogin") LocalDateTime lastLogin);
 }
@@ -0,0 +1,21 @@
+package com.pqc.fido2.repository.reactive;
+
+import com.pqc.fido2.model.reactive.ReactiveAuthenticationSession;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface ReactiveAuthenticationSessionRepository extends ReactiveCrudRepository<ReactiveAuthenticationSession, Long> {
+    Mono<ReactiveAuthenticationSession> findBySessionId(String sessionId);
+
+    /**
+     * Claim a session for completion; 0 rows updated means another request
+     * already used it
+     */
+    @Modifying
+    @Query("UPDATE authentication_sessions SET is_used = TRUE WHERE session_id = :sessionId AND is_used = FALSE")
+    Mono<Integer> markUsed(String sessionId);
+}
@@ -0,0 +1,37 @@
+package com.pqc.fido2.repository.reactive;
+
+import com.pqc.fido2.model.reactive.ReactiveCredential;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ReactiveCredentialRepository extends ReactiveCrudRepository<ReactiveCredential, Long> {
+    Mono<ReactiveCredential> findByCredentialId(String credentialId);
+    Flux<ReactiveCredential> findByUserIdAndIsActiveTrue(Long userId);
+    Mono<Boolean> existsByCredentialId(String credentialId);
+
+    /**
+     * Conditional counter advance; 0 rows updated means the reported counter
+     * did not increase (WebAuthn L2 §6.1.1) and the credential may be cloned
+     */
+    @Modifying
+    @Query("UPDATE credentials SET signature_count = :count, last_used = :lastUsed " +
+           "WHERE credential_id = :credentialId " +
+           "AND (signature_count < :count OR (:count = 0 AND signature_count = 0))")
+    Mono<Integer> advanceSignatureCount(String credentialId, long count, LocalDateTime lastUsed);
+
+    @Modifying
+    @Query("UPDATE credentials SET signature_count = signature_count + 1, last_used = :lastUsed " +
+           "WHERE credential_id = :credentialId")
+    Mono<Integer> incrementSignatureCount(String credentialId, LocalDateTime lastUsed);
+
+    @Modifying
+    @Query("UPDATE credentials SET clone_suspected = TRUE WHERE credential_id = :credentialId")
+    Mono<Integer> markCloneSuspected(String credentialId);
+}
@@ -0,0 +1,21 @@
+package com.pqc.fido2.repository.reactive;
+
+import com.pqc.fido2.model.reactive.ReactiveUser;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ReactiveUserRepository extends ReactiveCrudRepository<ReactiveUser, Long> {
+    Mono<ReactiveUser> findByUsername(String username);
+    Mono<Boolean> existsByUsername(String username);
+    Mono<Boolean> existsByEmail(String email);
+
+    @Modifying
+    @Query("UPDATE users SET last_login = :lastLogin WHERE id = :id")
+    Mono<Integer> updateLastLogin(Long id, LocalDateTime lastLogin);
+}
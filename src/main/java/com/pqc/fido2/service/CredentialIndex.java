@@ -0,0 +1,289 @@
+package com.pqc.fido2.service;
+
+import com.pqc.fido2.crypto.ClassicalSignatureService;
+import com.pqc.fido2.crypto.MLDilithiumPublicKey;
+import com.pqc.fido2.crypto.MLDilithiumService;
+import com.pqc.fido2.crypto.mldsa.ExpandedKeyCache;
+import com.pqc.fido2.model.Credential;
+import com.pqc.fido2.repository.CredentialRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through, in-memory index from credential ID to {@link CredentialMetadata}.
+ *
+ * The database stays the source of truth: entries are loaded on first use,
+ * dropped whenever the credential row changes (see {@link CredentialIndexListener})
+ * and evicted oldest-first once the estimated footprint exceeds
+ * pqc.fido2.credential-index-max-bytes. Unknown IDs are not cached.
+ *
+ * Credential IDs are client-chosen and up to 1023 bytes long, so they are keyed
+ * by a 128-bit SHA-256 prefix; the full ID is kept on the entry and compared on
+ * every hit.
+ *
+ * When a {@link PublicKeyArena} is available, post-quantum keys are stored
+ * there instead of on the entry and do not count towards the heap budget.
+ * An entry whose key has since been evicted from the arena is reloaded.
+ */
+@Service
+@Profile("!reactive")
+public class CredentialIndex {
+
+    // Map nodes, key and the fixed fields of the metadata record
+    private static final int ENTRY_OVERHEAD_BYTES = 256;
+
+    private final CredentialRepository credentialRepository;
+    private final MLDilithiumService mlDilithiumService;
+    private final ClassicalSignatureService classicalSignatureService;
+    private final long maxBytes;
+    private final PublicKeyArena keyArena;
+    private final ExpandedKeyCache expandedKeyCache;
+
+    // Lookups read the map without locking; every change to it happens under the order's lock
+    private final ConcurrentHashMap<IndexKey, CredentialMetadata> entries = new ConcurrentHashMap<>();
+    // Cached keys, oldest load first; a reloaded key moves to the end
+    private final LinkedHashMap<IndexKey, Boolean> insertionOrder = new LinkedHashMap<>();
+    private final AtomicLong estimatedBytes = new AtomicLong();
+    // Bumped on every invalidation so a load that raced with a change is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @Autowired
+    public CredentialIndex(CredentialRepository credentialRepository,
+                           MLDilithiumService mlDilithiumService,
+                           ClassicalSignatureService classicalSignatureService,
+                           @Value("${pqc.fido2.credential-index-max-bytes:67108864}") long maxBytes,
+                           ObjectProvider<PublicKeyArena> keyArena,
+                           ObjectProvider<ExpandedKeyCache> expandedKeyCache) {
+        this.credentialRepository = credentialRepository;
+        this.mlDilithiumService = mlDilithiumService;
+        this.classicalSignatureService = classicalSignatureService;
+        this.maxBytes = maxBytes;
+        this.keyArena = keyArena.getIfAvailable();
+        this.expandedKeyCache = expandedKeyCache.getIfAvailable();
+    }
+
+    /**
+     * Index that keeps every decoded key on the heap
+     */
+    public CredentialIndex(CredentialRepository credentialRepository,
+                           MLDilithiumService mlDilithiumService,
+                           ClassicalSignatureService classicalSignatureService,
+                           long maxBytes) {
+        this.credentialRepository = credentialRepository;
+        this.mlDilithiumService = mlDilithiumService;
+        this.classicalSignatureService = classicalSignatureService;
+        this.maxBytes = maxBytes;
+        this.keyArena = null;
+        this.expandedKeyCache = null;
+    }
+
+    /**
+     * Look up a credential, loading it from the database on a miss
+     */
+    public Optional<CredentialMetadata> find(String credentialId) {
+        if (credentialId == null) {
+            return Optional.empty();
+        }
+
+        IndexKey key = IndexKey.of(credentialId);
+        CredentialMetadata cached = entries.get(key);
+        if (cached != null && cached.getCredentialId().equals(credentialId)
+                && (!cached.isPqKeyOffHeap() || keyArena.contains(credentialId))) {
+            hits.incrementAndGet();
+            return Optional.of(cached);
+        }
+
+        misses.incrementAndGet();
+        long loadGeneration = generation.get();
+        Optional<CredentialMetadata> loaded = credentialRepository.findByCredentialId(credentialId).map(this::toMetadata);
+        loaded.ifPresent(metadata -> {
+            if (generation.get() == loadGeneration) {
+                put(key, metadata);
+            }
+        });
+        return loaded;
+    }
+
+    /**
+     * Drop the cached entry for a credential; the next lookup reloads it
+     */
+    public void invalidate(String credentialId) {
+        generation.incrementAndGet();
+        IndexKey key = IndexKey.of(credentialId);
+        synchronized (insertionOrder) {
+            CredentialMetadata removed = entries.remove(key);
+            insertionOrder.remove(key);
+            if (removed != null) {
+                estimatedBytes.addAndGet(-removed.getEstimatedBytes());
+            }
+        }
+        if (keyArena != null) {
+            keyArena.remove(credentialId);
+        }
+        if (expandedKeyCache != null) {
+            expandedKeyCache.invalidate(credentialId);
+        }
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        synchronized (insertionOrder) {
+            entries.clear();
+            insertionOrder.clear();
+            estimatedBytes.set(0);
+        }
+        if (keyArena != null) {
+            keyArena.clear();
+        }
+        if (expandedKeyCache != null) {
+            expandedKeyCache.clear();
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long estimatedBytes() {
+        return estimatedBytes.get();
+    }
+
+    public long hitCount() {
+        return hits.get();
+    }
+
+    public long missCount() {
+        return misses.get();
+    }
+
+    public long evictionCount() {
+        return evictions.get();
+    }
+
+    private void put(IndexKey key, CredentialMetadata metadata) {
+        if (metadata.getEstimatedBytes() > maxBytes) {
+            return;
+        }
+
+        List<CredentialMetadata> evicted = new ArrayList<>();
+        synchronized (insertionOrder) {
+            CredentialMetadata previous = entries.put(key, metadata);
+            estimatedBytes.addAndGet(metadata.getEstimatedBytes()
+                - (previous != null ? previous.getEstimatedBytes() : 0));
+            // Re-inserting moves a reloaded key behind the others
+            insertionOrder.remove(key);
+            insertionOrder.put(key, Boolean.TRUE);
+
+            Iterator<IndexKey> eldest = insertionOrder.keySet().iterator();
+            while (estimatedBytes.get() > maxBytes && eldest.hasNext()) {
+                CredentialMetadata removed = entries.remove(eldest.next());
+                eldest.remove();
+                if (removed != null) {
+                    estimatedBytes.addAndGet(-removed.getEstimatedBytes());
+                    evictions.incrementAndGet();
+                    evicted.add(removed);
+                }
+            }
+        }
+        for (CredentialMetadata removed : evicted) {
+            if (removed.isPqKeyOffHeap()) {
+                keyArena.remove(removed.getCredentialId());
+            }
+        }
+    }
+
+    private CredentialMetadata toMetadata(Credential credential) {
+        PublicKey publicKey = null;
+        MLDilithiumPublicKey pqPublicKey = null;
+        boolean pqKeyOffHeap = false;
+        long keyBytes = 0;
+
+        // A key that cannot be decoded is cached as absent, so verification fails as it would uncached
+        if (credential.getPublicKey() != null) {
+            try {
+                byte[] encoded = Base64.getUrlDecoder().decode(credential.getPublicKey());
+                publicKey = classicalSignatureService.decodePublicKey(encoded);
+                keyBytes += 2L * encoded.length;
+            } catch (IllegalArgumentException e) {
+                publicKey = null;
+            }
+        }
+        if (credential.getPqPublicKey() != null) {
+            try {
+                byte[] encoded = Base64.getUrlDecoder().decode(credential.getPqPublicKey());
+                if (keyArena != null && keyArena.put(credential.getCredentialId(), encoded)) {
+                    pqKeyOffHeap = true;
+                } else {
+                    pqPublicKey = mlDilithiumService.decodePublicKey(encoded);
+                    keyBytes += encoded.length;
+                }
+            } catch (IllegalArgumentException e) {
+                pqPublicKey = null;
+            }
+        }
+
+        long size = ENTRY_OVERHEAD_BYTES + 2L * credential.getCredentialId().length() + keyBytes
+            + (credential.getRpId() != null ? 2L * credential.getRpId().length() : 0);
+        return new CredentialMetadata(credential.getCredentialId(), credential.getUser().getId(),
+            credential.getRpId(), credential.getCryptoType(), credential.isActive(), credential.getSignatureCount(),
+            credential.isCloneSuspected(), publicKey, pqPublicKey, pqKeyOffHeap, size);
+    }
+
+    /**
+     * Fixed-width key: the first 128 bits of SHA-256(credentialId)
+     */
+    private static final class IndexKey {
+        private final long high;
+        private final long low;
+
+        private IndexKey(long high, long low) {
+            this.high = high;
+            this.low = low;
+        }
+
+        static IndexKey of(String credentialId) {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(credentialId.getBytes(StandardCharsets.UTF_8));
+                ByteBuffer buffer = ByteBuffer.wrap(digest);
+                return new IndexKey(buffer.getLong(), buffer.getLong());
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof IndexKey)) return false;
+            IndexKey other = (IndexKey) obj;
+            return high == other.high && low == other.low;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (low ^ (low >>> 32));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.pqc.fido2.service;
+
+import com.pqc.fido2.model.Credential;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA entity listener that keeps {@link CredentialIndex} in step with the
+ * credentials table. Hibernate creates it through Spring's bean container
+ * while the EntityManagerFactory is still being built, so the index (which
+ * needs a repository) is looked up lazily.
+ *
+ * Bulk JPQL updates bypass entity listeners. The clone flag is not held by
+ * the index, and its signature count only seeds {@link SignatureCounterService},
+ * which invalidates the entry when it drops its own counter.
+ */
+public class CredentialIndexListener {
+
+    @Autowired
+    private ObjectProvider<CredentialIndex> credentialIndex;
+
+    @PostUpdate
+    @PostRemove
+    public void onChange(Credential credential) {
+        CredentialIndex index = credentialIndex.getIfAvailable();
+        if (index == null) {
+            return;
+        }
+        String credentialId = credential.getCredentialId();
+        index.invalidate(credentialId);
+
+        // Drop it again once committed, in case a reader reloaded the old row meanwhile
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    index.invalidate(credentialId);
+                }
+            });
+        }
+    }
+}
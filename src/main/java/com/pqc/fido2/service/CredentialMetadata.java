@@ -0,0 +1,105 @@
+package com.pqc.fido2.service;
+
+import com.pqc.fido2.crypto.MLDilithiumPublicKey;
+import com.pqc.fido2.model.Credential;
+
+import java.security.PublicKey;
+
+/**
+ * Immutable snapshot of the credential fields needed to complete a login,
+ * with the stored keys already decoded. Held by {@link CredentialIndex}.
+ */
+public final class CredentialMetadata {
+    private final String credentialId;
+    private final Long userId;
+    private final String rpId;
+    private final Credential.CryptoType cryptoType;
+    private final boolean active;
+    private final long signatureCount;
+    private final boolean cloneSuspected;
+    private final PublicKey publicKey;
+    private final MLDilithiumPublicKey pqPublicKey;
+    private final boolean pqKeyOffHeap;
+    private final long estimatedBytes;
+
+    public CredentialMetadata(String credentialId, Long userId, String rpId, Credential.CryptoType cryptoType,
+                              boolean active, long signatureCount, boolean cloneSuspected, PublicKey publicKey,
+                              MLDilithiumPublicKey pqPublicKey, boolean pqKeyOffHeap, long estimatedBytes) {
+        this.credentialId = credentialId;
+        this.userId = userId;
+        this.rpId = rpId;
+        this.cryptoType = cryptoType;
+        this.active = active;
+        this.signatureCount = signatureCount;
+        this.cloneSuspected = cloneSuspected;
+        this.publicKey = publicKey;
+        this.pqPublicKey = pqPublicKey;
+        this.pqKeyOffHeap = pqKeyOffHeap;
+        this.estimatedBytes = estimatedBytes;
+    }
+
+    public String getCredentialId() {
+        return credentialId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    /**
+     * RP ID of the tenant the credential was registered with
+     */
+    public String getRpId() {
+        return rpId;
+    }
+
+    public Credential.CryptoType getCryptoType() {
+        return cryptoType;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Stored signature counter at the time this snapshot was loaded
+     */
+    public long getSignatureCount() {
+        return signatureCount;
+    }
+
+    /**
+     * Stored clone flag at the time this snapshot was loaded; see
+     * {@link SignatureCounterService#isCloneSuspected} for flags not written yet
+     */
+    public boolean isCloneSuspected() {
+        return cloneSuspected;
+    }
+
+    /**
+     * Decoded classical public key, or null if the credential has none or it could not be decoded
+     */
+    public PublicKey getPublicKey() {
+        return publicKey;
+    }
+
+    /**
+     * Decoded post-quantum public key, or null if the credential has none, it
+     * could not be decoded or it is held off-heap
+     */
+    public MLDilithiumPublicKey getPqPublicKey() {
+        return pqPublicKey;
+    }
+
+    /**
+     * True if the post-quantum key is held in {@link PublicKeyArena} under
+     * the credential ID instead of on this snapshot
+     */
+    public boolean isPqKeyOffHeap() {
+        return pqKeyOffHeap;
+    }
+
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+}
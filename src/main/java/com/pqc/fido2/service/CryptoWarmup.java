@@ -0,0 +1,262 @@
+package com.pqc.fido2.service;
+
+import com.pqc.fido2.crypto.*;
+import com.pqc.fido2.crypto.mldsa.ExpandedKeyCache;
+import com.pqc.fido2.model.Credential;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs keygen/sign/verify cycles for every configured crypto type and layer
+ * count at startup, so the crypto code is loaded and JIT-compiled before the
+ * first login. Verification goes through {@link SignatureVerificationService}
+ * with base64url-encoded signatures and, for post-quantum keys, a synthetic
+ * credential ID, i.e. the same path a login takes: the {@link ExpandedKeyCache}
+ * is filled and then hit once, and the entry is evicted after every cycle.
+ * Each cycle runs as bulk work on the {@link VerificationScheduler}, so it
+ * only ever takes the workers bulk work may use.
+ *
+ * Spring Boot runs application runners before it publishes
+ * ReadinessState.ACCEPTING_TRAFFIC, and this bean is also part of the readiness
+ * health group, so /actuator/health/readiness reports UP only afterwards.
+ *
+ * Once the warm-up cycles are done, pqc.fido2.warmup.sample-cycles more cycles
+ * are timed into pqc.crypto.latency{operation,crypto.type,layers} as the
+ * post-warm-up baseline; the total time is exported as pqc.warmup.duration.
+ */
+@Component
+public class CryptoWarmup implements ApplicationRunner, HealthIndicator {
+
+    private static final Logger log = LoggerFactory.getLogger(CryptoWarmup.class);
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+    // ':' is not in the base64url alphabet, so no registered credential can share these IDs
+    private static final String CREDENTIAL_ID_PREFIX = "warmup:";
+
+    @Autowired
+    private MLDilithiumService mlDilithiumService;
+
+    @Autowired
+    private ClassicalSignatureService classicalSignatureService;
+
+    @Autowired
+    private SignatureVerificationService signatureVerificationService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired(required = false)
+    private ExpandedKeyCache expandedKeyCache;
+
+    @Autowired
+    private VerificationScheduler verificationScheduler;
+
+    @Value("${pqc.fido2.warmup.cycles:30}")
+    private int cycles;
+
+    @Value("${pqc.fido2.warmup.sample-cycles:10}")
+    private int sampleCycles;
+
+    @Value("${pqc.fido2.warmup.crypto-types:CLASSICAL,POST_QUANTUM,HYBRID}")
+    private Credential.CryptoType[] cryptoTypes;
+
+    @Value("${pqc.fido2.warmup.layers:3}")
+    private int[] layerCounts;
+
+    @Value("${pqc.fido2.warmup.max-duration-ms:60000}")
+    private long maxDurationMillis;
+
+    private volatile boolean complete;
+    private volatile long durationMillis;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        TimeGauge.builder("pqc.warmup.duration", this, TimeUnit.MILLISECONDS, CryptoWarmup::getDurationMillis)
+            .description("Time spent in the startup crypto warm-up")
+            .register(meterRegistry);
+
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxDurationMillis);
+
+        int completedCycles = 0;
+        for (int i = 0; i < cycles && System.nanoTime() < deadline; i++) {
+            if (!runScheduled(i, false, deadline)) {
+                break;
+            }
+            completedCycles++;
+        }
+        for (int i = 0; i < sampleCycles; i++) {
+            runScheduled(cycles + i, true, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDurationMillis));
+        }
+
+        durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        complete = true;
+        if (completedCycles < cycles) {
+            log.warn("[CRYPTO WARMUP] - Stopped after {} of {} cycles, limit {} ms reached",
+                completedCycles, cycles, maxDurationMillis);
+        }
+        log.info("[CRYPTO WARMUP] - {} warm-up and {} sampled cycles in {} ms",
+            completedCycles, sampleCycles, durationMillis);
+    }
+
+    @Override
+    public Health health() {
+        return complete
+            ? Health.up().withDetail("durationMs", durationMillis).build()
+            : Health.outOfService().withDetail("reason", "crypto warm-up in progress").build();
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    /**
+     * Run a cycle as bulk work; false if the deadline passed first
+     */
+    private boolean runScheduled(int cycle, boolean record, long deadlineNanos) {
+        try {
+            verificationScheduler.call(VerificationScheduler.Priority.BULK, deadlineNanos, () -> {
+                runCycle(cycle, record);
+                return null;
+            });
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Crypto warm-up cycle " + cycle + " failed: " + e.getMessage(), e);
+        }
+    }
+
+    private void runCycle(int cycle, boolean record) {
+        byte[] data = ("warmup-" + cycle).getBytes(StandardCharsets.UTF_8);
+
+        for (Credential.CryptoType cryptoType : cryptoTypes) {
+            if (cryptoType == Credential.CryptoType.CLASSICAL) {
+                runClassical(data, record);
+                continue;
+            }
+            for (int layers : layerCounts) {
+                if (cryptoType == Credential.CryptoType.POST_QUANTUM) {
+                    runPostQuantum(data, layers, record);
+                } else {
+                    runHybrid(data, layers, record);
+                }
+            }
+        }
+    }
+
+    private void runClassical(byte[] data, boolean record) {
+        String type = Credential.CryptoType.CLASSICAL.name();
+        KeyPair keyPair = time("keygen", type, 0, record, this::generateEcKeyPair);
+        byte[] signature = time("sign", type, 0, record,
+            () -> classicalSignatureService.sign(data, keyPair.getPrivate()));
+        String publicKey = BASE64URL.encodeToString(keyPair.getPublic().getEncoded());
+
+        requireValid(time("verify", type, 0, record, () -> signatureVerificationService.verify(
+            data, Credential.CryptoType.CLASSICAL, publicKey, null, BASE64URL.encodeToString(signature), null)));
+    }
+
+    private void runPostQuantum(byte[] data, int layers, boolean record) {
+        String type = Credential.CryptoType.POST_QUANTUM.name();
+        MLDilithiumKeyPair keyPair = time("keygen", type, layers, record,
+            () -> mlDilithiumService.generateMLKeyPair(layers));
+        MLDilithiumSignature signature = time("sign", type, layers, record,
+            () -> mlDilithiumService.signML(data, keyPair.getPrivateKey()));
+        MLDilithiumPublicKey pqPublicKey = mlDilithiumService.decodePublicKey(keyPair.getPublicKey().getEncoded());
+        String pqSignature = BASE64URL.encodeToString(signature.getEncoded());
+        String credentialId = CREDENTIAL_ID_PREFIX + type + ":" + layers;
+
+        try {
+            requireValid(time("verify", type, layers, record, () -> signatureVerificationService.verifyPostQuantum(
+                data, credentialId, pqPublicKey, pqSignature)));
+            // Again with the expanded key cached, as for a returning credential
+            requireValid(signatureVerificationService.verifyPostQuantum(data, credentialId, pqPublicKey, pqSignature));
+        } finally {
+            evict(credentialId);
+        }
+    }
+
+    private void runHybrid(byte[] data, int layers, boolean record) {
+        String type = Credential.CryptoType.HYBRID.name();
+        MLDilithiumKeyPair pqKeyPair = time("keygen", type, layers, record,
+            () -> mlDilithiumService.generateMLKeyPair(layers));
+        KeyPair classicalKeyPair = generateEcKeyPair();
+        HybridSignature signature = time("sign", type, layers, record,
+            () -> mlDilithiumService.createHybridSignature(data, pqKeyPair.getPrivateKey(), classicalKeyPair.getPrivate()));
+        PublicKey publicKey = classicalSignatureService.decodePublicKey(classicalKeyPair.getPublic().getEncoded());
+        MLDilithiumPublicKey pqPublicKey = mlDilithiumService.decodePublicKey(pqKeyPair.getPublicKey().getEncoded());
+        String classicalSignature = BASE64URL.encodeToString(signature.getClassicalSignature());
+        String pqSignature = BASE64URL.encodeToString(signature.getPqSignature().getEncoded());
+        String credentialId = CREDENTIAL_ID_PREFIX + type + ":" + layers;
+
+        try {
+            requireValid(time("verify", type, layers, record, () -> signatureVerificationService.verifyHybrid(
+                data, publicKey, credentialId, pqPublicKey, classicalSignature, pqSignature)));
+            requireValid(signatureVerificationService.verifyHybrid(
+                data, publicKey, credentialId, pqPublicKey, classicalSignature, pqSignature));
+        } finally {
+            evict(credentialId);
+        }
+    }
+
+    private void evict(String credentialId) {
+        if (expandedKeyCache != null) {
+            expandedKeyCache.invalidate(credentialId);
+        }
+    }
+
+    private <T> T time(String operation, String cryptoType, int layers, boolean record, Supplier<T> op) {
+        if (!record) {
+            return op.get();
+        }
+        return Timer.builder("pqc.crypto.latency")
+            .description("Crypto operation latency sampled after the startup warm-up")
+            .tag("operation", operation)
+            .tag("crypto.type", cryptoType)
+            .tag("layers", Integer.toString(layers))
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry)
+            .record(op);
+    }
+
+    private KeyPair generateEcKeyPair() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            return generator.generateKeyPair();
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to generate EC key pair", e);
+        }
+    }
+
+    private static void requireValid(boolean valid) {
+        if (!valid) {
+            throw new IllegalStateException("Crypto warm-up produced an invalid signature");
+        }
+    }
+}
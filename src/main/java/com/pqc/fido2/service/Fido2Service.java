@@ -1,20 +1,29 @@
 package com.pqc.fido2.service;
 
+import com.pqc.fido2.audit.AuditEvent;
+import com.pqc.fido2.audit.AuditJournal;
 import com.pqc.fido2.crypto.*;
 import com.pqc.fido2.dto.*;
 import com.pqc.fido2.model.*;
 import com.pqc.fido2.repository.*;
+import com.pqc.fido2.tenant.Tenant;
+import com.pqc.fido2.tenant.VerificationRejectedException;
+import com.pqc.fido2.webauthn.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.security.SecureRandom;
-import java.time.LocalDateTime;
 import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Service
+@Profile("!reactive")
 public class Fido2Service {
     
     @Autowired
@@ -25,6 +34,27 @@ public class Fido2Service {
     
     @Autowired
     private MLDilithiumService mlDilithiumService;
+
+    @Autowired
+    private SignatureVerificationService signatureVerificationService;
+
+    @Autowired
+    private WebAuthnParser webAuthnParser;
+
+    @Autowired
+    private SignatureCounterService signatureCounterService;
+
+    @Autowired
+    private CredentialIndex credentialIndex;
+
+    @Autowired
+    private VerificationCoalescer verificationCoalescer;
+
+    @Autowired
+    private VerificationScheduler verificationScheduler;
+
+    @Autowired
+    private RegistrationPipeline registrationPipeline;
     
     @Autowired
     private UserRepository userRepository;
@@ -34,21 +64,25 @@ public class Fido2Service {
     
     @Autowired
     private AuthenticationSessionRepository sessionRepository;
+
+    @Autowired(required = false)
+    private AuditJournal auditJournal;
     
     private final SecureRandom secureRandom = new SecureRandom();
-    private final String RP_ID = "localhost";
 
     /**
-     * Initiate user registration
+     * Initiate user registration with the given tenant's relying party.
+     * Runs on the primary: the user lookup decides whether to insert one.
      */
-    public RegistrationResponse initiateRegistration(RegistrationRequest request) {
+    @Transactional
+    public RegistrationResponse initiateRegistration(Tenant tenant, RegistrationRequest request) {
+        long started = System.nanoTime();
         // Create or get user
-        User user = userService.findByUsername(request.getUsername())
-            .orElseGet(() -> userService.createUser(
-                request.getUsername(), 
-                request.getEmail(), 
-                request.getDisplayName()
-            ));
+        User user = userService.findOrCreateUser(
+            request.getUsername(),
+            request.getEmail(),
+            request.getDisplayName()
+        );
 
         // Generate challenges
         String sessionId = UUID.randomUUID().toString();
@@ -60,6 +94,7 @@ public class Fido2Service {
         AuthenticationSession session = new AuthenticationSession(
             sessionId, challenge, pqChallenge, authType, user
         );
+        session.setRpId(tenant.getRpId());
         sessionRepository.save(session);
 
         // Determine crypto type
@@ -70,46 +105,73 @@ public class Fido2Service {
         String userId = Base64.getUrlEncoder().withoutPadding().encodeToString(
             user.getId().toString().getBytes()
         );
+
+        audit(AuditEvent.Type.REGISTRATION_BEGIN, null, tenant, sessionId, user.getUsername(), null,
+            cryptoType, 0, started);
         
         return new RegistrationResponse(
-            sessionId, challenge, pqChallenge, cryptoType, RP_ID, userId
+            sessionId, challenge, pqChallenge, cryptoType, tenant.getRpId(), userId
         );
     }
 
     /**
-     * Complete user registration with credential
+     * Complete user registration with credential. Decoding, verification and
+     * the insert run in the {@link RegistrationPipeline}; this thread only
+     * waits for the outcome, outside a transaction so it holds no connection.
      */
-    public boolean completeRegistration(String sessionId, String credentialId, 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean completeRegistration(Tenant tenant, String sessionId, String credentialId,
                                       String publicKey, String pqPublicKey, 
                                       String signature, String pqSignature) {
-        Optional<AuthenticationSession> sessionOpt = sessionRepository.findBySessionId(sessionId);
-        if (sessionOpt.isEmpty() || sessionOpt.get().isUsed() || sessionOpt.get().isExpired()) {
-            return false;
+        long started = System.nanoTime();
+        RegistrationPipeline.Outcome outcome;
+        try {
+            outcome = registrationPipeline.completeRegistration(
+                tenant, sessionId, credentialId, publicKey, pqPublicKey, signature, pqSignature);
+        } catch (VerificationRejectedException e) {
+            audit(AuditEvent.Type.REGISTRATION_COMPLETE, AuditEvent.Failure.VERIFICATION_REJECTED, tenant, sessionId,
+                null, credentialId, null, 0, started);
+            throw e;
         }
+        return registrationCompleted(outcome, tenant, sessionId, started);
+    }
 
-        AuthenticationSession session = sessionOpt.get();
-        User user = session.getUser();
-
-        // Create credential
-        Credential.CryptoType cryptoType = determineCryptoType(publicKey, pqPublicKey);
-        Credential credential = new Credential(
-            credentialId, publicKey, pqPublicKey, cryptoType, user
-        );
-        credentialRepository.save(credential);
-
-        // Mark session as used
-        session.setUsed(true);
-        sessionRepository.save(session);
-
-        return true;
+    /**
+     * Complete user registration from a WebAuthn attestation object.
+     * The credential ID and public key are taken from the attested credential
+     * data; a post-quantum public key, and a signature made with it over the
+     * same data as the attestation, may be supplied alongside it for hybrid
+     * credentials.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean completeWebAuthnRegistration(Tenant tenant, String sessionId, String attestationObject,
+                                              String clientDataJSON, String pqPublicKey, String pqSignature) {
+        long started = System.nanoTime();
+        RegistrationPipeline.Outcome outcome;
+        try {
+            outcome = registrationPipeline.completeWebAuthnRegistration(
+                tenant, sessionId, attestationObject, clientDataJSON, pqPublicKey, pqSignature);
+        } catch (VerificationRejectedException e) {
+            audit(AuditEvent.Type.REGISTRATION_COMPLETE, AuditEvent.Failure.VERIFICATION_REJECTED, tenant, sessionId,
+                null, null, null, 0, started);
+            throw e;
+        }
+        return registrationCompleted(outcome, tenant, sessionId, started);
     }
 
     /**
-     * Initiate user authentication
+     * Initiate user authentication with the given tenant's relying party.
+     * Runs outside a transaction so the user and credential lookups are
+     * read-only ones, which may be served by a replica, while the session is
+     * written to the primary.
      */
-    public AuthenticationResponse initiateAuthentication(AuthenticationRequest request) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public AuthenticationResponse initiateAuthentication(Tenant tenant, AuthenticationRequest request) {
+        long started = System.nanoTime();
         Optional<User> userOpt = userService.findByUsername(request.getUsername());
         if (userOpt.isEmpty()) {
+            audit(AuditEvent.Type.AUTHENTICATION_BEGIN, AuditEvent.Failure.USER_UNKNOWN, tenant, null,
+                request.getUsername(), null, request.getCryptoType(), 0, started);
             throw new IllegalArgumentException("User not found");
         }
 
@@ -126,60 +188,180 @@ public class Fido2Service {
         AuthenticationSession session = new AuthenticationSession(
             sessionId, challenge, pqChallenge, authType, user
         );
+        session.setRpId(tenant.getRpId());
         sessionRepository.save(session);
 
-        // Prepare allowed credentials
+        // Prepare allowed credentials; only those registered with this relying party
         Object[] allowCredentials = credentials.stream()
-            .map(cred -> new Object() {
-                public String type = "public-key";
-                public String id = cred.getCredentialId();
-            })
+            .filter(cred -> tenant.getRpId().equals(cred.getRpId()))
+            .map(cred -> new PublicKeyCredentialDescriptor(cred.getCredentialId()))
             .toArray();
 
         String cryptoType = request.getCryptoType() != null ? 
             request.getCryptoType() : "hybrid";
 
+        audit(AuditEvent.Type.AUTHENTICATION_BEGIN, null, tenant, sessionId, user.getUsername(), null,
+            cryptoType, 0, started);
+
         return new AuthenticationResponse(
-            sessionId, challenge, pqChallenge, cryptoType, RP_ID, allowCredentials
+            sessionId, challenge, pqChallenge, cryptoType, tenant.getRpId(), allowCredentials
         );
     }
 
     /**
-     * Complete user authentication
+     * Complete user authentication. Identical concurrent or retried
+     * completions share one verification, see {@link VerificationCoalescer}.
      */
-    public boolean completeAuthentication(String sessionId, String credentialId, 
+    public boolean completeAuthentication(Tenant tenant, String sessionId, String credentialId,
                                         String signature, String pqSignature) {
-        Optional<AuthenticationSession> sessionOpt = sessionRepository.findBySessionId(sessionId);
-        if (sessionOpt.isEmpty() || sessionOpt.get().isUsed() || sessionOpt.get().isExpired()) {
-            return false;
+        VerificationCoalescer.Key key = VerificationCoalescer.key(
+            tenant.getId(), sessionId, credentialId, signature, pqSignature);
+        return verificationCoalescer.execute(key,
+            () -> doCompleteAuthentication(tenant, sessionId, credentialId, signature, pqSignature));
+    }
+
+    private boolean doCompleteAuthentication(Tenant tenant, String sessionId, String credentialId,
+                                           String signature, String pqSignature) {
+        long started = System.nanoTime();
+        Optional<AuthenticationSession> sessionOpt = findUsableSession(tenant, sessionId);
+        if (sessionOpt.isEmpty()) {
+            return authenticationCompleted(AuditEvent.Failure.SESSION_INVALID, tenant, sessionId, credentialId,
+                null, pqSignature, started);
         }
 
-        Optional<Credential> credentialOpt = credentialRepository.findByCredentialId(credentialId);
-        if (credentialOpt.isEmpty() || !credentialOpt.get().isActive()) {
-            return false;
+        Optional<CredentialMetadata> credentialOpt = findUsableCredential(tenant, credentialId);
+        if (credentialOpt.isEmpty()) {
+            return authenticationCompleted(AuditEvent.Failure.CREDENTIAL_UNKNOWN, tenant, sessionId, credentialId,
+                null, pqSignature, started);
         }
 
         AuthenticationSession session = sessionOpt.get();
-        Credential credential = credentialOpt.get();
+        CredentialMetadata credential = credentialOpt.get();
+        if (signatureCounterService.isCloneSuspected(credential)) {
+            return authenticationCompleted(AuditEvent.Failure.CLONE_SUSPECTED, tenant, sessionId, credentialId,
+                credential.getCryptoType(), pqSignature, started);
+        }
 
         // Verify signature based on crypto type
-        boolean isValid = verifySignature(session, credential, signature, pqSignature);
+        byte[] challengeBytes = Base64.getUrlDecoder().decode(session.getChallenge());
+        boolean isValid;
+        try {
+            isValid = verifySignature(tenant, challengeBytes, credential, signature, pqSignature);
+        } catch (VerificationRejectedException e) {
+            authenticationCompleted(AuditEvent.Failure.VERIFICATION_REJECTED, tenant, sessionId, credentialId,
+                credential.getCryptoType(), pqSignature, started);
+            throw e;
+        }
         
         if (isValid) {
-            // Update credential usage
-            credential.setSignatureCount(credential.getSignatureCount() + 1);
-            credential.setLastUsed(LocalDateTime.now());
-            credentialRepository.save(credential);
+            // No authenticator counter in this request shape; count the use instead
+            signatureCounterService.increment(credential);
+            recordSuccessfulAuthentication(session);
+        }
+
+        return authenticationCompleted(isValid ? null : AuditEvent.Failure.SIGNATURE_INVALID, tenant, sessionId,
+            credentialId, credential.getCryptoType(), pqSignature, started);
+    }
+
+    /**
+     * Complete user authentication from a WebAuthn assertion.
+     * Signatures are verified over authenticatorData || SHA-256(clientDataJSON).
+     */
+    public boolean completeWebAuthnAuthentication(Tenant tenant, String sessionId, String credentialId,
+                                                String authenticatorData, String clientDataJSON,
+                                                String signature, String pqSignature) {
+        VerificationCoalescer.Key key = VerificationCoalescer.key(tenant.getId(), sessionId, credentialId,
+            authenticatorData, clientDataJSON, signature, pqSignature);
+        return verificationCoalescer.execute(key, () -> doCompleteWebAuthnAuthentication(
+            tenant, sessionId, credentialId, authenticatorData, clientDataJSON, signature, pqSignature));
+    }
+
+    private boolean doCompleteWebAuthnAuthentication(Tenant tenant, String sessionId, String credentialId,
+                                                   String authenticatorData, String clientDataJSON,
+                                                   String signature, String pqSignature) {
+        long started = System.nanoTime();
+        Optional<AuthenticationSession> sessionOpt = findUsableSession(tenant, sessionId);
+        if (sessionOpt.isEmpty()) {
+            return authenticationCompleted(AuditEvent.Failure.SESSION_INVALID, tenant, sessionId, credentialId,
+                null, pqSignature, started);
+        }
+
+        Optional<CredentialMetadata> credentialOpt = findUsableCredential(tenant, credentialId);
+        if (credentialOpt.isEmpty()) {
+            return authenticationCompleted(AuditEvent.Failure.CREDENTIAL_UNKNOWN, tenant, sessionId, credentialId,
+                null, pqSignature, started);
+        }
+
+        AuthenticationSession session = sessionOpt.get();
+        CredentialMetadata credential = credentialOpt.get();
+        if (signatureCounterService.isCloneSuspected(credential)) {
+            return authenticationCompleted(AuditEvent.Failure.CLONE_SUSPECTED, tenant, sessionId, credentialId,
+                credential.getCryptoType(), pqSignature, started);
+        }
 
-            // Update user last login
-            userService.updateLastLogin(session.getUser());
+        AuthenticatorData authData;
+        byte[] signedData;
+        try {
+            byte[] clientDataBytes = decodeBase64Url(clientDataJSON);
+            authData = webAuthnParser.parseAuthenticatorData(decodeBase64Url(authenticatorData));
+            CollectedClientData clientData = webAuthnParser.parseClientData(clientDataBytes);
+            webAuthnParser.validate(authData, clientData,
+                CollectedClientData.TYPE_GET, session.getChallenge(), tenant.getRpId(),
+                tenant.getOrigins(), tenant.isAllowSubdomainOrigins());
+            signedData = webAuthnParser.signedData(authData, clientDataBytes);
+        } catch (IllegalArgumentException e) {
+            return authenticationCompleted(AuditEvent.Failure.MALFORMED, tenant, sessionId, credentialId,
+                credential.getCryptoType(), pqSignature, started);
+        }
+
+        boolean isValid;
+        try {
+            isValid = verifySignature(tenant, signedData, credential, signature, pqSignature);
+        } catch (VerificationRejectedException e) {
+            authenticationCompleted(AuditEvent.Failure.VERIFICATION_REJECTED, tenant, sessionId, credentialId,
+                credential.getCryptoType(), pqSignature, started);
+            throw e;
+        }
 
-            // Mark session as used
-            session.setUsed(true);
-            sessionRepository.save(session);
+        AuditEvent.Failure failure = null;
+        if (!isValid) {
+            failure = AuditEvent.Failure.SIGNATURE_INVALID;
+        } else if (!signatureCounterService.advance(credential, authData.getSignCount())) {
+            failure = AuditEvent.Failure.COUNTER_REGRESSION;
         }
 
-        return isValid;
+        if (failure == null) {
+            recordSuccessfulAuthentication(session);
+        }
+
+        return authenticationCompleted(failure, tenant, sessionId, credentialId,
+            credential.getCryptoType(), pqSignature, started);
+    }
+
+    private void recordSuccessfulAuthentication(AuthenticationSession session) {
+        // Credential counter and last use are persisted in batches by SignatureCounterService
+
+        // Update user last login; the session only holds a proxy, so this does not load the user
+        userService.updateLastLogin(session.getUser().getId());
+
+        // Mark session as used
+        session.setUsed(true);
+        sessionRepository.save(session);
+    }
+
+    /**
+     * A session is only usable with the tenant that started it
+     */
+    private Optional<AuthenticationSession> findUsableSession(Tenant tenant, String sessionId) {
+        return sessionRepository.findBySessionId(sessionId)
+            .filter(session -> !session.isUsed() && !session.isExpired())
+            .filter(session -> tenant.getRpId().equals(session.getRpId()));
+    }
+
+    private Optional<CredentialMetadata> findUsableCredential(Tenant tenant, String credentialId) {
+        return credentialIndex.find(credentialId)
+            .filter(CredentialMetadata::isActive)
+            .filter(credential -> tenant.getRpId().equals(credential.getRpId()));
     }
 
     private String generateChallenge() {
@@ -188,51 +370,65 @@ public class Fido2Service {
         return Base64.getUrlEncoder().withoutPadding().encodeToString(challenge);
     }
 
-    private Credential.CryptoType determineCryptoType(String publicKey, String pqPublicKey) {
-        if (publicKey != null && pqPublicKey != null) {
-            return Credential.CryptoType.HYBRID;
-        } else if (pqPublicKey != null) {
-            return Credential.CryptoType.POST_QUANTUM;
-        } else {
-            return Credential.CryptoType.CLASSICAL;
+    /**
+     * Admit through the tenant's bulkhead, then run as interactive work on the
+     * shared scheduler so logins are not slowed down by bulk crypto work.
+     * Throws {@link VerificationRejectedException} rather than answering false
+     * when either of them sheds the verification.
+     */
+    private boolean verifySignature(Tenant tenant, byte[] data, CredentialMetadata credential,
+                                  String signature, String pqSignature) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(tenant.getVerificationTimeoutMs());
+        return tenant.verify(() -> verificationScheduler.call(VerificationScheduler.Priority.INTERACTIVE, deadline,
+            () -> signatureVerificationService.verify(data, credential, signature, pqSignature)));
+    }
+
+    private boolean registrationCompleted(RegistrationPipeline.Outcome outcome, Tenant tenant, String sessionId,
+                                          long started) {
+        String cryptoType = outcome.publicKey() != null || outcome.pqPublicKey() != null
+            ? Credential.CryptoType.fromKeys(outcome.publicKey(), outcome.pqPublicKey()).name() : null;
+        audit(AuditEvent.Type.REGISTRATION_COMPLETE, outcome.failure(), tenant, sessionId, null,
+            outcome.credentialId(), cryptoType, layers(outcome.pqPublicKey(), dilithiumService.getKeySize()), started);
+        return outcome.isSuccess();
+    }
+
+    private boolean authenticationCompleted(AuditEvent.Failure failure, Tenant tenant, String sessionId,
+                                            String credentialId, Credential.CryptoType cryptoType,
+                                            String pqSignature, long started) {
+        audit(AuditEvent.Type.AUTHENTICATION_COMPLETE, failure, tenant, sessionId, null, credentialId,
+            cryptoType != null ? cryptoType.name() : null, layers(pqSignature, dilithiumService.getSignatureSize()),
+            started);
+        return failure == null;
+    }
+
+    /**
+     * Hand the ceremony step to the audit journal, if one is configured. This
+     * only queues the event; the journal's writer thread does the I/O.
+     */
+    private void audit(AuditEvent.Type type, AuditEvent.Failure failure, Tenant tenant, String sessionId,
+                       String username, String credentialId, String cryptoType, int layers, long started) {
+        if (auditJournal != null) {
+            auditJournal.publish(new AuditEvent(System.currentTimeMillis(), type, failure, tenant.getId(),
+                sessionId, username, credentialId, cryptoType, layers, System.nanoTime() - started));
         }
     }
 
-    private boolean verifySignature(AuthenticationSession session, Credential credential, 
-                                  String signature, String pqSignature) {
-        try {
-            byte[] challengeBytes = Base64.getUrlDecoder().decode(session.getChallenge());
-            
-            switch (credential.getCryptoType()) {
-                case POST_QUANTUM:
-                    return verifyPostQuantumSignature(challengeBytes, pqSignature, credential);
-                case HYBRID:
-                    return verifyHybridSignature(challengeBytes, signature, pqSignature, credential);
-                case CLASSICAL:
-                default:
-                    return verifyClassicalSignature(challengeBytes, signature, credential);
-            }
-        } catch (Exception e) {
-            return false;
-        }
-    }
-
-    private boolean verifyPostQuantumSignature(byte[] data, String pqSignature, Credential credential) {
-        // Implement post-quantum signature verification
-        // This is a simplified implementation
-        return pqSignature != null && !pqSignature.isEmpty();
-    }
-
-    private boolean verifyHybridSignature(byte[] data, String signature, String pqSignature, Credential credential) {
-        // Implement hybrid signature verification
-        // This is a simplified implementation
-        return signature != null && !signature.isEmpty() && 
-               pqSignature != null && !pqSignature.isEmpty();
-    }
-
-    private boolean verifyClassicalSignature(byte[] data, String signature, Credential credential) {
-        // Implement classical signature verification
-        // This is a simplified implementation
-        return signature != null && !signature.isEmpty();
+    /**
+     * Number of layers in a base64url-encoded multi-layered key or signature,
+     * from its length alone
+     */
+    private static int layers(String base64, int layerSize) {
+        if (base64 == null) {
+            return 0;
+        }
+        int length = base64.length();
+        while (length > 0 && base64.charAt(length - 1) == '=') {
+            length--;
+        }
+        return (int) (length * 6L / 8 / layerSize);
+    }
+
+    private byte[] decodeBase64Url(String value) {
+        return Base64.getUrlDecoder().decode(value);
     }
 }
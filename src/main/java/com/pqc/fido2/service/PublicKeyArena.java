@@ -0,0 +1,697 @@
+package com.pqc.fido2.service;
+
+import com.pqc.fido2.crypto.DilithiumCryptoService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Off-heap store for encoded ML-Dilithium public keys, so that millions of
+ * cached multi-layer keys do not sit on the Java heap.
+ *
+ * Keys live in direct-buffer chunks of pqc.fido2.key-arena.chunk-bytes, each
+ * dedicated to one layer count (size class) and cut into equal slots holding a
+ * small header followed by the layer keys back to back. Freed slots are
+ * reused by the same size class; a chunk whose last key is removed is
+ * released. Once pqc.fido2.key-arena.max-bytes is reserved, room is made by
+ * CLOCK (second-chance) eviction within the size class, or by evacuating the
+ * emptiest chunk of another class.
+ *
+ * The index from credential ID to slot is an open-addressing table over
+ * primitive arrays, keyed by a 128-bit SHA-256 prefix of the ID. Readers
+ * probe it under an optimistic {@link StampedLock} read and check the slot's
+ * version before and after using it (a seqlock), so a slot that is evicted
+ * and reused mid-verification is detected and the read retried.
+ */
+@Component
+@ConditionalOnProperty(name = "pqc.fido2.key-arena.enabled", havingValue = "true", matchIfMissing = true)
+public class PublicKeyArena {
+
+    /**
+     * Reads the layers of one stored key in place; offset is the first byte of layer 0
+     */
+    @FunctionalInterface
+    public interface KeyVerifier {
+        boolean verify(ByteBuffer memory, int offset, int layers);
+    }
+
+    // Slot header: version (odd while live), key high, key low
+    private static final int HEADER_BYTES = 24;
+    private static final int INITIAL_TABLE_CAPACITY = 1024;
+    private static final double MAX_LOAD = 0.6;
+    private static final VarHandle VERSION = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final int layerBytes;
+    private final long maxBytes;
+    private final int chunkBytes;
+
+    private final StampedLock lock = new StampedLock();
+    private final Map<Integer, SizeClass> sizeClasses = new HashMap<>();
+    private volatile Table table = new Table(INITIAL_TABLE_CAPACITY);
+    private volatile Chunk[] chunks = new Chunk[16];
+    private int clockHand;
+
+    // Written under the write lock, read without it by stats and gauges
+    private volatile long reservedBytes;
+    private volatile long liveSlotBytes;
+    private volatile long payloadBytes;
+    private volatile long freeSlotBytes;
+    private volatile int chunkCount;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @Autowired
+    public PublicKeyArena(DilithiumCryptoService dilithiumService, MeterRegistry meterRegistry,
+                          @Value("${pqc.fido2.key-arena.max-bytes:268435456}") long maxBytes,
+                          @Value("${pqc.fido2.key-arena.chunk-bytes:16777216}") int chunkBytes) {
+        this(dilithiumService.getKeySize(), maxBytes, chunkBytes);
+        registerMetrics(meterRegistry);
+    }
+
+    public PublicKeyArena(int layerBytes, long maxBytes, int chunkBytes) {
+        if (layerBytes <= 0 || chunkBytes <= 0 || maxBytes < chunkBytes) {
+            throw new IllegalArgumentException("Key arena needs max-bytes >= chunk-bytes > 0");
+        }
+        this.layerBytes = layerBytes;
+        this.maxBytes = maxBytes;
+        this.chunkBytes = chunkBytes;
+    }
+
+    /**
+     * Store the concatenated layer keys of a credential, replacing any
+     * previous key for it. Returns false if a key of this size cannot fit in
+     * a chunk; the caller keeps it on the heap instead.
+     */
+    public boolean put(String credentialId, byte[] encoded) {
+        if (encoded.length == 0 || encoded.length % layerBytes != 0) {
+            throw new IllegalArgumentException("Invalid ML-Dilithium public key length: " + encoded.length);
+        }
+        ByteBuffer key = key(credentialId);
+        long high = key.getLong(0);
+        long low = keyLow(high, key.getLong(8));
+        int layers = encoded.length / layerBytes;
+
+        long stamp = lock.writeLock();
+        try {
+            removeLocked(high, low);
+
+            SizeClass sizeClass = sizeClasses.computeIfAbsent(layers,
+                l -> new SizeClass(l, align8(HEADER_BYTES + l * layerBytes)));
+            if (sizeClass.slotBytes > chunkBytes) {
+                return false;
+            }
+            long location = allocate(sizeClass);
+            if (location < 0) {
+                return false;
+            }
+
+            Chunk chunk = chunks[chunkId(location)];
+            int offset = offset(location);
+            chunk.memory.putLong(offset + 8, high);
+            chunk.memory.putLong(offset + 16, low);
+            chunk.memory.put(offset + HEADER_BYTES, encoded);
+            // Publish: odd version marks the slot live
+            VERSION.setRelease(chunk.memory, offset, (long) VERSION.get(chunk.memory, offset) + 1);
+
+            chunk.liveSlots++;
+            sizeClass.liveSlots++;
+            liveSlotBytes += sizeClass.slotBytes;
+            payloadBytes += encoded.length;
+            insert(high, low, location);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Run the verifier against the stored key without copying it out. Returns
+     * false if the credential has no key in the arena.
+     */
+    public boolean verify(String credentialId, KeyVerifier verifier) {
+        ByteBuffer key = key(credentialId);
+        long high = key.getLong(0);
+        long low = keyLow(high, key.getLong(8));
+
+        // A second attempt covers a slot that was replaced while it was being read
+        for (int attempt = 0; attempt < 2; attempt++) {
+            long location = lookup(high, low);
+            if (location < 0) {
+                break;
+            }
+            Chunk[] current = chunks;
+            int chunkId = chunkId(location);
+            Chunk chunk = chunkId < current.length ? current[chunkId] : null;
+            if (chunk == null) {
+                continue;
+            }
+            int offset = offset(location);
+            long version = (long) VERSION.getAcquire(chunk.memory, offset);
+            if ((version & 1) == 0
+                    || chunk.memory.getLong(offset + 8) != high
+                    || chunk.memory.getLong(offset + 16) != low) {
+                continue;
+            }
+
+            boolean valid = verifier.verify(chunk.readOnly, offset + HEADER_BYTES, chunk.sizeClass.layers);
+
+            VarHandle.loadLoadFence();
+            if ((long) VERSION.getVolatile(chunk.memory, offset) == version) {
+                hits.incrementAndGet();
+                return valid;
+            }
+        }
+        misses.incrementAndGet();
+        return false;
+    }
+
+    public boolean contains(String credentialId) {
+        ByteBuffer key = key(credentialId);
+        long high = key.getLong(0);
+        return lookup(high, keyLow(high, key.getLong(8))) >= 0;
+    }
+
+    public boolean remove(String credentialId) {
+        ByteBuffer key = key(credentialId);
+        long high = key.getLong(0);
+        long low = keyLow(high, key.getLong(8));
+        long stamp = lock.writeLock();
+        try {
+            return removeLocked(high, low);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            Table current = table;
+            for (int i = 0; i <= current.mask; i++) {
+                if (!current.isEmpty(i)) {
+                    bumpVersion(current.location[i]);
+                }
+            }
+            table = new Table(INITIAL_TABLE_CAPACITY);
+            chunks = new Chunk[16];
+            sizeClasses.clear();
+            clockHand = 0;
+            reservedBytes = 0;
+            liveSlotBytes = 0;
+            payloadBytes = 0;
+            freeSlotBytes = 0;
+            chunkCount = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public Stats stats() {
+        long stamp = lock.readLock();
+        try {
+            return new Stats(table.size, chunkCount, reservedBytes, liveSlotBytes, payloadBytes, freeSlotBytes,
+                maxBytes, hits.get(), misses.get(), evictions.get());
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Point-in-time arena usage. Reserved bytes split into live slots, freed
+     * slots awaiting reuse by their size class (holes) and chunk tails not yet
+     * handed out.
+     */
+    public static final class Stats {
+        private final int entries;
+        private final int chunks;
+        private final long reservedBytes;
+        private final long liveSlotBytes;
+        private final long payloadBytes;
+        private final long freeSlotBytes;
+        private final long maxBytes;
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+
+        Stats(int entries, int chunks, long reservedBytes, long liveSlotBytes, long payloadBytes,
+              long freeSlotBytes, long maxBytes, long hits, long misses, long evictions) {
+            this.entries = entries;
+            this.chunks = chunks;
+            this.reservedBytes = reservedBytes;
+            this.liveSlotBytes = liveSlotBytes;
+            this.payloadBytes = payloadBytes;
+            this.freeSlotBytes = freeSlotBytes;
+            this.maxBytes = maxBytes;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+        }
+
+        public int getEntries() {
+            return entries;
+        }
+
+        public int getChunks() {
+            return chunks;
+        }
+
+        public long getReservedBytes() {
+            return reservedBytes;
+        }
+
+        public long getLiveSlotBytes() {
+            return liveSlotBytes;
+        }
+
+        /**
+         * Key bytes proper, without slot headers and alignment padding
+         */
+        public long getPayloadBytes() {
+            return payloadBytes;
+        }
+
+        public long getFreeSlotBytes() {
+            return freeSlotBytes;
+        }
+
+        public long getUnallocatedBytes() {
+            return reservedBytes - liveSlotBytes - freeSlotBytes;
+        }
+
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+
+        /**
+         * Share of reserved memory lost to holes left by removed keys
+         */
+        public double getFragmentation() {
+            return reservedBytes == 0 ? 0 : (double) freeSlotBytes / reservedBytes;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+    }
+
+    private long lookup(long high, long low) {
+        long stamp = lock.tryOptimisticRead();
+        Table current = table;
+        int slot = current.find(high, low);
+        long location = slot >= 0 ? current.location[slot] : -1;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                current = table;
+                slot = current.find(high, low);
+                location = slot >= 0 ? current.location[slot] : -1;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        if (slot >= 0) {
+            // Benign race: at worst a reference bit is lost or set on a neighbour
+            current.referenced[slot] = 1;
+        }
+        return location;
+    }
+
+    private long allocate(SizeClass sizeClass) {
+        while (true) {
+            if (sizeClass.freeCount > 0) {
+                freeSlotBytes -= sizeClass.slotBytes;
+                return sizeClass.free[--sizeClass.freeCount];
+            }
+            Chunk current = sizeClass.current;
+            if (current != null && current.allocatedSlots < current.capacitySlots) {
+                return location(current.id, current.allocatedSlots++ * sizeClass.slotBytes);
+            }
+            if (reservedBytes + chunkBytes <= maxBytes) {
+                sizeClass.current = newChunk(sizeClass);
+                continue;
+            }
+            boolean freed = sizeClass.liveSlots > 0 ? evictOne(sizeClass) : evacuateChunk(sizeClass);
+            if (!freed) {
+                return -1;
+            }
+        }
+    }
+
+    private Chunk newChunk(SizeClass sizeClass) {
+        Chunk[] current = chunks;
+        int id = 0;
+        while (id < current.length && current[id] != null) {
+            id++;
+        }
+        if (id == current.length) {
+            Chunk[] grown = new Chunk[current.length * 2];
+            System.arraycopy(current, 0, grown, 0, current.length);
+            current = grown;
+        }
+        Chunk chunk = new Chunk(id, sizeClass, chunkBytes / sizeClass.slotBytes);
+        current[id] = chunk;
+        chunks = current;
+        reservedBytes += chunk.memory.capacity();
+        chunkCount++;
+        return chunk;
+    }
+
+    /**
+     * CLOCK sweep over the index for an unreferenced key of the given size class
+     */
+    private boolean evictOne(SizeClass sizeClass) {
+        Table current = table;
+        for (int scanned = 0; scanned <= 2 * current.mask + 1; scanned++) {
+            int i = clockHand = (clockHand + 1) & current.mask;
+            if (current.isEmpty(i) || chunks[chunkId(current.location[i])].sizeClass != sizeClass) {
+                continue;
+            }
+            if (current.referenced[i] != 0) {
+                current.referenced[i] = 0;
+                continue;
+            }
+            removeAt(current, i);
+            evictions.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Make room for a size class that holds no keys by emptying and releasing
+     * the chunk of another class with the fewest live keys
+     */
+    private boolean evacuateChunk(SizeClass sizeClass) {
+        Chunk victim = null;
+        for (Chunk chunk : chunks) {
+            if (chunk != null && chunk.sizeClass != sizeClass
+                    && (victim == null || chunk.liveSlots < victim.liveSlots)) {
+                victim = chunk;
+            }
+        }
+        if (victim == null) {
+            return false;
+        }
+        if (victim.sizeClass.current == victim) {
+            victim.sizeClass.current = null;
+        }
+        int slotBytes = victim.sizeClass.slotBytes;
+        for (int slot = 0; slot < victim.allocatedSlots && victim.liveSlots > 0; slot++) {
+            int offset = slot * slotBytes;
+            if (((long) VERSION.get(victim.memory, offset) & 1) != 0
+                    && removeLocked(victim.memory.getLong(offset + 8), victim.memory.getLong(offset + 16))) {
+                evictions.incrementAndGet();
+            }
+        }
+        if (chunks[victim.id] == victim) {
+            release(victim);
+        }
+        return true;
+    }
+
+    private boolean removeLocked(long high, long low) {
+        Table current = table;
+        int slot = current.find(high, low);
+        if (slot < 0) {
+            return false;
+        }
+        removeAt(current, slot);
+        return true;
+    }
+
+    private void removeAt(Table current, int slot) {
+        free(current.location[slot]);
+        current.delete(slot);
+    }
+
+    private void free(long location) {
+        Chunk chunk = chunks[chunkId(location)];
+        SizeClass sizeClass = chunk.sizeClass;
+        bumpVersion(location);
+
+        chunk.liveSlots--;
+        sizeClass.liveSlots--;
+        liveSlotBytes -= sizeClass.slotBytes;
+        payloadBytes -= (long) sizeClass.layers * layerBytes;
+
+        if (chunk.liveSlots == 0 && sizeClass.current != chunk) {
+            release(chunk);
+        } else {
+            sizeClass.pushFree(location);
+            freeSlotBytes += sizeClass.slotBytes;
+        }
+    }
+
+    private void release(Chunk chunk) {
+        SizeClass sizeClass = chunk.sizeClass;
+        int kept = 0;
+        for (int i = 0; i < sizeClass.freeCount; i++) {
+            if (chunkId(sizeClass.free[i]) == chunk.id) {
+                freeSlotBytes -= sizeClass.slotBytes;
+            } else {
+                sizeClass.free[kept++] = sizeClass.free[i];
+            }
+        }
+        sizeClass.freeCount = kept;
+        if (sizeClass.current == chunk) {
+            sizeClass.current = null;
+        }
+        chunks[chunk.id] = null;
+        reservedBytes -= chunk.memory.capacity();
+        chunkCount--;
+        // The direct buffer itself is returned once no reader holds it
+    }
+
+    /**
+     * Even version: slot free or being rewritten; readers that started earlier fail validation
+     */
+    private void bumpVersion(long location) {
+        Chunk chunk = chunks[chunkId(location)];
+        int offset = offset(location);
+        VERSION.setVolatile(chunk.memory, offset, (long) VERSION.get(chunk.memory, offset) + 1);
+        VarHandle.storeStoreFence();
+    }
+
+    private void insert(long high, long low, long location) {
+        Table current = table;
+        if (current.size + 1 > (current.mask + 1) * MAX_LOAD) {
+            current = current.resize();
+            table = current;
+            clockHand = 0;
+        }
+        current.insert(high, low, location, (byte) 0);
+    }
+
+    private void registerMetrics(MeterRegistry meterRegistry) {
+        Gauge.builder("pqc.key.arena.entries", this, arena -> arena.table.size)
+            .description("Public keys held in the off-heap arena")
+            .register(meterRegistry);
+        Gauge.builder("pqc.key.arena.bytes", this, arena -> arena.reservedBytes)
+            .tag("state", "reserved").baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("pqc.key.arena.bytes", this, arena -> arena.liveSlotBytes)
+            .tag("state", "live").baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("pqc.key.arena.bytes", this, arena -> arena.freeSlotBytes)
+            .tag("state", "free").baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("pqc.key.arena.bytes", this, arena -> arena.payloadBytes)
+            .tag("state", "payload").baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("pqc.key.arena.fragmentation", this,
+                arena -> arena.reservedBytes == 0 ? 0 : (double) arena.freeSlotBytes / arena.reservedBytes)
+            .description("Share of reserved arena memory in freed slots")
+            .register(meterRegistry);
+        FunctionCounter.builder("pqc.key.arena.lookups", hits, AtomicLong::get)
+            .tag("result", "hit").register(meterRegistry);
+        FunctionCounter.builder("pqc.key.arena.lookups", misses, AtomicLong::get)
+            .tag("result", "miss").register(meterRegistry);
+        FunctionCounter.builder("pqc.key.arena.evictions", evictions, AtomicLong::get)
+            .register(meterRegistry);
+    }
+
+    private static long location(int chunkId, int offset) {
+        return ((long) chunkId << 32) | offset;
+    }
+
+    private static int chunkId(long location) {
+        return (int) (location >>> 32);
+    }
+
+    private static int offset(long location) {
+        return (int) location;
+    }
+
+    private static int align8(int bytes) {
+        return (bytes + 7) & ~7;
+    }
+
+    /**
+     * 128-bit SHA-256 prefix of the credential ID, as a buffer holding two longs
+     */
+    private static ByteBuffer key(String credentialId) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256")
+                .digest(credentialId.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static long keyLow(long high, long low) {
+        // (0, 0) marks an empty index slot
+        return high == 0 && low == 0 ? 1 : low;
+    }
+
+    /**
+     * Open-addressing table with linear probing and backward-shift deletion.
+     * Mutated only under the write lock.
+     */
+    private static final class Table {
+        final long[] high;
+        final long[] low;
+        final long[] location;
+        final byte[] referenced;
+        final int mask;
+        volatile int size;
+
+        Table(int capacity) {
+            high = new long[capacity];
+            low = new long[capacity];
+            location = new long[capacity];
+            referenced = new byte[capacity];
+            mask = capacity - 1;
+        }
+
+        boolean isEmpty(int slot) {
+            return high[slot] == 0 && low[slot] == 0;
+        }
+
+        int find(long keyHigh, long keyLow) {
+            int slot = (int) keyHigh & mask;
+            for (int probes = 0; probes <= mask; probes++) {
+                if (high[slot] == keyHigh && low[slot] == keyLow) {
+                    return slot;
+                }
+                if (isEmpty(slot)) {
+                    return -1;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        void insert(long keyHigh, long keyLow, long keyLocation, byte keyReferenced) {
+            int slot = (int) keyHigh & mask;
+            while (!isEmpty(slot)) {
+                slot = (slot + 1) & mask;
+            }
+            location[slot] = keyLocation;
+            referenced[slot] = keyReferenced;
+            low[slot] = keyLow;
+            high[slot] = keyHigh;
+            size++;
+        }
+
+        void delete(int slot) {
+            int hole = slot;
+            int next = slot;
+            while (true) {
+                next = (next + 1) & mask;
+                if (isEmpty(next)) {
+                    break;
+                }
+                int home = (int) high[next] & mask;
+                // Move the entry back unless its home lies cyclically in (hole, next]
+                boolean stays = hole <= next
+                    ? hole < home && home <= next
+                    : hole < home || home <= next;
+                if (!stays) {
+                    high[hole] = high[next];
+                    low[hole] = low[next];
+                    location[hole] = location[next];
+                    referenced[hole] = referenced[next];
+                    hole = next;
+                }
+            }
+            high[hole] = 0;
+            low[hole] = 0;
+            location[hole] = 0;
+            referenced[hole] = 0;
+            size--;
+        }
+
+        Table resize() {
+            Table grown = new Table((mask + 1) * 2);
+            for (int i = 0; i <= mask; i++) {
+                if (!isEmpty(i)) {
+                    grown.insert(high[i], low[i], location[i], referenced[i]);
+                }
+            }
+            return grown;
+        }
+    }
+
+    private static final class SizeClass {
+        final int layers;
+        final int slotBytes;
+        long[] free = new long[64];
+        int freeCount;
+        Chunk current;
+        int liveSlots;
+
+        SizeClass(int layers, int slotBytes) {
+            this.layers = layers;
+            this.slotBytes = slotBytes;
+        }
+
+        void pushFree(long location) {
+            if (freeCount == free.length) {
+                long[] grown = new long[free.length * 2];
+                System.arraycopy(free, 0, grown, 0, freeCount);
+                free = grown;
+            }
+            free[freeCount++] = location;
+        }
+    }
+
+    private static final class Chunk {
+        final int id;
+        final SizeClass sizeClass;
+        final ByteBuffer memory;
+        final ByteBuffer readOnly;
+        final int capacitySlots;
+        int allocatedSlots;
+        int liveSlots;
+
+        Chunk(int id, SizeClass sizeClass, int capacitySlots) {
+            this.id = id;
+            this.sizeClass = sizeClass;
+            this.capacitySlots = capacitySlots;
+            this.memory = ByteBuffer.allocateDirect(capacitySlots * sizeClass.slotBytes);
+            this.readOnly = memory.asReadOnlyBuffer();
+        }
+    }
+}
@@ -0,0 +1,373 @@
+package com.pqc.fido2.service;
+
+import com.pqc.fido2.dto.*;
+import com.pqc.fido2.model.AuthenticationSession;
+import com.pqc.fido2.model.Credential;
+import com.pqc.fido2.model.reactive.*;
+import com.pqc.fido2.repository.reactive.*;
+import com.pqc.fido2.tenant.Tenant;
+import com.pqc.fido2.tenant.VerificationRejectedException;
+import com.pqc.fido2.webauthn.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Reactive counterpart of {@link Fido2Service} with the same ceremony
+ * semantics. Database access goes through R2DBC and signature verification is
+ * moved onto the requesting tenant's bounded verification executor.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveFido2Service {
+
+    @Autowired
+    private ReactiveUserRepository userRepository;
+
+    @Autowired
+    private ReactiveCredentialRepository credentialRepository;
+
+    @Autowired
+    private ReactiveAuthenticationSessionRepository sessionRepository;
+
+    @Autowired
+    private SignatureVerificationService signatureVerificationService;
+
+    @Autowired
+    private WebAuthnParser webAuthnParser;
+
+    @Autowired
+    private VerificationScheduler verificationScheduler;
+
+    @Value("${pqc.fido2.registration.require-proof:false}")
+    private boolean requireProof;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    /**
+     * Initiate user registration with the given tenant's relying party
+     */
+    public Mono<RegistrationResponse> initiateRegistration(Tenant tenant, RegistrationRequest request) {
+        String cryptoType = request.getCryptoType() != null ? request.getCryptoType() : "hybrid";
+
+        return userRepository.findByUsername(request.getUsername())
+            .switchIfEmpty(Mono.defer(() -> createUser(
+                request.getUsername(), request.getEmail(), request.getDisplayName())))
+            .flatMap(user -> {
+                String sessionId = UUID.randomUUID().toString();
+                String challenge = generateChallenge();
+                String pqChallenge = generateChallenge();
+
+                ReactiveAuthenticationSession session = new ReactiveAuthenticationSession(
+                    sessionId, challenge, pqChallenge, AuthenticationSession.AuthType.REGISTRATION, user.getId());
+                session.setRpId(tenant.getRpId());
+
+                // Encode user ID as base64url for WebAuthn
+                String userId = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                    user.getId().toString().getBytes());
+
+                return sessionRepository.save(session).thenReturn(new RegistrationResponse(
+                    sessionId, challenge, pqChallenge, cryptoType, tenant.getRpId(), userId));
+            });
+    }
+
+    /**
+     * Complete user registration with credential; signatures, if sent, are
+     * over the session challenge
+     */
+    public Mono<Boolean> completeRegistration(Tenant tenant, String sessionId, String credentialId,
+                                              String publicKey, String pqPublicKey,
+                                              String signature, String pqSignature) {
+        return findUsableSession(tenant, sessionId)
+            .flatMap(session -> verifyProofs(tenant, decodeBase64Url(session.getChallenge()),
+                    publicKey, null, signature, pqPublicKey, pqSignature)
+                .flatMap(valid -> !valid ? Mono.just(false)
+                    : registerCredential(session, credentialId, publicKey, pqPublicKey)))
+            .onErrorReturn(IllegalArgumentException.class, false)
+            .defaultIfEmpty(false);
+    }
+
+    /**
+     * Complete user registration from a WebAuthn attestation object. A self
+     * attestation proves the attested key; a post-quantum key sent alongside
+     * a classical one may be proven by a signature over the same data.
+     */
+    public Mono<Boolean> completeWebAuthnRegistration(Tenant tenant, String sessionId, String attestationObject,
+                                                      String clientDataJSON, String pqPublicKey, String pqSignature) {
+        return findUsableSession(tenant, sessionId)
+            .flatMap(session -> {
+                AttestationObject attestation = webAuthnParser.parseAttestationObject(decodeBase64Url(attestationObject));
+                AuthenticatorData authenticatorData = attestation.getAuthenticatorData();
+                byte[] clientDataBytes = decodeBase64Url(clientDataJSON);
+                CollectedClientData clientData = webAuthnParser.parseClientData(clientDataBytes);
+                webAuthnParser.validate(authenticatorData, clientData,
+                    CollectedClientData.TYPE_CREATE, session.getChallenge(), tenant.getRpId(),
+                    tenant.getOrigins(), tenant.isAllowSubdomainOrigins());
+
+                String credentialId = encodeBase64Url(authenticatorData.getCredentialId());
+                CoseKey coseKey = authenticatorData.getCredentialPublicKey();
+                String selfAttestation = null;
+                if (attestation.isSelfAttestation()) {
+                    if (attestation.getSelfAttestationAlgorithm() != coseKey.getAlgorithm()) {
+                        throw new IllegalArgumentException("Self attestation algorithm does not match the credential key");
+                    }
+                    selfAttestation = encodeBase64Url(attestation.getSelfAttestationSignature());
+                }
+                byte[] signedData = webAuthnParser.signedData(authenticatorData, clientDataBytes);
+
+                if (coseKey.isPostQuantum()) {
+                    String attestedPqKey = encodeBase64Url(coseKey.getPublicKey());
+                    return verifyProofs(tenant, signedData, null, null, null, attestedPqKey, selfAttestation)
+                        .flatMap(valid -> !valid ? Mono.just(false)
+                            : registerCredential(session, credentialId, null, attestedPqKey));
+                }
+                PublicKey classicalKey = webAuthnParser.toPublicKey(coseKey);
+                String publicKey = encodeBase64Url(ByteBuffer.wrap(classicalKey.getEncoded()));
+                return verifyProofs(tenant, signedData, publicKey, classicalKey, selfAttestation, pqPublicKey, pqSignature)
+                    .flatMap(valid -> !valid ? Mono.just(false)
+                        : registerCredential(session, credentialId, publicKey, pqPublicKey));
+            })
+            .onErrorReturn(IllegalArgumentException.class, false)
+            .defaultIfEmpty(false);
+    }
+
+    /**
+     * Initiate user authentication with the given tenant's relying party
+     */
+    public Mono<AuthenticationResponse> initiateAuthentication(Tenant tenant, AuthenticationRequest request) {
+        String cryptoType = request.getCryptoType() != null ? request.getCryptoType() : "hybrid";
+
+        return userRepository.findByUsername(request.getUsername())
+            .switchIfEmpty(Mono.error(() -> new IllegalArgumentException("User not found")))
+            .flatMap(user -> credentialRepository.findByUserIdAndIsActiveTrue(user.getId())
+                .filter(cred -> tenant.getRpId().equals(cred.getRpId()))
+                .map(cred -> new PublicKeyCredentialDescriptor(cred.getCredentialId()))
+                .collectList()
+                .flatMap(allowCredentials -> {
+                    String sessionId = UUID.randomUUID().toString();
+                    String challenge = generateChallenge();
+                    String pqChallenge = generateChallenge();
+
+                    ReactiveAuthenticationSession session = new ReactiveAuthenticationSession(
+                        sessionId, challenge, pqChallenge, AuthenticationSession.AuthType.AUTHENTICATION, user.getId());
+                    session.setRpId(tenant.getRpId());
+
+                    return sessionRepository.save(session).thenReturn(new AuthenticationResponse(
+                        sessionId, challenge, pqChallenge, cryptoType, tenant.getRpId(), allowCredentials.toArray()));
+                }));
+    }
+
+    /**
+     * Complete user authentication
+     */
+    public Mono<Boolean> completeAuthentication(Tenant tenant, String sessionId, String credentialId,
+                                                String signature, String pqSignature) {
+        return findUsableSession(tenant, sessionId)
+            .zipWith(findActiveCredential(tenant, credentialId))
+            .flatMap(pair -> {
+                ReactiveAuthenticationSession session = pair.getT1();
+                ReactiveCredential credential = pair.getT2();
+                byte[] challengeBytes = Base64.getUrlDecoder().decode(session.getChallenge());
+
+                return verifySignature(tenant, challengeBytes, credential, signature, pqSignature)
+                    .flatMap(valid -> !valid ? Mono.just(false) : claimSession(session)
+                        .flatMap(claimed -> !claimed ? Mono.just(false) : credentialRepository
+                            .incrementSignatureCount(credential.getCredentialId(), LocalDateTime.now())
+                            .then(userRepository.updateLastLogin(session.getUserId(), LocalDateTime.now()))
+                            .thenReturn(true)));
+            })
+            .defaultIfEmpty(false);
+    }
+
+    /**
+     * Complete user authentication from a WebAuthn assertion
+     */
+    public Mono<Boolean> completeWebAuthnAuthentication(Tenant tenant, String sessionId, String credentialId,
+                                                        String authenticatorData, String clientDataJSON,
+                                                        String signature, String pqSignature) {
+        return findUsableSession(tenant, sessionId)
+            .zipWith(findActiveCredential(tenant, credentialId))
+            .flatMap(pair -> {
+                ReactiveAuthenticationSession session = pair.getT1();
+                ReactiveCredential credential = pair.getT2();
+
+                byte[] clientDataBytes = decodeBase64Url(clientDataJSON);
+                AuthenticatorData authData = webAuthnParser.parseAuthenticatorData(decodeBase64Url(authenticatorData));
+                CollectedClientData clientData = webAuthnParser.parseClientData(clientDataBytes);
+                webAuthnParser.validate(authData, clientData,
+                    CollectedClientData.TYPE_GET, session.getChallenge(), tenant.getRpId(),
+                    tenant.getOrigins(), tenant.isAllowSubdomainOrigins());
+                byte[] signedData = webAuthnParser.signedData(authData, clientDataBytes);
+
+                return verifySignature(tenant, signedData, credential, signature, pqSignature)
+                    .flatMap(valid -> !valid ? Mono.just(false) : claimSession(session)
+                        .flatMap(claimed -> !claimed ? Mono.just(false) : advanceCounter(credential, authData.getSignCount())
+                            .flatMap(advanced -> !advanced ? Mono.just(false) : userRepository
+                                .updateLastLogin(session.getUserId(), LocalDateTime.now())
+                                .thenReturn(true))));
+            })
+            .onErrorReturn(IllegalArgumentException.class, false)
+            .defaultIfEmpty(false);
+    }
+
+    private Mono<ReactiveUser> createUser(String username, String email, String displayName) {
+        return userRepository.existsByUsername(username)
+            .flatMap(usernameTaken -> usernameTaken
+                ? Mono.error(new IllegalArgumentException("Username already exists"))
+                : userRepository.existsByEmail(email))
+            .flatMap(emailTaken -> emailTaken
+                ? Mono.error(new IllegalArgumentException("Email already exists"))
+                : userRepository.save(new ReactiveUser(username, email, displayName)));
+    }
+
+    private Mono<Boolean> registerCredential(ReactiveAuthenticationSession session, String credentialId,
+                                             String publicKey, String pqPublicKey) {
+        Credential.CryptoType cryptoType = Credential.CryptoType.fromKeys(publicKey, pqPublicKey);
+        ReactiveCredential credential = new ReactiveCredential(
+            credentialId, publicKey, pqPublicKey, cryptoType, session.getUserId());
+        credential.setRpId(session.getRpId());
+        return claimSession(session)
+            .flatMap(claimed -> !claimed ? Mono.just(false) : credentialRepository
+                .save(credential)
+                .thenReturn(true));
+    }
+
+    /**
+     * A session is only usable with the tenant that started it
+     */
+    private Mono<ReactiveAuthenticationSession> findUsableSession(Tenant tenant, String sessionId) {
+        return sessionRepository.findBySessionId(sessionId)
+            .filter(session -> !session.isUsed() && !session.isExpired())
+            .filter(session -> tenant.getRpId().equals(session.getRpId()));
+    }
+
+    private Mono<ReactiveCredential> findActiveCredential(Tenant tenant, String credentialId) {
+        // A suspected clone is refused like a revoked credential
+        return credentialRepository.findByCredentialId(credentialId)
+            .filter(ReactiveCredential::isActive)
+            .filter(credential -> !credential.isCloneSuspected())
+            .filter(credential -> tenant.getRpId().equals(credential.getRpId()));
+    }
+
+    /**
+     * Atomically mark the session used; false if a concurrent request won
+     */
+    private Mono<Boolean> claimSession(ReactiveAuthenticationSession session) {
+        return sessionRepository.markUsed(session.getSessionId()).map(updated -> updated == 1);
+    }
+
+    private Mono<Boolean> advanceCounter(ReactiveCredential credential, long reportedCount) {
+        return credentialRepository.advanceSignatureCount(credential.getCredentialId(), reportedCount, LocalDateTime.now())
+            .flatMap(updated -> updated == 1 ? Mono.just(true) : credentialRepository
+                .markCloneSuspected(credential.getCredentialId())
+                .thenReturn(false));
+    }
+
+    /**
+     * Registration proofs, checked as {@link RegistrationPipeline} does: every
+     * submitted proof must verify, and with pqc.fido2.registration.require-proof
+     * every key being registered needs one. Runs as bulk work, like the
+     * pipeline's checks.
+     */
+    private Mono<Boolean> verifyProofs(Tenant tenant, byte[] signedData, String publicKey, PublicKey classicalKey,
+                                       String classicalProof, String pqPublicKey, String pqProof) {
+        boolean hasClassicalProof = classicalProof != null && !classicalProof.isEmpty();
+        boolean hasPqProof = pqProof != null && !pqProof.isEmpty();
+        boolean proven = (publicKey == null || hasClassicalProof) && (pqPublicKey == null || hasPqProof);
+        if (requireProof && !proven) {
+            return Mono.just(false);
+        }
+        if (!hasClassicalProof && !hasPqProof) {
+            return Mono.just(true);
+        }
+        return offload(tenant, VerificationScheduler.Priority.BULK, () -> {
+            if (hasClassicalProof && hasPqProof) {
+                return signatureVerificationService.verifyHybrid(signedData, publicKey, pqPublicKey,
+                    classicalProof, pqProof);
+            }
+            if (hasClassicalProof) {
+                return classicalKey != null
+                    ? signatureVerificationService.verifyClassical(signedData, classicalKey, classicalProof)
+                    : signatureVerificationService.verifyClassical(signedData, publicKey, classicalProof);
+            }
+            return signatureVerificationService.verifyPostQuantum(signedData, pqPublicKey, pqProof);
+        });
+    }
+
+    private Mono<Boolean> verifySignature(Tenant tenant, byte[] data, ReactiveCredential credential,
+                                          String signature, String pqSignature) {
+        switch (credential.getCryptoType()) {
+            case POST_QUANTUM:
+                return offload(tenant, () -> signatureVerificationService.verifyPostQuantum(
+                    data, credential.getPqPublicKey(), pqSignature));
+            case HYBRID:
+                // Both halves run in parallel; zip cancels the other as soon as one fails
+                return Mono.zip(
+                        requireValid(offload(tenant, () -> signatureVerificationService.verifyPostQuantum(
+                            data, credential.getPqPublicKey(), pqSignature))),
+                        requireValid(offload(tenant, () -> signatureVerificationService.verifyClassical(
+                            data, credential.getPublicKey(), signature))))
+                    .thenReturn(true)
+                    .onErrorReturn(e -> !(e instanceof VerificationRejectedException), false);
+            case CLASSICAL:
+            default:
+                return offload(tenant, () -> signatureVerificationService.verifyClassical(
+                    data, credential.getPublicKey(), signature));
+        }
+    }
+
+    private Mono<Boolean> offload(Tenant tenant, Callable<Boolean> verification) {
+        return offload(tenant, VerificationScheduler.Priority.INTERACTIVE, verification);
+    }
+
+    /**
+     * Admit through the tenant's verification executor and run with the given
+     * priority on the shared scheduler; a full queue or a missed deadline is a
+     * {@link VerificationRejectedException}, not a failed verification
+     */
+    private Mono<Boolean> offload(Tenant tenant, VerificationScheduler.Priority priority,
+                                  Callable<Boolean> verification) {
+        return Mono.defer(() -> {
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(tenant.getVerificationTimeoutMs());
+                return Mono.fromCallable(() -> verificationScheduler.call(priority, deadline, verification))
+                    .subscribeOn(tenant.getVerificationScheduler());
+            })
+            .onErrorMap(e -> e instanceof RejectedExecutionException || e instanceof TimeoutException,
+                e -> new VerificationRejectedException("Verification was shed: " + e.getMessage(), e));
+    }
+
+    private static Mono<Boolean> requireValid(Mono<Boolean> verification) {
+        return verification.flatMap(valid -> valid
+            ? Mono.just(true)
+            : Mono.error(new IllegalStateException("Signature verification failed")));
+    }
+
+    private String generateChallenge() {
+        byte[] challenge = new byte[32];
+        secureRandom.nextBytes(challenge);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(challenge);
+    }
+
+    private byte[] decodeBase64Url(String value) {
+        return Base64.getUrlDecoder().decode(value);
+    }
+
+    private String encodeBase64Url(ByteBuffer value) {
+        byte[] bytes = new byte[value.remaining()];
+        value.get(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
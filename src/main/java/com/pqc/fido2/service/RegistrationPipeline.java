@@ -0,0 +1,707 @@
+package com.pqc.fido2.service;
+
+import com.pqc.fido2.audit.AuditEvent;
+import com.pqc.fido2.config.CryptoConfig;
+import com.pqc.fido2.model.AuthenticationSession;
+import com.pqc.fido2.model.Credential;
+import com.pqc.fido2.repository.AuthenticationSessionRepository;
+import com.pqc.fido2.repository.CredentialRepository;
+import com.pqc.fido2.tenant.Tenant;
+import com.pqc.fido2.webauthn.AttestationObject;
+import com.pqc.fido2.webauthn.AuthenticatorData;
+import com.pqc.fido2.webauthn.CollectedClientData;
+import com.pqc.fido2.webauthn.CoseKey;
+import com.pqc.fido2.webauthn.WebAuthnParser;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.security.PublicKey;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Registration completion as a pipeline over a pre-allocated ring of slots,
+ * in the style of the LMAX Disruptor. Request threads claim a slot, fill it
+ * and wait for the outcome; each stage has its own workers and takes slots
+ * in sequence once the stage before it is done with them:
+ *
+ * decode   - session lookup, attestation or legacy request parsing, challenge and origin checks
+ * verify   - proof of possession: the legacy signatures over the challenge, or a packed self
+ *            attestation (and, for hybrid credentials, the post-quantum signature) over
+ *            authData || SHA-256(clientDataJSON). The crypto runs as bulk work on the
+ *            {@link VerificationScheduler}, admitted through the tenant's bulkhead, so a
+ *            registration burst cannot take the workers logins need; this stage's threads
+ *            only wait for it
+ * persist  - one writer that takes everything verified so far, up to pqc.fido2.registration.batch-size,
+ *            and stores it in one transaction with batched inserts
+ *
+ * A submitted proof must verify. Registrations without one are accepted
+ * unless pqc.fido2.registration.require-proof is set, since clients written
+ * against the unverified API send none. When the ring is full, request
+ * threads wait for the writer to free a slot.
+ */
+@Service
+@Profile("!reactive")
+public class RegistrationPipeline {
+
+    /**
+     * What became of a registration; the keys are those taken from the
+     * request, so far as it got parsed
+     */
+    public record Outcome(AuditEvent.Failure failure, String credentialId, String publicKey, String pqPublicKey) {
+        public boolean isSuccess() {
+            return failure == null;
+        }
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(RegistrationPipeline.class);
+
+    private static final int SPIN_TRIES = 100;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long CLOSE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final AuthenticationSessionRepository sessionRepository;
+    private final CredentialRepository credentialRepository;
+    private final WebAuthnParser webAuthnParser;
+    private final SignatureVerificationService signatureVerificationService;
+    private final VerificationScheduler verificationScheduler;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final boolean requireProof;
+
+    private final Slot[] ring;
+    private final int mask;
+    private final int indexShift;
+    // Round (sequence / ring size) in which each slot was last published
+    private final AtomicIntegerArray published;
+    // Highest sequence claimed by a request thread
+    private final AtomicLong claimed = new AtomicLong(-1);
+    private final Stage decodeStage;
+    private final Stage verifyStage;
+    private final Stage persistStage;
+    private volatile boolean running = true;
+    private volatile boolean stopped;
+
+    private final Counter fullCounter;
+    private final DistributionSummary batchSummary;
+
+    /**
+     * One registration in flight. Fields are written by the stage that owns
+     * the slot and published to the next one through the stage sequences.
+     */
+    private static final class Slot {
+        // Request
+        Tenant tenant;
+        String sessionId;
+        String attestationObject;
+        String clientDataJSON;
+        String credentialId;
+        String publicKey;
+        String pqPublicKey;
+        String signature;
+        String pqSignature;
+        CompletableFuture<Outcome> result;
+
+        // Decoded
+        byte[] signedData;
+        PublicKey classicalKey;
+        String classicalProof;
+        String pqProof;
+        AuditEvent.Failure failure;
+        RuntimeException error;
+
+        void reset(Tenant tenant, String sessionId, CompletableFuture<Outcome> result) {
+            this.tenant = tenant;
+            this.sessionId = sessionId;
+            this.result = result;
+            attestationObject = null;
+            clientDataJSON = null;
+            credentialId = null;
+            publicKey = null;
+            pqPublicKey = null;
+            signature = null;
+            pqSignature = null;
+            signedData = null;
+            classicalKey = null;
+            classicalProof = null;
+            pqProof = null;
+            failure = null;
+            error = null;
+        }
+
+        boolean rejected() {
+            return failure != null || error != null;
+        }
+
+        /**
+         * Take the result out of the slot, so the slot can be reused before
+         * the waiting request thread is answered
+         */
+        Completion release() {
+            Completion completion = new Completion(result,
+                error == null ? new Outcome(failure, credentialId, publicKey, pqPublicKey) : null, error);
+            // Drop references to the request; the slot itself is reused
+            tenant = null;
+            result = null;
+            signedData = null;
+            classicalKey = null;
+            return completion;
+        }
+    }
+
+    private record Completion(CompletableFuture<Outcome> result, Outcome outcome, RuntimeException error) {
+        void complete() {
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(outcome);
+            }
+        }
+    }
+
+    @Autowired
+    public RegistrationPipeline(AuthenticationSessionRepository sessionRepository,
+                                CredentialRepository credentialRepository, WebAuthnParser webAuthnParser,
+                                SignatureVerificationService signatureVerificationService,
+                                VerificationScheduler verificationScheduler,
+                                PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                                @Value("${pqc.fido2.registration.ring-size:1024}") int ringSize,
+                                @Value("${pqc.fido2.registration.decode-threads:0}") int decodeThreads,
+                                @Value("${pqc.fido2.registration.verify-threads:0}") int verifyThreads,
+                                @Value("${pqc.fido2.registration.batch-size:50}") int batchSize,
+                                @Value("${pqc.fido2.registration.require-proof:false}") boolean requireProof) {
+        if (ringSize <= 0 || ringSize > 1 << 20 || batchSize <= 0) {
+            throw new IllegalArgumentException("Registration ring size must be in (0, 2^20] and batch size positive");
+        }
+        this.sessionRepository = sessionRepository;
+        this.credentialRepository = credentialRepository;
+        this.webAuthnParser = webAuthnParser;
+        this.signatureVerificationService = signatureVerificationService;
+        this.verificationScheduler = verificationScheduler;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.requireProof = requireProof;
+
+        int size = Integer.highestOneBit(ringSize) == ringSize ? ringSize : Integer.highestOneBit(ringSize) << 1;
+        this.ring = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            ring[i] = new Slot();
+        }
+        this.mask = size - 1;
+        this.indexShift = Integer.numberOfTrailingZeros(size);
+        this.published = new AtomicIntegerArray(size);
+        for (int i = 0; i < size; i++) {
+            published.set(i, -1);
+        }
+
+        int processors = Runtime.getRuntime().availableProcessors();
+        this.decodeStage = new Stage("decode", null,
+            decodeThreads > 0 ? decodeThreads : Math.max(1, processors / 2), 1, this::decode);
+        // More waiting verify threads than the scheduler runs bulk work at once would only queue there
+        this.verifyStage = new Stage("verify", decodeStage, verifyThreads > 0 ? verifyThreads
+            : verificationScheduler.maxConcurrency(VerificationScheduler.Priority.BULK), 1, this::verify);
+        this.persistStage = new Stage("persist", verifyStage, 1, batchSize, null);
+        decodeStage.downstream = verifyStage;
+        verifyStage.downstream = persistStage;
+
+        this.fullCounter = Counter.builder("pqc.registration.ring.full")
+            .description("Registrations that waited for a free slot because the ring was full")
+            .register(meterRegistry);
+        this.batchSummary = DistributionSummary.builder("pqc.registration.batch")
+            .description("Registrations stored per persist transaction")
+            .register(meterRegistry);
+        Gauge.builder("pqc.registration.in-flight", this, RegistrationPipeline::getInFlight)
+            .description("Registrations submitted to the ring and not yet persisted")
+            .register(meterRegistry);
+
+        decodeStage.start();
+        verifyStage.start();
+        persistStage.start();
+        log.info("[REGISTRATION] - Pipeline with {} slots, {} decode and {} verify threads, batches of {}",
+            size, decodeStage.workers.length, verifyStage.workers.length, batchSize);
+    }
+
+    /**
+     * Register a credential from the legacy request shape: keys sent as
+     * base64url, with optional signatures over the session challenge
+     */
+    public Outcome completeRegistration(Tenant tenant, String sessionId, String credentialId, String publicKey,
+                                        String pqPublicKey, String signature, String pqSignature) {
+        return submit(tenant, sessionId, slot -> {
+            slot.credentialId = credentialId;
+            slot.publicKey = publicKey;
+            slot.pqPublicKey = pqPublicKey;
+            slot.signature = signature;
+            slot.pqSignature = pqSignature;
+        });
+    }
+
+    /**
+     * Register a credential from a WebAuthn attestation object. Hybrid
+     * credentials send their post-quantum key, and optionally a signature
+     * with it, alongside the attested classical key.
+     */
+    public Outcome completeWebAuthnRegistration(Tenant tenant, String sessionId, String attestationObject,
+                                                String clientDataJSON, String pqPublicKey, String pqSignature) {
+        return submit(tenant, sessionId, slot -> {
+            slot.attestationObject = attestationObject;
+            slot.clientDataJSON = clientDataJSON;
+            slot.pqPublicKey = pqPublicKey;
+            slot.pqSignature = pqSignature;
+        });
+    }
+
+    /**
+     * Submitted registrations not yet persisted
+     */
+    public long getInFlight() {
+        return Math.max(0, claimed.get() - persistStage.completed());
+    }
+
+    public int getRingSize() {
+        return ring.length;
+    }
+
+    /**
+     * Stop taking registrations and let those already submitted finish
+     */
+    @PreDestroy
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        long deadline = System.nanoTime() + CLOSE_TIMEOUT_NANOS;
+        while (persistStage.completed() < claimed.get() && System.nanoTime() - deadline < 0) {
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+        stopped = true;
+        for (Stage stage : List.of(decodeStage, verifyStage, persistStage)) {
+            stage.stop();
+        }
+        long unfinished = claimed.get() - persistStage.completed();
+        if (unfinished > 0) {
+            log.warn("[REGISTRATION] - Pipeline closed with {} registrations unfinished", unfinished);
+        }
+    }
+
+    private Outcome submit(Tenant tenant, String sessionId, Consumer<Slot> request) {
+        if (!running) {
+            throw new IllegalStateException("Registration pipeline is closed");
+        }
+        CompletableFuture<Outcome> result = new CompletableFuture<>();
+        long sequence = claim();
+        Slot slot = ring[(int) sequence & mask];
+        slot.reset(tenant, sessionId, result);
+        request.accept(slot);
+        published.set((int) sequence & mask, (int) (sequence >>> indexShift));
+        decodeStage.signal();
+        if (stopped) {
+            result.completeExceptionally(new IllegalStateException("Registration pipeline is closed"));
+        }
+
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Next sequence for a request thread, once the writer has freed its slot
+     */
+    private long claim() {
+        boolean waited = false;
+        while (true) {
+            long current = claimed.get();
+            long next = current + 1;
+            if (next - ring.length > persistStage.completed()) {
+                if (!running) {
+                    throw new IllegalStateException("Registration pipeline is closed");
+                }
+                if (!waited) {
+                    waited = true;
+                    fullCounter.increment();
+                }
+                LockSupport.parkNanos(FULL_PARK_NANOS);
+                continue;
+            }
+            if (claimed.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Highest sequence from the given one on, without gaps, whose slot
+     * request threads have filled
+     */
+    private long highestPublished(long from) {
+        long limit = claimed.get();
+        for (long sequence = from; sequence <= limit; sequence++) {
+            if (published.get((int) sequence & mask) != (int) (sequence >>> indexShift)) {
+                return sequence - 1;
+            }
+        }
+        return limit;
+    }
+
+    private void decode(Slot slot) {
+        Optional<AuthenticationSession> sessionOpt = sessionRepository.findBySessionId(slot.sessionId)
+            .filter(session -> !session.isUsed() && !session.isExpired())
+            .filter(session -> slot.tenant.getRpId().equals(session.getRpId()));
+        if (sessionOpt.isEmpty()) {
+            slot.failure = AuditEvent.Failure.SESSION_INVALID;
+            return;
+        }
+        String challenge = sessionOpt.get().getChallenge();
+
+        try {
+            if (slot.attestationObject == null) {
+                if (slot.credentialId == null || slot.clientDataJSON != null) {
+                    slot.failure = AuditEvent.Failure.MALFORMED;
+                    return;
+                }
+                slot.signedData = decodeBase64Url(challenge);
+                slot.classicalProof = slot.signature;
+                slot.pqProof = slot.pqSignature;
+                return;
+            }
+
+            AttestationObject attestation = webAuthnParser.parseAttestationObject(
+                decodeBase64Url(slot.attestationObject));
+            AuthenticatorData authenticatorData = attestation.getAuthenticatorData();
+            byte[] clientDataBytes = decodeBase64Url(slot.clientDataJSON);
+            CollectedClientData clientData = webAuthnParser.parseClientData(clientDataBytes);
+            webAuthnParser.validate(authenticatorData, clientData,
+                CollectedClientData.TYPE_CREATE, challenge, slot.tenant.getRpId(),
+                slot.tenant.getOrigins(), slot.tenant.isAllowSubdomainOrigins());
+
+            slot.credentialId = encodeBase64Url(authenticatorData.getCredentialId());
+            CoseKey coseKey = authenticatorData.getCredentialPublicKey();
+            String selfAttestation = null;
+            if (attestation.isSelfAttestation()) {
+                if (attestation.getSelfAttestationAlgorithm() != coseKey.getAlgorithm()) {
+                    throw new IllegalArgumentException("Self attestation algorithm does not match the credential key");
+                }
+                selfAttestation = encodeBase64Url(attestation.getSelfAttestationSignature());
+            }
+
+            slot.signedData = webAuthnParser.signedData(authenticatorData, clientDataBytes);
+            if (coseKey.isPostQuantum()) {
+                slot.pqPublicKey = encodeBase64Url(coseKey.getPublicKey());
+                slot.pqProof = selfAttestation;
+            } else {
+                slot.classicalKey = webAuthnParser.toPublicKey(coseKey);
+                slot.publicKey = encodeBase64Url(ByteBuffer.wrap(slot.classicalKey.getEncoded()));
+                slot.classicalProof = selfAttestation;
+                slot.pqProof = slot.pqSignature;
+            }
+        } catch (IllegalArgumentException e) {
+            slot.failure = AuditEvent.Failure.MALFORMED;
+        }
+    }
+
+    private void verify(Slot slot) {
+        boolean classicalProof = slot.classicalProof != null && !slot.classicalProof.isEmpty();
+        boolean pqProof = slot.pqProof != null && !slot.pqProof.isEmpty();
+
+        boolean valid = true;
+        if (classicalProof || pqProof) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(slot.tenant.getVerificationTimeoutMs());
+            valid = slot.tenant.verify(() -> verificationScheduler.call(VerificationScheduler.Priority.BULK, deadline,
+                () -> verifyProof(slot, classicalProof, pqProof)));
+        }
+
+        // Every key being registered must be covered by a proof when proofs are required
+        boolean proven = (slot.publicKey == null || classicalProof) && (slot.pqPublicKey == null || pqProof);
+        if (!valid || (requireProof && !proven)) {
+            slot.failure = AuditEvent.Failure.SIGNATURE_INVALID;
+        }
+    }
+
+    private boolean verifyProof(Slot slot, boolean classicalProof, boolean pqProof) {
+        if (classicalProof && pqProof) {
+            return signatureVerificationService.verifyHybrid(slot.signedData, slot.publicKey, slot.pqPublicKey,
+                slot.classicalProof, slot.pqProof);
+        }
+        if (classicalProof) {
+            return slot.classicalKey != null
+                ? signatureVerificationService.verifyClassical(slot.signedData, slot.classicalKey, slot.classicalProof)
+                : signatureVerificationService.verifyClassical(slot.signedData, slot.publicKey, slot.classicalProof);
+        }
+        return signatureVerificationService.verifyPostQuantum(slot.signedData, slot.pqPublicKey, slot.pqProof);
+    }
+
+    /**
+     * Store a batch of verified registrations in one transaction. Sessions
+     * are re-read under the transaction, so a session completed by an
+     * earlier batch, or twice within this one, is refused here.
+     *
+     * @return number of credentials stored
+     */
+    private int persist(List<Slot> batch) {
+        Set<String> sessionIds = new HashSet<>();
+        Set<String> credentialIds = new HashSet<>();
+        for (Slot slot : batch) {
+            sessionIds.add(slot.sessionId);
+            credentialIds.add(slot.credentialId);
+        }
+        Map<String, AuthenticationSession> sessions = new HashMap<>();
+        for (AuthenticationSession session : sessionRepository.findBySessionIdIn(sessionIds)) {
+            sessions.put(session.getSessionId(), session);
+        }
+        Set<String> existing = new HashSet<>(credentialRepository.findExistingCredentialIds(credentialIds));
+
+        List<Credential> credentials = new ArrayList<>(batch.size());
+        for (Slot slot : batch) {
+            AuthenticationSession session = sessions.get(slot.sessionId);
+            if (session == null || session.isUsed() || session.isExpired()) {
+                slot.failure = AuditEvent.Failure.SESSION_INVALID;
+                continue;
+            }
+            // Credential IDs are globally unique; refuse to re-register an existing one
+            if (!existing.add(slot.credentialId)) {
+                slot.failure = AuditEvent.Failure.CREDENTIAL_EXISTS;
+                continue;
+            }
+            Credential credential = new Credential(slot.credentialId, slot.publicKey, slot.pqPublicKey,
+                Credential.CryptoType.fromKeys(slot.publicKey, slot.pqPublicKey), session.getUser());
+            credential.setRpId(session.getRpId());
+            credentials.add(credential);
+
+            // Mark session as used; flushed with the inserts at commit
+            session.setUsed(true);
+        }
+        credentialRepository.saveAll(credentials);
+        return credentials.size();
+    }
+
+    private void persistBatch(List<Slot> batch) {
+        List<Slot> accepted = new ArrayList<>(batch.size());
+        for (Slot slot : batch) {
+            if (!slot.rejected()) {
+                accepted.add(slot);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        try {
+            batchSummary.record(transactionTemplate.execute(status -> persist(accepted)));
+        } catch (DataIntegrityViolationException e) {
+            // Lost a race with another instance; find the offending registrations one by one
+            for (Slot slot : accepted) {
+                slot.failure = null;
+                try {
+                    batchSummary.record(transactionTemplate.execute(status -> persist(List.of(slot))));
+                } catch (DataIntegrityViolationException duplicate) {
+                    slot.failure = AuditEvent.Failure.CREDENTIAL_EXISTS;
+                } catch (RuntimeException failed) {
+                    slot.error = failed;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("[REGISTRATION] - Persisting {} registrations failed: {}", accepted.size(), e.getMessage());
+            for (Slot slot : accepted) {
+                slot.error = e;
+            }
+        }
+    }
+
+    /**
+     * A stage's workers. Single-slot stages share one claim counter, so any
+     * idle worker takes the next slot; a worker's sequence trails its claim by
+     * one, and everything up to the lowest worker sequence is done. The
+     * persist stage has one worker that takes whole runs of slots as a batch.
+     */
+    private final class Stage {
+        final String name;
+        final Stage upstream;
+        final int batchSize;
+        final Consumer<Slot> handler;
+        final Worker[] workers;
+        final AtomicLong nextClaim = new AtomicLong();
+        Stage downstream;
+
+        Stage(String name, Stage upstream, int threads, int batchSize, Consumer<Slot> handler) {
+            this.name = name;
+            this.upstream = upstream;
+            this.batchSize = batchSize;
+            this.handler = handler;
+            this.workers = new Worker[threads];
+            for (int i = 0; i < threads; i++) {
+                workers[i] = new Worker(this);
+            }
+        }
+
+        void start() {
+            ThreadFactory threadFactory = CryptoConfig.namedThreadFactory("registration-" + name + "-");
+            for (Worker worker : workers) {
+                worker.thread = threadFactory.newThread(worker);
+                worker.thread.start();
+            }
+        }
+
+        /**
+         * Highest sequence every worker of this stage is done with
+         */
+        long completed() {
+            long lowest = Long.MAX_VALUE;
+            for (Worker worker : workers) {
+                lowest = Math.min(lowest, worker.sequence.get());
+            }
+            return lowest;
+        }
+
+        long available(long from) {
+            return upstream == null ? highestPublished(from) : upstream.completed();
+        }
+
+        void signal() {
+            for (Worker worker : workers) {
+                if (worker.idle) {
+                    LockSupport.unpark(worker.thread);
+                }
+            }
+        }
+
+        void stop() {
+            for (Worker worker : workers) {
+                LockSupport.unpark(worker.thread);
+            }
+            for (Worker worker : workers) {
+                try {
+                    worker.thread.join(TimeUnit.SECONDS.toMillis(5));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private final class Worker implements Runnable {
+        final Stage stage;
+        final AtomicLong sequence = new AtomicLong(-1);
+        volatile boolean idle;
+        Thread thread;
+
+        Worker(Stage stage) {
+            this.stage = stage;
+        }
+
+        @Override
+        public void run() {
+            List<Slot> batch = new ArrayList<>(stage.batchSize);
+            List<Completion> completions = new ArrayList<>(stage.batchSize);
+            while (true) {
+                long from;
+                if (stage.batchSize == 1) {
+                    from = stage.nextClaim.getAndIncrement();
+                    sequence.set(from - 1);
+                    if (stage.downstream != null) {
+                        stage.downstream.signal();
+                    }
+                } else {
+                    from = sequence.get() + 1;
+                }
+
+                long available = await(from);
+                if (available < from) {
+                    return;
+                }
+
+                if (stage.handler != null) {
+                    Slot slot = ring[(int) from & mask];
+                    if (!slot.rejected()) {
+                        try {
+                            stage.handler.accept(slot);
+                        } catch (RuntimeException e) {
+                            slot.error = e;
+                        }
+                    }
+                    continue;
+                }
+
+                long to = Math.min(available, from + stage.batchSize - 1);
+                batch.clear();
+                for (long s = from; s <= to; s++) {
+                    batch.add(ring[(int) s & mask]);
+                }
+                persistBatch(batch);
+                completions.clear();
+                for (Slot slot : batch) {
+                    completions.add(slot.release());
+                }
+                // Free the slots before answering, so a caller never sees its registration still in flight
+                sequence.set(to);
+                for (Completion completion : completions) {
+                    completion.complete();
+                }
+            }
+        }
+
+        /**
+         * Wait until the stage before has finished the given sequence
+         *
+         * @return the highest sequence available, below the given one once the pipeline has stopped
+         */
+        private long await(long sequence) {
+            long available;
+            int spins = 0;
+            while ((available = stage.available(sequence)) < sequence) {
+                if (stopped) {
+                    return available;
+                }
+                if (spins < SPIN_TRIES) {
+                    spins++;
+                    Thread.onSpinWait();
+                    continue;
+                }
+                // Announce the park before re-checking, so a signal sent meanwhile is not lost
+                idle = true;
+                if (stage.available(sequence) < sequence && !stopped) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                idle = false;
+            }
+            return available;
+        }
+    }
+
+    private static byte[] decodeBase64Url(String value) {
+        return Base64.getUrlDecoder().decode(value);
+    }
+
+    private static String encodeBase64Url(ByteBuffer value) {
+        byte[] bytes = new byte[value.remaining()];
+        value.get(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
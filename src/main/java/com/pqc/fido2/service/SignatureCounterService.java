@@ -0,0 +1,322 @@
+package com.pqc.fido2.service;
+
+import com.pqc.fido2.model.Credential;
+import com.pqc.fido2.repository.CredentialRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory cache of credential signature counters.
+ *
+ * Counters are advanced with a CAS loop, so concurrent completions for the same
+ * credential are ordered without a database row lock: a reported counter that
+ * does not strictly increase is rejected and the credential is flagged as a
+ * suspected clone (WebAuthn L2 §6.1.1). Accepted values and clone flags are
+ * written back in batches by {@link #flush()}. A flagged credential is refused
+ * from then on, see {@link #isCloneSuspected}.
+ *
+ * Other instances advance the same counters, so a stored count higher than the
+ * cached one raises it. At most pqc.fido2.counter-cache-size counters are kept;
+ * beyond that the least recently used ones that have been written back are
+ * dropped, together with their {@link CredentialIndex} entry so the next use
+ * starts from the stored count.
+ */
+@Service
+@Profile("!reactive")
+public class SignatureCounterService {
+
+    private static final Logger log = LoggerFactory.getLogger(SignatureCounterService.class);
+
+    @Autowired
+    private CredentialRepository credentialRepository;
+
+    @Autowired
+    private CredentialIndex credentialIndex;
+
+    private final TransactionTemplate transactionTemplate;
+    private final int maxCounters;
+
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+    // credentialId -> highest accepted count and last use, not persisted yet
+    private final ConcurrentHashMap<String, Pending> dirty = new ConcurrentHashMap<>();
+    // Credentials to flag as suspected clones on the next flush
+    private final Set<String> suspected = ConcurrentHashMap.newKeySet();
+
+    public SignatureCounterService(PlatformTransactionManager transactionManager,
+                                   @Value("${pqc.fido2.counter-cache-size:100000}") int maxCounters) {
+        if (maxCounters < 1) {
+            throw new IllegalArgumentException("pqc.fido2.counter-cache-size must be positive");
+        }
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxCounters = maxCounters;
+    }
+
+    /**
+     * Accept the counter reported by an authenticator if it is strictly greater
+     * than the last accepted one. Authenticators that do not implement counters
+     * always report zero, which is accepted while the stored counter is zero too.
+     *
+     * @return false if the counter did not increase and the credential was flagged
+     */
+    public boolean advance(Credential credential, long reportedCount) {
+        return advance(credential.getCredentialId(), credential.getSignatureCount(), reportedCount);
+    }
+
+    public boolean advance(CredentialMetadata credential, long reportedCount) {
+        return advance(credential.getCredentialId(), credential.getSignatureCount(), reportedCount);
+    }
+
+    /**
+     * Advance the counter by one for ceremonies that carry no authenticator
+     * counter (the legacy, non-WebAuthn request shape)
+     */
+    public long increment(Credential credential) {
+        return increment(credential.getCredentialId(), credential.getSignatureCount());
+    }
+
+    public long increment(CredentialMetadata credential) {
+        return increment(credential.getCredentialId(), credential.getSignatureCount());
+    }
+
+    /**
+     * Current counter value, including accepted values not yet persisted
+     */
+    public long currentCount(Credential credential) {
+        Counter counter = counterFor(credential.getCredentialId(), credential.getSignatureCount());
+        try {
+            return counter.value.get();
+        } finally {
+            counter.release();
+        }
+    }
+
+    /**
+     * True if the credential is stored as a suspected clone or was flagged
+     * here since; flags not written back yet are not on the snapshot
+     */
+    public boolean isCloneSuspected(CredentialMetadata credential) {
+        if (credential.isCloneSuspected() || suspected.contains(credential.getCredentialId())) {
+            return true;
+        }
+        Counter counter = counters.get(credential.getCredentialId());
+        return counter != null && counter.cloneFlagged;
+    }
+
+    public int pendingWrites() {
+        return dirty.size() + suspected.size();
+    }
+
+    public int cachedCounters() {
+        return counters.size();
+    }
+
+    /**
+     * Persist all accepted counters and clone flags in one transaction. Updates
+     * never move a stored counter backwards, so a late flush cannot undo a newer
+     * value. Afterwards the cache is trimmed back to its size limit.
+     */
+    @Scheduled(fixedDelayString = "${pqc.fido2.counter-flush-interval-ms:1000}")
+    public void flush() {
+        if (!dirty.isEmpty() || !suspected.isEmpty()) {
+            write();
+        }
+        if (counters.size() > maxCounters) {
+            trim();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void write() {
+        List<String> credentialIds = new ArrayList<>(dirty.size());
+        List<Pending> pending = new ArrayList<>(dirty.size());
+        for (Map.Entry<String, Pending> entry : dirty.entrySet()) {
+            // Only drain the entry we saw; a newer use re-marks it for the next flush
+            if (dirty.remove(entry.getKey(), entry.getValue())) {
+                credentialIds.add(entry.getKey());
+                pending.add(entry.getValue());
+            }
+        }
+        List<String> clones = new ArrayList<>(suspected.size());
+        for (String credentialId : suspected) {
+            if (suspected.remove(credentialId)) {
+                clones.add(credentialId);
+            }
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = 0; i < credentialIds.size(); i++) {
+                    Pending use = pending.get(i);
+                    credentialRepository.updateUsage(credentialIds.get(i), use.count(), use.lastUsed());
+                }
+                for (String credentialId : clones) {
+                    credentialRepository.markCloneSuspected(credentialId);
+                }
+            });
+            // Reload the snapshots, which still say the credential is fine
+            clones.forEach(credentialIndex::invalidate);
+        } catch (RuntimeException e) {
+            // Re-queue so the next flush retries; newer uses are merged with the requeued ones
+            for (int i = 0; i < credentialIds.size(); i++) {
+                dirty.merge(credentialIds.get(i), pending.get(i), Pending::latest);
+            }
+            suspected.addAll(clones);
+            log.error("[COUNTER FLUSH FAILED] - {} credentials re-queued: {}",
+                credentialIds.size() + clones.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Drop the least recently used counters that have nothing left to write.
+     * Each removal re-checks under the map's lock for the key, which
+     * {@link #counterFor} also takes to mark a counter in use, so a counter a
+     * completion holds is never dropped and no credential ends up with two
+     * live counters.
+     */
+    private void trim() {
+        List<Map.Entry<String, Counter>> idle = new ArrayList<>(counters.size());
+        for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+            if (!dirty.containsKey(entry.getKey()) && !suspected.contains(entry.getKey())) {
+                idle.add(entry);
+            }
+        }
+        idle.sort(Comparator.comparingLong(entry -> entry.getValue().lastUsed));
+
+        int excess = counters.size() - maxCounters;
+        for (int i = 0; i < idle.size() && excess > 0; i++) {
+            String credentialId = idle.get(i).getKey();
+            Counter candidate = idle.get(i).getValue();
+            boolean[] removed = new boolean[1];
+            counters.computeIfPresent(credentialId, (id, counter) -> {
+                if (counter != candidate || counter.inUse.get() > 0 || dirty.containsKey(id) || suspected.contains(id)) {
+                    return counter;
+                }
+                removed[0] = true;
+                return null;
+            });
+            if (removed[0]) {
+                // The index holds the count it loaded, which the dropped counter may have passed
+                credentialIndex.invalidate(credentialId);
+                excess--;
+            }
+        }
+    }
+
+    private boolean advance(String credentialId, long storedCount, long reportedCount) {
+        Counter counter = counterFor(credentialId, storedCount);
+        try {
+            while (true) {
+                long current = counter.value.get();
+                if (reportedCount == 0 && current == 0) {
+                    markUsed(credentialId, counter, 0);
+                    return true;
+                }
+                if (reportedCount <= current) {
+                    flagSuspectedClone(credentialId, counter, current, reportedCount);
+                    return false;
+                }
+                if (counter.value.compareAndSet(current, reportedCount)) {
+                    markUsed(credentialId, counter, reportedCount);
+                    return true;
+                }
+            }
+        } finally {
+            counter.release();
+        }
+    }
+
+    private long increment(String credentialId, long storedCount) {
+        Counter counter = counterFor(credentialId, storedCount);
+        try {
+            long value = counter.value.incrementAndGet();
+            markUsed(credentialId, counter, value);
+            return value;
+        } finally {
+            counter.release();
+        }
+    }
+
+    /**
+     * The credential's counter, held in use until {@link Counter#release()} so
+     * {@link #trim()} cannot drop it while a completion is advancing it
+     */
+    private Counter counterFor(String credentialId, long storedCount) {
+        Counter counter = counters.compute(credentialId, (id, existing) -> {
+            Counter live = existing;
+            if (live == null) {
+                // A dropped counter may still have a count waiting for the next flush
+                Pending pending = dirty.get(id);
+                live = new Counter(pending != null ? Math.max(storedCount, pending.count()) : storedCount);
+            }
+            live.inUse.incrementAndGet();
+            return live;
+        });
+        // Another instance may have accepted higher counts since this one was cached
+        if (storedCount > counter.value.get()) {
+            counter.value.accumulateAndGet(storedCount, Math::max);
+        }
+        return counter;
+    }
+
+    private void markUsed(String credentialId, Counter counter, long count) {
+        counter.lastUsed = System.nanoTime();
+        dirty.merge(credentialId, new Pending(count, LocalDateTime.now()), Pending::latest);
+    }
+
+    private void flagSuspectedClone(String credentialId, Counter counter, long storedCount, long reportedCount) {
+        log.warn("[CLONE SUSPECTED] - Credential: {}, stored counter: {}, reported counter: {}",
+            credentialId, storedCount, reportedCount);
+        counter.lastUsed = System.nanoTime();
+        if (!counter.cloneFlagged) {
+            counter.cloneFlagged = true;
+            suspected.add(credentialId);
+        }
+    }
+
+    private static final class Counter {
+        final AtomicLong value;
+        volatile long lastUsed = System.nanoTime();
+        // Set once the clone flag is queued, so repeated regressions write it once
+        volatile boolean cloneFlagged;
+        // Completions holding this counter; only taken under the map's lock for its key
+        final AtomicInteger inUse = new AtomicInteger();
+
+        Counter(long initial) {
+            this.value = new AtomicLong(initial);
+        }
+
+        void release() {
+            inUse.decrementAndGet();
+        }
+    }
+
+    private record Pending(long count, LocalDateTime lastUsed) {
+
+        static Pending latest(Pending a, Pending b) {
+            return new Pending(Math.max(a.count(), b.count()),
+                a.lastUsed().isAfter(b.lastUsed()) ? a.lastUsed() : b.lastUsed());
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.pqc.fido2.service;
+
+import com.pqc.fido2.crypto.*;
+import com.pqc.fido2.model.Credential;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.security.PublicKey;
+import java.util.Base64;
+
+/**
+ * Verifies ceremony signatures against stored credential keys.
+ * Keys and signatures are the base64url strings kept on the credential and
+ * sent by clients; any decoding problem counts as a failed verification.
+ */
+@Service
+public class SignatureVerificationService {
+
+    @Autowired
+    private MLDilithiumService mlDilithiumService;
+
+    @Autowired
+    private ClassicalSignatureService classicalSignatureService;
+
+    @Autowired(required = false)
+    private PublicKeyArena keyArena;
+
+    /**
+     * Verify a signature based on the credential's crypto type
+     */
+    public boolean verify(byte[] data, Credential.CryptoType cryptoType, String publicKey, String pqPublicKey,
+                          String signature, String pqSignature) {
+        try {
+            switch (cryptoType) {
+                case POST_QUANTUM:
+                    return verifyPostQuantum(data, pqPublicKey, pqSignature);
+                case HYBRID:
+                    return verifyHybrid(data, publicKey, pqPublicKey, signature, pqSignature);
+                case CLASSICAL:
+                default:
+                    return verifyClassical(data, publicKey, signature);
+            }
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Verify a signature against an indexed credential whose keys are already
+     * decoded, or whose post-quantum key is held in the {@link PublicKeyArena}
+     */
+    public boolean verify(byte[] data, CredentialMetadata credential, String signature, String pqSignature) {
+        try {
+            switch (credential.getCryptoType()) {
+                case POST_QUANTUM:
+                    return credential.isPqKeyOffHeap()
+                        ? verifyPostQuantumOffHeap(data, credential.getCredentialId(), pqSignature)
+                        : verifyPostQuantum(data, credential.getCredentialId(), credential.getPqPublicKey(),
+                            pqSignature);
+                case HYBRID:
+                    return credential.isPqKeyOffHeap()
+                        ? verifyHybridOffHeap(data, credential.getPublicKey(), credential.getCredentialId(),
+                            signature, pqSignature)
+                        : verifyHybrid(data, credential.getPublicKey(), credential.getCredentialId(),
+                            credential.getPqPublicKey(), signature, pqSignature);
+                case CLASSICAL:
+                default:
+                    return verifyClassical(data, credential.getPublicKey(), signature);
+            }
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    public boolean verifyPostQuantum(byte[] data, String pqPublicKey, String pqSignature) {
+        if (isEmpty(pqSignature) || pqPublicKey == null) {
+            return false;
+        }
+        try {
+            MLDilithiumPublicKey key = mlDilithiumService.decodePublicKey(decodeBase64Url(pqPublicKey));
+            return verifyPostQuantum(data, key, pqSignature);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    public boolean verifyPostQuantum(byte[] data, MLDilithiumPublicKey pqPublicKey, String pqSignature) {
+        return verifyPostQuantum(data, null, pqPublicKey, pqSignature);
+    }
+
+    /**
+     * Post-quantum verification for a known credential, whose expanded
+     * layer keys may be cached across logins
+     */
+    public boolean verifyPostQuantum(byte[] data, String credentialId, MLDilithiumPublicKey pqPublicKey,
+                                     String pqSignature) {
+        if (isEmpty(pqSignature) || pqPublicKey == null) {
+            return false;
+        }
+        try {
+            MLDilithiumSignature mlSignature = mlDilithiumService.decodeSignature(decodeBase64Url(pqSignature));
+            return mlDilithiumService.verifyML(data, mlSignature, pqPublicKey, credentialId);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Post-quantum verification reading the key layers in place from the arena
+     */
+    public boolean verifyPostQuantumOffHeap(byte[] data, String credentialId, String pqSignature) {
+        if (isEmpty(pqSignature) || keyArena == null) {
+            return false;
+        }
+        try {
+            MLDilithiumSignature mlSignature = mlDilithiumService.decodeSignature(decodeBase64Url(pqSignature));
+            return verifyInArena(data, credentialId, mlSignature);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Hybrid verification; both halves run concurrently with fail-fast
+     * (see {@link MLDilithiumService#verifyHybridSignature})
+     */
+    public boolean verifyHybrid(byte[] data, String publicKey, String pqPublicKey,
+                                String signature, String pqSignature) {
+        if (isEmpty(signature) || isEmpty(pqSignature) || publicKey == null || pqPublicKey == null) {
+            return false;
+        }
+        try {
+            PublicKey classicalPublicKey = classicalSignatureService.decodePublicKey(decodeBase64Url(publicKey));
+            MLDilithiumPublicKey key = mlDilithiumService.decodePublicKey(decodeBase64Url(pqPublicKey));
+            return verifyHybrid(data, classicalPublicKey, key, signature, pqSignature);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    public boolean verifyHybrid(byte[] data, PublicKey publicKey, MLDilithiumPublicKey pqPublicKey,
+                                String signature, String pqSignature) {
+        return verifyHybrid(data, publicKey, null, pqPublicKey, signature, pqSignature);
+    }
+
+    public boolean verifyHybrid(byte[] data, PublicKey publicKey, String credentialId,
+                                MLDilithiumPublicKey pqPublicKey, String signature, String pqSignature) {
+        if (isEmpty(signature) || isEmpty(pqSignature) || publicKey == null || pqPublicKey == null) {
+            return false;
+        }
+        try {
+            HybridSignature hybridSignature = new HybridSignature(
+                mlDilithiumService.decodeSignature(decodeBase64Url(pqSignature)),
+                decodeBase64Url(signature)
+            );
+            return mlDilithiumService.verifyHybridSignature(data, hybridSignature,
+                () -> mlDilithiumService.verifyML(data, hybridSignature.getPqSignature(), pqPublicKey, credentialId),
+                publicKey);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    public boolean verifyHybridOffHeap(byte[] data, PublicKey publicKey, String credentialId,
+                                       String signature, String pqSignature) {
+        if (isEmpty(signature) || isEmpty(pqSignature) || publicKey == null || keyArena == null) {
+            return false;
+        }
+        try {
+            HybridSignature hybridSignature = new HybridSignature(
+                mlDilithiumService.decodeSignature(decodeBase64Url(pqSignature)),
+                decodeBase64Url(signature)
+            );
+            return mlDilithiumService.verifyHybridSignature(data, hybridSignature,
+                () -> verifyInArena(data, credentialId, hybridSignature.getPqSignature()), publicKey);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    public boolean verifyClassical(byte[] data, String publicKey, String signature) {
+        if (isEmpty(signature) || publicKey == null) {
+            return false;
+        }
+        try {
+            PublicKey key = classicalSignatureService.decodePublicKey(decodeBase64Url(publicKey));
+            return verifyClassical(data, key, signature);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    public boolean verifyClassical(byte[] data, PublicKey publicKey, String signature) {
+        if (isEmpty(signature) || publicKey == null) {
+            return false;
+        }
+        try {
+            return classicalSignatureService.verify(data, decodeBase64Url(signature), publicKey);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private boolean verifyInArena(byte[] data, String credentialId, MLDilithiumSignature signature) {
+        return keyArena.verify(credentialId,
+            (keys, offset, layers) -> mlDilithiumService.verifyML(data, signature, keys, offset, layers, credentialId));
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.isEmpty();
+    }
+
+    private static byte[] decodeBase64Url(String value) {
+        return Base64.getUrlDecoder().decode(value);
+    }
+}
@@ -0,0 +1,299 @@
+package com.pqc.fido2.service;
+
+import com.pqc.fido2.config.CryptoConfig;
+import com.pqc.fido2.importer.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory Bloom filter of every username and email in the users table, so
+ * lookups for names that were never registered (enumeration scans, typos)
+ * can be answered without a query. A positive answer still goes to the
+ * database.
+ *
+ * A negative answer is only exact for users this instance has seen: users
+ * created through other instances are missing until the next rebuild, which
+ * runs every pqc.fido2.user-filter.rebuild-interval-ms. So by default
+ * {@link UserService} only counts the filter's answers and still asks the
+ * database; pqc.fido2.user-filter.trust-negatives lets it skip the query for
+ * a negative, which is only correct when one instance creates every user.
+ *
+ * Values are normalised before hashing (compatibility decomposition, accents
+ * dropped, case folded, surrounding whitespace stripped), so a value the
+ * database matches under a case- or accent-insensitive collation hashes to
+ * the same bits as the stored one.
+ *
+ * The filter is built from the primary once the application is ready and
+ * rebuilt in the background once more values were added than it was sized
+ * for. Until the first build completes every value might exist. Users are
+ * added when persisted (see {@link UserLookupFilterListener}) and by bulk
+ * imports; deleted or renamed users stay in as false positives until the
+ * next rebuild.
+ */
+@Service
+@Profile("!reactive")
+@ConditionalOnProperty(name = "pqc.fido2.user-filter.enabled", havingValue = "true", matchIfMissing = true)
+public class UserLookupFilter {
+
+    public enum Field {
+        USERNAME('u'),
+        EMAIL('e');
+
+        private final char prefix;
+
+        Field(char prefix) {
+            this.prefix = prefix;
+        }
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(UserLookupFilter.class);
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long expectedUsers;
+    private final double falsePositiveRate;
+    private final long maxBytes;
+
+    // Null until the first build; a filter being built also receives every add
+    private volatile Filter current;
+    private volatile Filter building;
+    private final Object rebuildLock = new Object();
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(
+        CryptoConfig.namedThreadFactory("user-filter-"));
+
+    private final Counter absentLookups;
+    private final Counter presentLookups;
+    private final Counter falsePositives;
+    private final Counter staleNegatives;
+
+    /**
+     * A Bloom filter and how many values went into it
+     */
+    private static final class Filter {
+        final BloomFilter bloom;
+        final long capacity;
+        final AtomicLong entries = new AtomicLong();
+
+        Filter(BloomFilter bloom, long capacity) {
+            this.bloom = bloom;
+            this.capacity = capacity;
+        }
+
+        void add(String key) {
+            bloom.add(key);
+            entries.incrementAndGet();
+        }
+    }
+
+    @Autowired
+    public UserLookupFilter(DataSource dataSource, MeterRegistry meterRegistry,
+                            @Value("${pqc.fido2.user-filter.expected-users:1000000}") long expectedUsers,
+                            @Value("${pqc.fido2.user-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                            @Value("${pqc.fido2.user-filter.max-bytes:16777216}") long maxBytes) {
+        if (expectedUsers <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1 || maxBytes < 8) {
+            throw new IllegalArgumentException(
+                "User filter needs expected users > 0, a false-positive rate in (0, 1) and max-bytes >= 8");
+        }
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(10_000);
+        this.expectedUsers = expectedUsers;
+        this.falsePositiveRate = falsePositiveRate;
+        this.maxBytes = maxBytes;
+
+        this.absentLookups = Counter.builder("pqc.user-filter.lookups")
+            .description("Username and email lookups, by filter answer")
+            .tag("result", "absent")
+            .register(meterRegistry);
+        this.presentLookups = Counter.builder("pqc.user-filter.lookups")
+            .description("Username and email lookups, by filter answer")
+            .tag("result", "maybe-present")
+            .register(meterRegistry);
+        this.falsePositives = Counter.builder("pqc.user-filter.false-positives")
+            .description("Lookups the filter let through that the database then did not find")
+            .register(meterRegistry);
+        this.staleNegatives = Counter.builder("pqc.user-filter.stale-negatives")
+            .description("Lookups the filter ruled out that the database then found, created elsewhere since the last build")
+            .register(meterRegistry);
+        Gauge.builder("pqc.user-filter.bytes", this, UserLookupFilter::getBytes)
+            .description("Memory held by the user lookup filter")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        Gauge.builder("pqc.user-filter.entries", this, UserLookupFilter::getEntries)
+            .description("Usernames and emails added to the user lookup filter")
+            .register(meterRegistry);
+        Gauge.builder("pqc.user-filter.false-positive-rate", this, UserLookupFilter::expectedFalsePositiveRate)
+            .description("False-positive rate the user lookup filter is expected to have at its current fill")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Filter that is only built when {@link #rebuild()} is called
+     */
+    public UserLookupFilter(DataSource dataSource, long expectedUsers, double falsePositiveRate, long maxBytes) {
+        this(dataSource, new SimpleMeterRegistry(), expectedUsers, falsePositiveRate, maxBytes);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        scheduleRebuild();
+    }
+
+    /**
+     * Pick up users that other instances created since the last build
+     */
+    @Scheduled(initialDelayString = "${pqc.fido2.user-filter.rebuild-interval-ms:600000}",
+        fixedDelayString = "${pqc.fido2.user-filter.rebuild-interval-ms:600000}")
+    public void rebuildPeriodically() {
+        scheduleRebuild();
+    }
+
+    /**
+     * False if no user has this value; true if one probably has, or the
+     * filter is not built yet
+     */
+    public boolean mightContain(Field field, String value) {
+        Filter filter = current;
+        if (filter == null || value == null) {
+            return true;
+        }
+        boolean present = filter.bloom.mightContain(key(field, value));
+        (present ? presentLookups : absentLookups).increment();
+        return present;
+    }
+
+    /**
+     * Report what the database answered for a value after the filter's
+     * {@link #mightContain} answer
+     */
+    public void recordDatabaseAnswer(boolean mightContain, boolean found) {
+        if (current == null || mightContain == found) {
+            return;
+        }
+        (found ? staleNegatives : falsePositives).increment();
+    }
+
+    /**
+     * Add a user's username and email. Call once the user is committed, or
+     * a rebuild running meanwhile may miss it.
+     */
+    public void add(String username, String email) {
+        if (username == null || email == null) {
+            return;
+        }
+        // Read the filter being built before the current one: a rebuild
+        // publishes its filter as current before it stops taking adds
+        Filter next = building;
+        Filter filter = current;
+        if (filter != null) {
+            filter.add(key(Field.USERNAME, username));
+            filter.add(key(Field.EMAIL, email));
+            if (filter.entries.get() > filter.capacity) {
+                scheduleRebuild();
+            }
+        }
+        if (next != null && next != filter) {
+            next.add(key(Field.USERNAME, username));
+            next.add(key(Field.EMAIL, email));
+        }
+    }
+
+    /**
+     * Rebuild from the users table, sized for twice the current users (at
+     * least pqc.fido2.user-filter.expected-users) within max-bytes. Lookups
+     * use the previous filter until this one is complete.
+     */
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            long start = System.nanoTime();
+            Long users = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+            long capacity = 2 * Math.max(expectedUsers, 2 * (users != null ? users : 0));
+            long bits = Math.min(BloomFilter.optimalBitCount(capacity, falsePositiveRate), maxBytes * 8);
+            Filter next = new Filter(new BloomFilter(bits, BloomFilter.optimalHashCount(bits, capacity)), capacity);
+
+            building = next;
+            try {
+                // Outside a transaction, so this reads the primary rather than a replica
+                jdbcTemplate.query("SELECT username, email FROM users", (RowCallbackHandler) rs -> {
+                    next.add(key(Field.USERNAME, rs.getString(1)));
+                    next.add(key(Field.EMAIL, rs.getString(2)));
+                });
+                current = next;
+            } finally {
+                building = null;
+            }
+            log.info("[USER FILTER] - Built from {} users in {} ms: {} KB, expected false-positive rate {}",
+                users, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), next.bloom.bitCount() / 8192,
+                String.format(Locale.ROOT, "%.4f", expectedFalsePositiveRate()));
+        }
+    }
+
+    public boolean isReady() {
+        return current != null;
+    }
+
+    public long getBytes() {
+        Filter filter = current;
+        return filter != null ? filter.bloom.bitCount() / 8 : 0;
+    }
+
+    public long getEntries() {
+        Filter filter = current;
+        return filter != null ? filter.entries.get() : 0;
+    }
+
+    public double expectedFalsePositiveRate() {
+        Filter filter = current;
+        return filter != null ? filter.bloom.expectedFalsePositiveRate(filter.entries.get()) : 1;
+    }
+
+    @PreDestroy
+    public void close() {
+        rebuilder.shutdownNow();
+    }
+
+    private void scheduleRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            rebuilder.execute(() -> {
+                rebuildScheduled.set(false);
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    log.warn("[USER FILTER] - Rebuild failed, keeping the previous filter: {}", e.getMessage());
+                }
+            });
+        }
+    }
+
+    static String key(Field field, String value) {
+        String folded = COMBINING_MARKS.matcher(Normalizer.normalize(value.strip(), Normalizer.Form.NFKD))
+            .replaceAll("");
+        return field.prefix + folded.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,45 @@
+package com.pqc.fido2.service;
+
+import com.pqc.fido2.model.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA entity listener that adds new and renamed users to the
+ * {@link UserLookupFilter}. Like {@link CredentialIndexListener}, it looks the
+ * filter up lazily because Hibernate creates it while the
+ * EntityManagerFactory is still being built.
+ *
+ * The values are added after commit: until then nobody can have been told
+ * about the user, and a filter rebuild running meanwhile may not see the row.
+ */
+public class UserLookupFilterListener {
+
+    @Autowired
+    private ObjectProvider<UserLookupFilter> userLookupFilter;
+
+    @PostPersist
+    @PostUpdate
+    public void onChange(User user) {
+        UserLookupFilter filter = userLookupFilter.getIfAvailable();
+        if (filter == null) {
+            return;
+        }
+        String username = user.getUsername();
+        String email = user.getEmail();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    filter.add(username, email);
+                }
+            });
+        } else {
+            filter.add(username, email);
+        }
+    }
+}
@@ -3,22 +3,44 @@ package com.pqc.fido2.service;
 import com.pqc.fido2.model.User;
 import com.pqc.fido2.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 @Service
+@Profile("!reactive")
 public class UserService {
     
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired(required = false)
+    private UserLookupFilter userLookupFilter;
+
+    // Only safe while this instance creates every user, see UserLookupFilter
+    @Value("${pqc.fido2.user-filter.trust-negatives:false}")
+    private boolean trustNegatives;
+
+    /**
+     * Only skips the duplicate checks the lookup filter rules out when
+     * pqc.fido2.user-filter.trust-negatives is set: otherwise a user created
+     * through another instance since the last rebuild would be missed here
+     * and only caught by the unique constraints, as a constraint violation
+     * instead of a readable error.
+     */
+    @Transactional
     public User createUser(String username, String email, String displayName) {
-        if (userRepository.existsByUsername(username)) {
+        if (!definitelyAbsent(UserLookupFilter.Field.USERNAME, username)
+                && userRepository.existsByUsername(username)) {
             throw new IllegalArgumentException("Username already exists");
         }
-        if (userRepository.existsByEmail(email)) {
+        if (!definitelyAbsent(UserLookupFilter.Field.EMAIL, email)
+                && userRepository.existsByEmail(email)) {
             throw new IllegalArgumentException("Email already exists");
         }
 
@@ -26,12 +48,28 @@ public class UserService {
         return userRepository.save(user);
     }
 
+    /**
+     * The user with this username, created if there is none yet. Always asks
+     * the database, so another instance's user is reused rather than clashing
+     * on the unique constraint.
+     */
+    @Transactional
+    public User findOrCreateUser(String username, String email, String displayName) {
+        return userRepository.findByUsername(username)
+            .orElseGet(() -> createUser(username, email, displayName));
+    }
+
+    /**
+     * For logins. Runs without a transaction; the repository's own read-only
+     * one serves the query, which the lookup filter only skips when its
+     * negatives are trusted
+     */
     public Optional<User> findByUsername(String username) {
-        return userRepository.findByUsername(username);
+        return find(UserLookupFilter.Field.USERNAME, username, () -> userRepository.findByUsername(username));
     }
 
     public Optional<User> findByEmail(String email) {
-        return userRepository.findByEmail(email);
+        return find(UserLookupFilter.Field.EMAIL, email, () -> userRepository.findByEmail(email));
     }
 
     public User updateLastLogin(User user) {
@@ -39,11 +77,42 @@ public class UserService {
         return userRepository.save(user);
     }
 
+    /**
+     * Update last login by ID without loading the user
+     */
+    public void updateLastLogin(Long userId) {
+        userRepository.updateLastLogin(userId, LocalDateTime.now());
+    }
+
     public boolean existsByUsername(String username) {
-        return userRepository.existsByUsername(username);
+        return find(UserLookupFilter.Field.USERNAME, username,
+            () -> Optional.of(userRepository.existsByUsername(username)).filter(Boolean::booleanValue)).isPresent();
     }
 
     public boolean existsByEmail(String email) {
-        return userRepository.existsByEmail(email);
+        return find(UserLookupFilter.Field.EMAIL, email,
+            () -> Optional.of(userRepository.existsByEmail(email)).filter(Boolean::booleanValue)).isPresent();
+    }
+
+    /**
+     * Ask the filter, then the database unless the filter's negatives are
+     * trusted; the database answer is reported back so the filter's misses
+     * in either direction are counted
+     */
+    private <T> Optional<T> find(UserLookupFilter.Field field, String value, Supplier<Optional<T>> query) {
+        if (userLookupFilter == null) {
+            return query.get();
+        }
+        boolean mightContain = userLookupFilter.mightContain(field, value);
+        if (!mightContain && trustNegatives) {
+            return Optional.empty();
+        }
+        Optional<T> found = query.get();
+        userLookupFilter.recordDatabaseAnswer(mightContain, found.isPresent());
+        return found;
+    }
+
+    private boolean definitelyAbsent(UserLookupFilter.Field field, String value) {
+        return trustNegatives && userLookupFilter != null && !userLookupFilter.mightContain(field, value);
     }
 }
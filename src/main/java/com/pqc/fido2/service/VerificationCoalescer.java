@@ -0,0 +1,201 @@
+package com.pqc.fido2.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight execution of login completions. Requests carrying the same
+ * inputs (tenant, session, credential, signatures, client data) share one
+ * verification: the first caller runs it, concurrent duplicates wait on its
+ * future, and the result is kept for pqc.fido2.coalescing.result-ttl-ms so
+ * late client retries get the same answer without re-running the
+ * multi-layer verification.
+ *
+ * A session can only be completed once, so a retry that re-ran the ceremony
+ * would fail even when the original attempt succeeded; replaying the cached
+ * result also makes retries idempotent. Only answers are cached: a
+ * verification that threw, including one the tenant bulkhead or the
+ * scheduler shed ({@link com.pqc.fido2.tenant.VerificationRejectedException}),
+ * is run again by the next retry. Inputs are keyed by a 128-bit SHA-256
+ * prefix and are never stored themselves.
+ */
+@Component
+public class VerificationCoalescer {
+
+    private final long resultTtlNanos;
+    private final int maxResults;
+
+    private final ConcurrentHashMap<Key, CompletableFuture<Boolean>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Key, CachedResult> results = new ConcurrentHashMap<>();
+    // Every result has the same TTL, so insertion order is also expiry order
+    private final ConcurrentLinkedQueue<Key> resultOrder = new ConcurrentLinkedQueue<>();
+
+    private final Counter coalesced;
+    private final Counter cached;
+    private final Counter executed;
+
+    @Autowired
+    public VerificationCoalescer(MeterRegistry meterRegistry,
+                                 @Value("${pqc.fido2.coalescing.result-ttl-ms:5000}") long resultTtlMillis,
+                                 @Value("${pqc.fido2.coalescing.max-results:10000}") int maxResults) {
+        this.resultTtlNanos = TimeUnit.MILLISECONDS.toNanos(resultTtlMillis);
+        this.maxResults = maxResults;
+
+        this.executed = Counter.builder("pqc.verification.coalescing")
+            .description("Login completions by how they were answered")
+            .tag("result", "executed")
+            .register(meterRegistry);
+        this.coalesced = Counter.builder("pqc.verification.coalescing")
+            .description("Login completions by how they were answered")
+            .tag("result", "joined-in-flight")
+            .register(meterRegistry);
+        this.cached = Counter.builder("pqc.verification.coalescing")
+            .description("Login completions by how they were answered")
+            .tag("result", "cached")
+            .register(meterRegistry);
+        Gauge.builder("pqc.verification.in.flight", inFlight, ConcurrentHashMap::size)
+            .description("Distinct login completions currently being verified")
+            .register(meterRegistry);
+        Gauge.builder("pqc.verification.cached.results", results, ConcurrentHashMap::size)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Key over the given request fields; nulls and field boundaries are
+     * encoded so that different field splits never collide
+     */
+    public static Key key(String... fields) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            ByteBuffer length = ByteBuffer.allocate(4);
+            for (String field : fields) {
+                byte[] bytes = field != null ? field.getBytes(StandardCharsets.UTF_8) : null;
+                digest.update(length.putInt(0, bytes != null ? bytes.length : -1).array());
+                if (bytes != null) {
+                    digest.update(bytes);
+                }
+            }
+            ByteBuffer hash = ByteBuffer.wrap(digest.digest());
+            return new Key(hash.getLong(), hash.getLong());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Return the cached or in-flight result for the key, or run the
+     * verification and share its result
+     */
+    public boolean execute(Key key, Supplier<Boolean> verification) {
+        CachedResult result = results.get(key);
+        if (result != null && result.expiresAt - System.nanoTime() > 0) {
+            cached.increment();
+            return result.value;
+        }
+
+        CompletableFuture<Boolean> mine = new CompletableFuture<>();
+        CompletableFuture<Boolean> leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null) {
+            coalesced.increment();
+            try {
+                return leader.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+
+        executed.increment();
+        try {
+            boolean value = verification.get();
+            // Cache before leaving the in-flight map, so a late duplicate sees one or the other
+            cache(key, value);
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    public int cachedCount() {
+        return results.size();
+    }
+
+    private void cache(Key key, boolean value) {
+        if (resultTtlNanos <= 0 || maxResults <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        results.put(key, new CachedResult(value, now + resultTtlNanos));
+        resultOrder.add(key);
+
+        Key eldest;
+        while ((eldest = resultOrder.peek()) != null) {
+            CachedResult head = results.get(eldest);
+            boolean expired = head == null || head.expiresAt - now <= 0;
+            if (!expired && results.size() <= maxResults) {
+                break;
+            }
+            if (resultOrder.remove(eldest) && head != null) {
+                results.remove(eldest, head);
+            }
+        }
+    }
+
+    /**
+     * 128-bit prefix of SHA-256 over the request fields
+     */
+    public static final class Key {
+        private final long high;
+        private final long low;
+
+        private Key(long high, long low) {
+            this.high = high;
+            this.low = low;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (!(obj instanceof Key)) return false;
+            Key other = (Key) obj;
+            return high == other.high && low == other.low;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(high ^ low);
+        }
+    }
+
+    private static final class CachedResult {
+        private final boolean value;
+        private final long expiresAt;
+
+        private CachedResult(boolean value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package com.pqc.fido2.service;
+
+import com.pqc.fido2.config.CryptoConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Shared worker pool for CPU-heavy crypto work with two priority classes.
+ * Each class has a bounded queue and a concurrency limit; workers always take
+ * queued interactive work first, and bulk work never occupies more than its
+ * limit, so the remaining workers are free for logins however much bulk work
+ * is queued.
+ *
+ * Every task carries a deadline. Work still queued when its deadline passes
+ * is dropped instead of run, since its caller has already given up; the
+ * future fails with a {@link TimeoutException}.
+ *
+ * A login parks a chain of threads of which only the innermost uses CPU:
+ * the tenant bulkhead thread ({@link com.pqc.fido2.tenant.Tenant#verify})
+ * waits for a worker here, and a worker verifying a hybrid signature waits
+ * for its two halves on the hybrid verification executor. The outer threads
+ * cost a stack each, not CPU, so the tenant bulkheads bound how many logins
+ * may wait, these workers bound how many verify at once, and the hybrid
+ * executor needs two threads per worker (its default) so that no worker
+ * waits behind another worker's halves.
+ *
+ * Exports pqc.scheduler.queue.depth{priority}, pqc.scheduler.running{priority},
+ * the queue wait time pqc.scheduler.wait{priority} and
+ * pqc.scheduler.shed{priority,reason=queue-full|deadline}.
+ */
+@Component
+public class VerificationScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(VerificationScheduler.class);
+
+    public enum Priority {
+        /**
+         * Work a user is waiting on, such as login verification
+         */
+        INTERACTIVE,
+        /**
+         * Background work such as imports and re-verification
+         */
+        BULK
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workAvailable = lock.newCondition();
+    private final PriorityClass interactive;
+    private final PriorityClass bulk;
+    private volatile boolean shutdown;
+
+    @Autowired
+    public VerificationScheduler(MeterRegistry meterRegistry,
+                                 @Value("${pqc.fido2.scheduler.threads:0}") int threads,
+                                 @Value("${pqc.fido2.scheduler.interactive.queue-capacity:1024}") int interactiveQueueCapacity,
+                                 @Value("${pqc.fido2.scheduler.interactive.max-concurrency:0}") int interactiveConcurrency,
+                                 @Value("${pqc.fido2.scheduler.bulk.queue-capacity:1024}") int bulkQueueCapacity,
+                                 @Value("${pqc.fido2.scheduler.bulk.max-concurrency:0}") int bulkConcurrency) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.interactive = new PriorityClass(Priority.INTERACTIVE, interactiveQueueCapacity,
+            interactiveConcurrency > 0 ? Math.min(interactiveConcurrency, poolSize) : poolSize, meterRegistry);
+        // By default bulk work may use half the workers
+        this.bulk = new PriorityClass(Priority.BULK, bulkQueueCapacity,
+            bulkConcurrency > 0 ? Math.min(bulkConcurrency, poolSize) : Math.max(1, poolSize / 2), meterRegistry);
+
+        ThreadFactory threadFactory = CryptoConfig.namedThreadFactory("verification-scheduler-");
+        for (int i = 0; i < poolSize; i++) {
+            threadFactory.newThread(this::runWorker).start();
+        }
+        log.info("[SCHEDULER] - {} workers, interactive limit={} queue={}, bulk limit={} queue={}",
+            poolSize, interactive.maxConcurrency, interactive.capacity, bulk.maxConcurrency, bulk.capacity);
+    }
+
+    /**
+     * Queue a task that must start before the deadline (System.nanoTime based).
+     * Throws RejectedExecutionException when the class's queue is full.
+     */
+    public <T> CompletableFuture<T> submit(Priority priority, long deadlineNanos, Callable<T> task) {
+        PriorityClass target = classOf(priority);
+        Task<T> queued = new Task<>(task, System.nanoTime(), deadlineNanos);
+        lock.lock();
+        try {
+            if (shutdown) {
+                throw new RejectedExecutionException("Verification scheduler is shut down");
+            }
+            if (target.queue.size() >= target.capacity) {
+                target.rejected.increment();
+                throw new RejectedExecutionException(priority + " verification queue is full");
+            }
+            target.queue.addLast(queued);
+            workAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+        return queued.result;
+    }
+
+    /**
+     * Run a task with the given priority and wait for it until the deadline
+     * (System.nanoTime based), which is also the deadline for starting it
+     */
+    public <T> T call(Priority priority, long deadlineNanos, Callable<T> task) throws Exception {
+        CompletableFuture<T> result = submit(priority, deadlineNanos, task);
+        try {
+            return result.get(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(false);
+            throw e;
+        } catch (InterruptedException e) {
+            result.cancel(false);
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    public int queueDepth(Priority priority) {
+        lock.lock();
+        try {
+            return classOf(priority).queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Workers the given class may occupy at once
+     */
+    public int maxConcurrency(Priority priority) {
+        return classOf(priority).maxConcurrency;
+    }
+
+    public int running(Priority priority) {
+        lock.lock();
+        try {
+            return classOf(priority).running;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        List<Task<?>> dropped = new ArrayList<>();
+        lock.lock();
+        try {
+            shutdown = true;
+            dropped.addAll(interactive.queue);
+            dropped.addAll(bulk.queue);
+            interactive.queue.clear();
+            bulk.queue.clear();
+            workAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        dropped.forEach(task -> task.result.completeExceptionally(
+            new RejectedExecutionException("Verification scheduler is shut down")));
+    }
+
+    private void runWorker() {
+        while (true) {
+            PriorityClass owner;
+            Task<?> task;
+            lock.lock();
+            try {
+                while (true) {
+                    if (shutdown) {
+                        return;
+                    }
+                    owner = interactive;
+                    task = interactive.poll();
+                    if (task == null) {
+                        owner = bulk;
+                        task = bulk.poll();
+                    }
+                    if (task != null) {
+                        break;
+                    }
+                    workAvailable.awaitUninterruptibly();
+                }
+                owner.running++;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                owner.wait.record(System.nanoTime() - task.queuedAt, TimeUnit.NANOSECONDS);
+                task.run();
+            } finally {
+                lock.lock();
+                try {
+                    owner.running--;
+                    // A class at its limit may have queued work this worker could not take
+                    workAvailable.signal();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    private PriorityClass classOf(Priority priority) {
+        return priority == Priority.INTERACTIVE ? interactive : bulk;
+    }
+
+    /**
+     * Queue and limits of one priority class; guarded by the scheduler lock
+     */
+    private final class PriorityClass {
+        private final ArrayDeque<Task<?>> queue = new ArrayDeque<>();
+        private final int capacity;
+        private final int maxConcurrency;
+        private int running;
+
+        private final Timer wait;
+        private final Counter rejected;
+        private final Counter expired;
+
+        private PriorityClass(Priority priority, int capacity, int maxConcurrency, MeterRegistry meterRegistry) {
+            String tag = priority.name().toLowerCase(Locale.ROOT);
+            this.capacity = Math.max(1, capacity);
+            this.maxConcurrency = maxConcurrency;
+            this.wait = Timer.builder("pqc.scheduler.wait")
+                .description("Time verification work spends queued before a worker starts it")
+                .tag("priority", tag)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+            this.rejected = Counter.builder("pqc.scheduler.shed")
+                .description("Verification work dropped by the scheduler")
+                .tag("priority", tag)
+                .tag("reason", "queue-full")
+                .register(meterRegistry);
+            this.expired = Counter.builder("pqc.scheduler.shed")
+                .description("Verification work dropped by the scheduler")
+                .tag("priority", tag)
+                .tag("reason", "deadline")
+                .register(meterRegistry);
+            Gauge.builder("pqc.scheduler.queue.depth", this, PriorityClass::depth)
+                .description("Verification work waiting for a worker")
+                .tag("priority", tag)
+                .register(meterRegistry);
+            Gauge.builder("pqc.scheduler.running", this, PriorityClass::activeCount)
+                .description("Verification work currently running")
+                .tag("priority", tag)
+                .register(meterRegistry);
+        }
+
+        /**
+         * Next runnable task within the concurrency limit; drops cancelled and expired work
+         */
+        private Task<?> poll() {
+            if (running >= maxConcurrency) {
+                return null;
+            }
+            long now = System.nanoTime();
+            Task<?> task;
+            while ((task = queue.pollFirst()) != null) {
+                if (task.result.isDone()) {
+                    // Cancelled by a caller that stopped waiting
+                    if (task.result.isCancelled()) {
+                        expired.increment();
+                    }
+                    continue;
+                }
+                if (task.deadline - now < 0) {
+                    expired.increment();
+                    task.result.completeExceptionally(new TimeoutException("Deadline passed before the work started"));
+                    continue;
+                }
+                return task;
+            }
+            return null;
+        }
+
+        private double depth() {
+            lock.lock();
+            try {
+                return queue.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private double activeCount() {
+            lock.lock();
+            try {
+                return running;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static final class Task<T> {
+        private final Callable<T> callable;
+        private final long queuedAt;
+        private final long deadline;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        private Task(Callable<T> callable, long queuedAt, long deadline) {
+            this.callable = callable;
+            this.queuedAt = queuedAt;
+            this.deadline = deadline;
+        }
+
+        private void run() {
+            try {
+                result.complete(callable.call());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+}
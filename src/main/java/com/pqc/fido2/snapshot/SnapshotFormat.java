@@ -0,0 +1,90 @@
+package com.pqc.fido2.snapshot;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Layout of a snapshot file. All numbers are big-endian.
+ *
+ * <pre>
+ * header   int magic 'PQSN', int version, long created (epoch millis)
+ * block*   byte record type, int record count, int payload bytes, int CRC32C of the payload, payload
+ * trailer  int magic 'PQSE', long users, long credentials, int blocks, int CRC32C of the preceding trailer fields
+ * </pre>
+ *
+ * All user blocks come before the credential blocks, so credentials can be
+ * restored once their users are in. Within a payload, strings are an int
+ * byte length (-1 for null) followed by UTF-8, and timestamps a long epoch
+ * second (Long.MIN_VALUE for null) followed by an int nanosecond, both taken
+ * as UTC.
+ *
+ * User record: id, username, email, display name, created at, last login,
+ * active flag (byte). Credential record: id, user id, credential ID, public
+ * key, post-quantum public key, signature count, created at, last used,
+ * flags (byte: 1 active, 2 clone suspected), rp ID, crypto type.
+ */
+final class SnapshotFormat {
+
+    static final int MAGIC = 0x5051534E;
+    static final int TRAILER_MAGIC = 0x50515345;
+    static final int VERSION = 1;
+
+    static final int HEADER_BYTES = 16;
+    static final int BLOCK_HEADER_BYTES = 13;
+    static final int TRAILER_BYTES = 28;
+
+    static final byte USER = 1;
+    static final byte CREDENTIAL = 2;
+
+    static final byte ACTIVE = 1;
+    static final byte CLONE_SUSPECTED = 2;
+
+    private static final long NULL_TIMESTAMP = Long.MIN_VALUE;
+
+    private SnapshotFormat() {
+    }
+
+    static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static LocalDateTime getDateTime(ByteBuffer buffer) {
+        long seconds = buffer.getLong();
+        if (seconds == NULL_TIMESTAMP) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(seconds, buffer.getInt(), ZoneOffset.UTC);
+    }
+
+    static int stringBytes(byte[] utf8) {
+        return Integer.BYTES + (utf8 != null ? utf8.length : 0);
+    }
+
+    static void putString(ByteBuffer buffer, byte[] utf8) {
+        if (utf8 == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(utf8.length).put(utf8);
+        }
+    }
+
+    static int dateTimeBytes(LocalDateTime value) {
+        return value != null ? Long.BYTES + Integer.BYTES : Long.BYTES;
+    }
+
+    static void putDateTime(ByteBuffer buffer, LocalDateTime value) {
+        if (value == null) {
+            buffer.putLong(NULL_TIMESTAMP);
+        } else {
+            buffer.putLong(value.toEpochSecond(ZoneOffset.UTC)).putInt(value.getNano());
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.pqc.fido2.snapshot;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Keeps credential state across restarts when pqc.fido2.snapshot.file is
+ * set, e.g. --pqc.fido2.snapshot.file=/data/credentials.snap. The snapshot is
+ * restored before the web server starts and written after it has stopped,
+ * while the schema still exists.
+ */
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(prefix = "pqc.fido2.snapshot", name = "file")
+public class SnapshotLifecycle implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotLifecycle.class);
+
+    @Autowired
+    private SnapshotService snapshotService;
+
+    @Value("${pqc.fido2.snapshot.file}")
+    private String file;
+
+    @Value("${pqc.fido2.snapshot.restore-on-startup:true}")
+    private boolean restoreOnStartup;
+
+    @Value("${pqc.fido2.snapshot.write-on-shutdown:true}")
+    private boolean writeOnShutdown;
+
+    private volatile boolean running;
+
+    @Override
+    public void start() {
+        Path snapshot = Path.of(file);
+        if (restoreOnStartup && Files.exists(snapshot)) {
+            try {
+                snapshotService.restore(snapshot);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to restore snapshot " + snapshot, e);
+            }
+        } else if (restoreOnStartup) {
+            log.info("[SNAPSHOT] - No snapshot at {}, starting empty", snapshot);
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (writeOnShutdown) {
+            try {
+                snapshotService.write(Path.of(file));
+            } catch (IOException | RuntimeException e) {
+                log.error("[SNAPSHOT] - Failed to write snapshot {}: {}", file, e.getMessage(), e);
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Start before and stop after the web server, whose lifecycle runs in a
+     * phase close to Integer.MAX_VALUE
+     */
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+}
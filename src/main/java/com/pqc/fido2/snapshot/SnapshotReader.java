@@ -0,0 +1,165 @@
+package com.pqc.fido2.snapshot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Reads a snapshot file (see {@link SnapshotFormat}). Opening checks the
+ * header and trailer and walks the block headers to build an index, without
+ * touching the payloads. Each block is then memory-mapped on its own, so
+ * blocks can be checked and decoded in parallel.
+ */
+class SnapshotReader implements Closeable {
+
+    private final Path file;
+    private final FileChannel channel;
+    private final long createdMillis;
+    private final long users;
+    private final long credentials;
+    private final List<Block> blocks;
+
+    private SnapshotReader(Path file, FileChannel channel, long createdMillis, long users, long credentials,
+                           List<Block> blocks) {
+        this.file = file;
+        this.channel = channel;
+        this.createdMillis = createdMillis;
+        this.users = users;
+        this.credentials = credentials;
+        this.blocks = blocks;
+    }
+
+    /**
+     * Open a snapshot; fails with IllegalArgumentException if it is not a
+     * complete snapshot of a supported version
+     */
+    static SnapshotReader open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < SnapshotFormat.HEADER_BYTES + SnapshotFormat.TRAILER_BYTES) {
+                throw new IllegalArgumentException(file + " is too short to be a snapshot");
+            }
+            ByteBuffer header = readAt(channel, 0, SnapshotFormat.HEADER_BYTES);
+            if (header.getInt() != SnapshotFormat.MAGIC) {
+                throw new IllegalArgumentException(file + " is not a snapshot");
+            }
+            int version = header.getInt();
+            if (version != SnapshotFormat.VERSION) {
+                throw new IllegalArgumentException(file + " has unsupported snapshot version " + version);
+            }
+            long createdMillis = header.getLong();
+
+            long trailerOffset = size - SnapshotFormat.TRAILER_BYTES;
+            ByteBuffer trailer = readAt(channel, trailerOffset, SnapshotFormat.TRAILER_BYTES);
+            CRC32C crc = new CRC32C();
+            crc.update(trailer.array(), 0, SnapshotFormat.TRAILER_BYTES - Integer.BYTES);
+            if (trailer.getInt() != SnapshotFormat.TRAILER_MAGIC
+                    || trailer.getInt(SnapshotFormat.TRAILER_BYTES - Integer.BYTES) != (int) crc.getValue()) {
+                throw new IllegalArgumentException(file + " is truncated or its trailer is corrupt");
+            }
+            long users = trailer.getLong();
+            long credentials = trailer.getLong();
+            int blockCount = trailer.getInt();
+
+            List<Block> blocks = new ArrayList<>(blockCount);
+            long position = SnapshotFormat.HEADER_BYTES;
+            while (position < trailerOffset) {
+                if (trailerOffset - position < SnapshotFormat.BLOCK_HEADER_BYTES) {
+                    throw new IllegalArgumentException(file + " has a truncated block at offset " + position);
+                }
+                ByteBuffer blockHeader = readAt(channel, position, SnapshotFormat.BLOCK_HEADER_BYTES);
+                byte type = blockHeader.get();
+                int records = blockHeader.getInt();
+                int length = blockHeader.getInt();
+                int checksum = blockHeader.getInt();
+                long payload = position + SnapshotFormat.BLOCK_HEADER_BYTES;
+                if ((type != SnapshotFormat.USER && type != SnapshotFormat.CREDENTIAL)
+                        || records < 0 || length < 0 || payload + length > trailerOffset) {
+                    throw new IllegalArgumentException(file + " has a corrupt block header at offset " + position);
+                }
+                blocks.add(new Block(type, records, payload, length, checksum));
+                position = payload + length;
+            }
+            if (blocks.size() != blockCount) {
+                throw new IllegalArgumentException(file + " has " + blocks.size() + " blocks, its trailer says "
+                    + blockCount);
+            }
+            return new SnapshotReader(file, channel, createdMillis, users, credentials,
+                Collections.unmodifiableList(blocks));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Map a block's payload, failing with IllegalArgumentException if it
+     * does not match its checksum
+     */
+    ByteBuffer map(Block block) throws IOException {
+        MappedByteBuffer payload = channel.map(FileChannel.MapMode.READ_ONLY, block.offset, block.length);
+        CRC32C crc = new CRC32C();
+        crc.update(payload.duplicate());
+        if ((int) crc.getValue() != block.checksum) {
+            throw new IllegalArgumentException(file + " has a corrupt block at offset "
+                + (block.offset - SnapshotFormat.BLOCK_HEADER_BYTES));
+        }
+        return payload;
+    }
+
+    List<Block> blocks() {
+        return blocks;
+    }
+
+    long createdMillis() {
+        return createdMillis;
+    }
+
+    long users() {
+        return users;
+    }
+
+    long credentials() {
+        return credentials;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static ByteBuffer readAt(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IllegalArgumentException("Unexpected end of snapshot at offset " + position);
+            }
+        }
+        return buffer.flip();
+    }
+
+    static final class Block {
+        final byte type;
+        final int records;
+        final long offset;
+        final int length;
+        final int checksum;
+
+        private Block(byte type, int records, long offset, int length, int checksum) {
+            this.type = type;
+            this.records = records;
+            this.offset = offset;
+            this.length = length;
+            this.checksum = checksum;
+        }
+    }
+}
@@ -0,0 +1,373 @@
+package com.pqc.fido2.snapshot;
+
+import com.pqc.fido2.config.CryptoConfig;
+import com.pqc.fido2.service.UserLookupFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snapshots of all users and credentials, including their public keys, in a
+ * checksummed binary file (see {@link SnapshotFormat}).
+ *
+ * Writing streams both tables through one read transaction straight into a
+ * FileChannel, a block at a time, and moves the finished file into place
+ * atomically. Restoring maps the file block by block and bypasses JPA: it
+ * first verifies every block's checksum in parallel, so a damaged file
+ * changes nothing, then inserts the user blocks and after them the
+ * credential blocks in parallel, one JDBC batch and transaction per block.
+ * Finally the ID sequences are moved past the restored IDs and the user
+ * lookup filter is rebuilt. Restoring needs empty users and credentials
+ * tables.
+ */
+@Service
+@Profile("!reactive")
+public class SnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotService.class);
+
+    private static final String SELECT_USERS =
+        "SELECT id, username, email, display_name, created_at, last_login, is_active FROM users ORDER BY id";
+    private static final String SELECT_CREDENTIALS =
+        "SELECT id, user_id, credential_id, public_key, pq_public_key, signature_count, created_at, last_used, "
+            + "is_active, clone_suspected, rp_id, crypto_type FROM credentials ORDER BY id";
+    private static final String INSERT_USER =
+        "INSERT INTO users (id, username, email, display_name, created_at, last_login, is_active) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_CREDENTIAL =
+        "INSERT INTO credentials (id, user_id, credential_id, public_key, pq_public_key, signature_count, "
+            + "created_at, last_used, is_active, clone_suspected, rp_id, crypto_type) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    // Must match the allocationSize of the entities' sequence generators
+    private static final int ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final int blockBytes;
+    private final int restoreThreads;
+    private final Timer writeTimer;
+    private final Timer restoreTimer;
+
+    @Autowired(required = false)
+    private UserLookupFilter userLookupFilter;
+
+    @Autowired
+    public SnapshotService(DataSource dataSource, PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${pqc.fido2.snapshot.block-bytes:1048576}") int blockBytes,
+                           @Value("${pqc.fido2.snapshot.restore-threads:0}") int restoreThreads) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(1000);
+        // Users and credentials have to come from the same point in time, and from the
+        // primary: a read-only transaction may be routed to a lagging replica
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.blockBytes = blockBytes;
+        this.restoreThreads = restoreThreads > 0 ? restoreThreads : Runtime.getRuntime().availableProcessors();
+        this.writeTimer = Timer.builder("pqc.snapshot.duration")
+            .description("Time to write or restore a credential snapshot")
+            .tag("operation", "write")
+            .register(meterRegistry);
+        this.restoreTimer = Timer.builder("pqc.snapshot.duration")
+            .description("Time to write or restore a credential snapshot")
+            .tag("operation", "restore")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Write a snapshot of all users and credentials, replacing the file atomically
+     */
+    public Result write(Path file) throws IOException {
+        long start = System.nanoTime();
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        SnapshotWriter writer;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writer = new SnapshotWriter(channel, blockBytes, System.currentTimeMillis());
+            try {
+                readTransaction.executeWithoutResult(status -> {
+                    jdbcTemplate.query(SELECT_USERS, (RowCallbackHandler) rs -> writeUser(writer, rs));
+                    jdbcTemplate.query(SELECT_CREDENTIALS, (RowCallbackHandler) rs -> writeCredential(writer, rs));
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.finish();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        long elapsed = System.nanoTime() - start;
+        writeTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        Result result = new Result(writer.users(), writer.credentials(), Files.size(file), elapsed);
+        log.info("[SNAPSHOT] - Wrote {} users and {} credentials to {} ({} bytes) in {} ms",
+            result.getUsers(), result.getCredentials(), file, result.getBytes(), result.getElapsedMillis());
+        return result;
+    }
+
+    /**
+     * Restore a snapshot into empty users and credentials tables
+     */
+    public Result restore(Path file) throws IOException {
+        long start = System.nanoTime();
+        Long existing = jdbcTemplate.queryForObject(
+            "SELECT (SELECT COUNT(*) FROM users) + (SELECT COUNT(*) FROM credentials)", Long.class);
+        if (existing != null && existing > 0) {
+            throw new IllegalStateException("Snapshot restore needs empty users and credentials tables");
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(restoreThreads,
+            CryptoConfig.namedThreadFactory("snapshot-restore-"));
+        try (SnapshotReader reader = SnapshotReader.open(file)) {
+            // Check everything before the first insert, so a damaged file changes nothing
+            runAll(executor, reader.blocks(), block -> reader.map(block));
+            runAll(executor, blocksOf(reader, SnapshotFormat.USER), block -> insertUsers(reader.map(block), block.records));
+            runAll(executor, blocksOf(reader, SnapshotFormat.CREDENTIAL),
+                block -> insertCredentials(reader.map(block), block.records));
+            advanceSequence("users_seq", "users");
+            advanceSequence("credentials_seq", "credentials");
+            if (userLookupFilter != null) {
+                userLookupFilter.rebuild();
+            }
+
+            long elapsed = System.nanoTime() - start;
+            restoreTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            Result result = new Result(reader.users(), reader.credentials(), Files.size(file), elapsed);
+            log.info("[SNAPSHOT] - Restored {} users and {} credentials from {} in {} ms on {} threads",
+                result.getUsers(), result.getCredentials(), file, result.getElapsedMillis(), restoreThreads);
+            return result;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void writeUser(SnapshotWriter writer, ResultSet rs) throws SQLException {
+        try {
+            writer.startRecord(SnapshotFormat.USER);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        writer.putLong(rs.getLong(1))
+            .putString(rs.getString(2))
+            .putString(rs.getString(3))
+            .putString(rs.getString(4))
+            .putDateTime(rs.getObject(5, LocalDateTime.class))
+            .putDateTime(rs.getObject(6, LocalDateTime.class))
+            .putByte(rs.getBoolean(7) ? SnapshotFormat.ACTIVE : 0)
+            .endRecord();
+    }
+
+    private void writeCredential(SnapshotWriter writer, ResultSet rs) throws SQLException {
+        try {
+            writer.startRecord(SnapshotFormat.CREDENTIAL);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte flags = (byte) ((rs.getBoolean(9) ? SnapshotFormat.ACTIVE : 0)
+            | (rs.getBoolean(10) ? SnapshotFormat.CLONE_SUSPECTED : 0));
+        writer.putLong(rs.getLong(1))
+            .putLong(rs.getLong(2))
+            .putString(rs.getString(3))
+            .putString(rs.getString(4))
+            .putString(rs.getString(5))
+            .putLong(rs.getLong(6))
+            .putDateTime(rs.getObject(7, LocalDateTime.class))
+            .putDateTime(rs.getObject(8, LocalDateTime.class))
+            .putByte(flags)
+            .putString(rs.getString(11))
+            .putString(rs.getString(12))
+            .endRecord();
+    }
+
+    /**
+     * Insert one block of users. JdbcTemplate calls setValues for rows 0..n-1
+     * in order, so each call decodes the next record of the block.
+     */
+    private void insertUsers(ByteBuffer payload, int records) {
+        writeTransaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_USER,
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ps.setLong(1, payload.getLong());
+                    ps.setString(2, SnapshotFormat.getString(payload));
+                    ps.setString(3, SnapshotFormat.getString(payload));
+                    ps.setString(4, SnapshotFormat.getString(payload));
+                    setDateTime(ps, 5, SnapshotFormat.getDateTime(payload));
+                    setDateTime(ps, 6, SnapshotFormat.getDateTime(payload));
+                    ps.setBoolean(7, (payload.get() & SnapshotFormat.ACTIVE) != 0);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return records;
+                }
+            }));
+    }
+
+    private void insertCredentials(ByteBuffer payload, int records) {
+        writeTransaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_CREDENTIAL,
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ps.setLong(1, payload.getLong());
+                    ps.setLong(2, payload.getLong());
+                    ps.setString(3, SnapshotFormat.getString(payload));
+                    ps.setString(4, SnapshotFormat.getString(payload));
+                    ps.setString(5, SnapshotFormat.getString(payload));
+                    ps.setLong(6, payload.getLong());
+                    setDateTime(ps, 7, SnapshotFormat.getDateTime(payload));
+                    setDateTime(ps, 8, SnapshotFormat.getDateTime(payload));
+                    byte flags = payload.get();
+                    ps.setBoolean(9, (flags & SnapshotFormat.ACTIVE) != 0);
+                    ps.setBoolean(10, (flags & SnapshotFormat.CLONE_SUSPECTED) != 0);
+                    ps.setString(11, SnapshotFormat.getString(payload));
+                    ps.setString(12, SnapshotFormat.getString(payload));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return records;
+                }
+            }));
+    }
+
+    /**
+     * Move a pooled ID sequence past the restored IDs, the same way
+     * the db/upgrade/&lt;database&gt;-pooled-id-sequences.sql scripts do
+     */
+    private void advanceSequence(String sequence, String table) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        long next = (maxId != null ? maxId : 0) + ALLOCATION_SIZE;
+        String database = jdbcTemplate.execute(
+            (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if ("H2".equals(database)) {
+            jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + next);
+        } else if ("MySQL".equals(database)) {
+            // Hibernate emulates sequences with a single-row table on MySQL
+            jdbcTemplate.update("UPDATE " + sequence + " SET next_val = GREATEST(next_val, ?)", next);
+        } else {
+            log.warn("[SNAPSHOT] - Cannot advance {} on {}; move it past {} before new registrations",
+                sequence, database, maxId);
+        }
+    }
+
+    private List<SnapshotReader.Block> blocksOf(SnapshotReader reader, byte type) {
+        return reader.blocks().stream().filter(block -> block.type == type).toList();
+    }
+
+    private void runAll(ExecutorService executor, List<SnapshotReader.Block> blocks, BlockTask task)
+            throws IOException {
+        List<Future<?>> futures = new ArrayList<>(blocks.size());
+        for (SnapshotReader.Block block : blocks) {
+            futures.add(executor.submit(() -> {
+                task.run(block);
+                return null;
+            }));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while restoring a snapshot", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static void setDateTime(PreparedStatement ps, int index, LocalDateTime value) throws SQLException {
+        if (value != null) {
+            ps.setObject(index, value);
+        } else {
+            ps.setNull(index, Types.TIMESTAMP);
+        }
+    }
+
+    @FunctionalInterface
+    private interface BlockTask {
+        void run(SnapshotReader.Block block) throws IOException;
+    }
+
+    /**
+     * Outcome of writing or restoring a snapshot
+     */
+    public static class Result {
+        private final long users;
+        private final long credentials;
+        private final long bytes;
+        private final long elapsedNanos;
+
+        Result(long users, long credentials, long bytes, long elapsedNanos) {
+            this.users = users;
+            this.credentials = credentials;
+            this.bytes = bytes;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long getUsers() {
+            return users;
+        }
+
+        public long getCredentials() {
+            return credentials;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getElapsedMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.pqc.fido2.snapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.zip.CRC32C;
+
+/**
+ * Streams records into a snapshot file (see {@link SnapshotFormat}). Records
+ * are encoded into a block buffer, which is checksummed and written out once
+ * it reaches the block size, so memory stays at about one block whatever the
+ * number of records.
+ */
+class SnapshotWriter {
+
+    private final FileChannel channel;
+    private final int blockBytes;
+    private final ByteBuffer blockHeader = ByteBuffer.allocate(SnapshotFormat.BLOCK_HEADER_BYTES);
+    private final CRC32C crc = new CRC32C();
+
+    private ByteBuffer block;
+    private byte blockType;
+    private int blockRecords;
+    private int blocks;
+    private long users;
+    private long credentials;
+
+    SnapshotWriter(FileChannel channel, int blockBytes, long createdMillis) throws IOException {
+        this.channel = channel;
+        this.blockBytes = Math.max(4096, blockBytes);
+        this.block = ByteBuffer.allocate(this.blockBytes);
+        ByteBuffer header = ByteBuffer.allocate(SnapshotFormat.HEADER_BYTES)
+            .putInt(SnapshotFormat.MAGIC)
+            .putInt(SnapshotFormat.VERSION)
+            .putLong(createdMillis)
+            .flip();
+        writeFully(header);
+    }
+
+    /**
+     * Start a record; all users have to come before the first credential
+     */
+    void startRecord(byte type) throws IOException {
+        if (type < blockType) {
+            throw new IllegalStateException("Users must be written before credentials");
+        }
+        if (type != blockType || block.position() >= blockBytes) {
+            flushBlock();
+            blockType = type;
+        }
+    }
+
+    void endRecord() {
+        blockRecords++;
+        if (blockType == SnapshotFormat.USER) {
+            users++;
+        } else {
+            credentials++;
+        }
+    }
+
+    SnapshotWriter putLong(long value) {
+        ensure(Long.BYTES).putLong(value);
+        return this;
+    }
+
+    SnapshotWriter putByte(byte value) {
+        ensure(1).put(value);
+        return this;
+    }
+
+    SnapshotWriter putString(String value) {
+        byte[] utf8 = value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+        SnapshotFormat.putString(ensure(SnapshotFormat.stringBytes(utf8)), utf8);
+        return this;
+    }
+
+    SnapshotWriter putDateTime(LocalDateTime value) {
+        SnapshotFormat.putDateTime(ensure(SnapshotFormat.dateTimeBytes(value)), value);
+        return this;
+    }
+
+    /**
+     * Write the last block and the trailer and force everything to disk
+     */
+    void finish() throws IOException {
+        flushBlock();
+        ByteBuffer trailer = ByteBuffer.allocate(SnapshotFormat.TRAILER_BYTES)
+            .putInt(SnapshotFormat.TRAILER_MAGIC)
+            .putLong(users)
+            .putLong(credentials)
+            .putInt(blocks);
+        crc.reset();
+        crc.update(trailer.array(), 0, trailer.position());
+        trailer.putInt((int) crc.getValue()).flip();
+        writeFully(trailer);
+        channel.force(true);
+    }
+
+    long users() {
+        return users;
+    }
+
+    long credentials() {
+        return credentials;
+    }
+
+    private ByteBuffer ensure(int bytes) {
+        if (block.remaining() < bytes) {
+            // A single record larger than the block size gets a larger block
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(block.capacity() * 2, block.position() + bytes));
+            block.flip();
+            larger.put(block);
+            block = larger;
+        }
+        return block;
+    }
+
+    private void flushBlock() throws IOException {
+        if (blockRecords == 0) {
+            return;
+        }
+        block.flip();
+        crc.reset();
+        crc.update(block.duplicate());
+        blockHeader.clear()
+            .put(blockType)
+            .putInt(blockRecords)
+            .putInt(block.remaining())
+            .putInt((int) crc.getValue())
+            .flip();
+        writeFully(blockHeader);
+        writeFully(block);
+        blocks++;
+        blockRecords = 0;
+        if (block.capacity() > blockBytes) {
+            block = ByteBuffer.allocate(blockBytes);
+        } else {
+            block.clear();
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.pqc.fido2.tenant;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * WebFlux counterpart of {@link TenantFilter}
+ */
+@Component
+@Profile("reactive")
+public class ReactiveTenantFilter implements WebFilter {
+
+    @Autowired
+    private TenantRegistry tenantRegistry;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (request.getMethod() != HttpMethod.POST || !request.getPath().value().startsWith("/auth/")) {
+            return chain.filter(exchange);
+        }
+
+        Tenant tenant = tenantRegistry.resolve(request.getURI().getHost());
+        ServerHttpResponse response = exchange.getResponse();
+        if (!tenant.tryAcquire()) {
+            response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            DataBuffer body = response.bufferFactory().wrap(TenantFilter.THROTTLED_BODY.getBytes(StandardCharsets.UTF_8));
+            return response.writeWith(Mono.just(body));
+        }
+
+        exchange.getAttributes().put(TenantFilter.TENANT_ATTRIBUTE, tenant);
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+            .doFinally(signal -> tenant.recordRequest(
+                response.getStatusCode() != null ? response.getStatusCode().value() : 200,
+                System.nanoTime() - start));
+    }
+}
@@ -0,0 +1,175 @@
+package com.pqc.fido2.tenant;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A relying party served by this deployment, together with its bulkhead:
+ * a bounded verification executor and a request rate limiter of its own, so
+ * a login storm on one tenant queues and sheds on that tenant only.
+ * Instances are created by {@link TenantRegistry}.
+ */
+public class Tenant {
+
+    private final String id;
+    private final String rpId;
+    private final String rpName;
+    private final List<String> origins;
+    private final boolean allowSubdomainOrigins;
+    private final ExecutorService verificationExecutor;
+    private final Scheduler verificationScheduler;
+    private final long verificationTimeoutMs;
+    private final TenantRateLimiter rateLimiter;
+
+    private final Counter throttled;
+    private final Counter verificationRejected;
+    private final Counter verificationTimedOut;
+    private final Timer successRequests;
+    private final Timer clientErrorRequests;
+    private final Timer serverErrorRequests;
+
+    Tenant(String id, String rpId, String rpName, List<String> origins, boolean allowSubdomainOrigins,
+           ExecutorService verificationExecutor, long verificationTimeoutMs,
+           TenantRateLimiter rateLimiter, MeterRegistry meterRegistry) {
+        this.id = id;
+        this.rpId = rpId;
+        this.rpName = rpName;
+        this.origins = List.copyOf(origins);
+        this.allowSubdomainOrigins = allowSubdomainOrigins;
+        this.verificationExecutor = verificationExecutor;
+        this.verificationScheduler = Schedulers.fromExecutorService(verificationExecutor, "tenant-" + id);
+        this.verificationTimeoutMs = verificationTimeoutMs;
+        this.rateLimiter = rateLimiter;
+
+        this.throttled = Counter.builder("pqc.tenant.throttled")
+            .description("Requests rejected by the tenant rate limit")
+            .tag("tenant", id)
+            .register(meterRegistry);
+        this.verificationRejected = Counter.builder("pqc.tenant.verification.rejected")
+            .description("Verifications shed by the tenant bulkhead")
+            .tag("tenant", id)
+            .tag("reason", "queue-full")
+            .register(meterRegistry);
+        this.verificationTimedOut = Counter.builder("pqc.tenant.verification.rejected")
+            .description("Verifications shed by the tenant bulkhead")
+            .tag("tenant", id)
+            .tag("reason", "timeout")
+            .register(meterRegistry);
+        this.successRequests = requestTimer(meterRegistry, "SUCCESS");
+        this.clientErrorRequests = requestTimer(meterRegistry, "CLIENT_ERROR");
+        this.serverErrorRequests = requestTimer(meterRegistry, "SERVER_ERROR");
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getRpId() {
+        return rpId;
+    }
+
+    public String getRpName() {
+        return rpName;
+    }
+
+    public List<String> getOrigins() {
+        return origins;
+    }
+
+    /**
+     * Whether ceremonies from https origins on subdomains of the RP ID are accepted too
+     */
+    public boolean isAllowSubdomainOrigins() {
+        return allowSubdomainOrigins;
+    }
+
+    public long getVerificationTimeoutMs() {
+        return verificationTimeoutMs;
+    }
+
+    /**
+     * Take a permit from the tenant's rate limit; counts the rejection if none is left
+     */
+    public boolean tryAcquire() {
+        if (rateLimiter.tryAcquire()) {
+            return true;
+        }
+        throttled.increment();
+        return false;
+    }
+
+    /**
+     * Run a signature verification on this tenant's executor and wait for it.
+     *
+     * @return the verification's answer; false also if it threw
+     * @throws VerificationRejectedException if the queue is full, the verification
+     *         is slower than the configured timeout, or the shared scheduler it
+     *         waits on sheds it
+     */
+    public boolean verify(Callable<Boolean> verification) {
+        Future<Boolean> result;
+        try {
+            result = verificationExecutor.submit(verification);
+        } catch (RejectedExecutionException e) {
+            verificationRejected.increment();
+            throw new VerificationRejectedException("Verification queue of tenant " + id + " is full", e);
+        }
+        try {
+            return Boolean.TRUE.equals(result.get(verificationTimeoutMs, TimeUnit.MILLISECONDS));
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            verificationTimedOut.increment();
+            throw new VerificationRejectedException("Verification timed out after " + verificationTimeoutMs + " ms", e);
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new VerificationRejectedException("Interrupted while waiting for a verification", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RejectedExecutionException || cause instanceof TimeoutException) {
+                throw new VerificationRejectedException("Verification was shed: " + cause.getMessage(), cause);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * The verification executor as a Reactor scheduler, for the reactive stack
+     */
+    public Scheduler getVerificationScheduler() {
+        return verificationScheduler;
+    }
+
+    /**
+     * Record a completed /auth request in pqc.tenant.requests{tenant,outcome}
+     */
+    public void recordRequest(int status, long durationNanos) {
+        Timer timer = status >= 500 ? serverErrorRequests : status >= 400 ? clientErrorRequests : successRequests;
+        timer.record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer requestTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("pqc.tenant.requests")
+            .description("Auth requests handled per tenant")
+            .tag("tenant", id)
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    void shutdown() {
+        verificationScheduler.dispose();
+        verificationExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,56 @@
+package com.pqc.fido2.tenant;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Resolves the tenant for each /auth ceremony request, applies its rate
+ * limit and records the outcome per tenant. The tenant is handed to the
+ * controller as the {@link #TENANT_ATTRIBUTE} request attribute.
+ */
+@Component
+@Profile("!reactive")
+public class TenantFilter extends OncePerRequestFilter {
+
+    public static final String TENANT_ATTRIBUTE = "com.pqc.fido2.tenant.Tenant";
+
+    static final String THROTTLED_BODY = "{\"status\":\"error\",\"message\":\"Too many requests\"}";
+
+    @Autowired
+    private TenantRegistry tenantRegistry;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || !request.getRequestURI().startsWith("/auth/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Tenant tenant = tenantRegistry.resolve(request.getServerName());
+        if (!tenant.tryAcquire()) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write(THROTTLED_BODY);
+            return;
+        }
+
+        request.setAttribute(TENANT_ATTRIBUTE, tenant);
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            tenant.recordRequest(response.getStatus(), System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.pqc.fido2.tenant;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Relying-party configuration bound from pqc.fido2. The top-level rp-id,
+ * rp-name, allowed-origins and allow-subdomain-origins describe the default tenant, which also serves
+ * requests for hosts no tenant claims. Entries under pqc.fido2.tenants add
+ * further relying parties; their resource limits fall back to the top-level
+ * values when not set.
+ */
+@ConfigurationProperties(prefix = "pqc.fido2")
+public class TenantProperties {
+
+    private String rpId = "localhost";
+    private String rpName = "Post-Quantum FIDO2 Demo";
+    private List<String> allowedOrigins = new ArrayList<>(List.of("http://localhost:3000", "http://localhost:3001"));
+    private boolean allowSubdomainOrigins = false;
+
+    /**
+     * Verification threads per tenant; 0 means one per CPU
+     */
+    private int verificationThreads = 0;
+    private int verificationQueueCapacity = 256;
+    private long verificationTimeoutMs = 5000;
+
+    /**
+     * Sustained /auth requests per second per tenant; 0 disables the limit
+     */
+    private double requestsPerSecond = 0;
+    private int burst = 0;
+
+    private List<Definition> tenants = new ArrayList<>();
+
+    /**
+     * One relying party served by this deployment
+     */
+    public static class Definition {
+        private String id;
+        private String rpId;
+        private String rpName;
+        private List<String> hosts = new ArrayList<>();
+        private List<String> origins = new ArrayList<>();
+        private boolean allowSubdomainOrigins = false;
+        private Integer verificationThreads;
+        private Integer verificationQueueCapacity;
+        private Double requestsPerSecond;
+        private Integer burst;
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public String getRpId() {
+            return rpId;
+        }
+
+        public void setRpId(String rpId) {
+            this.rpId = rpId;
+        }
+
+        public String getRpName() {
+            return rpName;
+        }
+
+        public void setRpName(String rpName) {
+            this.rpName = rpName;
+        }
+
+        /**
+         * Host names routed to this tenant; defaults to the RP ID
+         */
+        public List<String> getHosts() {
+            return hosts;
+        }
+
+        public void setHosts(List<String> hosts) {
+            this.hosts = hosts;
+        }
+
+        /**
+         * Browser origins allowed by CORS and in ceremonies; defaults to https://{rp-id}
+         */
+        public List<String> getOrigins() {
+            return origins;
+        }
+
+        public void setOrigins(List<String> origins) {
+            this.origins = origins;
+        }
+
+        /**
+         * Also accept ceremonies from any https origin on a subdomain of the RP ID
+         */
+        public boolean isAllowSubdomainOrigins() {
+            return allowSubdomainOrigins;
+        }
+
+        public void setAllowSubdomainOrigins(boolean allowSubdomainOrigins) {
+            this.allowSubdomainOrigins = allowSubdomainOrigins;
+        }
+
+        public Integer getVerificationThreads() {
+            return verificationThreads;
+        }
+
+        public void setVerificationThreads(Integer verificationThreads) {
+            this.verificationThreads = verificationThreads;
+        }
+
+        public Integer getVerificationQueueCapacity() {
+            return verificationQueueCapacity;
+        }
+
+        public void setVerificationQueueCapacity(Integer verificationQueueCapacity) {
+            this.verificationQueueCapacity = verificationQueueCapacity;
+        }
+
+        public Double getRequestsPerSecond() {
+            return requestsPerSecond;
+        }
+
+        public void setRequestsPerSecond(Double requestsPerSecond) {
+            this.requestsPerSecond = requestsPerSecond;
+        }
+
+        public Integer getBurst() {
+            return burst;
+        }
+
+        public void setBurst(Integer burst) {
+            this.burst = burst;
+        }
+    }
+
+    public String getRpId() {
+        return rpId;
+    }
+
+    public void setRpId(String rpId) {
+        this.rpId = rpId;
+    }
+
+    public String getRpName() {
+        return rpName;
+    }
+
+    public void setRpName(String rpName) {
+        this.rpName = rpName;
+    }
+
+    public List<String> getAllowedOrigins() {
+        return allowedOrigins;
+    }
+
+    public void setAllowedOrigins(List<String> allowedOrigins) {
+        this.allowedOrigins = allowedOrigins;
+    }
+
+    public boolean isAllowSubdomainOrigins() {
+        return allowSubdomainOrigins;
+    }
+
+    public void setAllowSubdomainOrigins(boolean allowSubdomainOrigins) {
+        this.allowSubdomainOrigins = allowSubdomainOrigins;
+    }
+
+    public int getVerificationThreads() {
+        return verificationThreads;
+    }
+
+    public void setVerificationThreads(int verificationThreads) {
+        this.verificationThreads = verificationThreads;
+    }
+
+    public int getVerificationQueueCapacity() {
+        return verificationQueueCapacity;
+    }
+
+    public void setVerificationQueueCapacity(int verificationQueueCapacity) {
+        this.verificationQueueCapacity = verificationQueueCapacity;
+    }
+
+    public long getVerificationTimeoutMs() {
+        return verificationTimeoutMs;
+    }
+
+    public void setVerificationTimeoutMs(long verificationTimeoutMs) {
+        this.verificationTimeoutMs = verificationTimeoutMs;
+    }
+
+    public double getRequestsPerSecond() {
+        return requestsPerSecond;
+    }
+
+    public void setRequestsPerSecond(double requestsPerSecond) {
+        this.requestsPerSecond = requestsPerSecond;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    public void setBurst(int burst) {
+        this.burst = burst;
+    }
+
+    public List<Definition> getTenants() {
+        return tenants;
+    }
+
+    public void setTenants(List<Definition> tenants) {
+        this.tenants = tenants;
+    }
+}
@@ -0,0 +1,53 @@
+package com.pqc.fido2.tenant;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket in GCRA form: the only state is the theoretical
+ * arrival time of the next request, advanced with a CAS. A request is
+ * admitted while that time is at most burst - 1 emission intervals ahead of
+ * now, so up to burst requests pass at once and requestsPerSecond thereafter.
+ */
+public class TenantRateLimiter {
+
+    private final long emissionIntervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong theoreticalArrival;
+
+    /**
+     * @param requestsPerSecond sustained rate; 0 or less disables the limit
+     * @param burst requests admitted back to back; at least 1
+     */
+    public TenantRateLimiter(double requestsPerSecond, int burst) {
+        if (requestsPerSecond > 0) {
+            this.emissionIntervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond));
+            this.toleranceNanos = emissionIntervalNanos * (Math.max(1, burst) - 1);
+        } else {
+            this.emissionIntervalNanos = 0;
+            this.toleranceNanos = 0;
+        }
+        this.theoreticalArrival = new AtomicLong(System.nanoTime());
+    }
+
+    public boolean isUnlimited() {
+        return emissionIntervalNanos == 0;
+    }
+
+    public boolean tryAcquire() {
+        if (emissionIntervalNanos == 0) {
+            return true;
+        }
+        long now = System.nanoTime();
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long start = tat - now > 0 ? tat : now;
+            if (start - now > toleranceNanos) {
+                return false;
+            }
+            if (theoreticalArrival.compareAndSet(tat, start + emissionIntervalNanos)) {
+                return true;
+            }
+        }
+    }
+}
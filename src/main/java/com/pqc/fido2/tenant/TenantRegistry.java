@@ -0,0 +1,150 @@
+package com.pqc.fido2.tenant;
+
+import com.pqc.fido2.config.CryptoConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the configured tenants at startup and resolves the tenant for a
+ * request from its host name. The host map is immutable after construction,
+ * so a lookup for a configured (lower-case) host is a single hash probe on
+ * the String's cached hash code and does not allocate. Hosts no tenant
+ * claims are served by the default tenant built from pqc.fido2.rp-id.
+ */
+@Component
+@EnableConfigurationProperties(TenantProperties.class)
+public class TenantRegistry {
+
+    public static final String DEFAULT_TENANT_ID = "default";
+
+    private static final Logger log = LoggerFactory.getLogger(TenantRegistry.class);
+
+    private final Tenant defaultTenant;
+    private final Map<String, Tenant> tenantsById;
+    private final Map<String, Tenant> tenantsByHost;
+
+    public TenantRegistry(TenantProperties properties, MeterRegistry meterRegistry) {
+        Map<String, Tenant> byId = new LinkedHashMap<>();
+        Map<String, Tenant> byHost = new HashMap<>();
+
+        TenantProperties.Definition defaults = new TenantProperties.Definition();
+        defaults.setId(DEFAULT_TENANT_ID);
+        defaults.setRpId(properties.getRpId());
+        defaults.setRpName(properties.getRpName());
+        defaults.setOrigins(properties.getAllowedOrigins());
+        defaults.setAllowSubdomainOrigins(properties.isAllowSubdomainOrigins());
+        this.defaultTenant = register(defaults, properties, meterRegistry, byId, byHost);
+
+        for (TenantProperties.Definition definition : properties.getTenants()) {
+            register(definition, properties, meterRegistry, byId, byHost);
+        }
+
+        this.tenantsById = Collections.unmodifiableMap(byId);
+        this.tenantsByHost = Map.copyOf(byHost);
+    }
+
+    /**
+     * Tenant serving the given host name; the default tenant if none claims it
+     */
+    public Tenant resolve(String host) {
+        if (host == null) {
+            return defaultTenant;
+        }
+        Tenant tenant = tenantsByHost.get(host);
+        if (tenant == null) {
+            // toLowerCase returns the same instance when there is nothing to fold
+            tenant = tenantsByHost.get(host.toLowerCase(Locale.ROOT));
+        }
+        return tenant != null ? tenant : defaultTenant;
+    }
+
+    public Tenant getDefaultTenant() {
+        return defaultTenant;
+    }
+
+    public Optional<Tenant> findById(String id) {
+        return Optional.ofNullable(tenantsById.get(id));
+    }
+
+    public Collection<Tenant> getTenants() {
+        return tenantsById.values();
+    }
+
+    /**
+     * Union of all tenants' browser origins, for the CORS configuration
+     */
+    public List<String> getAllowedOrigins() {
+        Set<String> origins = new LinkedHashSet<>();
+        for (Tenant tenant : tenantsById.values()) {
+            origins.addAll(tenant.getOrigins());
+        }
+        return new ArrayList<>(origins);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        tenantsById.values().forEach(Tenant::shutdown);
+    }
+
+    private static Tenant register(TenantProperties.Definition definition, TenantProperties defaults,
+                                   MeterRegistry meterRegistry,
+                                   Map<String, Tenant> byId, Map<String, Tenant> byHost) {
+        String id = definition.getId();
+        String rpId = definition.getRpId();
+        if (id == null || id.isBlank() || rpId == null || rpId.isBlank()) {
+            throw new IllegalArgumentException("Tenant requires an id and an rp-id");
+        }
+        if (byId.containsKey(id)) {
+            throw new IllegalArgumentException("Duplicate tenant id: " + id);
+        }
+
+        int threads = valueOrDefault(definition.getVerificationThreads(), defaults.getVerificationThreads());
+        int queueCapacity = valueOrDefault(definition.getVerificationQueueCapacity(), defaults.getVerificationQueueCapacity());
+        double requestsPerSecond = definition.getRequestsPerSecond() != null
+            ? definition.getRequestsPerSecond() : defaults.getRequestsPerSecond();
+        int burst = valueOrDefault(definition.getBurst(), defaults.getBurst());
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), CryptoConfig.namedThreadFactory("tenant-" + id + "-verify-"));
+        ExecutorService monitored = ExecutorServiceMetrics.monitor(
+            meterRegistry, executor, "tenant-verification", Tags.of("tenant", id));
+
+        List<String> origins = !definition.getOrigins().isEmpty()
+            ? definition.getOrigins() : List.of("https://" + rpId);
+        Tenant tenant = new Tenant(id, rpId, definition.getRpName() != null ? definition.getRpName() : rpId,
+            origins, definition.isAllowSubdomainOrigins(), monitored, defaults.getVerificationTimeoutMs(),
+            new TenantRateLimiter(requestsPerSecond, burst > 0 ? burst : (int) Math.ceil(requestsPerSecond)),
+            meterRegistry);
+
+        List<String> hosts = !definition.getHosts().isEmpty() ? definition.getHosts() : List.of(rpId);
+        for (String host : hosts) {
+            Tenant previous = byHost.putIfAbsent(host.toLowerCase(Locale.ROOT), tenant);
+            if (previous != null) {
+                throw new IllegalArgumentException("Host " + host + " is claimed by tenants "
+                    + previous.getId() + " and " + id);
+            }
+        }
+        byId.put(id, tenant);
+
+        log.info("[TENANT] - {} rpId={} hosts={} verificationThreads={} queue={} rateLimit={}/s",
+            id, rpId, hosts, poolSize, queueCapacity, requestsPerSecond > 0 ? requestsPerSecond : "unlimited");
+        return tenant;
+    }
+
+    private static int valueOrDefault(Integer value, int defaultValue) {
+        return value != null ? value : defaultValue;
+    }
+}
@@ -0,0 +1,18 @@
+package com.pqc.fido2.tenant;
+
+/**
+ * A verification that was shed before it produced an answer: the tenant's
+ * bulkhead or the shared scheduler had no room for it, or it missed its
+ * deadline. Says nothing about the signature, so callers must not treat it
+ * as a failed verification; the client may retry.
+ */
+public class VerificationRejectedException extends RuntimeException {
+
+    public VerificationRejectedException(String message) {
+        super(message);
+    }
+
+    public VerificationRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
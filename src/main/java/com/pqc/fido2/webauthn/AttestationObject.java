@@ -0,0 +1,142 @@
+package com.pqc.fido2.webauthn;
+
+import java.nio.ByteBuffer;
+
+/**
+ * CBOR attestation object returned by navigator.credentials.create().
+ * The attestation statement is kept as a raw CBOR slice; apart from its
+ * format, only a packed self attestation (alg and sig, no x5c) is
+ * interpreted here, since that one is signed with the credential key itself.
+ */
+public final class AttestationObject {
+
+    private final String format;
+    private final ByteBuffer attestationStatement;
+    private final AuthenticatorData authenticatorData;
+    private final int selfAttestationAlgorithm;
+    private final ByteBuffer selfAttestationSignature;
+
+    private AttestationObject(String format, ByteBuffer attestationStatement, AuthenticatorData authenticatorData,
+                              int selfAttestationAlgorithm, ByteBuffer selfAttestationSignature) {
+        this.format = format;
+        this.attestationStatement = attestationStatement;
+        this.authenticatorData = authenticatorData;
+        this.selfAttestationAlgorithm = selfAttestationAlgorithm;
+        this.selfAttestationSignature = selfAttestationSignature;
+    }
+
+    public static AttestationObject parse(ByteBuffer input) {
+        CborReader reader = new CborReader(input.slice());
+        int entries = reader.readMapHeader();
+
+        String format = null;
+        ByteBuffer attestationStatement = null;
+        AuthenticatorData authenticatorData = null;
+
+        for (int i = 0; i < entries; i++) {
+            if (reader.peekMajorType() != CborReader.MAJOR_TEXT) {
+                reader.skip();
+                reader.skip();
+                continue;
+            }
+            String key = reader.readTextString();
+            switch (key) {
+                case "fmt":
+                    format = reader.readTextString();
+                    break;
+                case "attStmt":
+                    if (reader.peekMajorType() != CborReader.MAJOR_MAP) {
+                        throw new IllegalArgumentException("attStmt must be a map");
+                    }
+                    attestationStatement = reader.readRawItem();
+                    break;
+                case "authData":
+                    authenticatorData = AuthenticatorData.parse(reader.readByteString());
+                    break;
+                default:
+                    reader.skip();
+            }
+        }
+        if (reader.remaining() != 0) {
+            throw new IllegalArgumentException("Trailing bytes after the attestation object");
+        }
+
+        if (format == null || attestationStatement == null || authenticatorData == null) {
+            throw new IllegalArgumentException("Attestation object is missing fmt, attStmt or authData");
+        }
+        if (!authenticatorData.hasAttestedCredentialData()) {
+            throw new IllegalArgumentException("Attestation object carries no attested credential data");
+        }
+
+        if (!"packed".equals(format)) {
+            return new AttestationObject(format, attestationStatement, authenticatorData, 0, null);
+        }
+
+        CborReader statement = new CborReader(attestationStatement.duplicate());
+        int statementEntries = statement.readMapHeader();
+        Long algorithm = null;
+        ByteBuffer signature = null;
+        boolean certificates = false;
+        for (int i = 0; i < statementEntries; i++) {
+            if (statement.peekMajorType() != CborReader.MAJOR_TEXT) {
+                statement.skip();
+                statement.skip();
+                continue;
+            }
+            switch (statement.readTextString()) {
+                case "alg":
+                    algorithm = statement.readInt();
+                    break;
+                case "sig":
+                    signature = statement.readByteString();
+                    break;
+                case "x5c":
+                    certificates = true;
+                    statement.skip();
+                    break;
+                default:
+                    statement.skip();
+            }
+        }
+        if (algorithm == null || signature == null
+                || algorithm < Integer.MIN_VALUE || algorithm > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Packed attestation statement is missing alg or sig");
+        }
+
+        // With x5c the statement is signed by an attestation key, which proves nothing about the credential key
+        return certificates
+            ? new AttestationObject(format, attestationStatement, authenticatorData, 0, null)
+            : new AttestationObject(format, attestationStatement, authenticatorData, algorithm.intValue(), signature);
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public ByteBuffer getAttestationStatement() {
+        return attestationStatement.duplicate();
+    }
+
+    public AuthenticatorData getAuthenticatorData() {
+        return authenticatorData;
+    }
+
+    /**
+     * True for a packed statement signed with the credential key over
+     * authData || SHA-256(clientDataJSON)
+     */
+    public boolean isSelfAttestation() {
+        return selfAttestationSignature != null;
+    }
+
+    /**
+     * COSE algorithm of the self attestation signature
+     */
+    public int getSelfAttestationAlgorithm() {
+        return selfAttestationAlgorithm;
+    }
+
+    public ByteBuffer getSelfAttestationSignature() {
+        return selfAttestationSignature == null ? null : selfAttestationSignature.duplicate();
+    }
+}
@@ -0,0 +1,139 @@
+package com.pqc.fido2.webauthn;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Parsed view over WebAuthn authenticator data (WebAuthn L2 §6.1).
+ *
+ * <pre>
+ * rpIdHash (32) | flags (1) | signCount (4, big-endian)
+ *   [ aaguid (16) | credIdLen (2) | credId | COSE_Key ]   if AT is set
+ *   [ extensions (CBOR map) ]                              if ED is set
+ * </pre>
+ *
+ * All variable-length fields are slices of the input buffer.
+ */
+public final class AuthenticatorData {
+
+    public static final int FLAG_USER_PRESENT = 0x01;
+    public static final int FLAG_USER_VERIFIED = 0x04;
+    public static final int FLAG_BACKUP_ELIGIBLE = 0x08;
+    public static final int FLAG_BACKED_UP = 0x10;
+    public static final int FLAG_ATTESTED_CREDENTIAL_DATA = 0x40;
+    public static final int FLAG_EXTENSION_DATA = 0x80;
+
+    private static final int RP_ID_HASH_LENGTH = 32;
+    private static final int AAGUID_LENGTH = 16;
+    private static final int MIN_LENGTH = RP_ID_HASH_LENGTH + 1 + 4;
+
+    private final ByteBuffer raw;
+    private final ByteBuffer rpIdHash;
+    private final int flags;
+    private final long signCount;
+    private final ByteBuffer aaguid;
+    private final ByteBuffer credentialId;
+    private final CoseKey credentialPublicKey;
+
+    private AuthenticatorData(ByteBuffer raw, ByteBuffer rpIdHash, int flags, long signCount,
+                              ByteBuffer aaguid, ByteBuffer credentialId, CoseKey credentialPublicKey) {
+        this.raw = raw;
+        this.rpIdHash = rpIdHash;
+        this.flags = flags;
+        this.signCount = signCount;
+        this.aaguid = aaguid;
+        this.credentialId = credentialId;
+        this.credentialPublicKey = credentialPublicKey;
+    }
+
+    /**
+     * Parse authenticator data occupying all remaining bytes of the buffer
+     */
+    public static AuthenticatorData parse(ByteBuffer input) {
+        ByteBuffer buffer = input.slice();
+        ByteBuffer raw = buffer.asReadOnlyBuffer();
+        if (buffer.remaining() < MIN_LENGTH) {
+            throw new IllegalArgumentException("Authenticator data too short: " + buffer.remaining());
+        }
+
+        ByteBuffer rpIdHash = slice(buffer, RP_ID_HASH_LENGTH);
+        int flags = buffer.get() & 0xff;
+        long signCount = buffer.getInt() & 0xffffffffL;
+
+        ByteBuffer aaguid = null;
+        ByteBuffer credentialId = null;
+        CoseKey credentialPublicKey = null;
+
+        if ((flags & FLAG_ATTESTED_CREDENTIAL_DATA) != 0) {
+            if (buffer.remaining() < AAGUID_LENGTH + 2) {
+                throw new IllegalArgumentException("Truncated attested credential data");
+            }
+            aaguid = slice(buffer, AAGUID_LENGTH);
+            int credentialIdLength = buffer.getShort() & 0xffff;
+            if (buffer.remaining() < credentialIdLength) {
+                throw new IllegalArgumentException("Truncated credential ID");
+            }
+            credentialId = slice(buffer, credentialIdLength);
+            credentialPublicKey = CoseKey.parse(new CborReader(buffer));
+        }
+
+        if ((flags & FLAG_EXTENSION_DATA) != 0) {
+            new CborReader(buffer).skip();
+        }
+
+        if (buffer.hasRemaining()) {
+            throw new IllegalArgumentException("Unexpected trailing bytes in authenticator data");
+        }
+
+        return new AuthenticatorData(raw, rpIdHash, flags, signCount, aaguid, credentialId, credentialPublicKey);
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int length) {
+        ByteBuffer slice = buffer.duplicate();
+        slice.limit(buffer.position() + length);
+        buffer.position(buffer.position() + length);
+        return slice.slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * The complete encoded authenticator data, as covered by the signature
+     */
+    public ByteBuffer getRaw() {
+        return raw.duplicate();
+    }
+
+    public ByteBuffer getRpIdHash() {
+        return rpIdHash.duplicate();
+    }
+
+    public int getFlags() {
+        return flags;
+    }
+
+    public boolean isUserPresent() {
+        return (flags & FLAG_USER_PRESENT) != 0;
+    }
+
+    public boolean isUserVerified() {
+        return (flags & FLAG_USER_VERIFIED) != 0;
+    }
+
+    public boolean hasAttestedCredentialData() {
+        return credentialPublicKey != null;
+    }
+
+    public long getSignCount() {
+        return signCount;
+    }
+
+    public ByteBuffer getAaguid() {
+        return aaguid == null ? null : aaguid.duplicate();
+    }
+
+    public ByteBuffer getCredentialId() {
+        return credentialId == null ? null : credentialId.duplicate();
+    }
+
+    public CoseKey getCredentialPublicKey() {
+        return credentialPublicKey;
+    }
+}
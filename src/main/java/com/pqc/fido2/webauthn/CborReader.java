@@ -0,0 +1,211 @@
+package com.pqc.fido2.webauthn;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal streaming CBOR (RFC 8949) reader for the subset used by WebAuthn:
+ * definite-length items only, as required by CTAP2 canonical encoding.
+ *
+ * Items are consumed straight from the underlying {@link ByteBuffer}; byte
+ * strings are returned as read-only slices of it, so no intermediate object
+ * tree or array copy is created. Every length is bounds-checked against the
+ * remaining input and all malformed input is reported as an
+ * {@link IllegalArgumentException}.
+ */
+public final class CborReader {
+
+    public static final int MAJOR_UNSIGNED = 0;
+    public static final int MAJOR_NEGATIVE = 1;
+    public static final int MAJOR_BYTES = 2;
+    public static final int MAJOR_TEXT = 3;
+    public static final int MAJOR_ARRAY = 4;
+    public static final int MAJOR_MAP = 5;
+    public static final int MAJOR_TAG = 6;
+    public static final int MAJOR_SIMPLE = 7;
+
+    private static final int MAX_NESTING = 16;
+
+    private final ByteBuffer buffer;
+
+    public CborReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Major type of the next item, without consuming it
+     */
+    public int peekMajorType() {
+        require(1);
+        return (buffer.get(buffer.position()) & 0xff) >>> 5;
+    }
+
+    public int position() {
+        return buffer.position();
+    }
+
+    public int remaining() {
+        return buffer.remaining();
+    }
+
+    /**
+     * Read a CBOR integer (major type 0 or 1) that fits in a Java long
+     */
+    public long readInt() {
+        int initial = readInitialByte();
+        int major = initial >>> 5;
+        long value = readArgument(initial);
+        if (major == MAJOR_UNSIGNED) {
+            return value;
+        }
+        if (major == MAJOR_NEGATIVE) {
+            return -1 - value;
+        }
+        throw new IllegalArgumentException("Expected CBOR integer, found major type " + major);
+    }
+
+    /**
+     * Read a byte string as a read-only slice of the underlying buffer
+     */
+    public ByteBuffer readByteString() {
+        int length = readLength(MAJOR_BYTES);
+        return slice(length);
+    }
+
+    public String readTextString() {
+        int length = readLength(MAJOR_TEXT);
+        return StandardCharsets.UTF_8.decode(slice(length)).toString();
+    }
+
+    /**
+     * Read a map header and return the number of key/value pairs
+     */
+    public int readMapHeader() {
+        return readLength(MAJOR_MAP);
+    }
+
+    public int readArrayHeader() {
+        return readLength(MAJOR_ARRAY);
+    }
+
+    /**
+     * Skip the next complete item, including nested containers
+     */
+    public void skip() {
+        skip(0);
+    }
+
+    /**
+     * Skip the next item and return the bytes it occupied as a slice
+     */
+    public ByteBuffer readRawItem() {
+        int start = buffer.position();
+        skip();
+        int end = buffer.position();
+        ByteBuffer raw = buffer.duplicate();
+        raw.position(start).limit(end);
+        return raw.slice().asReadOnlyBuffer();
+    }
+
+    private void skip(int depth) {
+        if (depth > MAX_NESTING) {
+            throw new IllegalArgumentException("CBOR nesting too deep");
+        }
+        int initial = readInitialByte();
+        int major = initial >>> 5;
+        long argument = readArgument(initial);
+        switch (major) {
+            case MAJOR_UNSIGNED:
+            case MAJOR_NEGATIVE:
+            case MAJOR_SIMPLE:
+                break;
+            case MAJOR_BYTES:
+            case MAJOR_TEXT:
+                advance(toLength(argument));
+                break;
+            case MAJOR_ARRAY:
+                for (long i = toLength(argument); i > 0; i--) {
+                    skip(depth + 1);
+                }
+                break;
+            case MAJOR_MAP:
+                for (long i = toLength(argument); i > 0; i--) {
+                    skip(depth + 1);
+                    skip(depth + 1);
+                }
+                break;
+            case MAJOR_TAG:
+                skip(depth + 1);
+                break;
+            default:
+                throw new IllegalArgumentException("Invalid CBOR major type " + major);
+        }
+    }
+
+    private int readLength(int expectedMajor) {
+        int initial = readInitialByte();
+        int major = initial >>> 5;
+        if (major != expectedMajor) {
+            throw new IllegalArgumentException("Expected CBOR major type " + expectedMajor + ", found " + major);
+        }
+        return toLength(readArgument(initial));
+    }
+
+    private int readInitialByte() {
+        require(1);
+        return buffer.get() & 0xff;
+    }
+
+    private long readArgument(int initial) {
+        int info = initial & 0x1f;
+        if (info < 24) {
+            return info;
+        }
+        switch (info) {
+            case 24:
+                require(1);
+                return buffer.get() & 0xffL;
+            case 25:
+                require(2);
+                return buffer.getShort() & 0xffffL;
+            case 26:
+                require(4);
+                return buffer.getInt() & 0xffffffffL;
+            case 27:
+                require(8);
+                return buffer.getLong();
+            case 31:
+                throw new IllegalArgumentException("Indefinite-length CBOR items are not supported");
+            default:
+                throw new IllegalArgumentException("Reserved CBOR additional info " + info);
+        }
+    }
+
+    private int toLength(long argument) {
+        // Every element needs at least one byte, so a length beyond the
+        // remaining input can be rejected before any work is done
+        if (argument < 0 || argument > buffer.remaining()) {
+            throw new IllegalArgumentException("CBOR length " + argument + " exceeds remaining input");
+        }
+        return (int) argument;
+    }
+
+    private ByteBuffer slice(int length) {
+        require(length);
+        ByteBuffer slice = buffer.duplicate();
+        slice.limit(buffer.position() + length);
+        buffer.position(buffer.position() + length);
+        return slice.slice().asReadOnlyBuffer();
+    }
+
+    private void advance(int length) {
+        require(length);
+        buffer.position(buffer.position() + length);
+    }
+
+    private void require(int length) {
+        if (buffer.remaining() < length) {
+            throw new IllegalArgumentException("Truncated CBOR input");
+        }
+    }
+}
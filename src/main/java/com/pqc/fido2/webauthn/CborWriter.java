@@ -0,0 +1,133 @@
+package com.pqc.fido2.webauthn;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Minimal CBOR encoder producing definite-length, shortest-form items,
+ * the counterpart of {@link CborReader}. Callers are responsible for
+ * emitting map keys in canonical order where that matters.
+ */
+public final class CborWriter {
+
+    private byte[] buffer;
+    private int size;
+
+    public CborWriter() {
+        this(256);
+    }
+
+    public CborWriter(int initialCapacity) {
+        this.buffer = new byte[Math.max(16, initialCapacity)];
+    }
+
+    public CborWriter writeInt(long value) {
+        if (value >= 0) {
+            writeHeader(CborReader.MAJOR_UNSIGNED, value);
+        } else {
+            writeHeader(CborReader.MAJOR_NEGATIVE, -1 - value);
+        }
+        return this;
+    }
+
+    public CborWriter writeByteString(byte[] value) {
+        writeHeader(CborReader.MAJOR_BYTES, value.length);
+        writeRaw(value, 0, value.length);
+        return this;
+    }
+
+    public CborWriter writeByteString(ByteBuffer value) {
+        ByteBuffer source = value.duplicate();
+        int length = source.remaining();
+        writeHeader(CborReader.MAJOR_BYTES, length);
+        ensureCapacity(length);
+        source.get(buffer, size, length);
+        size += length;
+        return this;
+    }
+
+    public CborWriter writeTextString(String value) {
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        writeHeader(CborReader.MAJOR_TEXT, utf8.length);
+        writeRaw(utf8, 0, utf8.length);
+        return this;
+    }
+
+    public CborWriter writeMapHeader(int entries) {
+        writeHeader(CborReader.MAJOR_MAP, entries);
+        return this;
+    }
+
+    public CborWriter writeArrayHeader(int elements) {
+        writeHeader(CborReader.MAJOR_ARRAY, elements);
+        return this;
+    }
+
+    public CborWriter writeBoolean(boolean value) {
+        writeByte((CborReader.MAJOR_SIMPLE << 5) | (value ? 21 : 20));
+        return this;
+    }
+
+    public CborWriter writeNull() {
+        writeByte((CborReader.MAJOR_SIMPLE << 5) | 22);
+        return this;
+    }
+
+    /**
+     * Append an already encoded CBOR item
+     */
+    public CborWriter writeEncoded(byte[] encoded) {
+        writeRaw(encoded, 0, encoded.length);
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    private void writeHeader(int majorType, long argument) {
+        int major = majorType << 5;
+        if (argument < 24) {
+            writeByte(major | (int) argument);
+        } else if (argument <= 0xffL) {
+            writeByte(major | 24);
+            writeByte((int) argument);
+        } else if (argument <= 0xffffL) {
+            writeByte(major | 25);
+            writeByte((int) (argument >>> 8));
+            writeByte((int) argument);
+        } else if (argument <= 0xffffffffL) {
+            writeByte(major | 26);
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                writeByte((int) (argument >>> shift));
+            }
+        } else {
+            writeByte(major | 27);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                writeByte((int) (argument >>> shift));
+            }
+        }
+    }
+
+    private void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[size++] = (byte) value;
+    }
+
+    private void writeRaw(byte[] bytes, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(bytes, offset, buffer, size, length);
+        size += length;
+    }
+
+    private void ensureCapacity(int additional) {
+        if (size + additional > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + additional));
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.pqc.fido2.webauthn;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * The fields of clientDataJSON a relying party must check.
+ * Read with a streaming parser; unknown members are skipped.
+ */
+public final class CollectedClientData {
+
+    public static final String TYPE_CREATE = "webauthn.create";
+    public static final String TYPE_GET = "webauthn.get";
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final String type;
+    private final String challenge;
+    private final String origin;
+
+    private CollectedClientData(String type, String challenge, String origin) {
+        this.type = type;
+        this.challenge = challenge;
+        this.origin = origin;
+    }
+
+    public static CollectedClientData parse(byte[] clientDataJson) {
+        String type = null;
+        String challenge = null;
+        String origin = null;
+
+        try (JsonParser parser = JSON_FACTORY.createParser(clientDataJson)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("clientDataJSON must be a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (value == JsonToken.VALUE_STRING) {
+                    switch (field) {
+                        case "type":
+                            type = parser.getText();
+                            break;
+                        case "challenge":
+                            challenge = parser.getText();
+                            break;
+                        case "origin":
+                            origin = parser.getText();
+                            break;
+                        default:
+                            break;
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Malformed clientDataJSON", e);
+        }
+
+        if (type == null || challenge == null || origin == null) {
+            throw new IllegalArgumentException("clientDataJSON is missing type, challenge or origin");
+        }
+        return new CollectedClientData(type, challenge, origin);
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getChallenge() {
+        return challenge;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+}
@@ -0,0 +1,167 @@
+package com.pqc.fido2.webauthn;
+
+import java.nio.ByteBuffer;
+
+/**
+ * COSE_Key (RFC 9052) as found in attested credential data.
+ * Only the parameters WebAuthn relying parties need are retained, and key
+ * material is kept as slices of the original buffer. Large post-quantum keys
+ * are therefore never copied during parsing.
+ */
+public final class CoseKey {
+
+    public static final int KTY_OKP = 1;
+    public static final int KTY_EC2 = 2;
+    public static final int KTY_RSA = 3;
+    /** Algorithm Key Pair, used for ML-DSA / layered Dilithium public keys */
+    public static final int KTY_AKP = 7;
+
+    public static final int ALG_ES256 = -7;
+    public static final int ALG_EDDSA = -8;
+    public static final int ALG_RS256 = -257;
+
+    public static final int CRV_P256 = 1;
+    public static final int CRV_ED25519 = 6;
+
+    private static final int LABEL_KTY = 1;
+    private static final int LABEL_ALG = 3;
+    private static final int LABEL_MINUS_1 = -1; // crv (EC2/OKP), n (RSA), pub (AKP)
+    private static final int LABEL_MINUS_2 = -2; // x (EC2/OKP), e (RSA)
+    private static final int LABEL_MINUS_3 = -3; // y (EC2)
+
+    private final int keyType;
+    private final int algorithm;
+    private final int curve;
+    private final ByteBuffer x;
+    private final ByteBuffer y;
+    private final ByteBuffer modulus;
+    private final ByteBuffer exponent;
+    private final ByteBuffer publicKey;
+
+    private CoseKey(int keyType, int algorithm, int curve, ByteBuffer x, ByteBuffer y,
+                    ByteBuffer modulus, ByteBuffer exponent, ByteBuffer publicKey) {
+        this.keyType = keyType;
+        this.algorithm = algorithm;
+        this.curve = curve;
+        this.x = x;
+        this.y = y;
+        this.modulus = modulus;
+        this.exponent = exponent;
+        this.publicKey = publicKey;
+    }
+
+    /**
+     * Parse a COSE_Key map from the current position of the reader
+     */
+    public static CoseKey parse(CborReader reader) {
+        int entries = reader.readMapHeader();
+
+        Integer keyType = null;
+        Integer algorithm = null;
+        int curve = 0;
+        ByteBuffer minus1 = null;
+        ByteBuffer minus2 = null;
+        ByteBuffer minus3 = null;
+
+        for (int i = 0; i < entries; i++) {
+            int majorType = reader.peekMajorType();
+            if (majorType != CborReader.MAJOR_UNSIGNED && majorType != CborReader.MAJOR_NEGATIVE) {
+                // Text labels are allowed by COSE but carry nothing we use
+                reader.skip();
+                reader.skip();
+                continue;
+            }
+
+            long label = reader.readInt();
+            if (label == LABEL_KTY) {
+                keyType = (int) reader.readInt();
+            } else if (label == LABEL_ALG) {
+                algorithm = (int) reader.readInt();
+            } else if (label == LABEL_MINUS_1) {
+                // crv is an integer for EC2/OKP, the other key types use a byte string
+                if (reader.peekMajorType() == CborReader.MAJOR_BYTES) {
+                    minus1 = reader.readByteString();
+                } else {
+                    curve = (int) reader.readInt();
+                }
+            } else if (label == LABEL_MINUS_2) {
+                minus2 = reader.readByteString();
+            } else if (label == LABEL_MINUS_3) {
+                if (reader.peekMajorType() == CborReader.MAJOR_BYTES) {
+                    minus3 = reader.readByteString();
+                } else {
+                    // Compressed EC2 points use a boolean sign bit
+                    reader.skip();
+                }
+            } else {
+                reader.skip();
+            }
+        }
+
+        if (keyType == null || algorithm == null) {
+            throw new IllegalArgumentException("COSE key is missing kty or alg");
+        }
+
+        switch (keyType) {
+            case KTY_EC2:
+                require(minus2 != null && minus3 != null, "EC2 key requires x and y");
+                return new CoseKey(keyType, algorithm, curve, minus2, minus3, null, null, null);
+            case KTY_OKP:
+                require(minus2 != null, "OKP key requires x");
+                return new CoseKey(keyType, algorithm, curve, minus2, null, null, null, null);
+            case KTY_RSA:
+                require(minus1 != null && minus2 != null, "RSA key requires n and e");
+                return new CoseKey(keyType, algorithm, 0, null, null, minus1, minus2, null);
+            case KTY_AKP:
+                require(minus1 != null, "AKP key requires pub");
+                return new CoseKey(keyType, algorithm, 0, null, null, null, null, minus1);
+            default:
+                throw new IllegalArgumentException("Unsupported COSE key type " + keyType);
+        }
+    }
+
+    private static void require(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+
+    public int getKeyType() {
+        return keyType;
+    }
+
+    public int getAlgorithm() {
+        return algorithm;
+    }
+
+    public int getCurve() {
+        return curve;
+    }
+
+    public boolean isPostQuantum() {
+        return keyType == KTY_AKP;
+    }
+
+    public ByteBuffer getX() {
+        return x == null ? null : x.duplicate();
+    }
+
+    public ByteBuffer getY() {
+        return y == null ? null : y.duplicate();
+    }
+
+    public ByteBuffer getModulus() {
+        return modulus == null ? null : modulus.duplicate();
+    }
+
+    public ByteBuffer getExponent() {
+        return exponent == null ? null : exponent.duplicate();
+    }
+
+    /**
+     * Raw public key of an AKP (post-quantum) key
+     */
+    public ByteBuffer getPublicKey() {
+        return publicKey == null ? null : publicKey.duplicate();
+    }
+}
@@ -0,0 +1,178 @@
+package com.pqc.fido2.webauthn;
+
+import org.springframework.stereotype.Component;
+
+import java.math.BigInteger;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.AlgorithmParameters;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Collection;
+
+/**
+ * Entry point for decoding and checking WebAuthn ceremony structures.
+ */
+@Component
+public class WebAuthnParser {
+
+    // DER prefix of an Ed25519 SubjectPublicKeyInfo; the 32-byte key follows
+    private static final byte[] ED25519_SPKI_PREFIX = {
+        0x30, 0x2a, 0x30, 0x05, 0x06, 0x03, 0x2b, 0x65, 0x70, 0x03, 0x21, 0x00
+    };
+
+    private final ECParameterSpec p256;
+
+    public WebAuthnParser() {
+        try {
+            AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+            parameters.init(new ECGenParameterSpec("secp256r1"));
+            this.p256 = parameters.getParameterSpec(ECParameterSpec.class);
+        } catch (Exception e) {
+            throw new IllegalStateException("P-256 curve parameters unavailable", e);
+        }
+    }
+
+    public AttestationObject parseAttestationObject(byte[] attestationObject) {
+        return AttestationObject.parse(ByteBuffer.wrap(attestationObject));
+    }
+
+    public AuthenticatorData parseAuthenticatorData(byte[] authenticatorData) {
+        return AuthenticatorData.parse(ByteBuffer.wrap(authenticatorData));
+    }
+
+    public CollectedClientData parseClientData(byte[] clientDataJson) {
+        return CollectedClientData.parse(clientDataJson);
+    }
+
+    /**
+     * Bytes covered by a WebAuthn assertion signature: authData || SHA-256(clientDataJSON)
+     */
+    public byte[] signedData(AuthenticatorData authenticatorData, byte[] clientDataJson) {
+        ByteBuffer raw = authenticatorData.getRaw();
+        byte[] clientDataHash = sha256(clientDataJson);
+        byte[] signed = new byte[raw.remaining() + clientDataHash.length];
+        int authDataLength = raw.remaining();
+        raw.get(signed, 0, authDataLength);
+        System.arraycopy(clientDataHash, 0, signed, authDataLength, clientDataHash.length);
+        return signed;
+    }
+
+    /**
+     * Check the relying-party bound fields of a ceremony: client data type,
+     * challenge and origin, the rpIdHash and the user-present flag.
+     *
+     * The origin must equal one of the allowed origins; with allowSubdomains,
+     * any https origin whose host is a subdomain of the RP ID is accepted too.
+     */
+    public void validate(AuthenticatorData authenticatorData, CollectedClientData clientData,
+                         String expectedType, String expectedChallenge,
+                         String rpId, Collection<String> allowedOrigins, boolean allowSubdomains) {
+        if (!expectedType.equals(clientData.getType())) {
+            throw new IllegalArgumentException("Unexpected client data type: " + clientData.getType());
+        }
+        if (!MessageDigest.isEqual(
+                expectedChallenge.getBytes(StandardCharsets.US_ASCII),
+                stripPadding(clientData.getChallenge()).getBytes(StandardCharsets.US_ASCII))) {
+            throw new IllegalArgumentException("Challenge mismatch");
+        }
+        if (!originAllowed(clientData.getOrigin(), rpId, allowedOrigins, allowSubdomains)) {
+            throw new IllegalArgumentException("Origin " + clientData.getOrigin() + " is not allowed");
+        }
+
+        byte[] expectedRpIdHash = sha256(rpId.getBytes(StandardCharsets.UTF_8));
+        if (!authenticatorData.getRpIdHash().equals(ByteBuffer.wrap(expectedRpIdHash))) {
+            throw new IllegalArgumentException("RP ID hash mismatch");
+        }
+        if (!authenticatorData.isUserPresent()) {
+            throw new IllegalArgumentException("User presence flag not set");
+        }
+    }
+
+    /**
+     * Convert a classical COSE key into a JCA public key
+     */
+    public PublicKey toPublicKey(CoseKey coseKey) {
+        try {
+            switch (coseKey.getKeyType()) {
+                case CoseKey.KTY_EC2: {
+                    if (coseKey.getCurve() != CoseKey.CRV_P256) {
+                        throw new IllegalArgumentException("Unsupported EC2 curve " + coseKey.getCurve());
+                    }
+                    ECPoint point = new ECPoint(unsigned(coseKey.getX()), unsigned(coseKey.getY()));
+                    return KeyFactory.getInstance("EC").generatePublic(new ECPublicKeySpec(point, p256));
+                }
+                case CoseKey.KTY_OKP: {
+                    ByteBuffer x = coseKey.getX();
+                    if (coseKey.getCurve() != CoseKey.CRV_ED25519 || x.remaining() != 32) {
+                        throw new IllegalArgumentException("Unsupported OKP key");
+                    }
+                    byte[] spki = new byte[ED25519_SPKI_PREFIX.length + 32];
+                    System.arraycopy(ED25519_SPKI_PREFIX, 0, spki, 0, ED25519_SPKI_PREFIX.length);
+                    x.get(spki, ED25519_SPKI_PREFIX.length, 32);
+                    return KeyFactory.getInstance("Ed25519").generatePublic(new X509EncodedKeySpec(spki));
+                }
+                case CoseKey.KTY_RSA:
+                    return KeyFactory.getInstance("RSA").generatePublic(
+                        new RSAPublicKeySpec(unsigned(coseKey.getModulus()), unsigned(coseKey.getExponent())));
+                default:
+                    throw new IllegalArgumentException("COSE key type " + coseKey.getKeyType() + " is not a classical key");
+            }
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid COSE public key", e);
+        }
+    }
+
+    private boolean originAllowed(String origin, String rpId, Collection<String> allowedOrigins,
+                                  boolean allowSubdomains) {
+        if (origin == null) {
+            return false;
+        }
+        if (allowedOrigins.contains(origin)) {
+            return true;
+        }
+        if (!allowSubdomains) {
+            return false;
+        }
+        try {
+            URI uri = URI.create(origin);
+            String host = uri.getHost();
+            return "https".equals(uri.getScheme()) && uri.getRawPath().isEmpty()
+                && host != null && host.endsWith("." + rpId);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static String stripPadding(String base64url) {
+        int end = base64url.length();
+        while (end > 0 && base64url.charAt(end - 1) == '=') {
+            end--;
+        }
+        return base64url.substring(0, end);
+    }
+
+    private static BigInteger unsigned(ByteBuffer value) {
+        byte[] bytes = new byte[value.remaining()];
+        value.get(bytes);
+        return new BigInteger(1, bytes);
+    }
+
+    private static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (Exception e) {
+            throw new RuntimeException("SHA-256 unavailable", e);
+        }
+    }
+}
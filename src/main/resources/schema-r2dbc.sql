@@ -0,0 +1,40 @@
+-- Schema for the reactive (R2DBC) profile; mirrors the JPA entity mappings
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    username VARCHAR(255) NOT NULL UNIQUE,
+    email VARCHAR(255) NOT NULL UNIQUE,
+    display_name VARCHAR(255),
+    created_at TIMESTAMP,
+    last_login TIMESTAMP,
+    is_active BOOLEAN NOT NULL DEFAULT TRUE
+);
+
+CREATE TABLE IF NOT EXISTS credentials (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    credential_id VARCHAR(255) NOT NULL UNIQUE,
+    public_key VARCHAR(65535),
+    pq_public_key VARCHAR(65535),
+    signature_count BIGINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP,
+    last_used TIMESTAMP,
+    is_active BOOLEAN NOT NULL DEFAULT TRUE,
+    clone_suspected BOOLEAN NOT NULL DEFAULT FALSE,
+    rp_id VARCHAR(255),
+    crypto_type VARCHAR(32),
+    user_id BIGINT NOT NULL REFERENCES users (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_credentials_user ON credentials (user_id);
+
+CREATE TABLE IF NOT EXISTS authentication_sessions (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    session_id VARCHAR(255) NOT NULL UNIQUE,
+    challenge VARCHAR(1024),
+    pq_challenge VARCHAR(1024),
+    created_at TIMESTAMP,
+    expires_at TIMESTAMP,
+    is_used BOOLEAN NOT NULL DEFAULT FALSE,
+    rp_id VARCHAR(255),
+    auth_type VARCHAR(32),
+    user_id BIGINT REFERENCES users (id)
+);
@@ -0,0 +1,131 @@
+package com.pqc.fido2;
+
+import com.pqc.fido2.audit.AuditEvent;
+import com.pqc.fido2.audit.AuditJournal;
+import com.pqc.fido2.audit.AuditJournalReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The audit journal's group-committed writes, rotation, compression and
+ * replay, including a segment whose tail was torn by a crash.
+ */
+class AuditJournalTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testReplaysEventsAcrossRotatedSegments() throws Exception {
+        // Small segments so the run rotates and compresses several times
+        AuditJournal journal = new AuditJournal(directory, 100_000, 16 * 1024, 5, true);
+        int threads = 4;
+        int perThread = 2_000;
+        AtomicInteger accepted = new AtomicInteger();
+        List<Thread> publishers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            String tenant = "tenant-" + t;
+            Thread publisher = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    if (journal.publish(event(tenant, i))) {
+                        accepted.incrementAndGet();
+                    }
+                }
+            });
+            publishers.add(publisher);
+            publisher.start();
+        }
+        for (Thread publisher : publishers) {
+            publisher.join();
+        }
+        assertEquals(threads * perThread, accepted.get());
+        assertTrue(journal.awaitCommitted(30, TimeUnit.SECONDS));
+        assertEquals(threads * perThread, journal.getCommittedCount());
+
+        // Readable while the journal is still open
+        assertEquals(threads * perThread, AuditJournalReader.readAll(directory).size());
+
+        journal.close();
+        assertFalse(journal.publish(event("late", 0)));
+        assertEquals(1, journal.getDroppedCount());
+
+        List<Path> files = list(directory);
+        assertTrue(files.size() > 3, files.toString());
+        assertTrue(files.stream().allMatch(file -> file.toString().endsWith(".log.gz")), files.toString());
+
+        // Each publisher's events come back complete and in order
+        List<AuditEvent> events = AuditJournalReader.readAll(directory);
+        assertEquals(threads * perThread, events.size());
+        Map<String, Integer> next = new HashMap<>();
+        for (AuditEvent event : events) {
+            int expected = next.getOrDefault(event.getTenantId(), 0);
+            assertEquals("session-" + expected, event.getSessionId());
+            assertEquals(expected % 3 + 1, event.getLayers());
+            next.put(event.getTenantId(), expected + 1);
+        }
+
+        AuditEvent first = events.stream().filter(e -> e.getTenantId().equals("tenant-0")).findFirst().orElseThrow();
+        assertEquals(AuditEvent.Type.AUTHENTICATION_COMPLETE, first.getType());
+        assertEquals(AuditEvent.Failure.SIGNATURE_INVALID, first.getFailure());
+        assertEquals("cred-0", first.getCredentialId());
+        assertEquals("HYBRID", first.getCryptoType());
+        assertNull(first.getUsername());
+        assertEquals(1_000_000L, first.getLatencyNanos());
+    }
+
+    @Test
+    void testTornTailEndsReplayAndRestartOpensNewSegment() throws IOException {
+        AuditJournal journal = new AuditJournal(directory, 1_000, 1 << 20, 0, false);
+        for (int i = 0; i < 10; i++) {
+            journal.publish(event("acme", i));
+        }
+        assertTrue(journal.awaitCommitted(10, TimeUnit.SECONDS));
+        Path segment = journal.getCurrentSegment();
+        journal.close();
+
+        // A crash mid-append leaves a record header without its payload
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.allocate(11).putInt(200).putInt(12345).flip());
+        }
+        assertEquals(10, AuditJournalReader.readAll(directory).size());
+
+        AuditJournal restarted = new AuditJournal(directory, 1_000, 1 << 20, 0, false);
+        assertNotEquals(segment, restarted.getCurrentSegment());
+        restarted.publish(event("acme", 10));
+        assertTrue(restarted.awaitCommitted(10, TimeUnit.SECONDS));
+        restarted.close();
+
+        List<AuditEvent> events = AuditJournalReader.readAll(directory);
+        assertEquals(11, events.size());
+        assertEquals("session-10", events.get(10).getSessionId());
+        assertEquals(AuditEvent.Failure.SIGNATURE_INVALID, events.get(10).getFailure());
+    }
+
+    private static AuditEvent event(String tenant, int i) {
+        AuditEvent.Failure failure = i % 2 == 0 ? AuditEvent.Failure.SIGNATURE_INVALID : null;
+        return new AuditEvent(System.currentTimeMillis(), AuditEvent.Type.AUTHENTICATION_COMPLETE, failure,
+            tenant, "session-" + i, null, "cred-" + i, "HYBRID", i % 3 + 1, 1_000_000L);
+    }
+
+    private static List<Path> list(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+}
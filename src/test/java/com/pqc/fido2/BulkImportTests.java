@@ -0,0 +1,199 @@
+package com.pqc.fido2;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pqc.fido2.crypto.ClassicalSignatureService;
+import com.pqc.fido2.crypto.MLDilithiumService;
+import com.pqc.fido2.importer.BloomFilter;
+import com.pqc.fido2.importer.BulkImportService;
+import com.pqc.fido2.model.Credential;
+import com.pqc.fido2.model.User;
+import com.pqc.fido2.repository.UserRepository;
+import com.pqc.fido2.service.CredentialIndex;
+import com.pqc.fido2.service.CredentialMetadata;
+import com.pqc.fido2.service.VerificationScheduler;
+import com.pqc.fido2.tenant.TenantRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Base64;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class BulkImportTests {
+
+    @TempDir
+    Path tempDir;
+
+    @Autowired
+    private BulkImportService bulkImportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CredentialIndex credentialIndex;
+
+    @Autowired
+    private MLDilithiumService mlDilithiumService;
+
+    @Autowired
+    private ClassicalSignatureService classicalSignatureService;
+
+    @Autowired
+    private VerificationScheduler verificationScheduler;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TenantRegistry tenantRegistry;
+
+    @Test
+    void testImportsNdjsonAndSkipsDuplicatesAndInvalidRecords() throws Exception {
+        userRepository.save(new User("import-existing", "import-existing@example.com", "Existing"));
+        String pqPublicKey = encode(mlDilithiumService.generateMLKeyPair().getPublicKey().getEncoded());
+
+        Path file = tempDir.resolve("users.ndjson");
+        Files.write(file, List.of(
+            "{\"username\":\"import-1\",\"email\":\"import-1@example.com\",\"displayName\":\"One\","
+                + "\"credentialId\":\"importCred01\",\"pqPublicKey\":\"" + pqPublicKey + "\",\"signatureCount\":7}",
+            "{\"username\":\"import-2\",\"email\":\"import-2@example.com\"}",
+            "",
+            "{\"username\":\"import-existing\",\"email\":\"import-other@example.com\"}",
+            "{\"username\":\"import-3\",\"email\":\"import-1@example.com\"}",
+            "{\"username\":\"import-4\",\"email\":\"import-4@example.com\",\"credentialId\":\"importCred01\",\"pqPublicKey\":\"" + pqPublicKey + "\"}",
+            "{\"username\":\"import-5\"}",
+            "{\"username\":\"import-6\",\"email\":\"import-6@example.com\",\"credentialId\":\"importCred06\",\"cryptoType\":\"classical\"}",
+            "{\"username\":\"import-7\",\"email\":\"import-7@example.com\",\"credentialId\":\"importCred07\",\"pqPublicKey\":\"AAAA\"}",
+            "not json"), StandardCharsets.UTF_8);
+
+        long keyChecks = bulkWaits();
+        BulkImportService.Result result = bulkImportService.importFile(file);
+
+        assertEquals(9, result.getRecordsRead());
+        assertEquals(2, result.getImported());
+        assertEquals(1, result.getCredentials());
+        assertEquals(3, result.getDuplicates());
+        assertEquals(4, result.getInvalid());
+        // Keys that do not decode are caught by a bulk task on the scheduler
+        assertEquals(keyChecks + 1, bulkWaits());
+        assertFalse(userRepository.existsByUsername("import-7"));
+        assertTrue(result.getRowsPerSecond() > 0);
+        assertTrue(result.getCheckpoint().isComplete());
+
+        assertEquals("One", userRepository.findByUsername("import-1").orElseThrow().getDisplayName());
+        assertTrue(userRepository.existsByUsername("import-2"));
+        assertFalse(userRepository.existsByUsername("import-3"));
+
+        // Imported credentials are found through the normal lookup path
+        CredentialMetadata credential = credentialIndex.find("importCred01").orElseThrow();
+        assertEquals(Credential.CryptoType.POST_QUANTUM, credential.getCryptoType());
+        assertEquals(7, credential.getSignatureCount());
+        assertEquals(tenantRegistry.getDefaultTenant().getRpId(), credential.getRpId());
+
+        // A rerun of a completed file is a no-op
+        assertEquals(0, bulkImportService.importFile(file).getRecordsRead());
+    }
+
+    @Test
+    void testImportsCsvWithQuotedFields() throws Exception {
+        Path file = tempDir.resolve("users.csv");
+        Files.write(file, List.of(
+            "email,username,displayName,unknown",
+            "import-csv-1@example.com,import-csv-1,\"Doe, \"\"Jane\"\"\",x",
+            "import-csv-2@example.com,import-csv-2,,"), StandardCharsets.UTF_8);
+
+        BulkImportService.Result result = bulkImportService.importFile(file);
+
+        assertEquals(2, result.getImported());
+        assertEquals("Doe, \"Jane\"", userRepository.findByUsername("import-csv-1").orElseThrow().getDisplayName());
+        assertEquals("import-csv-2", userRepository.findByUsername("import-csv-2").orElseThrow().getDisplayName());
+    }
+
+    @Test
+    void testResumesFromCheckpoint() throws Exception {
+        BulkImportService chunked = new BulkImportService(dataSource, transactionManager, entityManagerFactory, objectMapper,
+            tenantRegistry, verificationScheduler, classicalSignatureService, mlDilithiumService,
+            new SimpleMeterRegistry(), 2, 1000, 0.01);
+        Path file = tempDir.resolve("resume.ndjson");
+        Path checkpoint = tempDir.resolve("resume.ndjson.checkpoint");
+        Files.write(file, List.of(user("import-resume-1"), user("import-resume-2"),
+            user("import-resume-3"), user("import-resume-4")), StandardCharsets.UTF_8);
+        assertEquals(4, chunked.importFile(file).getImported());
+
+        // As if the process died after committing the second chunk but before checkpointing it
+        Properties properties = new Properties();
+        try (var reader = Files.newBufferedReader(checkpoint)) {
+            properties.load(reader);
+        }
+        assertEquals("4", properties.getProperty("records"));
+        properties.setProperty("records", "2");
+        properties.setProperty("complete", "false");
+        try (var writer = Files.newBufferedWriter(checkpoint)) {
+            properties.store(writer, null);
+        }
+        Files.write(file, List.of(user("import-resume-5"), user("import-resume-6")),
+            StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        BulkImportService.Result resumed = chunked.importFile(file);
+        assertEquals(4, resumed.getRecordsRead());
+        assertEquals(2, resumed.getDuplicates());
+        assertEquals(2, resumed.getImported());
+        assertEquals(6, resumed.getCheckpoint().getRecords());
+        assertTrue(userRepository.existsByUsername("import-resume-6"));
+    }
+
+    @Test
+    void testBloomFilterStaysNearConfiguredFalsePositiveRate() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("present-" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("present-" + i));
+            if (filter.mightContain("absent-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 200, falsePositives + " false positives");
+    }
+
+    private long bulkWaits() {
+        return meterRegistry.get("pqc.scheduler.wait").tag("priority", "bulk").timer().count();
+    }
+
+    private static String user(String username) {
+        return "{\"username\":\"" + username + "\",\"email\":\"" + username + "@example.com\"}";
+    }
+
+    private static String encode(byte[] value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value);
+    }
+}
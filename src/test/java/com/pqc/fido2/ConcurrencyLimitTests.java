@@ -0,0 +1,140 @@
+package com.pqc.fido2;
+
+import com.pqc.fido2.limit.AdaptiveConcurrencyLimiter;
+import com.pqc.fido2.limit.ConcurrencyLimiterRegistry;
+import com.pqc.fido2.limit.GradientLimit;
+import com.pqc.fido2.limit.VegasLimit;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The simulation models a server with 8 workers shared by all in-flight
+ * requests, 10 ms of work per request and clients that give up after
+ * 100 ms, so capacity is 0.8 requests per ms. Goodput counts requests that
+ * finish before their client gives up.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:limits"
+})
+class ConcurrencyLimitTests {
+
+    private static final int WORKERS = 8;
+    private static final double WORK_MS = 10;
+    private static final int CLIENT_TIMEOUT_MS = 100;
+    private static final double CAPACITY = WORKERS / WORK_MS;
+
+    @Autowired
+    private ConcurrencyLimiterRegistry limiterRegistry;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void testVegasHoldsGoodputPastSaturation() {
+        for (double load : new double[] {0.5, 1.0, 2.0, 4.0}) {
+            AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                "vegas", new VegasLimit(20, 1, 1000), new SimpleMeterRegistry());
+            double goodput = simulate(limiter, load * CAPACITY);
+            assertTrue(goodput >= Math.min(load, 1.0) * CAPACITY * 0.85,
+                "vegas goodput " + goodput + " at " + load + "x capacity");
+        }
+    }
+
+    @Test
+    void testGradientHoldsGoodputPastSaturation() {
+        for (double load : new double[] {0.5, 1.0, 2.0, 4.0}) {
+            AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                "gradient", new GradientLimit(20, 1, 1000), new SimpleMeterRegistry());
+            double goodput = simulate(limiter, load * CAPACITY);
+            assertTrue(goodput >= Math.min(load, 1.0) * CAPACITY * 0.85,
+                "gradient goodput " + goodput + " at " + load + "x capacity");
+        }
+    }
+
+    @Test
+    void testUnlimitedServerCollapsesPastSaturation() {
+        assertTrue(simulate(null, 0.5 * CAPACITY) >= 0.5 * CAPACITY * 0.85);
+        assertTrue(simulate(null, 2 * CAPACITY) < 0.1 * CAPACITY);
+    }
+
+    @Test
+    void testRequestsOverTheLimitAreRejectedImmediately() {
+        AdaptiveConcurrencyLimiter limiter = limiterRegistry.resolve("/auth/login/complete");
+        assertNotSame(limiter, limiterRegistry.resolve("/auth/login/begin"));
+        assertSame(limiterRegistry.resolve("/auth/unknown"), limiterRegistry.resolve("/auth/other"));
+
+        int held = 0;
+        while (limiter.tryAcquire()) {
+            held++;
+        }
+        try {
+            assertEquals(limiter.getLimit(), held);
+            ResponseEntity<Map> rejected = restTemplate.postForEntity(
+                "/auth/login/complete", Map.of("sessionId", "none"), Map.class);
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getStatusCode());
+
+            // Other endpoints have limits of their own
+            ResponseEntity<Map> begin = restTemplate.postForEntity(
+                "/auth/login/begin", Map.of("username", "nobody"), Map.class);
+            assertNotEquals(HttpStatus.SERVICE_UNAVAILABLE, begin.getStatusCode());
+        } finally {
+            for (int i = 0; i < held; i++) {
+                limiter.onIgnore();
+            }
+        }
+        ResponseEntity<Map> admitted = restTemplate.postForEntity(
+            "/auth/login/complete", Map.of("sessionId", "none"), Map.class);
+        assertNotEquals(HttpStatus.SERVICE_UNAVAILABLE, admitted.getStatusCode());
+    }
+
+    /**
+     * Goodput in requests per ms over the second half of a 20 s run, in 1 ms steps
+     */
+    private static double simulate(AdaptiveConcurrencyLimiter limiter, double arrivalsPerMs) {
+        int ticks = 20_000;
+        List<double[]> inFlight = new ArrayList<>(); // {start tick, remaining work}
+        double arrivals = 0;
+        long goodput = 0;
+
+        for (int now = 0; now < ticks; now++) {
+            arrivals += arrivalsPerMs;
+            for (; arrivals >= 1; arrivals--) {
+                if (limiter == null || limiter.tryAcquire()) {
+                    inFlight.add(new double[] {now, WORK_MS});
+                }
+            }
+
+            double share = Math.min(1.0, WORKERS / (double) Math.max(1, inFlight.size()));
+            for (Iterator<double[]> it = inFlight.iterator(); it.hasNext(); ) {
+                double[] request = it.next();
+                request[1] -= share;
+                if (request[1] > 1e-9) {
+                    continue;
+                }
+                it.remove();
+                long latencyMs = now + 1 - (long) request[0];
+                if (limiter != null) {
+                    limiter.onSuccess(TimeUnit.MILLISECONDS.toNanos(latencyMs));
+                }
+                if (latencyMs <= CLIENT_TIMEOUT_MS && now >= ticks / 2) {
+                    goodput++;
+                }
+            }
+        }
+        return goodput / (ticks / 2.0);
+    }
+}
@@ -0,0 +1,147 @@
+package com.pqc.fido2;
+
+import com.pqc.fido2.crypto.ClassicalSignatureService;
+import com.pqc.fido2.crypto.MLDilithiumService;
+import com.pqc.fido2.dto.RegistrationRequest;
+import com.pqc.fido2.dto.RegistrationResponse;
+import com.pqc.fido2.model.Credential;
+import com.pqc.fido2.model.User;
+import com.pqc.fido2.repository.CredentialRepository;
+import com.pqc.fido2.repository.UserRepository;
+import com.pqc.fido2.service.CredentialIndex;
+import com.pqc.fido2.service.CredentialMetadata;
+import com.pqc.fido2.service.Fido2Service;
+import com.pqc.fido2.tenant.Tenant;
+import com.pqc.fido2.tenant.TenantRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class CredentialIndexTests {
+
+    @Autowired
+    private CredentialIndex credentialIndex;
+
+    @Autowired
+    private Fido2Service fido2Service;
+
+    @Autowired
+    private MLDilithiumService mlDilithiumService;
+
+    @Autowired
+    private ClassicalSignatureService classicalSignatureService;
+
+    @Autowired
+    private TenantRegistry tenantRegistry;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CredentialRepository credentialRepository;
+
+    @Test
+    void testLookupIsCachedWithDecodedKey() {
+        createCredential("index-cached");
+
+        CredentialMetadata first = credentialIndex.find("index-cached").orElseThrow();
+        long hits = credentialIndex.hitCount();
+        CredentialMetadata second = credentialIndex.find("index-cached").orElseThrow();
+
+        assertSame(first, second);
+        assertEquals(hits + 1, credentialIndex.hitCount());
+        assertEquals(Credential.CryptoType.POST_QUANTUM, first.getCryptoType());
+        // The post-quantum key is held in the off-heap arena, not on the entry
+        assertTrue(first.isPqKeyOffHeap());
+        assertNull(first.getPqPublicKey());
+        assertTrue(first.isActive());
+        assertTrue(credentialIndex.find("index-unknown").isEmpty());
+    }
+
+    @Test
+    void testUpdateInvalidatesEntry() {
+        createCredential("index-deactivated");
+        assertTrue(credentialIndex.find("index-deactivated").orElseThrow().isActive());
+
+        Credential stored = credentialRepository.findByCredentialId("index-deactivated").orElseThrow();
+        stored.setActive(false);
+        credentialRepository.save(stored);
+
+        assertFalse(credentialIndex.find("index-deactivated").orElseThrow().isActive());
+    }
+
+    @Test
+    void testIndexStaysWithinMemoryBudget() {
+        long budget = 16 * 1024;
+        CredentialIndex bounded = new CredentialIndex(
+            credentialRepository, mlDilithiumService, classicalSignatureService, budget);
+
+        for (int i = 0; i < 6; i++) {
+            createCredential("index-bounded-" + i);
+            assertTrue(bounded.find("index-bounded-" + i).isPresent());
+            assertTrue(bounded.estimatedBytes() <= budget);
+        }
+        assertTrue(bounded.evictionCount() > 0);
+        assertTrue(bounded.size() < 6);
+        // Evicted entries are reloaded from the database
+        assertTrue(bounded.find("index-bounded-0").isPresent());
+    }
+
+    @Test
+    void testReloadedEntryIsEvictedLast() {
+        createCredential("index-order-a");
+        createCredential("index-order-b");
+        createCredential("index-order-c");
+        CredentialIndex probe = new CredentialIndex(
+            credentialRepository, mlDilithiumService, classicalSignatureService, Long.MAX_VALUE);
+        probe.find("index-order-a");
+        long entryBytes = probe.estimatedBytes();
+
+        // Room for two entries
+        CredentialIndex bounded = new CredentialIndex(
+            credentialRepository, mlDilithiumService, classicalSignatureService, entryBytes * 5 / 2);
+        bounded.find("index-order-a");
+        bounded.find("index-order-b");
+        bounded.invalidate("index-order-a");
+        bounded.find("index-order-a");
+        bounded.find("index-order-c");
+
+        assertEquals(2, bounded.size());
+        assertEquals(1, bounded.evictionCount());
+        long hits = bounded.hitCount();
+        bounded.find("index-order-a");
+        assertEquals(hits + 1, bounded.hitCount());
+    }
+
+    @Test
+    void testDuplicateCredentialIdIsRejectedOnRegistration() {
+        String pqPublicKey = encode(mlDilithiumService.generateMLKeyPair().getPublicKey().getEncoded());
+        Tenant tenant = tenantRegistry.getDefaultTenant();
+
+        RegistrationResponse first = fido2Service.initiateRegistration(tenant,
+            new RegistrationRequest("index-dup-1", "index-dup-1@example.com", "Dup 1", "post-quantum"));
+        assertTrue(fido2Service.completeRegistration(tenant,
+            first.getSessionId(), "index-dup", null, pqPublicKey, null, null));
+
+        RegistrationResponse second = fido2Service.initiateRegistration(tenant,
+            new RegistrationRequest("index-dup-2", "index-dup-2@example.com", "Dup 2", "post-quantum"));
+        assertFalse(fido2Service.completeRegistration(tenant,
+            second.getSessionId(), "index-dup", null, pqPublicKey, null, null));
+    }
+
+    private void createCredential(String credentialId) {
+        User user = userRepository.save(new User(credentialId, credentialId + "@example.com", credentialId));
+        String pqPublicKey = encode(mlDilithiumService.generateMLKeyPair().getPublicKey().getEncoded());
+        credentialRepository.save(new Credential(
+            credentialId, null, pqPublicKey, Credential.CryptoType.POST_QUANTUM, user));
+    }
+
+    private static String encode(byte[] value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value);
+    }
+}
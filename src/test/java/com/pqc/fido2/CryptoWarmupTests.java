@@ -0,0 +1,84 @@
+package com.pqc.fido2;
+
+import com.pqc.fido2.crypto.mldsa.ExpandedKeyCache;
+import com.pqc.fido2.service.CryptoWarmup;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:warmup",
+    "pqc.fido2.warmup.cycles=2",
+    "pqc.fido2.warmup.sample-cycles=3",
+    "pqc.fido2.warmup.layers=1,2"
+})
+class CryptoWarmupTests {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CryptoWarmup cryptoWarmup;
+
+    @Autowired
+    private ExpandedKeyCache expandedKeyCache;
+
+    @Test
+    void testNotReadyBeforeWarmup() {
+        assertEquals(Status.OUT_OF_SERVICE, new CryptoWarmup().health().getStatus());
+    }
+
+    @Test
+    void testReadyAfterWarmup() {
+        assertTrue(cryptoWarmup.isComplete());
+        // Two warm-up and three sampled cycles, each run as bulk work on the scheduler
+        assertTrue(meterRegistry.get("pqc.scheduler.wait").tag("priority", "bulk").timer().count() >= 5);
+
+        ResponseEntity<Map> readiness = restTemplate.getForEntity("/actuator/health/readiness", Map.class);
+        assertEquals(HttpStatus.OK, readiness.getStatusCode());
+        assertEquals("UP", readiness.getBody().get("status"));
+
+        ResponseEntity<Map> health = restTemplate.getForEntity("/auth/health", Map.class);
+        assertEquals(HttpStatus.OK, health.getStatusCode());
+        assertEquals("healthy", health.getBody().get("status"));
+    }
+
+    @Test
+    void testPostWarmupLatencyIsExported() {
+        for (String type : new String[] {"POST_QUANTUM", "HYBRID"}) {
+            for (String layers : new String[] {"1", "2"}) {
+                for (String operation : new String[] {"keygen", "sign", "verify"}) {
+                    Timer timer = meterRegistry.find("pqc.crypto.latency")
+                        .tags("operation", operation, "crypto.type", type, "layers", layers)
+                        .timer();
+                    assertNotNull(timer, operation + " " + type + " " + layers);
+                    assertEquals(3, timer.count());
+                }
+            }
+        }
+        assertEquals(3, meterRegistry.find("pqc.crypto.latency")
+            .tags("operation", "verify", "crypto.type", "CLASSICAL").timer().count());
+        assertNotNull(meterRegistry.find("pqc.warmup.duration").timeGauge());
+    }
+
+    @Test
+    void testWarmupGoesThroughExpandedKeyCache() {
+        // Each post-quantum and hybrid verification filled the cache, hit it once, and evicted its keys
+        assertTrue(expandedKeyCache.hitCount() > 0);
+        assertTrue(expandedKeyCache.missCount() > 0);
+        assertEquals(0, expandedKeyCache.size());
+    }
+}
@@ -0,0 +1,131 @@
+package com.pqc.fido2;
+
+import com.pqc.fido2.crypto.DilithiumCryptoService;
+import com.pqc.fido2.crypto.DilithiumKeyPair;
+import com.pqc.fido2.crypto.DilithiumSignature;
+import com.pqc.fido2.crypto.keccak.XofEngines;
+import com.pqc.fido2.crypto.mldsa.ExpandedKeyCache;
+import com.pqc.fido2.crypto.mldsa.ExpandedPublicKey;
+import com.pqc.fido2.crypto.mldsa.MLDsaParameters;
+import com.pqc.fido2.crypto.mldsa.MLDsaVerifier;
+import com.pqc.fido2.crypto.mldsa.PolynomialArithmetics;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The expanded-key verifier against BouncyCastle's DilithiumSigner on valid
+ * and tampered signatures, and the cache's hit, budget and eviction behaviour.
+ */
+class ExpandedKeyCacheTests {
+
+    private static final byte[] MESSAGE = "login challenge".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void testAgreesWithBouncyCastle() {
+        SplittableRandom random = new SplittableRandom(7);
+        for (MLDsaParameters parameters : MLDsaParameters.values()) {
+            DilithiumCryptoService dilithium = new DilithiumCryptoService(parameters.name());
+            // Pure Java against the Vector API paths
+            for (String backend : new String[] {"scalar", "vector"}) {
+                MLDsaVerifier verifier = new MLDsaVerifier(parameters, PolynomialArithmetics.of(backend),
+                    XofEngines.of(backend.equals("scalar") ? "bouncycastle" : "keccak"));
+                for (int round = 0; round < 3; round++) {
+                    DilithiumKeyPair keyPair = dilithium.generateKeyPair();
+                    byte[] publicKey = keyPair.getPublicKey().getKeyBytes();
+                    byte[] signature = dilithium.sign(MESSAGE, keyPair.getPrivateKey()).getSignatureBytes();
+                    ExpandedPublicKey expanded = verifier.expand(publicKey);
+
+                    assertEquals(parameters.getPublicKeyBytes(), publicKey.length);
+                    assertEquals(parameters.getSignatureBytes(), signature.length);
+                    assertTrue(verifier.verify(expanded, MESSAGE, signature), parameters + " " + backend);
+                    assertFalse(verifier.verify(expanded, "other".getBytes(StandardCharsets.UTF_8), signature));
+
+                    // Flip bits in c~, z and the hints; both must reject exactly the same ones
+                    for (int flip = 0; flip < 8; flip++) {
+                        byte[] tampered = signature.clone();
+                        tampered[random.nextInt(tampered.length)] ^= (byte) (1 << random.nextInt(8));
+                        assertEquals(
+                            dilithium.verify(MESSAGE, new DilithiumSignature(tampered), keyPair.getPublicKey()),
+                            verifier.verify(expanded, MESSAGE, tampered));
+                    }
+                    assertFalse(verifier.verify(expanded, MESSAGE, new byte[signature.length - 1]));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testCachesPerCredentialAndLayer() {
+        DilithiumCryptoService dilithium = new DilithiumCryptoService();
+        MLDsaVerifier verifier = new MLDsaVerifier(MLDsaParameters.DILITHIUM_3, PolynomialArithmetics.of("auto"));
+        ExpandedKeyCache cache = new ExpandedKeyCache(verifier, 16L << 20, ExpandedKeyCache.Policy.LRU);
+
+        DilithiumKeyPair layer0 = dilithium.generateKeyPair();
+        DilithiumKeyPair layer1 = dilithium.generateKeyPair();
+        byte[] key0 = layer0.getPublicKey().getKeyBytes();
+        byte[] key1 = layer1.getPublicKey().getKeyBytes();
+        byte[] signature0 = dilithium.sign(MESSAGE, layer0.getPrivateKey()).getSignatureBytes();
+        byte[] signature1 = dilithium.sign(MESSAGE, layer1.getPrivateKey()).getSignatureBytes();
+
+        assertTrue(cache.verify("cred", 0, key0, MESSAGE, signature0));
+        assertTrue(cache.verify("cred", 1, key1, MESSAGE, signature1));
+        assertTrue(cache.verify("cred", 0, key0, MESSAGE, signature0));
+        assertFalse(cache.verify("cred", 1, key1, MESSAGE, signature0));
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.missCount());
+        assertEquals(2, cache.hitCount());
+
+        // Keys read in place from a buffer hit the same entries
+        ByteBuffer keys = ByteBuffer.allocateDirect(2 * key0.length).put(key0).put(key1);
+        assertTrue(cache.verify("cred", 1, keys, key0.length, MESSAGE, signature1));
+        assertEquals(3, cache.hitCount());
+
+        // A different key under the same credential and layer is a miss, never a stale hit
+        assertFalse(cache.verify("cred", 0, key1, MESSAGE, signature0));
+        assertTrue(cache.verify("cred", 0, key1, MESSAGE, signature1));
+        assertEquals(3, cache.missCount());
+
+        assertFalse(cache.verify("cred", 0, new byte[10], MESSAGE, signature0));
+
+        cache.invalidate("cred");
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.estimatedBytes());
+    }
+
+    @Test
+    void testEvictsWithinBudget() {
+        DilithiumCryptoService dilithium = new DilithiumCryptoService();
+        MLDsaVerifier verifier = new MLDsaVerifier(MLDsaParameters.DILITHIUM_3, PolynomialArithmetics.of("auto"));
+        byte[][] keys = new byte[12][];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = dilithium.generateKeyPair().getPublicKey().getKeyBytes();
+        }
+        long entryBytes = verifier.expand(keys[0]).getEstimatedBytes();
+
+        for (ExpandedKeyCache.Policy policy : ExpandedKeyCache.Policy.values()) {
+            ExpandedKeyCache cache = new ExpandedKeyCache(verifier, 5 * entryBytes + entryBytes / 2, policy);
+            // "hot" is used between every other insert, so both policies keep it
+            cache.get("hot", 0, keys[0]);
+            for (int i = 1; i < keys.length; i++) {
+                cache.get("cold-" + i, 0, keys[i]);
+                cache.get("hot", 0, keys[0]);
+                assertTrue(cache.estimatedBytes() <= cache.maxBytes(), policy.toString());
+            }
+            assertTrue(cache.evictionCount() > 0);
+            assertTrue(cache.size() < keys.length);
+
+            long hits = cache.hitCount();
+            cache.get("hot", 0, keys[0]);
+            assertEquals(hits + 1, cache.hitCount(), policy + " evicted the hot key");
+            // The oldest cold key went first
+            long misses = cache.missCount();
+            cache.get("cold-1", 0, keys[1]);
+            assertEquals(misses + 1, cache.missCount());
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.pqc.fido2;
+
+import com.pqc.fido2.crypto.HybridSignature;
+import com.pqc.fido2.crypto.MLDilithiumKeyPair;
+import com.pqc.fido2.crypto.MLDilithiumPublicKey;
+import com.pqc.fido2.crypto.MLDilithiumService;
+import com.pqc.fido2.crypto.MLDilithiumSignature;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.ByteBuffer;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class HybridSignatureTests {
+
+    @Autowired
+    private MLDilithiumService mlDilithiumService;
+
+    private final byte[] testData = "Hybrid challenge".getBytes();
+
+    @Test
+    void testHybridSignatureWithEs256() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        KeyPair classical = generator.generateKeyPair();
+        MLDilithiumKeyPair pq = mlDilithiumService.generateMLKeyPair(2);
+
+        HybridSignature signature = mlDilithiumService.createHybridSignature(
+            testData, pq.getPrivateKey(), classical.getPrivate());
+
+        assertTrue(mlDilithiumService.verifyHybridSignature(
+            testData, signature, pq.getPublicKey(), classical.getPublic()));
+    }
+
+    @Test
+    void testHybridSignatureWithEd25519() throws Exception {
+        KeyPair classical = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        MLDilithiumKeyPair pq = mlDilithiumService.generateMLKeyPair(2);
+
+        HybridSignature signature = mlDilithiumService.createHybridSignature(
+            testData, pq.getPrivateKey(), classical.getPrivate());
+
+        assertTrue(mlDilithiumService.verifyHybridSignature(
+            testData, signature, pq.getPublicKey(), classical.getPublic()));
+    }
+
+    @Test
+    void testHybridSignatureFailsWhenEitherHalfIsInvalid() throws Exception {
+        KeyPair classical = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        KeyPair otherClassical = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        MLDilithiumKeyPair pq = mlDilithiumService.generateMLKeyPair(2);
+        MLDilithiumKeyPair otherPq = mlDilithiumService.generateMLKeyPair(2);
+
+        HybridSignature signature = mlDilithiumService.createHybridSignature(
+            testData, pq.getPrivateKey(), classical.getPrivate());
+
+        // Classical half signed by a different key
+        assertFalse(mlDilithiumService.verifyHybridSignature(
+            testData, signature, pq.getPublicKey(), otherClassical.getPublic()));
+
+        // Post-quantum half signed by a different key
+        assertFalse(mlDilithiumService.verifyHybridSignature(
+            testData, signature, otherPq.getPublicKey(), classical.getPublic()));
+    }
+
+    @Test
+    void testLayeredSignatureEncodingRoundTrip() {
+        MLDilithiumKeyPair pq = mlDilithiumService.generateMLKeyPair(3);
+        MLDilithiumSignature signature = mlDilithiumService.signML(testData, pq.getPrivateKey());
+
+        MLDilithiumSignature decoded = mlDilithiumService.decodeSignature(signature.getEncoded());
+
+        assertEquals(3, decoded.getLayers());
+        assertTrue(mlDilithiumService.verifyML(testData, decoded,
+            mlDilithiumService.decodePublicKey(pq.getPublicKey().getEncoded())));
+    }
+
+    @Test
+    void testDecodedLayersAreViewsOfTheEncoding() {
+        MLDilithiumKeyPair pq = mlDilithiumService.generateMLKeyPair(3);
+        byte[] encodedKey = pq.getPublicKey().getEncoded();
+        byte[] encodedSignature = mlDilithiumService.signML(testData, pq.getPrivateKey()).getEncoded();
+
+        MLDilithiumPublicKey key = mlDilithiumService.decodePublicKey(encodedKey);
+        MLDilithiumSignature signature = mlDilithiumService.decodeSignature(encodedSignature);
+
+        // Each layer equals the separately built one and reads from the decoded array
+        int layerSize = encodedKey.length / 3;
+        for (int layer = 0; layer < 3; layer++) {
+            assertEquals(pq.getPublicKey().getLayerKey(layer), key.getLayerKey(layer));
+            assertEquals(pq.getPublicKey().getLayerKey(layer).hashCode(), key.getLayerKey(layer).hashCode());
+            assertEquals(layer * layerSize, key.getLayerOffset(layer));
+        }
+        encodedKey[0] ^= 1;
+        assertNotEquals(pq.getPublicKey().getLayerKey(0), key.getLayerKey(0));
+        encodedKey[0] ^= 1;
+
+        ByteBuffer view = signature.asReadOnlyBuffer();
+        assertTrue(view.isReadOnly());
+        assertEquals(ByteBuffer.wrap(encodedSignature), view);
+        assertTrue(key.getLayerKey(1).asByteBuffer().isReadOnly());
+        assertEquals(layerSize, key.getLayerKey(1).asByteBuffer().remaining());
+
+        assertTrue(mlDilithiumService.verifyML(testData, signature, key, "flat-credential"));
+        encodedSignature[encodedSignature.length - 1000] ^= 1;
+        assertFalse(mlDilithiumService.verifyML(testData, signature, key, "flat-credential"));
+
+        assertThrows(IllegalArgumentException.class, () -> mlDilithiumService.decodePublicKey(new byte[layerSize + 1]));
+    }
+}
@@ -0,0 +1,60 @@
+package com.pqc.fido2;
+
+import com.pqc.fido2.crypto.ClassicalSignatureService;
+import com.pqc.fido2.crypto.MLDilithiumService;
+import com.pqc.fido2.loadtest.LoadGenerator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Short runs of the load harness against the embedded server, so the
+ * software authenticator stays in step with the ceremony contract
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "spring.datasource.url=jdbc:h2:mem:loadgen")
+class LoadGeneratorTests {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private MLDilithiumService mlDilithiumService;
+
+    @Autowired
+    private ClassicalSignatureService classicalSignatureService;
+
+    @Test
+    void testHybridWebAuthnCeremonies() throws Exception {
+        assertCleanRun("--crypto=hybrid", "--format=webauthn");
+    }
+
+    @Test
+    void testPostQuantumWebAuthnCeremonies() throws Exception {
+        assertCleanRun("--crypto=post-quantum", "--format=webauthn");
+    }
+
+    @Test
+    void testLegacyCeremonies() throws Exception {
+        assertCleanRun("--crypto=hybrid", "--format=legacy");
+    }
+
+    private void assertCleanRun(String... args) throws Exception {
+        String[] options = new String[args.length + 4];
+        System.arraycopy(args, 0, options, 0, args.length);
+        options[args.length] = "--concurrency=2";
+        options[args.length + 1] = "--duration=1";
+        options[args.length + 2] = "--warmup=0";
+        options[args.length + 3] = "--preregister=2";
+
+        LoadGenerator.Report report = new LoadGenerator("http://localhost:" + port,
+            LoadGenerator.Options.parse(options), mlDilithiumService, classicalSignatureService).run();
+
+        assertEquals(0, report.getRegistrationErrors());
+        assertEquals(0, report.getLoginErrors());
+        assertTrue(report.getLogins().getTotalCount() > 0);
+    }
+}
@@ -0,0 +1,150 @@
+package com.pqc.fido2;
+
+import com.pqc.fido2.crypto.mldsa.PolynomialArithmetic;
+import com.pqc.fido2.crypto.mldsa.PolynomialArithmetics;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Every backend against the known answers in mldsa/arithmetic-kat.txt and
+ * against BouncyCastle's own NTT on random input, including input outside
+ * the ranges ML-DSA produces, where only bit-exact overflow behaviour matches.
+ */
+class PolynomialArithmeticTests {
+
+    private static final int Q = 8380417;
+
+    @Test
+    void testVectorBackendIsAvailableInTests() {
+        // Surefire starts the JVM with --add-modules jdk.incubator.vector
+        assertTrue(PolynomialArithmetics.isVectorAvailable());
+        assertTrue(PolynomialArithmetics.of("auto").name().startsWith("vector"));
+        assertEquals("scalar", PolynomialArithmetics.of("scalar").name());
+        assertThrows(IllegalArgumentException.class, () -> PolynomialArithmetics.of("gpu"));
+    }
+
+    @Test
+    void testMatchesKnownAnswers() throws Exception {
+        List<String[]> answers = loadKnownAnswers();
+        assertEquals(40, answers.size());
+        for (PolynomialArithmetic arithmetic : backends()) {
+            for (String[] answer : answers) {
+                long seed = Long.parseLong(answer[1]);
+                int[] a = poly(seed, Q);
+                int[] b = poly(seed + 1000, Q);
+                switch (answer[0]) {
+                    case "ntt" -> arithmetic.ntt(a);
+                    case "invntt" -> arithmetic.invNttToMont(a);
+                    case "pointwise" -> arithmetic.pointwiseMontgomery(a, a, b);
+                    case "caddq" -> arithmetic.conditionalAddQ(a);
+                    case "reduce" -> {
+                        a = poly(seed + 2000, Integer.MAX_VALUE - (1 << 22));
+                        arithmetic.reduce(a);
+                    }
+                    default -> fail("Unknown operation " + answer[0]);
+                }
+                assertEquals(answer[2], sha256(a), arithmetic.name() + " " + answer[0] + " " + seed);
+            }
+        }
+    }
+
+    @Test
+    void testMatchesBouncyCastleOnArbitraryInput() throws Exception {
+        Class<?> ntt = Class.forName("org.bouncycastle.pqc.crypto.crystals.dilithium.Ntt");
+        Method forward = ntt.getDeclaredMethod("ntt", int[].class);
+        Method inverse = ntt.getDeclaredMethod("invNttToMont", int[].class);
+        forward.setAccessible(true);
+        inverse.setAccessible(true);
+
+        SplittableRandom random = new SplittableRandom(42);
+        for (PolynomialArithmetic arithmetic : backends()) {
+            for (int round = 0; round < 200; round++) {
+                // Alternate between valid coefficients and full-range ints
+                int[] input = round % 2 == 0 ? poly(random.nextLong(), Q) : random.ints(256).toArray();
+                assertBackendMatches(arithmetic::ntt, (int[]) forward.invoke(null, input.clone()), input, arithmetic);
+                assertBackendMatches(arithmetic::invNttToMont, (int[]) inverse.invoke(null, input.clone()), input,
+                    arithmetic);
+            }
+        }
+    }
+
+    @Test
+    void testRoundTripAndPointwiseProduct() {
+        for (PolynomialArithmetic arithmetic : backends()) {
+            // NTT of the unit polynomial is all ones
+            int[] delta = new int[256];
+            delta[0] = 1;
+            arithmetic.ntt(delta);
+            int[] ones = new int[256];
+            Arrays.fill(ones, 1);
+            assertArrayEquals(ones, delta, arithmetic.name());
+
+            // invNttToMont(ntt(a)) is a * 2^32; one more Montgomery reduction by 1 undoes that
+            int[] a = poly(7, Q);
+            int[] roundTrip = a.clone();
+            arithmetic.ntt(roundTrip);
+            arithmetic.invNttToMont(roundTrip);
+            arithmetic.pointwiseMontgomery(roundTrip, roundTrip, ones);
+            for (int i = 0; i < 256; i++) {
+                assertEquals(0, Math.floorMod(roundTrip[i] - a[i], Q), arithmetic.name() + " coefficient " + i);
+            }
+        }
+    }
+
+    private static void assertBackendMatches(Consumer<int[]> operation, int[] expected,
+                                             int[] input, PolynomialArithmetic arithmetic) {
+        int[] actual = input.clone();
+        operation.accept(actual);
+        assertArrayEquals(expected, actual, arithmetic.name());
+    }
+
+    private static List<PolynomialArithmetic> backends() {
+        return List.of(PolynomialArithmetics.of("scalar"), PolynomialArithmetics.of("vector"));
+    }
+
+    private static int[] poly(long seed, int bound) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] poly = new int[256];
+        for (int i = 0; i < poly.length; i++) {
+            poly[i] = random.nextInt(-bound + 1, bound);
+        }
+        return poly;
+    }
+
+    private static String sha256(int[] poly) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        for (int value : poly) {
+            digest.update(new byte[] {(byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value});
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static List<String[]> loadKnownAnswers() throws IOException {
+        List<String[]> answers = new ArrayList<>();
+        try (InputStream in = PolynomialArithmeticTests.class.getResourceAsStream("/mldsa/arithmetic-kat.txt");
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank() && !line.startsWith("#")) {
+                    answers.add(line.trim().split("\\s+"));
+                }
+            }
+        }
+        return answers;
+    }
+}
@@ -0,0 +1,129 @@
+package com.pqc.fido2;
+
+import com.pqc.fido2.crypto.DilithiumCryptoService;
+import com.pqc.fido2.crypto.MLDilithiumKeyPair;
+import com.pqc.fido2.crypto.MLDilithiumService;
+import com.pqc.fido2.crypto.MLDilithiumSignature;
+import com.pqc.fido2.service.PublicKeyArena;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class PublicKeyArenaTests {
+
+    @Autowired
+    private MLDilithiumService mlDilithiumService;
+
+    @Autowired
+    private DilithiumCryptoService dilithiumService;
+
+    @Test
+    void testVerifiesInPlace() {
+        PublicKeyArena arena = new PublicKeyArena(dilithiumService.getKeySize(), 1 << 20, 1 << 18);
+        MLDilithiumKeyPair keyPair = mlDilithiumService.generateMLKeyPair(3);
+        byte[] data = "arena".getBytes(StandardCharsets.UTF_8);
+        MLDilithiumSignature signature = mlDilithiumService.signML(data, keyPair.getPrivateKey());
+
+        assertTrue(arena.put("arena-key", keyPair.getPublicKey().getEncoded()));
+        assertTrue(arena.verify("arena-key",
+            (keys, offset, layers) -> mlDilithiumService.verifyML(data, signature, keys, offset, layers)));
+
+        byte[] other = "other".getBytes(StandardCharsets.UTF_8);
+        assertFalse(arena.verify("arena-key",
+            (keys, offset, layers) -> mlDilithiumService.verifyML(other, signature, keys, offset, layers)));
+
+        assertTrue(arena.remove("arena-key"));
+        assertFalse(arena.contains("arena-key"));
+        assertFalse(arena.verify("arena-key", (keys, offset, layers) -> true));
+    }
+
+    @Test
+    void testEvictsWithinMemoryCap() {
+        int layerBytes = 1952;
+        int chunkBytes = 64 * 1024;
+        PublicKeyArena arena = new PublicKeyArena(layerBytes, 2L * chunkBytes, chunkBytes);
+
+        for (int i = 0; i < 200; i++) {
+            assertTrue(arena.put("evict-" + i, randomKey(3, layerBytes, i)));
+            assertTrue(arena.stats().getReservedBytes() <= 2L * chunkBytes);
+        }
+
+        PublicKeyArena.Stats stats = arena.stats();
+        assertTrue(stats.getEvictions() > 0);
+        assertEquals(200 - stats.getEvictions(), stats.getEntries());
+        assertTrue(arena.contains("evict-199"));
+        assertEquals(stats.getEntries() * 3L * layerBytes, stats.getPayloadBytes());
+    }
+
+    @Test
+    void testRecentlyVerifiedKeysSurviveEviction() {
+        int layerBytes = 1952;
+        int chunkBytes = 64 * 1024;
+        PublicKeyArena arena = new PublicKeyArena(layerBytes, chunkBytes, chunkBytes);
+        int slots = chunkBytes / (24 + 3 * layerBytes);
+
+        for (int i = 0; i < slots; i++) {
+            arena.put("clock-" + i, randomKey(3, layerBytes, i));
+        }
+        for (int i = slots; i < 3 * slots; i++) {
+            // Keep clock-0 in use while the rest of the arena turns over
+            assertTrue(arena.verify("clock-0", (keys, offset, layers) -> true));
+            arena.put("clock-" + i, randomKey(3, layerBytes, i));
+        }
+        assertTrue(arena.contains("clock-0"));
+        assertFalse(arena.contains("clock-1"));
+    }
+
+    @Test
+    void testReportsAndReusesHoles() {
+        int layerBytes = 1952;
+        PublicKeyArena arena = new PublicKeyArena(layerBytes, 1 << 20, 1 << 18);
+        for (int i = 0; i < 20; i++) {
+            arena.put("hole-" + i, randomKey(2, layerBytes, i));
+        }
+        for (int i = 0; i < 20; i += 2) {
+            arena.remove("hole-" + i);
+        }
+
+        PublicKeyArena.Stats fragmented = arena.stats();
+        assertEquals(10, fragmented.getEntries());
+        assertTrue(fragmented.getFreeSlotBytes() > 0);
+        assertTrue(fragmented.getFragmentation() > 0);
+        assertEquals(fragmented.getReservedBytes(),
+            fragmented.getLiveSlotBytes() + fragmented.getFreeSlotBytes() + fragmented.getUnallocatedBytes());
+
+        for (int i = 0; i < 10; i++) {
+            arena.put("refill-" + i, randomKey(2, layerBytes, 100 + i));
+        }
+        PublicKeyArena.Stats refilled = arena.stats();
+        assertEquals(0, refilled.getFreeSlotBytes());
+        assertEquals(fragmented.getUnallocatedBytes(), refilled.getUnallocatedBytes());
+    }
+
+    @Test
+    void testSizeClassWithoutRoomEvacuatesAnotherClass() {
+        int layerBytes = 1952;
+        int chunkBytes = 32 * 1024;
+        PublicKeyArena arena = new PublicKeyArena(layerBytes, 2L * chunkBytes, chunkBytes);
+        for (int i = 0; i < 40; i++) {
+            arena.put("one-layer-" + i, randomKey(1, layerBytes, i));
+        }
+        assertEquals(2, arena.stats().getChunks());
+
+        assertTrue(arena.put("three-layers", randomKey(3, layerBytes, 99)));
+        assertTrue(arena.contains("three-layers"));
+        assertTrue(arena.stats().getReservedBytes() <= 2L * chunkBytes);
+    }
+
+    private static byte[] randomKey(int layers, int layerBytes, long seed) {
+        byte[] key = new byte[layers * layerBytes];
+        new Random(seed).nextBytes(key);
+        return key;
+    }
+}
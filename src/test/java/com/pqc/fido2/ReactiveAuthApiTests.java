@@ -0,0 +1,132 @@
+package com.pqc.fido2;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.pqc.fido2.crypto.MLDilithiumKeyPair;
+import com.pqc.fido2.crypto.MLDilithiumService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Base64;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("reactive")
+class ReactiveAuthApiTests {
+
+    private static final ParameterizedTypeReference<Map<String, Object>> JSON_MAP =
+        new ParameterizedTypeReference<>() {};
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private MLDilithiumService mlDilithiumService;
+
+    @Test
+    void testPostQuantumRegistrationAndLogin() {
+        MLDilithiumKeyPair keyPair = mlDilithiumService.generateMLKeyPair(2);
+        Base64.Encoder base64url = Base64.getUrlEncoder().withoutPadding();
+
+        Map<String, Object> registration = post("/auth/register/begin", Map.of(
+            "username", "reactive-user", "email", "reactive@example.com",
+            "displayName", "Reactive User", "cryptoType", "post-quantum"));
+        assertEquals("localhost", registration.get("rpId"));
+
+        Map<String, Object> registered = post("/auth/register/complete", Map.of(
+            "sessionId", registration.get("sessionId"),
+            "credentialId", "reactive-credential",
+            "pqPublicKey", base64url.encodeToString(keyPair.getPublicKey().getEncoded())));
+        assertEquals("success", registered.get("status"));
+
+        Map<String, Object> login = post("/auth/login/begin", Map.of("username", "reactive-user"));
+        byte[] challenge = Base64.getUrlDecoder().decode((String) login.get("challenge"));
+        String pqSignature = base64url.encodeToString(
+            mlDilithiumService.signML(challenge, keyPair.getPrivateKey()).getEncoded());
+
+        Map<String, String> completion = Map.of(
+            "sessionId", (String) login.get("sessionId"),
+            "credentialId", "reactive-credential",
+            "pqSignature", pqSignature);
+        assertEquals("success", post("/auth/login/complete", completion).get("status"));
+
+        // Sessions are single use
+        webTestClient.post().uri("/auth/login/complete").bodyValue(completion)
+            .exchange()
+            .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void testSubmittedRegistrationProofMustVerify() {
+        MLDilithiumKeyPair keyPair = mlDilithiumService.generateMLKeyPair(1);
+        Base64.Encoder base64url = Base64.getUrlEncoder().withoutPadding();
+        String pqPublicKey = base64url.encodeToString(keyPair.getPublicKey().getEncoded());
+
+        Map<String, Object> registration = post("/auth/register/begin", Map.of(
+            "username", "reactive-proof", "email", "reactive-proof@example.com", "cryptoType", "post-quantum"));
+        String wrongProof = base64url.encodeToString(
+            mlDilithiumService.signML(new byte[32], keyPair.getPrivateKey()).getEncoded());
+        webTestClient.post().uri("/auth/register/complete").bodyValue(Map.of(
+                "sessionId", registration.get("sessionId"),
+                "credentialId", "reactive-proof-credential",
+                "pqPublicKey", pqPublicKey,
+                "pqSignature", wrongProof))
+            .exchange()
+            .expectStatus().isBadRequest();
+
+        // The refused attempt left the session usable for a proof over its challenge
+        byte[] challenge = Base64.getUrlDecoder().decode((String) registration.get("challenge"));
+        String proof = base64url.encodeToString(mlDilithiumService.signML(challenge, keyPair.getPrivateKey()).getEncoded());
+        assertEquals("success", post("/auth/register/complete", Map.of(
+            "sessionId", registration.get("sessionId"),
+            "credentialId", "reactive-proof-credential",
+            "pqPublicKey", pqPublicKey,
+            "pqSignature", proof)).get("status"));
+    }
+
+    @Test
+    void testUnknownUserIsRejected() {
+        webTestClient.post().uri("/auth/login/begin").bodyValue(Map.of("username", "nobody"))
+            .exchange()
+            .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void testBinaryWireFormat() throws Exception {
+        CBORMapper cbor = new CBORMapper();
+        byte[] response = webTestClient.post().uri("/auth/register/begin")
+            .contentType(MediaType.APPLICATION_CBOR)
+            .accept(MediaType.APPLICATION_CBOR)
+            .bodyValue(cbor.writeValueAsBytes(Map.of("username", "reactive-cbor", "email", "cbor@example.com")))
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR)
+            .expectBody(byte[].class)
+            .returnResult()
+            .getResponseBody();
+        JsonNode registration = cbor.readTree(response);
+        assertEquals(32, registration.get("challenge").binaryValue().length);
+
+        // Without an Accept header the answer is JSON
+        webTestClient.post().uri("/auth/register/begin").bodyValue(Map.of("username", "reactive-json", "email", "json@example.com"))
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON);
+    }
+
+    private Map<String, Object> post(String uri, Object body) {
+        return webTestClient.post().uri(uri).bodyValue(body)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody(JSON_MAP)
+            .returnResult()
+            .getResponseBody();
+    }
+}
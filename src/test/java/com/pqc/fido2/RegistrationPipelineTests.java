@@ -0,0 +1,187 @@
+package com.pqc.fido2;
+
+import com.pqc.fido2.crypto.ClassicalSignatureService;
+import com.pqc.fido2.crypto.MLDilithiumKeyPair;
+import com.pqc.fido2.crypto.MLDilithiumService;
+import com.pqc.fido2.dto.RegistrationRequest;
+import com.pqc.fido2.dto.RegistrationResponse;
+import com.pqc.fido2.repository.CredentialRepository;
+import com.pqc.fido2.service.Fido2Service;
+import com.pqc.fido2.service.RegistrationPipeline;
+import com.pqc.fido2.tenant.Tenant;
+import com.pqc.fido2.tenant.TenantRegistry;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A small ring, so concurrent registrations wrap it and wait for the writer
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:registration-pipeline",
+    "pqc.fido2.registration.ring-size=8",
+    "pqc.fido2.registration.batch-size=4"
+})
+class RegistrationPipelineTests {
+
+    @Autowired
+    private Fido2Service fido2Service;
+
+    @Autowired
+    private RegistrationPipeline registrationPipeline;
+
+    @Autowired
+    private TenantRegistry tenantRegistry;
+
+    @Autowired
+    private MLDilithiumService mlDilithiumService;
+
+    @Autowired
+    private ClassicalSignatureService classicalSignatureService;
+
+    @Autowired
+    private CredentialRepository credentialRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testConcurrentRegistrationsAreStoredInBatches() throws Exception {
+        Tenant tenant = tenantRegistry.getDefaultTenant();
+        int registrations = 40;
+        List<RegistrationResponse> sessions = new ArrayList<>();
+        for (int i = 0; i < registrations; i++) {
+            sessions.add(begin("pipeline-batch-" + i));
+        }
+
+        DistributionSummary batches = meterRegistry.get("pqc.registration.batch").summary();
+        double stored = batches.totalAmount();
+        ExecutorService clients = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < registrations; i++) {
+                RegistrationResponse session = sessions.get(i);
+                String credentialId = "pipeline-batch-" + i;
+                results.add(clients.submit(() -> {
+                    KeyPair keyPair = ecKeyPair();
+                    return fido2Service.completeRegistration(tenant, session.getSessionId(), credentialId,
+                        encode(keyPair.getPublic().getEncoded()), null,
+                        encode(classicalSignatureService.sign(decode(session.getChallenge()), keyPair.getPrivate())),
+                        null);
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            clients.shutdown();
+        }
+
+        assertEquals(8, registrationPipeline.getRingSize());
+        assertEquals(0, registrationPipeline.getInFlight());
+        assertEquals(stored + registrations, batches.totalAmount());
+        assertTrue(batches.max() <= 4);
+        for (int i = 0; i < registrations; i++) {
+            assertTrue(credentialRepository.existsByCredentialId("pipeline-batch-" + i));
+        }
+    }
+
+    @Test
+    void testSubmittedProofsMustVerify() {
+        Tenant tenant = tenantRegistry.getDefaultTenant();
+        Timer bulkWork = meterRegistry.get("pqc.scheduler.wait").tag("priority", "bulk").timer();
+        long bulkVerifications = bulkWork.count();
+        MLDilithiumKeyPair pqKeyPair = mlDilithiumService.generateMLKeyPair();
+        KeyPair keyPair = ecKeyPair();
+        String publicKey = encode(keyPair.getPublic().getEncoded());
+        String pqPublicKey = encode(pqKeyPair.getPublicKey().getEncoded());
+
+        // Hybrid proof over the challenge with both keys
+        RegistrationResponse hybrid = begin("pipeline-hybrid");
+        byte[] challenge = decode(hybrid.getChallenge());
+        assertTrue(fido2Service.completeRegistration(tenant, hybrid.getSessionId(), "pipeline-hybrid",
+            publicKey, pqPublicKey, encode(classicalSignatureService.sign(challenge, keyPair.getPrivate())),
+            encode(mlDilithiumService.signML(challenge, pqKeyPair.getPrivateKey()).getEncoded())));
+
+        // A signature over some other challenge is refused, and leaves the session usable
+        RegistrationResponse forged = begin("pipeline-forged");
+        String wrongSignature = encode(mlDilithiumService.signML(challenge, pqKeyPair.getPrivateKey()).getEncoded());
+        assertFalse(fido2Service.completeRegistration(tenant, forged.getSessionId(), "pipeline-forged",
+            null, pqPublicKey, null, wrongSignature));
+        assertFalse(credentialRepository.existsByCredentialId("pipeline-forged"));
+        assertTrue(fido2Service.completeRegistration(tenant, forged.getSessionId(), "pipeline-forged",
+            null, pqPublicKey, null, encode(mlDilithiumService.signML(
+                decode(forged.getChallenge()), pqKeyPair.getPrivateKey()).getEncoded())));
+
+        // Proofs are checked as bulk work on the shared scheduler
+        assertEquals(bulkVerifications + 3, bulkWork.count());
+
+        // Without require-proof, clients that send no proof are still accepted
+        RegistrationResponse unproven = begin("pipeline-unproven");
+        assertTrue(fido2Service.completeRegistration(tenant, unproven.getSessionId(), "pipeline-unproven",
+            null, pqPublicKey, null, null));
+    }
+
+    @Test
+    void testSessionAndCredentialAreRegisteredOnce() throws Exception {
+        Tenant tenant = tenantRegistry.getDefaultTenant();
+        String pqPublicKey = encode(mlDilithiumService.generateMLKeyPair().getPublicKey().getEncoded());
+        RegistrationResponse session = begin("pipeline-once");
+        RegistrationResponse other = begin("pipeline-once-other");
+
+        ExecutorService clients = Executors.newFixedThreadPool(4);
+        try {
+            // The same session twice, and the same credential ID from two sessions, at once
+            Future<Boolean> first = clients.submit(() -> fido2Service.completeRegistration(
+                tenant, session.getSessionId(), "pipeline-once-a", null, pqPublicKey, null, null));
+            Future<Boolean> second = clients.submit(() -> fido2Service.completeRegistration(
+                tenant, session.getSessionId(), "pipeline-once-b", null, pqPublicKey, null, null));
+            Future<Boolean> third = clients.submit(() -> fido2Service.completeRegistration(
+                tenant, other.getSessionId(), "pipeline-once-a", null, pqPublicKey, null, null));
+
+            assertTrue(first.get() ^ second.get());
+            assertTrue(first.get() ^ third.get());
+        } finally {
+            clients.shutdown();
+        }
+        assertTrue(credentialRepository.existsByCredentialId("pipeline-once-a"));
+    }
+
+    private RegistrationResponse begin(String username) {
+        return fido2Service.initiateRegistration(tenantRegistry.getDefaultTenant(),
+            new RegistrationRequest(username, username + "@example.com", username, "hybrid"));
+    }
+
+    private static KeyPair ecKeyPair() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            return generator.generateKeyPair();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] decode(String value) {
+        return Base64.getUrlDecoder().decode(value);
+    }
+
+    private static String encode(byte[] value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value);
+    }
+}
@@ -0,0 +1,147 @@
+package com.pqc.fido2;
+
+import com.pqc.fido2.datasource.ReplicaRoutingDataSource;
+import com.pqc.fido2.dto.AuthenticationRequest;
+import com.pqc.fido2.dto.AuthenticationResponse;
+import com.pqc.fido2.dto.RegistrationRequest;
+import com.pqc.fido2.repository.AuthenticationSessionRepository;
+import com.pqc.fido2.service.Fido2Service;
+import com.pqc.fido2.tenant.Tenant;
+import com.pqc.fido2.tenant.TenantRegistry;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Primary/replica routing with two H2 databases. The replica is brought up
+ * to date by copying the primary's schema and rows on demand, and reports
+ * its lag from a table the test controls.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:routing-primary",
+    "pqc.fido2.datasource.replicas[0].name=replica-1",
+    "pqc.fido2.datasource.replicas[0].url=" + ReplicaRoutingTests.REPLICA_URL,
+    "pqc.fido2.datasource.replicas[0].username=sa",
+    "pqc.fido2.datasource.replicas[0].password=password",
+    "pqc.fido2.datasource.lag-query=SELECT lag_ms FROM replica_lag",
+    "pqc.fido2.datasource.max-lag-ms=1000",
+    // Probes are driven by the test
+    "pqc.fido2.datasource.lag-check-interval-ms=3600000"
+})
+class ReplicaRoutingTests {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private Fido2Service fido2Service;
+
+    @Autowired
+    private TenantRegistry tenantRegistry;
+
+    @Autowired
+    private AuthenticationSessionRepository sessionRepository;
+
+    @Autowired
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @Autowired
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testReadOnlyLookupsGoToTheReplica() throws Exception {
+        Tenant tenant = tenantRegistry.getDefaultTenant();
+        replicate(0);
+        assertEquals(Set.of("replica-1"), routingDataSource.getAvailableReplicas());
+
+        // Registered on the primary, not yet on the replica
+        fido2Service.initiateRegistration(tenant,
+            new RegistrationRequest("routing-user", "routing@example.com", "Routing", "post-quantum"));
+        assertThrows(IllegalArgumentException.class,
+            () -> fido2Service.initiateAuthentication(tenant, new AuthenticationRequest("routing-user", null)));
+
+        replicate(0);
+        double replicaReads = replicaConnections();
+        AuthenticationResponse response = fido2Service.initiateAuthentication(tenant,
+            new AuthenticationRequest("routing-user", null));
+        assertTrue(replicaConnections() > replicaReads);
+
+        // The session went to the primary, where completion reads it back
+        assertTrue(sessionRepository.findBySessionId(response.getSessionId()).isPresent());
+    }
+
+    @Test
+    void testLaggingOrUnreachableReplicaIsSkipped() throws Exception {
+        Tenant tenant = tenantRegistry.getDefaultTenant();
+        replicate(5000);
+        assertTrue(routingDataSource.getAvailableReplicas().isEmpty());
+
+        // Reads fall back to the primary, which already has the user
+        fido2Service.initiateRegistration(tenant,
+            new RegistrationRequest("routing-lagging", "lagging@example.com", "Lagging", "post-quantum"));
+        double replicaReads = replicaConnections();
+        assertNotNull(fido2Service.initiateAuthentication(tenant, new AuthenticationRequest("routing-lagging", null)));
+        assertEquals(replicaReads, replicaConnections());
+
+        setLag(200);
+        assertEquals(Set.of("replica-1"), routingDataSource.getAvailableReplicas());
+
+        // A failing lag probe counts as unreachable
+        try (Connection replica = DriverManager.getConnection(REPLICA_URL, "sa", "password");
+             Statement statement = replica.createStatement()) {
+            statement.execute("DROP TABLE replica_lag");
+        }
+        routingDataSource.checkReplicaLag();
+        assertTrue(routingDataSource.getAvailableReplicas().isEmpty());
+    }
+
+    /**
+     * Copy the primary's schema and rows to the replica, which then reports the given lag
+     */
+    private void replicate(long lagMs) throws Exception {
+        List<String> script = new ArrayList<>();
+        try (Connection primary = primaryDataSource.getConnection();
+             Statement statement = primary.createStatement();
+             ResultSet result = statement.executeQuery("SCRIPT")) {
+            while (result.next()) {
+                script.add(result.getString(1));
+            }
+        }
+        try (Connection replica = DriverManager.getConnection(REPLICA_URL, "sa", "password");
+             Statement statement = replica.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            for (String sql : script) {
+                statement.execute(sql);
+            }
+            statement.execute("CREATE TABLE replica_lag (lag_ms BIGINT)");
+            statement.execute("INSERT INTO replica_lag VALUES (" + lagMs + ")");
+        }
+        routingDataSource.checkReplicaLag();
+    }
+
+    private void setLag(long lagMs) throws Exception {
+        try (Connection replica = DriverManager.getConnection(REPLICA_URL, "sa", "password");
+             Statement statement = replica.createStatement()) {
+            statement.execute("UPDATE replica_lag SET lag_ms = " + lagMs);
+        }
+        routingDataSource.checkReplicaLag();
+    }
+
+    private double replicaConnections() {
+        return meterRegistry.get("pqc.datasource.connections").tag("target", "replica").counter().count();
+    }
+}
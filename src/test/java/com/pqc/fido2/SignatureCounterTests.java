@@ -0,0 +1,151 @@
+package com.pqc.fido2;
+
+import com.pqc.fido2.crypto.MLDilithiumKeyPair;
+import com.pqc.fido2.crypto.MLDilithiumService;
+import com.pqc.fido2.dto.AuthenticationRequest;
+import com.pqc.fido2.dto.AuthenticationResponse;
+import com.pqc.fido2.dto.RegistrationRequest;
+import com.pqc.fido2.dto.RegistrationResponse;
+import com.pqc.fido2.model.Credential;
+import com.pqc.fido2.model.User;
+import com.pqc.fido2.repository.CredentialRepository;
+import com.pqc.fido2.repository.UserRepository;
+import com.pqc.fido2.service.CredentialIndex;
+import com.pqc.fido2.service.CredentialMetadata;
+import com.pqc.fido2.service.Fido2Service;
+import com.pqc.fido2.service.SignatureCounterService;
+import com.pqc.fido2.tenant.Tenant;
+import com.pqc.fido2.tenant.TenantRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class SignatureCounterTests {
+
+    @Autowired
+    private SignatureCounterService counterService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CredentialRepository credentialRepository;
+
+    @Autowired
+    private CredentialIndex credentialIndex;
+
+    @Autowired
+    private Fido2Service fido2Service;
+
+    @Autowired
+    private MLDilithiumService mlDilithiumService;
+
+    @Autowired
+    private TenantRegistry tenantRegistry;
+
+    @Test
+    void testNonIncreasingCounterFlagsClone() {
+        Credential credential = createCredential("counter-clone");
+
+        assertTrue(counterService.advance(credential, 5));
+        assertTrue(counterService.advance(credential, 6));
+        assertFalse(counterService.advance(credential, 6));
+        assertFalse(counterService.advance(credential, 3));
+
+        counterService.flush();
+        Credential stored = credentialRepository.findByCredentialId("counter-clone").orElseThrow();
+        assertEquals(6, stored.getSignatureCount());
+        assertTrue(stored.isCloneSuspected());
+        assertNotNull(stored.getLastUsed());
+    }
+
+    @Test
+    void testZeroCounterAuthenticatorIsAccepted() {
+        Credential credential = createCredential("counter-zero");
+
+        assertTrue(counterService.advance(credential, 0));
+        assertTrue(counterService.advance(credential, 0));
+        assertFalse(credential.isCloneSuspected());
+    }
+
+    @Test
+    void testHigherStoredCounterRaisesCachedOne() {
+        Credential credential = createCredential("counter-reseed");
+        assertTrue(counterService.advance(credential, 5));
+
+        // Another instance accepted counts up to 20 meanwhile
+        credential.setSignatureCount(20);
+        assertFalse(counterService.advance(credential, 15));
+        assertTrue(counterService.advance(credential, 21));
+        assertEquals(21, counterService.currentCount(credential));
+    }
+
+    @Test
+    void testConcurrentReplayOfSameCounterIsAcceptedOnce() throws Exception {
+        Credential credential = createCredential("counter-race");
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                results.add(pool.submit(() -> counterService.advance(credential, 10)));
+            }
+            int accepted = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get()) {
+                    accepted++;
+                }
+            }
+            assertEquals(1, accepted);
+            assertEquals(10, counterService.currentCount(credential));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testSuspectedCloneIsRefusedOnLaterLogins() {
+        Tenant tenant = tenantRegistry.getDefaultTenant();
+        MLDilithiumKeyPair keyPair = mlDilithiumService.generateMLKeyPair();
+        RegistrationResponse registration = fido2Service.initiateRegistration(tenant,
+            new RegistrationRequest("counter-refused", "counter-refused@example.com", "Refused", "post-quantum"));
+        assertTrue(fido2Service.completeRegistration(tenant, registration.getSessionId(), "counter-refused",
+            null, encode(keyPair.getPublicKey().getEncoded()), null, null));
+        assertTrue(login(tenant, keyPair));
+
+        CredentialMetadata credential = credentialIndex.find("counter-refused").orElseThrow();
+        assertFalse(counterService.advance(credential, 0));
+        // Refused while the flag is only in memory, and after it was written back
+        assertFalse(login(tenant, keyPair));
+        counterService.flush();
+        assertTrue(credentialIndex.find("counter-refused").orElseThrow().isCloneSuspected());
+        assertFalse(login(tenant, keyPair));
+    }
+
+    private boolean login(Tenant tenant, MLDilithiumKeyPair keyPair) {
+        AuthenticationResponse login = fido2Service.initiateAuthentication(tenant,
+            new AuthenticationRequest("counter-refused", "post-quantum"));
+        byte[] challenge = Base64.getUrlDecoder().decode(login.getChallenge());
+        return fido2Service.completeAuthentication(tenant, login.getSessionId(), "counter-refused", null,
+            encode(mlDilithiumService.signML(challenge, keyPair.getPrivateKey()).getEncoded()));
+    }
+
+    private static String encode(byte[] value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value);
+    }
+
+    private Credential createCredential(String credentialId) {
+        User user = userRepository.save(new User(credentialId, credentialId + "@example.com", credentialId));
+        return credentialRepository.save(new Credential(
+            credentialId, null, "pq-key", Credential.CryptoType.POST_QUANTUM, user));
+    }
+}
@@ -0,0 +1,138 @@
+package com.pqc.fido2;
+
+import com.pqc.fido2.model.Credential;
+import com.pqc.fido2.model.User;
+import com.pqc.fido2.repository.CredentialRepository;
+import com.pqc.fido2.repository.UserRepository;
+import com.pqc.fido2.snapshot.SnapshotService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Small blocks, so that a few dozen credentials span many blocks and the
+ * restore really runs them in parallel
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:snapshot",
+    "pqc.fido2.snapshot.block-bytes=4096",
+    "pqc.fido2.snapshot.restore-threads=4"
+})
+class SnapshotTests {
+
+    private static final int USERS = 60;
+
+    @TempDir
+    Path tempDir;
+
+    @Autowired
+    private SnapshotService snapshotService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CredentialRepository credentialRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        clearTables();
+        Random random = new Random(41);
+        List<Credential> credentials = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            User user = new User("snapshot-" + i, "snapshot-" + i + "@example.com", i % 2 == 0 ? "Snapshot " + i : null);
+            user.setLastLogin(i % 3 == 0 ? LocalDateTime.of(2026, 1, 2, 3, 4, 5, 123_456_000) : null);
+            userRepository.save(user);
+
+            byte[] pqKey = new byte[1500];
+            random.nextBytes(pqKey);
+            Credential credential = new Credential("snapshotCred" + i, i % 2 == 0 ? "classical" + i : null,
+                Base64.getUrlEncoder().withoutPadding().encodeToString(pqKey),
+                i % 2 == 0 ? Credential.CryptoType.HYBRID : Credential.CryptoType.POST_QUANTUM, user);
+            credential.setSignatureCount(i);
+            credential.setCloneSuspected(i == 7);
+            credential.setActive(i != 8);
+            credential.setRpId("localhost");
+            credentials.add(credential);
+        }
+        credentialRepository.saveAll(credentials);
+    }
+
+    @Test
+    void testRestoresExactlyWhatWasWritten() throws Exception {
+        List<Map<String, Object>> users = jdbcTemplate.queryForList("SELECT * FROM users ORDER BY id");
+        List<Map<String, Object>> credentials = jdbcTemplate.queryForList("SELECT * FROM credentials ORDER BY id");
+        Path file = tempDir.resolve("credentials.snap");
+
+        SnapshotService.Result written = snapshotService.write(file);
+        assertEquals(USERS, written.getUsers());
+        assertEquals(USERS, written.getCredentials());
+        // Well over one 4 KB block per kind of record
+        assertTrue(written.getBytes() > USERS * 2000L, written.getBytes() + " bytes");
+
+        clearTables();
+        SnapshotService.Result restored = snapshotService.restore(file);
+
+        assertEquals(USERS, restored.getUsers());
+        assertEquals(USERS, restored.getCredentials());
+        assertEquals(users, jdbcTemplate.queryForList("SELECT * FROM users ORDER BY id"));
+        assertEquals(credentials, jdbcTemplate.queryForList("SELECT * FROM credentials ORDER BY id"));
+
+        // The ID sequences moved past the restored rows
+        User next = userRepository.save(new User("snapshot-next", "snapshot-next@example.com", "Next"));
+        assertTrue(users.stream().noneMatch(row -> next.getId().equals(row.get("ID"))));
+    }
+
+    @Test
+    void testCorruptSnapshotChangesNothing() throws Exception {
+        Path file = tempDir.resolve("corrupt.snap");
+        snapshotService.write(file);
+        clearTables();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Somewhere inside the credential blocks, near the end of the file
+            long position = channel.size() - 1000;
+            ByteBuffer original = ByteBuffer.allocate(1);
+            channel.read(original, position);
+            channel.write(ByteBuffer.wrap(new byte[] {(byte) ~original.get(0)}), position);
+        }
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> snapshotService.restore(file));
+        assertTrue(e.getMessage().contains("corrupt"), e.getMessage());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class));
+    }
+
+    @Test
+    void testRefusesToRestoreOverExistingData() throws Exception {
+        Path file = tempDir.resolve("existing.snap");
+        snapshotService.write(file);
+
+        assertThrows(IllegalStateException.class, () -> snapshotService.restore(file));
+        assertEquals(USERS, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class));
+    }
+
+    private void clearTables() {
+        jdbcTemplate.update("DELETE FROM authentication_sessions");
+        jdbcTemplate.update("DELETE FROM credentials");
+        jdbcTemplate.update("DELETE FROM users");
+    }
+}
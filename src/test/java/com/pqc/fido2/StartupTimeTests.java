@@ -0,0 +1,59 @@
+package com.pqc.fido2;
+
+import com.pqc.fido2.service.CryptoWarmup;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures time from launch to readiness and checks that the crypto warm-up
+ * has finished before readiness is published. The bound can be tightened with
+ * -Dstartup.max-ms for a given machine.
+ */
+class StartupTimeTests {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupTimeTests.class);
+
+    @Test
+    void testReadyWithinBoundAndOnlyAfterWarmup() {
+        long maxMillis = Long.getLong("startup.max-ms", 60_000);
+        long start = System.nanoTime();
+        AtomicLong readyNanos = new AtomicLong();
+        AtomicBoolean warmedUpWhenReady = new AtomicBoolean();
+
+        SpringApplication application = new SpringApplication(PostQuantumFido2Application.class);
+        application.addListeners((ApplicationListener<ApplicationEvent>) event -> {
+            if (event instanceof AvailabilityChangeEvent<?> change
+                    && change.getState() == ReadinessState.ACCEPTING_TRAFFIC) {
+                readyNanos.set(System.nanoTime());
+                ApplicationContext context = (ApplicationContext) event.getSource();
+                warmedUpWhenReady.set(context.getBean(CryptoWarmup.class).isComplete());
+            }
+        });
+
+        // Own in-memory database, so closing this context does not drop the shared test schema
+        try (ConfigurableApplicationContext context = application.run(
+                "--server.port=0", "--spring.datasource.url=jdbc:h2:mem:startup-" + UUID.randomUUID())) {
+            long readyMillis = (readyNanos.get() - start) / 1_000_000;
+            long warmupMillis = context.getBean(CryptoWarmup.class).getDurationMillis();
+            log.info("[STARTUP] - Ready after {} ms (crypto warm-up {} ms)", readyMillis, warmupMillis);
+
+            assertTrue(readyNanos.get() > 0, "readiness was never published");
+            assertTrue(warmedUpWhenReady.get(), "readiness published before crypto warm-up finished");
+            assertTrue(readyMillis < maxMillis, "startup took " + readyMillis + " ms");
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.pqc.fido2;
+
+import com.pqc.fido2.crypto.ClassicalSignatureService;
+import com.pqc.fido2.crypto.MLDilithiumService;
+import com.pqc.fido2.loadtest.LoadGenerator;
+import com.pqc.fido2.tenant.Tenant;
+import com.pqc.fido2.tenant.TenantRateLimiter;
+import com.pqc.fido2.tenant.TenantRegistry;
+import com.pqc.fido2.tenant.VerificationRejectedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.lang.management.ManagementFactory;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two relying parties on one server: requests to localhost go to the default
+ * tenant and requests to 127.0.0.1 to the "acme" tenant
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:tenants",
+    "pqc.fido2.tenants[0].id=acme",
+    "pqc.fido2.tenants[0].rp-id=127.0.0.1",
+    "pqc.fido2.tenants[0].origins=http://127.0.0.1:3000",
+    "pqc.fido2.tenants[0].verification-threads=1",
+    "pqc.fido2.tenants[0].verification-queue-capacity=1"
+})
+class TenantTests {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TenantRegistry tenantRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MLDilithiumService mlDilithiumService;
+
+    @Autowired
+    private ClassicalSignatureService classicalSignatureService;
+
+    @Test
+    void testHostResolvesTenant() {
+        assertEquals("acme", tenantRegistry.resolve("127.0.0.1").getId());
+        assertEquals("localhost", tenantRegistry.resolve("LocalHost").getRpId());
+        assertSame(tenantRegistry.getDefaultTenant(), tenantRegistry.resolve("unknown.example"));
+        assertSame(tenantRegistry.getDefaultTenant(), tenantRegistry.resolve(null));
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        String host = "127.0.0.1";
+        for (int i = 0; i < 100_000; i++) {
+            tenantRegistry.resolve(host);
+        }
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 100_000; i++) {
+            tenantRegistry.resolve(host);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        assertTrue(allocated < 1024, "host lookup allocated " + allocated + " bytes");
+    }
+
+    @Test
+    void testCeremoniesUseTenantRelyingParty() throws Exception {
+        LoadGenerator.Report report = new LoadGenerator("http://127.0.0.1:" + port,
+            LoadGenerator.Options.parse(new String[] {
+                "--crypto=hybrid", "--format=webauthn", "--rp-id=127.0.0.1", "--origin=http://127.0.0.1:3000",
+                "--concurrency=1", "--duration=1", "--warmup=0", "--preregister=1"}),
+            mlDilithiumService, classicalSignatureService).run();
+
+        assertEquals(0, report.getRegistrationErrors());
+        assertEquals(0, report.getLoginErrors());
+        assertTrue(report.getLogins().getTotalCount() > 0);
+        assertTrue(meterRegistry.get("pqc.tenant.requests").tag("tenant", "acme").tag("outcome", "SUCCESS")
+            .timer().count() > 0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSessionIsBoundToTenant() {
+        Map<String, String> begin = Map.of(
+            "username", "tenant-bound", "email", "tenant-bound@example.com",
+            "displayName", "Tenant Bound", "cryptoType", "post-quantum");
+        ResponseEntity<Map> started = restTemplate.postForEntity(
+            "http://127.0.0.1:" + port + "/auth/register/begin", begin, Map.class);
+        assertEquals(HttpStatus.OK, started.getStatusCode());
+        assertEquals("127.0.0.1", started.getBody().get("rpId"));
+
+        Map<String, String> complete = Map.of(
+            "sessionId", (String) started.getBody().get("sessionId"),
+            "credentialId", "tenant-bound",
+            "pqPublicKey", Base64.getUrlEncoder().withoutPadding().encodeToString(
+                mlDilithiumService.generateMLKeyPair().getPublicKey().getEncoded()));
+
+        // The default tenant does not know the acme session
+        assertEquals(HttpStatus.BAD_REQUEST, restTemplate.postForEntity(
+            "http://localhost:" + port + "/auth/register/complete", complete, Map.class).getStatusCode());
+        assertEquals(HttpStatus.OK, restTemplate.postForEntity(
+            "http://127.0.0.1:" + port + "/auth/register/complete", complete, Map.class).getStatusCode());
+    }
+
+    @Test
+    void testVerificationBulkheadIsPerTenant() throws Exception {
+        Tenant acme = tenantRegistry.findById("acme").orElseThrow();
+        CountDownLatch release = new CountDownLatch(1);
+
+        // One verification running and one queued fill acme's bulkhead
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> acme.verify(() -> release.await(10, TimeUnit.SECONDS)));
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> acme.verify(() -> release.await(10, TimeUnit.SECONDS)));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (meterRegistry.get("executor.queued").tag("tenant", "acme").gauge().value() < 1
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertThrows(VerificationRejectedException.class, () -> acme.verify(() -> true));
+        assertEquals(1, meterRegistry.get("pqc.tenant.verification.rejected")
+            .tag("tenant", "acme").tag("reason", "queue-full").counter().count());
+        assertTrue(tenantRegistry.getDefaultTenant().verify(() -> true));
+
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testRateLimiterAdmitsBurstThenThrottles() throws Exception {
+        TenantRateLimiter limiter = new TenantRateLimiter(20, 3);
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+
+        Thread.sleep(100);
+        assertTrue(limiter.tryAcquire());
+        assertTrue(new TenantRateLimiter(0, 0).tryAcquire());
+    }
+}
@@ -0,0 +1,137 @@
+package com.pqc.fido2;
+
+import com.pqc.fido2.dto.AuthenticationRequest;
+import com.pqc.fido2.dto.RegistrationRequest;
+import com.pqc.fido2.model.User;
+import com.pqc.fido2.repository.UserRepository;
+import com.pqc.fido2.service.Fido2Service;
+import com.pqc.fido2.service.UserLookupFilter;
+import com.pqc.fido2.service.UserService;
+import com.pqc.fido2.tenant.TenantRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class UserLookupFilterTests {
+
+    @Autowired
+    private UserLookupFilter userLookupFilter;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private Fido2Service fido2Service;
+
+    @Autowired
+    private TenantRegistry tenantRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void testUnknownNamesAreAnsweredByTheFilter() {
+        userRepository.save(new User("filter-saved", "filter-saved@example.com", "Saved"));
+        userLookupFilter.rebuild();
+        assertTrue(userLookupFilter.isReady());
+
+        // Users created after the build are added once committed
+        userService.createUser("filter-created", "Filter.Created@example.com", "Created");
+        assertTrue(userService.findByUsername("filter-saved").isPresent());
+        assertTrue(userService.findByUsername("filter-created").isPresent());
+        assertTrue(userService.existsByEmail("Filter.Created@example.com"));
+        // Lookups are normalised, so case and accent variants are never ruled out
+        assertTrue(userLookupFilter.mightContain(UserLookupFilter.Field.USERNAME, " FILTER-Créated"));
+        assertTrue(userLookupFilter.mightContain(UserLookupFilter.Field.EMAIL, "filter.created@EXAMPLE.com"));
+
+        double absent = absentLookups();
+        assertTrue(userService.findByUsername("filter-nobody").isEmpty());
+        assertFalse(userService.existsByEmail("filter-nobody@example.com"));
+        assertThrows(IllegalArgumentException.class, () -> fido2Service.initiateAuthentication(
+            tenantRegistry.getDefaultTenant(), new AuthenticationRequest("filter-typo", null)));
+        assertEquals(absent + 3, absentLookups());
+
+        // Usernames and emails do not answer for each other
+        assertFalse(userLookupFilter.mightContain(UserLookupFilter.Field.USERNAME, "filter-saved@example.com"));
+    }
+
+    @Test
+    void testUsersFromOtherInstancesAreNeverRuledOut() {
+        userLookupFilter.rebuild();
+        // Inserted behind this instance's back, as another instance would
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("INSERT INTO users (id, username, email, display_name, is_active) "
+            + "VALUES (-1, 'filter-remote', 'filter-remote@example.com', 'Remote', TRUE)");
+        try {
+            assertFalse(userLookupFilter.mightContain(UserLookupFilter.Field.USERNAME, "filter-remote"));
+            // Logins still find the user before the next rebuild; the miss is counted
+            double staleNegatives = meterRegistry.get("pqc.user-filter.stale-negatives").counter().count();
+            assertTrue(userService.findByUsername("filter-remote").isPresent());
+            assertTrue(userService.existsByEmail("filter-remote@example.com"));
+            assertEquals(staleNegatives + 2, meterRegistry.get("pqc.user-filter.stale-negatives").counter().count());
+
+            assertThrows(IllegalArgumentException.class, () ->
+                userService.createUser("filter-remote", "filter-other@example.com", "Remote"));
+            assertEquals(-1L,
+                userService.findOrCreateUser("filter-remote", "filter-remote@example.com", "Remote").getId());
+            assertNotNull(fido2Service.initiateRegistration(tenantRegistry.getDefaultTenant(),
+                new RegistrationRequest("filter-remote", "filter-remote@example.com", "Remote", "hybrid")));
+
+            userLookupFilter.rebuild();
+            assertTrue(userService.findByUsername("filter-remote").isPresent());
+        } finally {
+            jdbcTemplate.update("DELETE FROM authentication_sessions WHERE user_id = -1");
+            jdbcTemplate.update("DELETE FROM users WHERE id = -1");
+        }
+    }
+
+    @Test
+    void testMemoryCapRaisesTheFalsePositiveRate() {
+        UserLookupFilter sized = new UserLookupFilter(dataSource, 1000, 0.01, 16 * 1024 * 1024);
+        UserLookupFilter capped = new UserLookupFilter(dataSource, 1000, 0.01, 256);
+        assertFalse(capped.isReady());
+        // Not built yet, so nothing is ruled out
+        assertTrue(capped.mightContain(UserLookupFilter.Field.USERNAME, "filter-anyone"));
+
+        sized.rebuild();
+        capped.rebuild();
+        assertEquals(256, capped.getBytes());
+        assertTrue(sized.getBytes() > capped.getBytes());
+        for (int i = 0; i < 1000; i++) {
+            sized.add("filter-bulk-" + i, "filter-bulk-" + i + "@example.com");
+            capped.add("filter-bulk-" + i, "filter-bulk-" + i + "@example.com");
+        }
+        assertTrue(sized.expectedFalsePositiveRate() < 0.01);
+        assertTrue(capped.expectedFalsePositiveRate() > 0.5);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(capped.mightContain(UserLookupFilter.Field.USERNAME, "filter-bulk-" + i));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (sized.mightContain(UserLookupFilter.Field.USERNAME, "filter-unknown-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 200, "False positives: " + falsePositives);
+        sized.close();
+        capped.close();
+    }
+
+    private double absentLookups() {
+        return meterRegistry.get("pqc.user-filter.lookups").tag("result", "absent").counter().count();
+    }
+}
@@ -0,0 +1,177 @@
+package com.pqc.fido2;
+
+import com.pqc.fido2.crypto.MLDilithiumKeyPair;
+import com.pqc.fido2.crypto.MLDilithiumService;
+import com.pqc.fido2.dto.AuthenticationRequest;
+import com.pqc.fido2.dto.AuthenticationResponse;
+import com.pqc.fido2.dto.RegistrationRequest;
+import com.pqc.fido2.dto.RegistrationResponse;
+import com.pqc.fido2.service.Fido2Service;
+import com.pqc.fido2.service.VerificationCoalescer;
+import com.pqc.fido2.tenant.Tenant;
+import com.pqc.fido2.tenant.TenantProperties;
+import com.pqc.fido2.tenant.TenantRegistry;
+import com.pqc.fido2.tenant.VerificationRejectedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class VerificationCoalescerTests {
+
+    @Autowired
+    private Fido2Service fido2Service;
+
+    @Autowired
+    private MLDilithiumService mlDilithiumService;
+
+    @Autowired
+    private TenantRegistry tenantRegistry;
+
+    @Test
+    void testConcurrentDuplicatesShareOneVerification() throws Exception {
+        VerificationCoalescer coalescer = new VerificationCoalescer(new SimpleMeterRegistry(), 5000, 100);
+        VerificationCoalescer.Key key = VerificationCoalescer.key("default", "session", "credential", "sig", null);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(callers.submit(() -> coalescer.execute(key, () -> {
+                    executions.incrementAndGet();
+                    await(release);
+                    return true;
+                })));
+            }
+            while (coalescer.inFlightCount() == 0) {
+                Thread.sleep(1);
+            }
+            Thread.sleep(50);
+            release.countDown();
+
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+        assertEquals(1, executions.get());
+        assertEquals(0, coalescer.inFlightCount());
+    }
+
+    @Test
+    void testLateRetryIsAnsweredFromCacheUntilExpiry() throws Exception {
+        VerificationCoalescer coalescer = new VerificationCoalescer(new SimpleMeterRegistry(), 100, 100);
+        VerificationCoalescer.Key key = VerificationCoalescer.key("default", "session", "credential", "sig", null);
+        AtomicInteger executions = new AtomicInteger();
+
+        assertTrue(coalescer.execute(key, () -> executions.incrementAndGet() == 1));
+        assertTrue(coalescer.execute(key, () -> executions.incrementAndGet() == 1));
+        assertEquals(1, executions.get());
+
+        // A different signature is a different request
+        VerificationCoalescer.Key other = VerificationCoalescer.key("default", "session", "credential", "sig2", null);
+        assertFalse(coalescer.execute(other, () -> executions.incrementAndGet() == 1));
+
+        Thread.sleep(150);
+        assertFalse(coalescer.execute(key, () -> executions.incrementAndGet() == 1));
+        assertEquals(3, executions.get());
+    }
+
+    @Test
+    void testKeysSeparateFieldBoundariesAndNulls() {
+        assertEquals(VerificationCoalescer.key("a", "bc"), VerificationCoalescer.key("a", "bc"));
+        assertNotEquals(VerificationCoalescer.key("a", "bc"), VerificationCoalescer.key("ab", "c"));
+        assertNotEquals(VerificationCoalescer.key("a", null), VerificationCoalescer.key("a", ""));
+    }
+
+    @Test
+    void testFailuresAreNotCachedAndPropagate() {
+        VerificationCoalescer coalescer = new VerificationCoalescer(new SimpleMeterRegistry(), 5000, 100);
+        VerificationCoalescer.Key key = VerificationCoalescer.key("failing");
+
+        assertThrows(IllegalStateException.class, () -> coalescer.execute(key, () -> {
+            throw new IllegalStateException("verification failed");
+        }));
+        assertTrue(coalescer.execute(key, () -> true));
+    }
+
+    @Test
+    void testShedVerificationIsNotReplayed() {
+        TenantProperties properties = new TenantProperties();
+        properties.setVerificationThreads(1);
+        properties.setVerificationTimeoutMs(50);
+        TenantRegistry registry = new TenantRegistry(properties, new SimpleMeterRegistry());
+        Tenant tenant = registry.getDefaultTenant();
+        VerificationCoalescer coalescer = new VerificationCoalescer(new SimpleMeterRegistry(), 5000, 100);
+        VerificationCoalescer.Key key = VerificationCoalescer.key("default", "session", "credential", "sig", null);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try {
+            // Slower than the tenant's timeout: shed, not answered
+            assertThrows(VerificationRejectedException.class, () -> coalescer.execute(key,
+                () -> tenant.verify(() -> release.await(5, TimeUnit.SECONDS))));
+            assertEquals(0, coalescer.cachedCount());
+
+            // The retry runs the verification again instead of replaying a failure
+            release.countDown();
+            assertTrue(coalescer.execute(key, () -> tenant.verify(() -> true)));
+        } finally {
+            registry.shutdown();
+        }
+    }
+
+    @Test
+    void testRetriedLoginReturnsOriginalResult() {
+        Tenant tenant = tenantRegistry.getDefaultTenant();
+        MLDilithiumKeyPair keyPair = mlDilithiumService.generateMLKeyPair();
+
+        RegistrationResponse registration = fido2Service.initiateRegistration(tenant,
+            new RegistrationRequest("coalesce-user", "coalesce-user@example.com", "Coalesce", "post-quantum"));
+        assertTrue(fido2Service.completeRegistration(tenant, registration.getSessionId(), "coalesce-credential",
+            null, encode(keyPair.getPublicKey().getEncoded()), null, null));
+
+        AuthenticationResponse login = fido2Service.initiateAuthentication(tenant,
+            new AuthenticationRequest("coalesce-user", "post-quantum"));
+        byte[] challenge = Base64.getUrlDecoder().decode(login.getChallenge());
+        String pqSignature = encode(mlDilithiumService.signML(challenge, keyPair.getPrivateKey()).getEncoded());
+
+        assertTrue(fido2Service.completeAuthentication(tenant,
+            login.getSessionId(), "coalesce-credential", null, pqSignature));
+        // The session is used now; an identical retry still gets the original answer
+        assertTrue(fido2Service.completeAuthentication(tenant,
+            login.getSessionId(), "coalesce-credential", null, pqSignature));
+
+        // Anything else is a new completion of an already used session
+        String otherSignature = encode(mlDilithiumService.signML(new byte[32], keyPair.getPrivateKey()).getEncoded());
+        assertFalse(fido2Service.completeAuthentication(tenant,
+            login.getSessionId(), "coalesce-credential", null, otherSignature));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String encode(byte[] value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value);
+    }
+}
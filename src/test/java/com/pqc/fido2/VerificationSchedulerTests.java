@@ -0,0 +1,163 @@
+package com.pqc.fido2;
+
+import com.pqc.fido2.crypto.MLDilithiumKeyPair;
+import com.pqc.fido2.crypto.MLDilithiumService;
+import com.pqc.fido2.crypto.MLDilithiumSignature;
+import com.pqc.fido2.service.VerificationScheduler;
+import com.pqc.fido2.service.VerificationScheduler.Priority;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class VerificationSchedulerTests {
+
+    private static final long DEADLINE = TimeUnit.SECONDS.toNanos(30);
+
+    @Autowired
+    private MLDilithiumService mlDilithiumService;
+
+    @Test
+    void testInteractiveRunsWhileBulkHoldsItsLimit() throws Exception {
+        VerificationScheduler scheduler = new VerificationScheduler(new SimpleMeterRegistry(), 4, 64, 0, 64, 2);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            List<CompletableFuture<Boolean>> bulk = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                bulk.add(scheduler.submit(Priority.BULK, System.nanoTime() + DEADLINE,
+                    () -> release.await(10, TimeUnit.SECONDS)));
+            }
+            waitFor(() -> scheduler.running(Priority.BULK) == 2);
+            assertEquals(8, scheduler.queueDepth(Priority.BULK));
+
+            // Bulk work is blocked, yet interactive work completes on the free workers
+            for (int i = 0; i < 20; i++) {
+                assertTrue(scheduler.call(Priority.INTERACTIVE, System.nanoTime() + TimeUnit.SECONDS.toNanos(5), () -> true));
+            }
+            assertEquals(2, scheduler.running(Priority.BULK));
+
+            release.countDown();
+            for (CompletableFuture<Boolean> result : bulk) {
+                assertTrue(result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            release.countDown();
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void testQueuedInteractiveWorkOvertakesBulk() throws Exception {
+        VerificationScheduler scheduler = new VerificationScheduler(new SimpleMeterRegistry(), 1, 64, 0, 64, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> order = new CopyOnWriteArrayList<>();
+        try {
+            CompletableFuture<Boolean> blocker = scheduler.submit(Priority.BULK, System.nanoTime() + DEADLINE,
+                () -> release.await(10, TimeUnit.SECONDS));
+            waitFor(() -> scheduler.running(Priority.BULK) == 1);
+
+            CompletableFuture<Boolean> bulk = scheduler.submit(Priority.BULK, System.nanoTime() + DEADLINE,
+                () -> order.add("bulk"));
+            CompletableFuture<Boolean> interactive = scheduler.submit(Priority.INTERACTIVE, System.nanoTime() + DEADLINE,
+                () -> order.add("interactive"));
+            release.countDown();
+
+            assertTrue(blocker.get(5, TimeUnit.SECONDS));
+            assertTrue(bulk.get(5, TimeUnit.SECONDS));
+            assertTrue(interactive.get(5, TimeUnit.SECONDS));
+            assertEquals(List.of("interactive", "bulk"), order);
+        } finally {
+            release.countDown();
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void testShedsExpiredAndOverflowingWork() throws Exception {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        VerificationScheduler scheduler = new VerificationScheduler(meterRegistry, 1, 2, 0, 2, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            scheduler.submit(Priority.INTERACTIVE, System.nanoTime() + DEADLINE, () -> release.await(10, TimeUnit.SECONDS));
+            waitFor(() -> scheduler.running(Priority.INTERACTIVE) == 1);
+
+            List<String> ran = new CopyOnWriteArrayList<>();
+            CompletableFuture<Boolean> expiring = scheduler.submit(Priority.INTERACTIVE,
+                System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(20), () -> ran.add("expired"));
+            scheduler.submit(Priority.INTERACTIVE, System.nanoTime() + DEADLINE, () -> ran.add("queued"));
+            assertThrows(RejectedExecutionException.class, () -> scheduler.submit(
+                Priority.INTERACTIVE, System.nanoTime() + DEADLINE, () -> ran.add("rejected")));
+
+            Thread.sleep(50);
+            release.countDown();
+
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> expiring.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(TimeoutException.class, failure.getCause());
+            waitFor(() -> ran.contains("queued"));
+            assertEquals(List.of("queued"), ran);
+            assertEquals(1, meterRegistry.get("pqc.scheduler.shed")
+                .tag("priority", "interactive").tag("reason", "deadline").counter().count());
+            assertEquals(1, meterRegistry.get("pqc.scheduler.shed")
+                .tag("priority", "interactive").tag("reason", "queue-full").counter().count());
+        } finally {
+            release.countDown();
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void testInteractiveWaitStaysFlatUnderBulkVerification() throws Exception {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        VerificationScheduler scheduler = new VerificationScheduler(meterRegistry, 4, 64, 0, 256, 2);
+        MLDilithiumKeyPair keyPair = mlDilithiumService.generateMLKeyPair(3);
+        byte[] data = "scheduler".getBytes(StandardCharsets.UTF_8);
+        MLDilithiumSignature signature = mlDilithiumService.signML(data, keyPair.getPrivateKey());
+        try {
+            List<CompletableFuture<Boolean>> bulk = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                bulk.add(scheduler.submit(Priority.BULK, System.nanoTime() + DEADLINE,
+                    () -> mlDilithiumService.verifyML(data, signature, keyPair.getPublicKey())));
+            }
+            for (int i = 0; i < 20; i++) {
+                assertTrue(scheduler.call(Priority.INTERACTIVE, System.nanoTime() + DEADLINE,
+                    () -> mlDilithiumService.verifyML(data, signature, keyPair.getPublicKey())));
+            }
+            // Interactive work never queues behind the bulk backlog
+            assertTrue(scheduler.queueDepth(Priority.BULK) > 0);
+            Timer interactiveWait = meterRegistry.get("pqc.scheduler.wait").tag("priority", "interactive").timer();
+            assertEquals(20, interactiveWait.count());
+            assertTrue(interactiveWait.max(TimeUnit.MILLISECONDS) < 100);
+
+            for (CompletableFuture<Boolean> result : bulk) {
+                assertTrue(result.get(60, TimeUnit.SECONDS));
+            }
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
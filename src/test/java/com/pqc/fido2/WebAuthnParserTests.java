@@ -0,0 +1,246 @@
+package com.pqc.fido2;
+
+import com.pqc.fido2.webauthn.AttestationObject;
+import com.pqc.fido2.webauthn.AuthenticatorData;
+import com.pqc.fido2.webauthn.CborWriter;
+import com.pqc.fido2.webauthn.CollectedClientData;
+import com.pqc.fido2.webauthn.CoseKey;
+import com.pqc.fido2.webauthn.WebAuthnParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.Signature;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebAuthnParserTests {
+
+    private static final String[] CORPUS = {
+        "attestation-none-es256.bin",
+        "attestation-none-eddsa.bin",
+        "attestation-none-rs256.bin",
+        "attestation-none-akp-3layer.bin",
+        "attestation-packed-ext.bin",
+        "authdata-assertion.bin",
+        "authdata-assertion-ext.bin"
+    };
+
+    private final WebAuthnParser parser = new WebAuthnParser();
+
+    @Test
+    void testParseAndVerifyEs256Registration() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        KeyPair keyPair = generator.generateKeyPair();
+        ECPublicKey publicKey = (ECPublicKey) keyPair.getPublic();
+
+        byte[] coseKey = new CborWriter()
+            .writeMapHeader(5)
+            .writeInt(1).writeInt(CoseKey.KTY_EC2)
+            .writeInt(3).writeInt(CoseKey.ALG_ES256)
+            .writeInt(-1).writeInt(CoseKey.CRV_P256)
+            .writeInt(-2).writeByteString(fixedLength(publicKey.getW().getAffineX().toByteArray()))
+            .writeInt(-3).writeByteString(fixedLength(publicKey.getW().getAffineY().toByteArray()))
+            .toByteArray();
+        byte[] credentialId = "credential-0001".getBytes(StandardCharsets.US_ASCII);
+
+        ByteBuffer authData = ByteBuffer.allocate(37 + 16 + 2 + credentialId.length + coseKey.length);
+        authData.put(sha256("localhost".getBytes(StandardCharsets.UTF_8)))
+            .put((byte) (AuthenticatorData.FLAG_USER_PRESENT | AuthenticatorData.FLAG_ATTESTED_CREDENTIAL_DATA))
+            .putInt(0)
+            .put(new byte[16])
+            .putShort((short) credentialId.length)
+            .put(credentialId)
+            .put(coseKey);
+
+        byte[] attestationObject = new CborWriter()
+            .writeMapHeader(3)
+            .writeTextString("fmt").writeTextString("none")
+            .writeTextString("attStmt").writeMapHeader(0)
+            .writeTextString("authData").writeByteString(authData.array())
+            .toByteArray();
+        byte[] clientDataJson = ("{\"type\":\"webauthn.create\",\"challenge\":\"abc123\","
+            + "\"origin\":\"http://localhost:3000\",\"crossOrigin\":false}").getBytes(StandardCharsets.UTF_8);
+
+        AttestationObject attestation = parser.parseAttestationObject(attestationObject);
+        AuthenticatorData parsed = attestation.getAuthenticatorData();
+        CollectedClientData clientData = parser.parseClientData(clientDataJson);
+
+        assertEquals("none", attestation.getFormat());
+        assertEquals(ByteBuffer.wrap(credentialId), parsed.getCredentialId());
+        assertEquals(0, parsed.getSignCount());
+        List<String> origins = List.of("http://localhost:3000");
+        parser.validate(parsed, clientData, CollectedClientData.TYPE_CREATE, "abc123", "localhost", origins, false);
+        assertThrows(IllegalArgumentException.class, () -> parser.validate(
+            parsed, clientData, CollectedClientData.TYPE_CREATE, "other", "localhost", origins, false));
+        // The origin must be listed; the RP ID alone does not admit another scheme or port
+        assertThrows(IllegalArgumentException.class, () -> parser.validate(
+            parsed, clientData, CollectedClientData.TYPE_CREATE, "abc123", "localhost",
+            List.of("https://localhost"), true));
+
+        // Subdomains of the RP ID only when the tenant allows them, and only over https
+        CollectedClientData subdomain = parser.parseClientData(("{\"type\":\"webauthn.create\",\"challenge\":\"abc123\","
+            + "\"origin\":\"https://app.localhost\"}").getBytes(StandardCharsets.UTF_8));
+        parser.validate(parsed, subdomain, CollectedClientData.TYPE_CREATE, "abc123", "localhost", origins, true);
+        assertThrows(IllegalArgumentException.class, () -> parser.validate(
+            parsed, subdomain, CollectedClientData.TYPE_CREATE, "abc123", "localhost", origins, false));
+        CollectedClientData insecure = parser.parseClientData(("{\"type\":\"webauthn.create\",\"challenge\":\"abc123\","
+            + "\"origin\":\"http://app.localhost\"}").getBytes(StandardCharsets.UTF_8));
+        assertThrows(IllegalArgumentException.class, () -> parser.validate(
+            parsed, insecure, CollectedClientData.TYPE_CREATE, "abc123", "localhost", origins, true));
+
+        // The COSE key must round-trip to the same JCA key and verify a signature over authData || hash
+        assertEquals(publicKey, parser.toPublicKey(parsed.getCredentialPublicKey()));
+        byte[] signedData = parser.signedData(parsed, clientDataJson);
+        Signature signer = Signature.getInstance("SHA256withECDSA");
+        signer.initSign(keyPair.getPrivate());
+        signer.update(signedData);
+        byte[] signature = signer.sign();
+
+        Signature verifier = Signature.getInstance("SHA256withECDSA");
+        verifier.initVerify(parser.toPublicKey(parsed.getCredentialPublicKey()));
+        verifier.update(signedData);
+        assertTrue(verifier.verify(signature));
+    }
+
+    @Test
+    void testPackedSelfAttestation() throws IOException {
+        ByteBuffer raw = parser.parseAttestationObject(loadSeed("attestation-none-es256.bin"))
+            .getAuthenticatorData().getRaw();
+        byte[] authData = new byte[raw.remaining()];
+        raw.get(authData);
+        byte[] signature = {0x30, 0x01, 0x02};
+
+        AttestationObject self = parser.parseAttestationObject(packed(authData, signature, false));
+        assertTrue(self.isSelfAttestation());
+        assertEquals(CoseKey.ALG_ES256, self.getSelfAttestationAlgorithm());
+        assertEquals(ByteBuffer.wrap(signature), self.getSelfAttestationSignature());
+
+        // Signed by an attestation certificate rather than the credential key
+        assertFalse(parser.parseAttestationObject(packed(authData, signature, true)).isSelfAttestation());
+        assertFalse(parser.parseAttestationObject(loadSeed("attestation-none-es256.bin")).isSelfAttestation());
+    }
+
+    @Test
+    void testCorpusSeedsParse() throws IOException {
+        for (String name : CORPUS) {
+            byte[] seed = loadSeed(name);
+            if (name.startsWith("attestation")) {
+                assertNotNull(parser.parseAttestationObject(seed).getAuthenticatorData().getCredentialPublicKey(), name);
+            } else {
+                assertTrue(parser.parseAuthenticatorData(seed).isUserPresent(), name);
+            }
+        }
+
+        AuthenticatorData pqKey = parser.parseAttestationObject(loadSeed("attestation-none-akp-3layer.bin"))
+            .getAuthenticatorData();
+        assertTrue(pqKey.getCredentialPublicKey().isPostQuantum());
+        assertEquals(3 * 1952, pqKey.getCredentialPublicKey().getPublicKey().remaining());
+    }
+
+    @Test
+    void testTrailingBytesAfterAttestationObjectAreRejected() throws IOException {
+        byte[] seed = loadSeed("attestation-none-es256.bin");
+        assertNotNull(parser.parseAttestationObject(seed));
+
+        // Another CBOR item, or a single stray byte, after the top-level map
+        assertThrows(IllegalArgumentException.class,
+            () -> parser.parseAttestationObject(Arrays.copyOf(seed, seed.length + 1)));
+        byte[] twoItems = Arrays.copyOf(seed, seed.length + 1);
+        twoItems[seed.length] = (byte) 0xa0;
+        assertThrows(IllegalArgumentException.class, () -> parser.parseAttestationObject(twoItems));
+    }
+
+    @Test
+    void testMutatedCorpusOnlyFailsWithIllegalArgument() throws IOException {
+        Random random = new Random(20261019L);
+        List<byte[]> seeds = new ArrayList<>();
+        for (String name : CORPUS) {
+            seeds.add(loadSeed(name));
+        }
+
+        for (int iteration = 0; iteration < 20_000; iteration++) {
+            byte[] seed = seeds.get(iteration % seeds.size());
+            byte[] mutated = mutate(seed, random);
+            try {
+                if (iteration % 2 == 0) {
+                    parser.parseAttestationObject(mutated);
+                } else {
+                    parser.parseAuthenticatorData(mutated);
+                }
+            } catch (IllegalArgumentException expected) {
+                // Malformed input must be rejected cleanly
+            } catch (RuntimeException e) {
+                fail("Unexpected " + e + " for mutation " + iteration);
+            }
+        }
+    }
+
+    private static byte[] mutate(byte[] seed, Random random) {
+        byte[] data = seed.clone();
+        switch (random.nextInt(4)) {
+            case 0: // bit flips
+                for (int i = 0; i < 1 + random.nextInt(4); i++) {
+                    int position = random.nextInt(data.length);
+                    data[position] ^= (byte) (1 << random.nextInt(8));
+                }
+                return data;
+            case 1: // truncation
+                return Arrays.copyOf(data, random.nextInt(data.length));
+            case 2: // boundary values, mostly hitting CBOR headers and length fields
+                data[random.nextInt(data.length)] = (byte) new int[]{0x00, 0x17, 0x18, 0x1b, 0x1f, 0x5b, 0x7f, 0xbf, 0xff}[random.nextInt(9)];
+                return data;
+            default: // random splice
+                int position = random.nextInt(data.length);
+                byte[] grown = Arrays.copyOf(data, data.length + 8);
+                System.arraycopy(data, position, grown, position + 8, data.length - position);
+                for (int i = 0; i < 8; i++) {
+                    grown[position + i] = (byte) random.nextInt(256);
+                }
+                return grown;
+        }
+    }
+
+    private static byte[] loadSeed(String name) throws IOException {
+        try (InputStream in = WebAuthnParserTests.class.getResourceAsStream("/webauthn/corpus/" + name)) {
+            assertNotNull(in, name);
+            return in.readAllBytes();
+        }
+    }
+
+    private static byte[] packed(byte[] authData, byte[] signature, boolean certificates) {
+        CborWriter writer = new CborWriter()
+            .writeMapHeader(3)
+            .writeTextString("fmt").writeTextString("packed")
+            .writeTextString("attStmt").writeMapHeader(certificates ? 3 : 2)
+            .writeTextString("alg").writeInt(CoseKey.ALG_ES256)
+            .writeTextString("sig").writeByteString(signature);
+        if (certificates) {
+            writer.writeTextString("x5c").writeArrayHeader(1).writeByteString(new byte[] {1, 2, 3});
+        }
+        return writer.writeTextString("authData").writeByteString(authData).toByteArray();
+    }
+
+    private static byte[] fixedLength(byte[] unsigned) {
+        byte[] result = new byte[32];
+        int length = Math.min(unsigned.length, 32);
+        System.arraycopy(unsigned, unsigned.length - length, result, 32 - length, length);
+        return result;
+    }
+
+    private static byte[] sha256(byte[] data) throws Exception {
+        return MessageDigest.getInstance("SHA-256").digest(data);
+    }
+}
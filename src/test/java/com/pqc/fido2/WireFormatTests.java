@@ -0,0 +1,137 @@
+package com.pqc.fido2;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.pqc.fido2.crypto.ClassicalSignatureService;
+import com.pqc.fido2.crypto.MLDilithiumService;
+import com.pqc.fido2.loadtest.SoftwareAuthenticator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Registration and login over CBOR and Smile, with keys, signatures and
+ * challenges as raw byte strings, while JSON stays the default
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:wireformat"
+})
+class WireFormatTests {
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+    private static final Set<String> BINARY_FIELDS = Set.of("publicKey", "pqPublicKey", "signature", "pqSignature",
+        "attestationObject", "authenticatorData", "clientDataJSON");
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MLDilithiumService mlDilithiumService;
+
+    @Autowired
+    private ClassicalSignatureService classicalSignatureService;
+
+    @Test
+    void testCeremonyOverBinaryFormats() throws Exception {
+        SoftwareAuthenticator authenticator = new SoftwareAuthenticator(
+            mlDilithiumService, classicalSignatureService, "localhost", "http://localhost:3000", false);
+        SoftwareAuthenticator.SoftwareCredential credential = authenticator.createCredential("cbor-user", "hybrid");
+
+        // Register over CBOR
+        JsonNode begin = post("/auth/register/begin", MediaType.APPLICATION_CBOR, new CBORMapper(),
+            Map.of("username", "cbor-user", "email", "cbor@example.com", "cryptoType", "hybrid"));
+        assertTrue(begin.get("challenge").isBinary());
+        JsonNode registered = post("/auth/register/complete", MediaType.APPLICATION_CBOR, new CBORMapper(),
+            binary(authenticator.register(credential, text(begin))));
+        assertEquals("success", registered.get("status").asText());
+
+        // Log in over Smile
+        JsonNode loginBegin = post("/auth/login/begin", SMILE, new SmileMapper(),
+            Map.of("username", "cbor-user", "cryptoType", "hybrid"));
+        assertTrue(loginBegin.get("pqChallenge").isBinary());
+        JsonNode loggedIn = post("/auth/login/complete", SMILE, new SmileMapper(),
+            binary(authenticator.authenticate(credential, text(loginBegin))));
+        assertEquals("success", loggedIn.get("status").asText());
+
+        // A tampered raw signature is rejected like a tampered base64url one
+        Map<String, Object> tampered = binary(authenticator.authenticate(credential,
+            text(post("/auth/login/begin", SMILE, new SmileMapper(), Map.of("username", "cbor-user")))));
+        ((byte[]) tampered.get("pqSignature"))[100] ^= 1;
+        assertEquals("error", post("/auth/login/complete", SMILE, new SmileMapper(), tampered)
+            .get("status").asText());
+    }
+
+    @Test
+    void testJsonStaysTheDefault() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setAccept(List.of(MediaType.ALL));
+        ResponseEntity<Map> response = restTemplate.postForEntity("http://localhost:" + port + "/auth/register/begin",
+            new HttpEntity<>(Map.of("username", "json-user", "email", "json@example.com"), headers), Map.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(MediaType.APPLICATION_JSON.isCompatibleWith(response.getHeaders().getContentType()));
+        // Binary fields are base64url text in JSON
+        String challenge = (String) response.getBody().get("challenge");
+        assertEquals(32, Base64.getUrlDecoder().decode(challenge).length);
+    }
+
+    private JsonNode post(String path, MediaType mediaType, ObjectMapper mapper, Map<String, ?> body)
+            throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(mediaType);
+        headers.setAccept(List.of(mediaType));
+        ResponseEntity<byte[]> response = restTemplate.postForEntity("http://localhost:" + port + path,
+            new HttpEntity<>(mapper.writeValueAsBytes(body), headers), byte[].class);
+        assertTrue(mediaType.isCompatibleWith(response.getHeaders().getContentType()),
+            path + " answered " + response.getHeaders().getContentType());
+        return mapper.readTree(response.getBody());
+    }
+
+    /**
+     * A begin response as the software authenticator expects it, with binary fields as base64url
+     */
+    private static Map<String, Object> text(JsonNode response) throws Exception {
+        Map<String, Object> fields = new HashMap<>();
+        for (Map.Entry<String, JsonNode> field : (Iterable<Map.Entry<String, JsonNode>>) response::fields) {
+            JsonNode value = field.getValue();
+            fields.put(field.getKey(), value.isBinary()
+                ? Base64.getUrlEncoder().withoutPadding().encodeToString(value.binaryValue())
+                : value.isTextual() ? value.asText() : value);
+        }
+        return fields;
+    }
+
+    /**
+     * A completion body with its base64url fields sent as raw bytes
+     */
+    private static Map<String, Object> binary(Map<String, String> body) {
+        Map<String, Object> fields = new HashMap<>(body);
+        for (String name : BINARY_FIELDS) {
+            if (body.get(name) != null) {
+                fields.put(name, Base64.getUrlDecoder().decode(body.get(name)));
+            }
+        }
+        return fields;
+    }
+}
@@ -0,0 +1,172 @@
+package com.pqc.fido2;
+
+import com.pqc.fido2.crypto.keccak.BouncyCastleXof;
+import com.pqc.fido2.crypto.keccak.KeccakX4;
+import com.pqc.fido2.crypto.keccak.KeccakXof;
+import com.pqc.fido2.crypto.keccak.Xof;
+import com.pqc.fido2.crypto.keccak.Xof4;
+import com.pqc.fido2.crypto.keccak.XofEngine;
+import com.pqc.fido2.crypto.keccak.XofEngines;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Every SHAKE engine against the known answers in keccak/shake-kat.txt, and
+ * the single and four-way Keccak against BouncyCastle for arbitrary
+ * absorb/squeeze splits.
+ */
+class XofEngineTests {
+
+    @Test
+    void testEnginesAreAvailable() {
+        // Surefire starts the JVM with --add-modules jdk.incubator.vector
+        assertTrue(XofEngines.isVectorAvailable());
+        assertEquals("keccak-x4-vector", XofEngines.of("auto").name());
+        assertEquals("bouncycastle", XofEngines.of("bouncycastle").name());
+        assertThrows(IllegalArgumentException.class, () -> XofEngines.of("sha3"));
+    }
+
+    @Test
+    void testMatchesKnownAnswers() throws Exception {
+        List<String[]> answers = loadKnownAnswers();
+        assertEquals(26, answers.size());
+        for (XofEngine engine : List.of(XofEngines.of("keccak"), XofEngines.of("bouncycastle"))) {
+            for (String[] answer : answers) {
+                byte[] message = message(answer[1]);
+                byte[] expected = HexFormat.of().parseHex(answer[3]);
+                String label = engine.name() + " " + answer[0] + " " + answer[1];
+
+                Xof xof = answer[0].equals("shake128") ? engine.shake128() : engine.shake256();
+                xof.update(message, 0, message.length);
+                byte[] output = new byte[expected.length];
+                xof.squeeze(output, 0, output.length);
+                assertArrayEquals(expected, output, label);
+
+                // Byte-wise absorption and a reset instance give the same answer
+                xof.reset();
+                for (byte b : message) {
+                    xof.update(b);
+                }
+                Arrays.fill(output, (byte) 0);
+                xof.squeeze(output, 0, output.length);
+                assertArrayEquals(expected, output, label + " byte-wise");
+
+                if (answer[0].equals("shake128")) {
+                    Xof4 x4 = engine.shake128x4();
+                    byte[][] outputs = new byte[4][expected.length];
+                    x4.update(new byte[][] {message, message, message, message}, 0, message.length);
+                    x4.squeeze(outputs, 0, expected.length);
+                    for (byte[] lane : outputs) {
+                        assertArrayEquals(expected, lane, label + " x4");
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testMatchesBouncyCastleOnRandomSplits() {
+        SplittableRandom random = new SplittableRandom(11);
+        for (int round = 0; round < 300; round++) {
+            int bits = round % 2 == 0 ? 128 : 256;
+            Xof keccak = bits == 128 ? KeccakXof.shake128() : KeccakXof.shake256();
+            Xof reference = new BouncyCastleXof(bits);
+            assertEquals(reference.rate(), keccak.rate());
+
+            byte[] message = new byte[random.nextInt(600)];
+            random.nextBytes(message);
+            for (int offset = 0; offset < message.length; ) {
+                int chunk = Math.min(message.length - offset, random.nextInt(1, 200));
+                keccak.update(message, offset, chunk);
+                reference.update(message, offset, chunk);
+                offset += chunk;
+            }
+            for (int squeezes = 0; squeezes < 4; squeezes++) {
+                int length = random.nextInt(1, 400);
+                byte[] expected = new byte[length];
+                byte[] actual = new byte[length];
+                reference.squeeze(expected, 0, length);
+                keccak.squeeze(actual, 0, length);
+                assertArrayEquals(expected, actual, "round " + round);
+            }
+            assertThrows(IllegalStateException.class, () -> keccak.update((byte) 0));
+        }
+    }
+
+    @Test
+    void testFourWayMatchesSingleInstances() {
+        SplittableRandom random = new SplittableRandom(13);
+        List<Xof4> engines = List.of(new KeccakX4(), XofEngines.of("keccak").shake128x4());
+        for (Xof4 x4 : engines) {
+            for (int round = 0; round < 50; round++) {
+                int length = random.nextInt(400);
+                byte[][] inputs = new byte[4][length];
+                for (byte[] input : inputs) {
+                    random.nextBytes(input);
+                }
+                x4.reset();
+                x4.update(inputs, 0, length);
+
+                // Odd squeeze sizes cross lane and block boundaries
+                byte[][] outputs = new byte[4][1000];
+                for (int offset = 0; offset < 1000; ) {
+                    int chunk = Math.min(1000 - offset, random.nextInt(1, 300));
+                    x4.squeeze(outputs, offset, chunk);
+                    offset += chunk;
+                }
+                for (int i = 0; i < 4; i++) {
+                    Xof single = KeccakXof.shake128();
+                    single.update(inputs[i], 0, length);
+                    byte[] expected = new byte[1000];
+                    single.squeeze(expected, 0, expected.length);
+                    assertArrayEquals(expected, outputs[i], x4.getClass().getSimpleName() + " instance " + i);
+                }
+            }
+        }
+    }
+
+    private static byte[] message(String spec) {
+        if (spec.equals("-")) {
+            return new byte[0];
+        }
+        if (spec.startsWith("a3*")) {
+            byte[] message = new byte[Integer.parseInt(spec.substring(3))];
+            Arrays.fill(message, (byte) 0xA3);
+            return message;
+        }
+        if (spec.startsWith("seq*")) {
+            byte[] message = new byte[Integer.parseInt(spec.substring(4))];
+            for (int i = 0; i < message.length; i++) {
+                message[i] = (byte) i;
+            }
+            return message;
+        }
+        return HexFormat.of().parseHex(spec);
+    }
+
+    private static List<String[]> loadKnownAnswers() throws IOException {
+        List<String[]> answers = new ArrayList<>();
+        try (InputStream in = XofEngineTests.class.getResourceAsStream("/keccak/shake-kat.txt");
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank() && !line.startsWith("#")) {
+                    answers.add(line.trim().split("\\s+"));
+                }
+            }
+        }
+        return answers;
+    }
+}
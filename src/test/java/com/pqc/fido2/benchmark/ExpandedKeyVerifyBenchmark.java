@@ -0,0 +1,78 @@
+package com.pqc.fido2.benchmark;
+
+import com.pqc.fido2.crypto.DilithiumCryptoService;
+import com.pqc.fido2.crypto.DilithiumKeyPair;
+import com.pqc.fido2.crypto.DilithiumPublicKey;
+import com.pqc.fido2.crypto.DilithiumSignature;
+import com.pqc.fido2.crypto.mldsa.ExpandedKeyCache;
+import com.pqc.fido2.crypto.mldsa.ExpandedPublicKey;
+import com.pqc.fido2.crypto.mldsa.MLDsaParameters;
+import com.pqc.fido2.crypto.mldsa.MLDsaVerifier;
+import com.pqc.fido2.crypto.mldsa.PolynomialArithmetics;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One ML-DSA layer verification per parameter set:
+ * "bouncycastle" is DilithiumSigner as used today; "uncached" is
+ * MLDsaVerifier expanding the key every time; "cached" looks the expansion
+ * up in an {@link ExpandedKeyCache} and only does the per-signature work.
+ * expand measures the part a cache hit saves on its own. A login verifies
+ * pqc.fido2.ml-dilithium-layers of these.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpandedKeyVerifyBenchmark {
+
+    @Param({"DILITHIUM_2", "DILITHIUM_3", "DILITHIUM_5"})
+    public String parameterSet;
+
+    private DilithiumCryptoService dilithium;
+    private MLDsaVerifier verifier;
+    private ExpandedKeyCache cache;
+
+    private byte[] message;
+    private DilithiumPublicKey publicKey;
+    private DilithiumSignature signature;
+
+    @Setup
+    public void setUp() {
+        dilithium = new DilithiumCryptoService(parameterSet);
+        verifier = new MLDsaVerifier(MLDsaParameters.of(parameterSet), PolynomialArithmetics.of("auto"));
+        cache = new ExpandedKeyCache(verifier, 64L << 20, ExpandedKeyCache.Policy.LRU);
+
+        message = "benchmark login challenge".getBytes(StandardCharsets.UTF_8);
+        DilithiumKeyPair keyPair = dilithium.generateKeyPair();
+        publicKey = keyPair.getPublicKey();
+        signature = dilithium.sign(message, keyPair.getPrivateKey());
+        if (!cache.verify("credential", 0, publicKey.getKeyBytes(), message, signature.getSignatureBytes())) {
+            throw new IllegalStateException("Expanded-key verification rejected a valid signature");
+        }
+    }
+
+    @Benchmark
+    public boolean bouncycastle() {
+        return dilithium.verify(message, signature, publicKey);
+    }
+
+    @Benchmark
+    public boolean uncached() {
+        return verifier.verify(publicKey.getKeyBytes(), message, signature.getSignatureBytes());
+    }
+
+    @Benchmark
+    public boolean cached() {
+        return cache.verify("credential", 0, publicKey.getKeyBytes(), message, signature.getSignatureBytes());
+    }
+
+    @Benchmark
+    public ExpandedPublicKey expand() {
+        return verifier.expand(publicKey.getKeyBytes());
+    }
+}
@@ -0,0 +1,74 @@
+package com.pqc.fido2.benchmark;
+
+import com.pqc.fido2.webauthn.AttestationObject;
+import com.pqc.fido2.webauthn.AuthenticatorData;
+import com.pqc.fido2.webauthn.WebAuthnParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing cost of WebAuthn structures, in particular attestation objects
+ * carrying a 3-layer post-quantum COSE key (~6 KB of key material).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WebAuthnParserBenchmark {
+
+    private final WebAuthnParser parser = new WebAuthnParser();
+
+    private byte[] es256Attestation;
+    private byte[] pqAttestation;
+    private byte[] assertionAuthData;
+
+    @Setup
+    public void setUp() throws IOException {
+        es256Attestation = load("attestation-none-es256.bin");
+        pqAttestation = load("attestation-none-akp-3layer.bin");
+        assertionAuthData = load("authdata-assertion.bin");
+    }
+
+    @Benchmark
+    public AttestationObject parseEs256Attestation() {
+        return parser.parseAttestationObject(es256Attestation);
+    }
+
+    @Benchmark
+    public AttestationObject parsePostQuantumAttestation() {
+        return parser.parseAttestationObject(pqAttestation);
+    }
+
+    /**
+     * Same as above, then materialising the key as a heap array; the
+     * difference is the copy the slice-based parser avoids.
+     */
+    @Benchmark
+    public byte[] parsePostQuantumAttestationAndCopyKey() {
+        ByteBuffer key = parser.parseAttestationObject(pqAttestation)
+            .getAuthenticatorData().getCredentialPublicKey().getPublicKey();
+        byte[] copy = new byte[key.remaining()];
+        key.get(copy);
+        return copy;
+    }
+
+    @Benchmark
+    public AuthenticatorData parseAssertionAuthenticatorData() {
+        return parser.parseAuthenticatorData(assertionAuthData);
+    }
+
+    private static byte[] load(String name) throws IOException {
+        try (InputStream in = WebAuthnParserBenchmark.class.getResourceAsStream("/webauthn/corpus/" + name)) {
+            if (in == null) {
+                throw new IOException("Missing corpus file " + name);
+            }
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.pqc.fido2.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.pqc.fido2.dto.RegistrationCompletionRequest;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading a legacy /auth/register/complete body with a 3-layer ML-DSA-87
+ * key and signature (~21 KB of binary) in each wire format. JSON carries the
+ * binary as base64url text; CBOR and Smile carry raw byte strings. Payload
+ * sizes are logged once per fork.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(WireFormatBenchmark.class);
+
+    private static final int LAYERS = 3;
+    private static final int PUBLIC_KEY_BYTES = 2592;
+    private static final int SIGNATURE_BYTES = 4627;
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    private ObjectMapper mapper;
+    private RegistrationCompletionRequest request;
+    private byte[] body;
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = switch (format) {
+            case "json" -> new ObjectMapper();
+            case "cbor" -> new CBORMapper();
+            case "smile" -> new SmileMapper();
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+
+        Random random = new Random(42);
+        request = new RegistrationCompletionRequest();
+        request.setSessionId("3f1c2a9e-5b7d-4e8f-a1c3-6d2b9e4f7a10");
+        request.setUsername("benchmark-user");
+        request.setCredentialId(base64Url(random, 32));
+        request.setPublicKey(base64Url(random, 91));
+        request.setPqPublicKey(base64Url(random, LAYERS * PUBLIC_KEY_BYTES));
+        request.setSignature(base64Url(random, 72));
+        request.setPqSignature(base64Url(random, LAYERS * SIGNATURE_BYTES));
+
+        body = mapper.writeValueAsBytes(request);
+        log.info("[BENCHMARK] - {} registration body: {} bytes", format, body.length);
+    }
+
+    @Benchmark
+    public RegistrationCompletionRequest read() throws IOException {
+        return mapper.readValue(body, RegistrationCompletionRequest.class);
+    }
+
+    @Benchmark
+    public byte[] write() throws IOException {
+        return mapper.writeValueAsBytes(request);
+    }
+
+    private static String base64Url(Random random, int length) {
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
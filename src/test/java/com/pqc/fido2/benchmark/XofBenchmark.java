@@ -0,0 +1,87 @@
+package com.pqc.fido2.benchmark;
+
+import com.pqc.fido2.crypto.keccak.Xof;
+import com.pqc.fido2.crypto.keccak.Xof4;
+import com.pqc.fido2.crypto.keccak.XofEngine;
+import com.pqc.fido2.crypto.keccak.XofEngines;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SHAKE per engine, on the shapes ML-DSA verification hashes:
+ * uniformEntry is one entry of A (34 bytes in, five SHAKE128 blocks out),
+ * uniformEntriesX4 is four of them through the four-way instance (compare
+ * with four times uniformEntry), publicKeyHash is tr = SHAKE256 of a
+ * DILITHIUM_3 public key. "bouncycastle" is SHAKEDigest, whose four-way
+ * instance runs the four one after another.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XofBenchmark {
+
+    @Param({"bouncycastle", "keccak"})
+    public String engine;
+
+    private Xof shake128;
+    private Xof shake256;
+    private Xof4 shake128x4;
+
+    private byte[] seed;
+    private byte[][] seeds;
+    private byte[] publicKey;
+    private byte[] block;
+    private byte[][] blocks;
+    private byte[] tr;
+
+    @Setup
+    public void setUp() {
+        XofEngine xofEngine = XofEngines.of(engine);
+        shake128 = xofEngine.shake128();
+        shake256 = xofEngine.shake256();
+        shake128x4 = xofEngine.shake128x4();
+
+        SplittableRandom random = new SplittableRandom(42);
+        seed = new byte[34];
+        random.nextBytes(seed);
+        seeds = new byte[4][];
+        for (int i = 0; i < 4; i++) {
+            seeds[i] = seed.clone();
+            seeds[i][32] = (byte) i;
+        }
+        publicKey = new byte[1952];
+        random.nextBytes(publicKey);
+        block = new byte[840];
+        blocks = new byte[4][840];
+        tr = new byte[64];
+    }
+
+    @Benchmark
+    public byte[] uniformEntry() {
+        shake128.reset();
+        shake128.update(seed, 0, seed.length);
+        shake128.squeeze(block, 0, block.length);
+        return block;
+    }
+
+    @Benchmark
+    public byte[][] uniformEntriesX4() {
+        shake128x4.reset();
+        shake128x4.update(seeds, 0, seed.length);
+        shake128x4.squeeze(blocks, 0, 840);
+        return blocks;
+    }
+
+    @Benchmark
+    public byte[] publicKeyHash() {
+        shake256.reset();
+        shake256.update(publicKey, 0, publicKey.length);
+        shake256.squeeze(tr, 0, tr.length);
+        return tr;
+    }
+}
@@ -0,0 +1,353 @@
+package com.pqc.fido2.loadtest;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pqc.fido2.PostQuantumFido2Application;
+import com.pqc.fido2.config.CryptoConfig;
+import com.pqc.fido2.crypto.ClassicalSignatureService;
+import com.pqc.fido2.crypto.DilithiumCryptoService;
+import com.pqc.fido2.crypto.MLDilithiumService;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load generator that drives full registration and login
+ * ceremonies against /auth with a {@link SoftwareAuthenticator}.
+ *
+ * Each worker thread runs one ceremony at a time. Recorded latency is the sum
+ * of the begin and complete round trips; client-side key generation and
+ * signing are excluded. Without --target the application is started in-process
+ * on a random port with the embedded H2 database, so client signing and server
+ * verification share the same CPUs.
+ *
+ * <pre>
+ * mvn test-compile exec:exec -Ploadtest -Dloadtest.args="--concurrency=16 --duration=60 --crypto=hybrid"
+ * </pre>
+ *
+ * Options: --target=URL, --concurrency=N, --duration=SECONDS, --warmup=SECONDS,
+ * --preregister=N, --login-ratio=0..1, --crypto=hybrid|post-quantum|classical,
+ * --format=webauthn|legacy, --rp-id=ID, --origin=URL, --percentiles
+ */
+public class LoadGenerator {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> JSON_MAP = new TypeReference<>() {};
+
+    // Per-request logging configured in application.yml would dominate the measurement
+    private static final String[] EMBEDDED_SERVER_ARGS = {
+        "--server.port=0",
+        "--logging.level.com.pqc.fido2=WARN",
+        "--logging.level.server.controller=WARN",
+        "--logging.level.org.springframework.web.servlet.DispatcherServlet=WARN",
+        "--logging.level.org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping=WARN",
+        "--logging.level.org.springframework.web.servlet.mvc.method.annotation.RequestResponseBodyMethodProcessor=WARN",
+        "--logging.level.org.springframework.web.servlet.mvc.method.annotation.HttpEntityMethodProcessor=WARN",
+        "--logging.level.org.springframework.web.filter.DelegatingFilterProxy=WARN"
+    };
+
+    private final String target;
+    private final Options options;
+    private final SoftwareAuthenticator authenticator;
+    private final HttpClient httpClient;
+
+    // Registered credentials not currently in use by a worker
+    private final ConcurrentLinkedQueue<SoftwareAuthenticator.SoftwareCredential> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicLong userSequence = new AtomicLong();
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Histogram registrations = newHistogram();
+    private final Histogram logins = newHistogram();
+    private final AtomicLong registrationErrors = new AtomicLong();
+    private final AtomicLong loginErrors = new AtomicLong();
+
+    public LoadGenerator(String target, Options options, MLDilithiumService mlDilithiumService,
+                         ClassicalSignatureService classicalSignatureService) {
+        this.target = target;
+        this.options = options;
+        this.authenticator = new SoftwareAuthenticator(mlDilithiumService, classicalSignatureService,
+            options.rpId, options.origin, options.webAuthn);
+        this.httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+
+        ConfigurableApplicationContext server = null;
+        String target = options.target;
+        if (target == null) {
+            server = SpringApplication.run(PostQuantumFido2Application.class, EMBEDDED_SERVER_ARGS);
+            target = "http://localhost:" + server.getEnvironment().getProperty("local.server.port");
+        }
+
+        // The authenticator's crypto runs in its own minimal context, independent of the server
+        try (AnnotationConfigApplicationContext crypto = new AnnotationConfigApplicationContext(
+                CryptoConfig.class, DilithiumCryptoService.class, ClassicalSignatureService.class,
+                MLDilithiumService.class)) {
+            LoadGenerator generator = new LoadGenerator(target, options,
+                crypto.getBean(MLDilithiumService.class), crypto.getBean(ClassicalSignatureService.class));
+            generator.run().print(System.out, options.percentiles);
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+
+    /**
+     * Pre-register credentials, warm up, then measure for the configured duration
+     */
+    public Report run() throws InterruptedException {
+        AtomicLong remaining = new AtomicLong(options.preregister);
+        runWorkers(() -> {
+            while (remaining.getAndDecrement() > 0) {
+                register();
+            }
+        });
+
+        if (options.warmupSeconds > 0) {
+            runFor(options.warmupSeconds);
+        }
+        reset();
+
+        long start = System.nanoTime();
+        runFor(options.durationSeconds);
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        return new Report(registrations.copy(), logins.copy(),
+            registrationErrors.get(), loginErrors.get(), elapsedSeconds);
+    }
+
+    private void runFor(int seconds) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        runWorkers(() -> {
+            while (System.nanoTime() < deadline) {
+                SoftwareAuthenticator.SoftwareCredential credential =
+                    ThreadLocalRandom.current().nextDouble() < options.loginRatio ? idle.poll() : null;
+                if (credential != null) {
+                    login(credential);
+                } else {
+                    register();
+                }
+            }
+        });
+    }
+
+    private void runWorkers(Runnable work) throws InterruptedException {
+        List<Thread> workers = new ArrayList<>(options.concurrency);
+        for (int i = 0; i < options.concurrency; i++) {
+            Thread worker = new Thread(work, "load-" + i);
+            worker.start();
+            workers.add(worker);
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    private void register() {
+        String username = "load-" + runId + "-" + userSequence.incrementAndGet();
+        SoftwareAuthenticator.SoftwareCredential credential = authenticator.createCredential(username, options.cryptoType);
+
+        try {
+            long begin = System.nanoTime();
+            Map<String, Object> challenge = post("/auth/register/begin", Map.of(
+                "username", username, "email", username + "@load.test",
+                "displayName", username, "cryptoType", options.cryptoType));
+            long elapsed = System.nanoTime() - begin;
+
+            Map<String, String> completion = authenticator.register(credential, challenge);
+
+            begin = System.nanoTime();
+            post("/auth/register/complete", completion);
+            elapsed += System.nanoTime() - begin;
+
+            registrations.recordValue(TimeUnit.NANOSECONDS.toMicros(elapsed));
+            idle.add(credential);
+        } catch (Exception e) {
+            registrationErrors.incrementAndGet();
+        }
+    }
+
+    private void login(SoftwareAuthenticator.SoftwareCredential credential) {
+        try {
+            long begin = System.nanoTime();
+            Map<String, Object> challenge = post("/auth/login/begin", Map.of(
+                "username", credential.getUsername(), "cryptoType", credential.getCryptoType()));
+            long elapsed = System.nanoTime() - begin;
+
+            Map<String, String> assertion = authenticator.authenticate(credential, challenge);
+
+            begin = System.nanoTime();
+            post("/auth/login/complete", assertion);
+            elapsed += System.nanoTime() - begin;
+
+            logins.recordValue(TimeUnit.NANOSECONDS.toMicros(elapsed));
+        } catch (Exception e) {
+            loginErrors.incrementAndGet();
+        } finally {
+            idle.add(credential);
+        }
+    }
+
+    private Map<String, Object> post(String path, Object body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(target + path))
+            .header("Content-Type", "application/json")
+            .timeout(Duration.ofSeconds(30))
+            .POST(HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(body)))
+            .build();
+        HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(path + " returned " + response.statusCode());
+        }
+        return MAPPER.readValue(response.body(), JSON_MAP);
+    }
+
+    private void reset() {
+        registrations.reset();
+        logins.reset();
+        registrationErrors.set(0);
+        loginErrors.set(0);
+    }
+
+    private static Histogram newHistogram() {
+        // Microseconds, auto-resizing, 3 significant digits
+        return new ConcurrentHistogram(3);
+    }
+
+    /**
+     * Command line options in --name=value form
+     */
+    public static class Options {
+        String target;
+        int concurrency = 8;
+        int durationSeconds = 30;
+        int warmupSeconds = 5;
+        int preregister = -1;
+        double loginRatio = 0.8;
+        String cryptoType = "hybrid";
+        boolean webAuthn = true;
+        String rpId = "localhost";
+        String origin = "http://localhost:3000";
+        boolean percentiles;
+
+        public static Options parse(String... args) {
+            Options options = new Options();
+            for (String arg : args) {
+                if (!arg.startsWith("--")) {
+                    throw new IllegalArgumentException("Unexpected argument: " + arg);
+                }
+                int separator = arg.indexOf('=');
+                String name = separator < 0 ? arg.substring(2) : arg.substring(2, separator);
+                String value = separator < 0 ? "true" : arg.substring(separator + 1);
+
+                switch (name) {
+                    case "target": options.target = value; break;
+                    case "concurrency": options.concurrency = Integer.parseInt(value); break;
+                    case "duration": options.durationSeconds = Integer.parseInt(value); break;
+                    case "warmup": options.warmupSeconds = Integer.parseInt(value); break;
+                    case "preregister": options.preregister = Integer.parseInt(value); break;
+                    case "login-ratio": options.loginRatio = Double.parseDouble(value); break;
+                    case "crypto": options.cryptoType = value; break;
+                    case "format": options.webAuthn = !"legacy".equals(value); break;
+                    case "rp-id": options.rpId = value; break;
+                    case "origin": options.origin = value; break;
+                    case "percentiles": options.percentiles = Boolean.parseBoolean(value); break;
+                    default: throw new IllegalArgumentException("Unknown option: --" + name);
+                }
+            }
+            if (!List.of("hybrid", "post-quantum", "classical").contains(options.cryptoType)) {
+                throw new IllegalArgumentException("Unknown crypto type: " + options.cryptoType);
+            }
+            if (options.concurrency < 1 || options.loginRatio < 0 || options.loginRatio > 1) {
+                throw new IllegalArgumentException("Invalid concurrency or login ratio");
+            }
+            if (options.preregister < 0) {
+                options.preregister = 2 * options.concurrency;
+            }
+            return options;
+        }
+    }
+
+    /**
+     * Latency distributions (microseconds) and error counts of the measured phase
+     */
+    public static class Report {
+        private final Histogram registrations;
+        private final Histogram logins;
+        private final long registrationErrors;
+        private final long loginErrors;
+        private final double elapsedSeconds;
+
+        Report(Histogram registrations, Histogram logins, long registrationErrors,
+               long loginErrors, double elapsedSeconds) {
+            this.registrations = registrations;
+            this.logins = logins;
+            this.registrationErrors = registrationErrors;
+            this.loginErrors = loginErrors;
+            this.elapsedSeconds = elapsedSeconds;
+        }
+
+        public Histogram getRegistrations() {
+            return registrations;
+        }
+
+        public Histogram getLogins() {
+            return logins;
+        }
+
+        public long getRegistrationErrors() {
+            return registrationErrors;
+        }
+
+        public long getLoginErrors() {
+            return loginErrors;
+        }
+
+        public double getElapsedSeconds() {
+            return elapsedSeconds;
+        }
+
+        public void print(PrintStream out, boolean percentiles) {
+            out.printf("%-10s %8s %7s %10s %9s %9s %9s %9s %9s%n",
+                "ceremony", "count", "errors", "ops/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+            printRow(out, "register", registrations, registrationErrors);
+            printRow(out, "login", logins, loginErrors);
+            long total = registrations.getTotalCount() + logins.getTotalCount();
+            out.printf("total: %d ceremonies in %.1f s (%.1f ops/s)%n", total, elapsedSeconds, total / elapsedSeconds);
+
+            if (percentiles) {
+                out.println("\nregister latency (ms):");
+                registrations.outputPercentileDistribution(out, 1000.0);
+                out.println("\nlogin latency (ms):");
+                logins.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+
+        private void printRow(PrintStream out, String name, Histogram histogram, long errors) {
+            out.printf("%-10s %8d %7d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                name, histogram.getTotalCount(), errors, histogram.getTotalCount() / elapsedSeconds,
+                histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(90) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0, histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0);
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.pqc.fido2.loadtest;
+
+import com.pqc.fido2.crypto.ClassicalSignatureService;
+import com.pqc.fido2.crypto.MLDilithiumKeyPair;
+import com.pqc.fido2.crypto.MLDilithiumService;
+import com.pqc.fido2.webauthn.AuthenticatorData;
+import com.pqc.fido2.webauthn.CborWriter;
+import com.pqc.fido2.webauthn.CoseKey;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Software authenticator for load generation. Creates ML-Dilithium and/or
+ * ES256 credentials and answers the challenges issued by /auth, either in
+ * the legacy request shape (signature over the raw challenge) or as WebAuthn
+ * attestation/assertion structures (signature over authData || SHA-256(clientDataJSON)).
+ * Registrations carry proof of possession: signatures over the challenge, or
+ * a packed self attestation.
+ */
+public class SoftwareAuthenticator {
+
+    /**
+     * COSE algorithm advertised for AKP (post-quantum) credential keys
+     */
+    static final int ALG_ML_DSA = -49;
+
+    private static final Base64.Encoder BASE64URL = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder BASE64URL_DECODER = Base64.getUrlDecoder();
+
+    private final MLDilithiumService mlDilithiumService;
+    private final ClassicalSignatureService classicalSignatureService;
+    private final String rpId;
+    private final String origin;
+    private final boolean webAuthn;
+
+    public SoftwareAuthenticator(MLDilithiumService mlDilithiumService,
+                                 ClassicalSignatureService classicalSignatureService,
+                                 String rpId, String origin, boolean webAuthn) {
+        this.mlDilithiumService = mlDilithiumService;
+        this.classicalSignatureService = classicalSignatureService;
+        this.rpId = rpId;
+        this.origin = origin;
+        this.webAuthn = webAuthn;
+    }
+
+    /**
+     * A credential held by the authenticator. Not thread-safe: the signature
+     * counter must advance in request order, so a credential is used by one
+     * ceremony at a time.
+     */
+    public static class SoftwareCredential {
+        private final String username;
+        private final String credentialId;
+        private final String cryptoType;
+        private final MLDilithiumKeyPair pqKeyPair;
+        private final KeyPair classicalKeyPair;
+        private int signCount;
+
+        SoftwareCredential(String username, String credentialId, String cryptoType,
+                           MLDilithiumKeyPair pqKeyPair, KeyPair classicalKeyPair) {
+            this.username = username;
+            this.credentialId = credentialId;
+            this.cryptoType = cryptoType;
+            this.pqKeyPair = pqKeyPair;
+            this.classicalKeyPair = classicalKeyPair;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public String getCredentialId() {
+            return credentialId;
+        }
+
+        public String getCryptoType() {
+            return cryptoType;
+        }
+    }
+
+    /**
+     * Create a new credential; cryptoType is hybrid, post-quantum or classical
+     */
+    public SoftwareCredential createCredential(String username, String cryptoType) {
+        boolean postQuantum = !"classical".equals(cryptoType);
+        boolean classical = !"post-quantum".equals(cryptoType);
+
+        byte[] id = new byte[16];
+        ByteBuffer.wrap(id)
+            .putLong(UUID.randomUUID().getMostSignificantBits())
+            .putLong(UUID.randomUUID().getLeastSignificantBits());
+
+        return new SoftwareCredential(username, BASE64URL.encodeToString(id), cryptoType,
+            postQuantum ? mlDilithiumService.generateMLKeyPair() : null,
+            classical ? generateEcKeyPair() : null);
+    }
+
+    /**
+     * Body for /auth/register/complete answering a /auth/register/begin response
+     */
+    public Map<String, String> register(SoftwareCredential credential, Map<String, Object> beginResponse) {
+        Map<String, String> body = new HashMap<>();
+        body.put("sessionId", (String) beginResponse.get("sessionId"));
+        body.put("username", credential.username);
+
+        String pqPublicKey = credential.pqKeyPair != null
+            ? BASE64URL.encodeToString(credential.pqKeyPair.getPublicKey().getEncoded())
+            : null;
+
+        if (!webAuthn) {
+            body.put("credentialId", credential.credentialId);
+            if (credential.classicalKeyPair != null) {
+                body.put("publicKey", BASE64URL.encodeToString(credential.classicalKeyPair.getPublic().getEncoded()));
+            }
+            if (pqPublicKey != null) {
+                body.put("pqPublicKey", pqPublicKey);
+            }
+            sign(credential, BASE64URL_DECODER.decode((String) beginResponse.get("challenge")), body);
+            return body;
+        }
+
+        // Hybrid credentials attest the classical key and send the PQ key alongside
+        byte[] coseKey = credential.classicalKeyPair != null
+            ? ecCoseKey((ECPublicKey) credential.classicalKeyPair.getPublic())
+            : new CborWriter()
+                .writeMapHeader(3)
+                .writeInt(1).writeInt(CoseKey.KTY_AKP)
+                .writeInt(3).writeInt(ALG_ML_DSA)
+                .writeInt(-1).writeByteString(credential.pqKeyPair.getPublicKey().getEncoded())
+                .toByteArray();
+        byte[] credentialId = BASE64URL_DECODER.decode(credential.credentialId);
+
+        ByteBuffer authData = ByteBuffer.allocate(37 + 16 + 2 + credentialId.length + coseKey.length);
+        authData.put(sha256(rpId.getBytes(StandardCharsets.UTF_8)))
+            .put((byte) (AuthenticatorData.FLAG_USER_PRESENT | AuthenticatorData.FLAG_ATTESTED_CREDENTIAL_DATA))
+            .putInt(0)
+            .put(new byte[16])
+            .putShort((short) credentialId.length)
+            .put(credentialId)
+            .put(coseKey);
+
+        // Packed self attestation: signed with the credential key itself, the classical one for hybrids
+        byte[] clientDataJson = clientData("webauthn.create", (String) beginResponse.get("challenge"));
+        byte[] signedData = ByteBuffer.allocate(authData.capacity() + 32)
+            .put(authData.array())
+            .put(sha256(clientDataJson))
+            .array();
+        Map<String, String> signatures = new HashMap<>();
+        sign(credential, signedData, signatures);
+        boolean classical = credential.classicalKeyPair != null;
+        byte[] attestationObject = new CborWriter()
+            .writeMapHeader(3)
+            .writeTextString("fmt").writeTextString("packed")
+            .writeTextString("attStmt").writeMapHeader(2)
+            .writeTextString("alg").writeInt(classical ? CoseKey.ALG_ES256 : ALG_ML_DSA)
+            .writeTextString("sig").writeByteString(BASE64URL_DECODER.decode(
+                signatures.get(classical ? "signature" : "pqSignature")))
+            .writeTextString("authData").writeByteString(authData.array())
+            .toByteArray();
+
+        body.put("attestationObject", BASE64URL.encodeToString(attestationObject));
+        body.put("clientDataJSON", BASE64URL.encodeToString(clientDataJson));
+        if (classical && pqPublicKey != null) {
+            body.put("pqPublicKey", pqPublicKey);
+            body.put("pqSignature", signatures.get("pqSignature"));
+        }
+        return body;
+    }
+
+    /**
+     * Body for /auth/login/complete answering a /auth/login/begin response
+     */
+    public Map<String, String> authenticate(SoftwareCredential credential, Map<String, Object> beginResponse) {
+        Map<String, String> body = new HashMap<>();
+        body.put("sessionId", (String) beginResponse.get("sessionId"));
+        body.put("credentialId", credential.credentialId);
+
+        String challenge = (String) beginResponse.get("challenge");
+        byte[] signedData;
+        if (webAuthn) {
+            byte[] clientDataJson = clientData("webauthn.get", challenge);
+            byte[] authData = ByteBuffer.allocate(37)
+                .put(sha256(rpId.getBytes(StandardCharsets.UTF_8)))
+                .put((byte) AuthenticatorData.FLAG_USER_PRESENT)
+                .putInt(++credential.signCount)
+                .array();
+            signedData = ByteBuffer.allocate(authData.length + 32)
+                .put(authData)
+                .put(sha256(clientDataJson))
+                .array();
+            body.put("authenticatorData", BASE64URL.encodeToString(authData));
+            body.put("clientDataJSON", BASE64URL.encodeToString(clientDataJson));
+        } else {
+            signedData = BASE64URL_DECODER.decode(challenge);
+        }
+
+        sign(credential, signedData, body);
+        return body;
+    }
+
+    /**
+     * Put signatures over the data with each of the credential's keys into the body
+     */
+    private void sign(SoftwareCredential credential, byte[] signedData, Map<String, String> body) {
+        if (credential.pqKeyPair != null) {
+            body.put("pqSignature", BASE64URL.encodeToString(
+                mlDilithiumService.signML(signedData, credential.pqKeyPair.getPrivateKey()).getEncoded()));
+        }
+        if (credential.classicalKeyPair != null) {
+            body.put("signature", BASE64URL.encodeToString(
+                classicalSignatureService.sign(signedData, credential.classicalKeyPair.getPrivate())));
+        }
+    }
+
+    private byte[] clientData(String type, String challenge) {
+        return ("{\"type\":\"" + type + "\",\"challenge\":\"" + challenge
+            + "\",\"origin\":\"" + origin + "\",\"crossOrigin\":false}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] ecCoseKey(ECPublicKey publicKey) {
+        return new CborWriter()
+            .writeMapHeader(5)
+            .writeInt(1).writeInt(CoseKey.KTY_EC2)
+            .writeInt(3).writeInt(CoseKey.ALG_ES256)
+            .writeInt(-1).writeInt(CoseKey.CRV_P256)
+            .writeInt(-2).writeByteString(fixedLength(publicKey.getW().getAffineX().toByteArray()))
+            .writeInt(-3).writeByteString(fixedLength(publicKey.getW().getAffineY().toByteArray()))
+            .toByteArray();
+    }
+
+    private static KeyPair generateEcKeyPair() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            return generator.generateKeyPair();
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to generate EC key pair", e);
+        }
+    }
+
+    private static byte[] fixedLength(byte[] unsigned) {
+        byte[] result = new byte[32];
+        int length = Math.min(unsigned.length, 32);
+        System.arraycopy(unsigned, unsigned.length - length, result, 32 - length, length);
+        return result;
+    }
+
+    private static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}